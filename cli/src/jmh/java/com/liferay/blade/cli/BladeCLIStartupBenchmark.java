@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.BladeTest.BladeTestBuilder;
+import com.liferay.blade.cli.util.FileUtil;
+
+import java.io.PrintStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes to run a blade command from scratch. The cold
+ * benchmark runs a single command in a fresh JVM against an empty
+ * <code>.blade</code> directory, the warm benchmark repeats the command in
+ * the same JVM once extensions have been cached.
+ *
+ * @author Christopher Bryan Boyd
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class BladeCLIStartupBenchmark {
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Fork(10)
+	@Measurement(iterations = 1)
+	@Warmup(iterations = 0)
+	public void coldStartup() throws Exception {
+		_run();
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		_tempPath = Files.createTempDirectory("blade-benchmark");
+
+		Path basePath = _tempPath.resolve("base");
+
+		if (Objects.equals(workspace, "none")) {
+			Files.createDirectories(basePath);
+		}
+		else {
+			Path testResourcesPath = Paths.get(System.getProperty("testResourcesPath", "test-resources"));
+
+			FileUtil.copyDir(testResourcesPath.resolve("projects/" + workspace), basePath);
+		}
+
+		_args = new String[] {"--base", String.valueOf(basePath), command};
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		FileUtil.deleteDirIfExists(_tempPath);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@Fork(1)
+	@Measurement(iterations = 10)
+	@Warmup(iterations = 5)
+	public void warmStartup() throws Exception {
+		_run();
+	}
+
+	private void _run() throws Exception {
+		BladeTestBuilder bladeTestBuilder = BladeTest.builder();
+
+		Path bladePath = _tempPath.resolve(".blade");
+
+		bladeTestBuilder.setAssertErrors(false);
+		bladeTestBuilder.setExtensionsDir(bladePath.resolve("extensions"));
+		bladeTestBuilder.setSettingsDir(bladePath);
+		bladeTestBuilder.setStdError(StringPrintStream.newInstance());
+		bladeTestBuilder.setStdOut(StringPrintStream.newInstance());
+
+		BladeTest bladeTest = bladeTestBuilder.build();
+
+		PrintStream err = System.err;
+		PrintStream out = System.out;
+
+		try {
+			bladeTest.run(_args);
+		}
+		finally {
+			System.setErr(err);
+			System.setOut(out);
+		}
+	}
+
+	@Param({"help", "version"})
+	public String command;
+
+	@Param({"none", "testws1"})
+	public String workspace;
+
+	private String[] _args;
+	private Path _tempPath;
+
+}
@@ -0,0 +1,524 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.FileUtil;
+import com.liferay.blade.cli.util.LinkDownloader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.math.BigInteger;
+
+import java.net.URL;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps downloaded artifacts under <code>~/.blade/cache/artifacts</code>,
+ * stored by the SHA-1 hash of their content and indexed by the link they were
+ * downloaded from, so that every command shares one copy of each archive.
+ *
+ * <p>
+ * A cached artifact is revalidated with a conditional request using the
+ * <code>ETag</code> and <code>Last-Modified</code> headers of the download
+ * instead of expiring after a fixed time, and is served as is when the server
+ * cannot be reached or the cache is offline. Once the cache grows beyond its
+ * maximum size the least recently used artifacts are evicted. The index is
+ * only locked against other blade processes while it is read or written, and
+ * never while an artifact is downloaded. An index entry that cannot be parsed
+ * is treated as a cache miss.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class ArtifactCache {
+
+	public ArtifactCache(Path cachePath) {
+		this(cachePath, false);
+	}
+
+	public ArtifactCache(Path cachePath, boolean offline) {
+		this(cachePath, offline, _DEFAULT_MAX_SIZE);
+	}
+
+	public ArtifactCache(Path cachePath, boolean offline, long maxSize) {
+		_cachePath = cachePath;
+		_offline = offline;
+		_maxSize = maxSize;
+
+		_indexPath = cachePath.resolve("index.properties");
+		_lockPath = cachePath.resolve(".lock");
+	}
+
+	/**
+	 * Returns the cached copy of the artifact at the given link, downloading
+	 * it when it is not cached yet or has been modified since it was cached.
+	 */
+	public Path get(String link) throws IOException {
+		if (_offline) {
+			Entry entry = _getEntry(_readIndex(), link);
+
+			if (entry == null) {
+				throw new IOException("Unable to download " + link + " while offline");
+			}
+
+			return _touch(link, entry);
+		}
+
+		Path downloadsPath = _cachePath.resolve("downloads");
+
+		Files.createDirectories(downloadsPath);
+
+		String linkHash = _digest(link.getBytes(StandardCharsets.UTF_8));
+
+		Path downloadPath = downloadsPath.resolve(linkHash);
+
+		Path lockPath = downloadsPath.resolve(linkHash + ".lock");
+
+		// Only the downloads of the same link wait for each other, the index
+		// stays unlocked while downloading. A file lock is held by the whole
+		// process, so the threads of this process wait on a monitor first.
+
+		Object linkLock = _linkLocks.computeIfAbsent(String.valueOf(lockPath.toAbsolutePath()), key -> new Object());
+
+		synchronized (linkLock) {
+			return _download(link, downloadPath, lockPath);
+		}
+	}
+
+	public Path getCachePath() {
+		return _cachePath;
+	}
+
+	/**
+	 * Returns the SHA-1 hash of the content of an artifact returned by
+	 * <code>get</code>.
+	 */
+	public String getHash(Path artifactPath) {
+		Path hashPath = artifactPath.getParent();
+
+		if ((hashPath == null) || !_cachePath.equals(hashPath.getParent())) {
+			throw new IllegalArgumentException(artifactPath + " is not an artifact of " + _cachePath);
+		}
+
+		return String.valueOf(hashPath.getFileName());
+	}
+
+	public boolean isOffline() {
+		return _offline;
+	}
+
+	private static String _digest(byte[] bytes) {
+		MessageDigest messageDigest = _newMessageDigest();
+
+		return String.format("%040x", new BigInteger(1, messageDigest.digest(bytes)));
+	}
+
+	private static String _digest(Path path) throws IOException {
+		MessageDigest messageDigest = _newMessageDigest();
+
+		ByteBuffer byteBuffer = ByteBuffer.allocateDirect(65536);
+
+		try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+			while (fileChannel.read(byteBuffer) != -1) {
+				byteBuffer.flip();
+
+				messageDigest.update(byteBuffer);
+
+				byteBuffer.clear();
+			}
+		}
+
+		return String.format("%040x", new BigInteger(1, messageDigest.digest()));
+	}
+
+	private static String _getFileName(String link) throws IOException {
+		URL url = new URL(link);
+
+		Path path = Paths.get(url.getPath());
+
+		Path fileName = path.getFileName();
+
+		if (fileName == null) {
+			return "artifact";
+		}
+
+		return fileName.toString();
+	}
+
+	private static void _moveAtomically(Path sourcePath, Path targetPath) throws IOException {
+		try {
+			Files.move(sourcePath, targetPath, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException amnse) {
+			Files.move(sourcePath, targetPath);
+		}
+		catch (FileAlreadyExistsException faee) {
+		}
+	}
+
+	private static MessageDigest _newMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new RuntimeException(nsae);
+		}
+	}
+
+	private Path _download(String link, Path downloadPath, Path lockPath) throws IOException {
+		try (FileChannel fileChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			FileLock fileLock = fileChannel.lock()) {
+
+			Entry entry = _getEntry(_readIndex(), link);
+
+			LinkDownloader linkDownloader = new LinkDownloader(link, downloadPath);
+
+			if ((entry != null) && (entry._eTag != null)) {
+				linkDownloader.setRequestProperty("If-None-Match", entry._eTag);
+			}
+
+			if ((entry != null) && (entry._lastModified != null)) {
+				linkDownloader.setRequestProperty("If-Modified-Since", entry._lastModified);
+			}
+
+			Path path;
+
+			try {
+				path = linkDownloader.download();
+			}
+			catch (IOException ioe) {
+				if (entry == null) {
+					throw ioe;
+				}
+
+				return _touch(link, entry);
+			}
+
+			if (path == null) {
+				return _touch(link, entry);
+			}
+
+			try {
+				String hash = _digest(downloadPath);
+
+				String fileName = _getFileName(link);
+
+				Path artifactPath = _getArtifactPath(hash, fileName);
+
+				Entry downloadedEntry = new Entry(
+					hash, fileName, System.currentTimeMillis(), linkDownloader.getETag(),
+					linkDownloader.getLastModified());
+
+				_updateIndex(
+					index -> {
+						if (Files.notExists(artifactPath)) {
+							Files.createDirectories(artifactPath.getParent());
+
+							_moveAtomically(downloadPath, artifactPath);
+						}
+
+						index.setProperty(link, downloadedEntry.toString());
+
+						_evict(index, link);
+					});
+
+				return artifactPath;
+			}
+			finally {
+				Files.deleteIfExists(downloadPath);
+			}
+		}
+	}
+
+	/**
+	 * Removes the least recently used links, other than the given one, until
+	 * the artifacts fit in the maximum size. An artifact is deleted once no
+	 * link refers to it anymore.
+	 */
+	private void _evict(Properties index, String link) throws IOException {
+		Map<String, Entry> entries = new HashMap<>();
+		Map<String, Long> sizes = new HashMap<>();
+
+		for (String key : index.stringPropertyNames()) {
+			Entry entry = Entry.parse(index.getProperty(key));
+
+			if (entry == null) {
+				index.remove(key);
+
+				continue;
+			}
+
+			Path artifactPath = _getArtifactPath(entry._hash, entry._fileName);
+
+			if (Files.exists(artifactPath)) {
+				entries.put(key, entry);
+
+				sizes.put(entry._hash, Files.size(artifactPath));
+			}
+		}
+
+		long size = 0;
+
+		for (long artifactSize : sizes.values()) {
+			size += artifactSize;
+		}
+
+		if (size <= _maxSize) {
+			return;
+		}
+
+		List<String> keys = new ArrayList<>(entries.keySet());
+
+		keys.sort(Comparator.comparingLong(key -> entries.get(key)._accessTime));
+
+		for (String key : keys) {
+			if (size <= _maxSize) {
+				break;
+			}
+
+			if (Objects.equals(key, link)) {
+				continue;
+			}
+
+			Entry entry = entries.remove(key);
+
+			index.remove(key);
+
+			boolean referenced = false;
+
+			for (Entry remainingEntry : entries.values()) {
+				if (Objects.equals(remainingEntry._hash, entry._hash)) {
+					referenced = true;
+
+					break;
+				}
+			}
+
+			if (!referenced) {
+				FileUtil.deleteDir(_cachePath.resolve(entry._hash));
+
+				size -= sizes.get(entry._hash);
+			}
+		}
+	}
+
+	private Path _getArtifactPath(String hash, String fileName) {
+		Path hashPath = _cachePath.resolve(hash);
+
+		return hashPath.resolve(fileName);
+	}
+
+	private Entry _getEntry(Properties index, String link) {
+		String value = index.getProperty(link);
+
+		if (value == null) {
+			return null;
+		}
+
+		Entry entry = Entry.parse(value);
+
+		if ((entry == null) || Files.notExists(_getArtifactPath(entry._hash, entry._fileName))) {
+			return null;
+		}
+
+		return entry;
+	}
+
+	private Properties _loadIndex() throws IOException {
+		Properties index = new Properties();
+
+		if (Files.exists(_indexPath)) {
+			try (InputStream inputStream = Files.newInputStream(_indexPath)) {
+				index.load(inputStream);
+			}
+			catch (IllegalArgumentException iae) {
+				index.clear();
+			}
+		}
+
+		return index;
+	}
+
+	private Properties _readIndex() throws IOException {
+		return _withIndexLock(this::_loadIndex);
+	}
+
+	private void _storeIndex(Properties index) throws IOException {
+		Path tempPath = Files.createTempFile(_cachePath, "index", ".tmp");
+
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+				index.store(outputStream, null);
+			}
+
+			try {
+				Files.move(
+					tempPath, _indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, _indexPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private Path _touch(String link, Entry entry) throws IOException {
+		entry._accessTime = System.currentTimeMillis();
+
+		_updateIndex(index -> index.setProperty(link, entry.toString()));
+
+		return _getArtifactPath(entry._hash, entry._fileName);
+	}
+
+	/**
+	 * Reads the index, lets the update change it and writes it back, all
+	 * while the index is locked against other blade processes.
+	 */
+	private void _updateIndex(IndexUpdate indexUpdate) throws IOException {
+		_withIndexLock(
+			() -> {
+				Properties index = _loadIndex();
+
+				indexUpdate.update(index);
+
+				_storeIndex(index);
+
+				return null;
+			});
+	}
+
+	private <T> T _withIndexLock(IndexCallable<T> indexCallable) throws IOException {
+		synchronized (_indexLock) {
+			Files.createDirectories(_cachePath);
+
+			try (FileChannel fileChannel = FileChannel.open(
+					_lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+				FileLock fileLock = fileChannel.lock()) {
+
+				return indexCallable.call();
+			}
+		}
+	}
+
+	private static final long _DEFAULT_MAX_SIZE = 2L * 1024 * 1024 * 1024;
+
+	private static final Object _indexLock = new Object();
+	private static final Map<String, Object> _linkLocks = new ConcurrentHashMap<>();
+
+	private final Path _cachePath;
+	private final Path _indexPath;
+	private final Path _lockPath;
+	private final long _maxSize;
+	private final boolean _offline;
+
+	/**
+	 * The index value of a link, holding the hash and file name of its
+	 * artifact, when it was last used and the validators of its download.
+	 */
+	private static class Entry {
+
+		/**
+		 * Returns the entry of the given index value, or <code>null</code> if
+		 * the value cannot be parsed.
+		 */
+		public static Entry parse(String value) {
+			String[] parts = value.split("\t", -1);
+
+			if (parts.length != 5) {
+				return null;
+			}
+
+			try {
+				return new Entry(
+					parts[0], parts[1], Long.parseLong(parts[2]), _toNull(parts[3]), _toNull(parts[4]));
+			}
+			catch (NumberFormatException nfe) {
+				return null;
+			}
+		}
+
+		public Entry(String hash, String fileName, long accessTime, String eTag, String lastModified) {
+			_hash = hash;
+			_fileName = fileName;
+			_accessTime = accessTime;
+			_eTag = eTag;
+			_lastModified = lastModified;
+		}
+
+		@Override
+		public String toString() {
+			return String.join(
+				"\t", _hash, _fileName, String.valueOf(_accessTime), Objects.toString(_eTag, ""),
+				Objects.toString(_lastModified, ""));
+		}
+
+		private static String _toNull(String value) {
+			if (value.isEmpty()) {
+				return null;
+			}
+
+			return value;
+		}
+
+		private long _accessTime;
+		private final String _eTag;
+		private final String _fileName;
+		private final String _hash;
+		private final String _lastModified;
+
+	}
+
+	private interface IndexCallable<T> {
+
+		public T call() throws IOException;
+
+	}
+
+	private interface IndexUpdate {
+
+		public void update(Properties index) throws IOException;
+
+	}
+
+}
@@ -20,13 +20,10 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.MissingCommandException;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
-import com.beust.jcommander.Parameters;
 
 import com.liferay.blade.cli.command.BaseArgs;
 import com.liferay.blade.cli.command.BaseCommand;
-import com.liferay.blade.cli.command.BladeProfile;
-import com.liferay.blade.cli.command.UpdateArgs;
-import com.liferay.blade.cli.command.UpdateCommand;
+import com.liferay.blade.cli.command.UpdateCheck;
 import com.liferay.blade.cli.command.VersionCommand;
 import com.liferay.blade.cli.command.validator.ParameterPossibleValues;
 import com.liferay.blade.cli.command.validator.ParametersValidator;
@@ -38,7 +35,6 @@ import java.io.Console;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PrintStream;
 
 import java.lang.reflect.Field;
@@ -46,15 +42,11 @@ import java.lang.reflect.Field;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Formatter;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -62,12 +54,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Properties;
 import java.util.Scanner;
 import java.util.ServiceLoader;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -83,11 +73,18 @@ public class BladeCLI {
 			String profileName, ClassLoader classLoader)
 		throws IllegalAccessException, InstantiationException {
 
-		Collection<BaseCommand<?>> allCommands = _getCommandsByClassLoader(classLoader);
+		Collection<CommandDescriptor> allCommands;
 
-		Map<String, BaseCommand<?>> commandMap = new HashMap<>();
+		try {
+			allCommands = CommandIndex.load(classLoader);
+		}
+		catch (IOException ioe) {
+			throw new RuntimeException(ioe);
+		}
 
-		Collection<BaseCommand<?>> commandsToRemove = new ArrayList<>();
+		Map<String, CommandDescriptor> commandMap = new LinkedHashMap<>();
+
+		Collection<CommandDescriptor> commandsToRemove = new ArrayList<>();
 
 		boolean profileNameIsPresent = false;
 
@@ -95,26 +92,26 @@ public class BladeCLI {
 			profileNameIsPresent = true;
 		}
 
-		for (BaseCommand<?> baseCommand : allCommands) {
-			Collection<String> profileNames = _getBladeProfiles(baseCommand.getClass());
+		for (CommandDescriptor commandDescriptor : allCommands) {
+			Collection<String> profileNames = commandDescriptor.getProfileNames();
 
 			if (profileNameIsPresent && profileNames.contains(profileName)) {
-				_addCommand(commandMap, baseCommand);
+				commandMap.putIfAbsent(commandDescriptor.getName(), commandDescriptor);
 
-				commandsToRemove.add(baseCommand);
+				commandsToRemove.add(commandDescriptor);
 			}
 			else if ((profileNames != null) && !profileNames.isEmpty()) {
-				commandsToRemove.add(baseCommand);
+				commandsToRemove.add(commandDescriptor);
 			}
 		}
 
 		allCommands.removeAll(commandsToRemove);
 
-		for (BaseCommand<?> baseCommand : allCommands) {
-			_addCommand(commandMap, baseCommand);
+		for (CommandDescriptor commandDescriptor : allCommands) {
+			commandMap.putIfAbsent(commandDescriptor.getName(), commandDescriptor);
 		}
 
-		return commandMap;
+		return new CommandMap(commandMap);
 	}
 
 	public static void main(String[] args) {
@@ -175,6 +172,18 @@ public class BladeCLI {
 		return _args;
 	}
 
+	public ArtifactCache getArtifactCache() {
+		Path cachePath = getCachePath();
+
+		boolean offline = false;
+
+		if (_args != null) {
+			offline = _args.isOffline();
+		}
+
+		return new ArtifactCache(cachePath.resolve("artifacts"), offline);
+	}
+
 	public BladeSettings getBladeSettings() throws IOException {
 		File settingsBaseDir = _getSettingsBaseDir();
 
@@ -193,10 +202,35 @@ public class BladeCLI {
 		return new BladeSettings(settingsFile);
 	}
 
+	public Path getCachePath() {
+		Path extensionsPath = getExtensionsPath();
+
+		Path cachePath = extensionsPath.resolveSibling("cache");
+
+		try {
+			Files.createDirectories(cachePath);
+		}
+		catch (IOException ioe) {
+			throw new RuntimeException(ioe);
+		}
+
+		return cachePath;
+	}
+
 	public BaseCommand<?> getCommand() {
 		return _baseCommand;
 	}
 
+	/**
+	 * Returns the path of the deploy ledger for the framework at the given
+	 * address, under the cache directory.
+	 */
+	public Path getDeployLedgerPath(String host, int port) {
+		Path cachePath = getCachePath();
+
+		return DeployLedger.getLedgerPath(cachePath.resolve("deploy-ledger"), host, port);
+	}
+
 	public Extensions getExtensions() {
 		if (_extensions == null) {
 			ClassLoader classLoader = _getClassLoader();
@@ -227,8 +261,12 @@ public class BladeCLI {
 		return extensions;
 	}
 
+	public StartupProfiler getStartupProfiler() {
+		return _startupProfiler;
+	}
+
 	public WorkspaceProvider getWorkspaceProvider(File dir) {
-		try {
+		try (StartupProfiler.Phase phase = _startupProfiler.start("workspace detection")) {
 			Collection<WorkspaceProvider> providers = _getWorkspaceProviders();
 
 			for (WorkspaceProvider provider : providers) {
@@ -264,11 +302,9 @@ public class BladeCLI {
 	}
 
 	public void postRunCommand() {
-		if (_shouldCheckForUpdates()) {
-			try {
-				_writeLastUpdateCheck();
-
-				_printUpdateIfAvailable();
+		if (_updateCheck != null) {
+			try (StartupProfiler.Phase phase = _startupProfiler.start("update check")) {
+				_updateCheck.printUpdateIfAvailable(this);
 			}
 			catch (IOException ioe) {
 				error(ioe);
@@ -276,10 +312,33 @@ public class BladeCLI {
 		}
 	}
 
+	public void preRunCommand() {
+		if (_command.contains("update") || ((_args != null) && _args.isOffline())) {
+			return;
+		}
+
+		try {
+			String currentVersion = VersionCommand.getBladeCLIVersion();
+
+			if (currentVersion != null) {
+				Path userBladePath = _getUserBladePath();
+
+				_updateCheck = new UpdateCheck(userBladePath.resolve("update-check"), currentVersion);
+
+				_updateCheck.start();
+			}
+		}
+		catch (IOException ioe) {
+			trace("Unable to determine the blade version, skipping update check: %s", ioe.getMessage());
+		}
+	}
+
 	public void printUsage() {
 		StringBuilder usageString = new StringBuilder();
 
-		_jCommander.usage(usageString);
+		JCommander jCommander = _getUsageJCommander();
+
+		jCommander.usage(usageString);
 
 		try (Scanner scanner = new Scanner(usageString.toString())) {
 			StringBuilder simplifiedUsageString = new StringBuilder();
@@ -299,15 +358,24 @@ public class BladeCLI {
 	}
 
 	public void printUsage(String command) {
-		_jCommander.usage(command);
+		JCommander jCommander = _getUsageJCommander();
+
+		jCommander.usage(command);
 	}
 
 	public void printUsage(String command, String message) {
 		out(message);
-		_jCommander.usage(command);
+
+		JCommander jCommander = _getUsageJCommander();
+
+		jCommander.usage(command);
 	}
 
 	public void run(String[] args) throws Exception {
+		List<String> argsList = Arrays.asList(args);
+
+		_startupProfiler = new StartupProfiler(argsList.contains("--profile-startup"));
+
 		try {
 			Extensions extensions = getExtensions();
 
@@ -325,19 +393,27 @@ public class BladeCLI {
 
 			System.setErr(error());
 
-			BladeSettings bladeSettings = getBladeSettings();
+			BladeSettings bladeSettings;
 
-			if (profileName != null) {
-				bladeSettings.setProfileName(profileName);
-			}
+			try (StartupProfiler.Phase phase = _startupProfiler.start("settings")) {
+				bladeSettings = getBladeSettings();
 
-			bladeSettings.migrateWorkspaceIfNecessary(this);
+				if (profileName != null) {
+					bladeSettings.setProfileName(profileName);
+				}
 
-			_commands = extensions.getCommands(bladeSettings.getProfileName());
+				bladeSettings.migrateWorkspaceIfNecessary(this);
+			}
 
-			args = Extensions.sortArgs(_commands, args);
+			try (StartupProfiler.Phase phase = _startupProfiler.start("commands")) {
+				_commands = extensions.getCommands(bladeSettings.getProfileName());
 
-			_jCommander = _buildJCommanderWithCommandMap(_commands);
+				args = Extensions.sortArgs(_commands, args);
+			}
+
+			try (StartupProfiler.Phase phase = _startupProfiler.start("jcommander")) {
+				_jCommander = _buildJCommanderWithCommandMap(_getCommandsToParse(args));
+			}
 
 			if ((args.length == 1) && args[0].equals("--help")) {
 				printUsage();
@@ -346,7 +422,7 @@ public class BladeCLI {
 				try {
 					ParameterException parameterException = null;
 
-					try {
+					try (StartupProfiler.Phase phase = _startupProfiler.start("parse")) {
 						_jCommander.parse(args);
 					}
 					catch (ParameterException pe) {
@@ -437,7 +513,7 @@ public class BladeCLI {
 								try {
 									parameterException = null;
 
-									_jCommander = _buildJCommanderWithCommandMap(_commands);
+									_jCommander = _buildJCommanderWithCommandMap(_getCommandsToParse(args));
 
 									_jCommander.parse(args);
 								}
@@ -470,7 +546,11 @@ public class BladeCLI {
 
 							_args.setBase(baseDir);
 
-							runCommand();
+							preRunCommand();
+
+							try (StartupProfiler.Phase phase = _startupProfiler.start("command " + command)) {
+								runCommand();
+							}
 
 							postRunCommand();
 						}
@@ -507,6 +587,8 @@ public class BladeCLI {
 			error(e);
 		}
 		finally {
+			_startupProfiler.print(error());
+
 			if (_extensionsClassLoaderSupplier != null) {
 				_extensionsClassLoaderSupplier.close();
 			}
@@ -562,14 +644,6 @@ public class BladeCLI {
 		}
 	}
 
-	private static void _addCommand(Map<String, BaseCommand<?>> map, BaseCommand<?> baseCommand)
-		throws IllegalAccessException, InstantiationException {
-
-		String[] commandNames = _getCommandNames(baseCommand);
-
-		map.putIfAbsent(commandNames[0], baseCommand);
-	}
-
 	private static JCommander _buildJCommanderWithCommandMap(Map<String, BaseCommand<? extends BaseArgs>> commandMap) {
 		JCommander.Builder builder = JCommander.newBuilder();
 
@@ -606,37 +680,6 @@ public class BladeCLI {
 		return defaultBasePath;
 	}
 
-	private static Collection<String> _getBladeProfiles(Class<?> commandClass) {
-		return Stream.of(
-			commandClass.getAnnotationsByType(BladeProfile.class)
-		).filter(
-			Objects::nonNull
-		).map(
-			BladeProfile::value
-		).collect(
-			Collectors.toList()
-		);
-	}
-
-	private static String[] _getCommandNames(BaseCommand<?> baseCommand)
-		throws IllegalAccessException, InstantiationException {
-
-		Class<? extends BaseArgs> baseArgsClass = baseCommand.getArgsClass();
-
-		BaseArgs baseArgs = baseArgsClass.newInstance();
-
-		baseCommand.setArgs(baseArgs);
-
-		Parameters parameters = baseArgsClass.getAnnotation(Parameters.class);
-
-		if (parameters == null) {
-			throw new IllegalArgumentException(
-				"Loaded base command class that does not have a Parameters annotation " + baseArgsClass.getName());
-		}
-
-		return parameters.commandNames();
-	}
-
 	private static String _getCommandProfile(String[] args) throws MissingCommandException {
 		final Collection<String> profileFlags = new HashSet<>();
 
@@ -677,43 +720,6 @@ public class BladeCLI {
 		return profile;
 	}
 
-	@SuppressWarnings("rawtypes")
-	private static Collection<BaseCommand<?>> _getCommandsByClassLoader(ClassLoader classLoader) {
-		Collection<BaseCommand<?>> allCommands = new ArrayList<>();
-
-		ServiceLoader<BaseCommand> serviceLoader = ServiceLoader.load(BaseCommand.class, classLoader);
-
-		Iterator<BaseCommand> baseCommandIterator = serviceLoader.iterator();
-
-		while (baseCommandIterator.hasNext()) {
-			try {
-				BaseCommand<?> baseCommand = baseCommandIterator.next();
-
-				baseCommand.setClassLoader(classLoader);
-
-				allCommands.add(baseCommand);
-			}
-			catch (Throwable e) {
-				Class<?> throwableClass = e.getClass();
-
-				System.err.println(
-					"Exception thrown while loading extension." + System.lineSeparator() + "Exception: " +
-						throwableClass.getName() + ": " + e.getMessage() + System.lineSeparator());
-
-				Throwable cause = e.getCause();
-
-				if (cause != null) {
-					Class<?> throwableCauseClass = cause.getClass();
-
-					System.err.print(
-						throwableCauseClass.getName() + ": " + cause.getMessage() + System.lineSeparator());
-				}
-			}
-		}
-
-		return allCommands;
-	}
-
 	@SuppressWarnings("unchecked")
 	private static <T extends BaseArgs> void _validateParameters(T args) throws IllegalArgumentException {
 		try {
@@ -794,12 +800,31 @@ public class BladeCLI {
 
 	private ClassLoader _getClassLoader() {
 		if (_extensionsClassLoaderSupplier == null) {
-			_extensionsClassLoaderSupplier = new ExtensionsClassLoaderSupplier(getExtensionsPath());
+			try (StartupProfiler.Phase phase = _startupProfiler.start("extensions class loader")) {
+				Path cachePath = getCachePath();
+
+				_extensionsClassLoaderSupplier = new ExtensionsClassLoaderSupplier(
+					getExtensionsPath(), cachePath.resolve("extensions"));
+
+				return _extensionsClassLoaderSupplier.get();
+			}
 		}
 
 		return _extensionsClassLoaderSupplier.get();
 	}
 
+	private Map<String, BaseCommand<? extends BaseArgs>> _getCommandsToParse(String[] args) {
+		if ((args.length > 0) && _commands.containsKey(args[0])) {
+			BaseCommand<? extends BaseArgs> baseCommand = _commands.get(args[0]);
+
+			if (baseCommand != null) {
+				return Collections.singletonMap(args[0], baseCommand);
+			}
+		}
+
+		return _commands;
+	}
+
 	private String _getMessageFromPossibleValues(Map<String, String> optionsMap) {
 		StringBuilder sb = new StringBuilder();
 
@@ -886,55 +911,14 @@ public class BladeCLI {
 		return settingsBaseDir;
 	}
 
-	private Path _getUpdateCheckPath() throws IOException {
-		Path userBladePath = _getUserBladePath();
-
-		return userBladePath.resolve("updateCheck.properties");
-	}
-
-	private String _getUpdateVersionIfAvailable(boolean snapshots) {
-		UpdateArgs updateArgs = new UpdateArgs();
-
-		updateArgs.setCheckOnly(true);
-
-		UpdateCommand updateCommand = new UpdateCommand();
-
-		updateCommand.setArgs(updateArgs);
-
-		updateCommand.setBlade(this);
-
-		StringPrintStream stdOut = StringPrintStream.newInstance();
-
-		PrintStream currentStdOut = System.out;
-
-		try {
-			System.setOut(stdOut);
-
-			_out = System.out;
-
-			updateCommand.execute();
-		}
-		finally {
-			System.setOut(currentStdOut);
-
-			_out = System.out;
-		}
-
-		if (snapshots) {
-			String snapshotUpdateVersion = updateCommand.getSnapshotUpdateVersion();
-
-			if (snapshotUpdateVersion == null) {
-				return null;
-			}
-
-			snapshotUpdateVersion = snapshotUpdateVersion.substring(0, 14) + snapshotUpdateVersion.substring(15, 19);
-
-			snapshotUpdateVersion = snapshotUpdateVersion.replace('-', '.');
+	private JCommander _getUsageJCommander() {
+		Map<String, JCommander> jCommands = _jCommander.getCommands();
 
-			return snapshotUpdateVersion.trim();
+		if ((_commands != null) && (jCommands.size() < _commands.size())) {
+			_jCommander = _buildJCommanderWithCommandMap(_commands);
 		}
 
-		return updateCommand.getReleaseUpdateVersion();
+		return _jCommander;
 	}
 
 	private Path _getUserBladePath() {
@@ -1016,42 +1000,6 @@ public class BladeCLI {
 		}
 	}
 
-	private void _printUpdateIfAvailable() throws IOException {
-		String releaseUpdateVersion = _getUpdateVersionIfAvailable(false);
-
-		String currentVersion = VersionCommand.getBladeCLIVersion();
-
-		boolean currentVersionIsSnapshot = currentVersion.contains("SNAPSHOT");
-
-		currentVersion = currentVersion.replace("SNAPSHOT", "");
-
-		if (!currentVersionIsSnapshot) {
-			currentVersion = currentVersion.substring(0, 5);
-		}
-
-		if (currentVersionIsSnapshot) {
-			String snapshotUpdateVersion = _getUpdateVersionIfAvailable(true);
-
-			if ((releaseUpdateVersion != null) && (snapshotUpdateVersion != null)) {
-				out("Updates available to the installed version: " + currentVersion);
-				out("-> (Snapshot) " + snapshotUpdateVersion + "\t Run `blade update` to install");
-				out("-> (Release) " + releaseUpdateVersion + "\t\t\t Run `blade update -r` to install");
-			}
-			else if (snapshotUpdateVersion != null) {
-				out("Update available " + currentVersion + " -> " + snapshotUpdateVersion);
-				out("Run `blade update` to install");
-			}
-			else if (releaseUpdateVersion != null) {
-				out("Update available " + currentVersion + " -> " + releaseUpdateVersion);
-				out("Run `blade update -r` to install");
-			}
-		}
-		else if (releaseUpdateVersion != null) {
-			out("Update available " + currentVersion + " -> " + releaseUpdateVersion);
-			out("Run `blade update` to install");
-		}
-	}
-
 	private String _promptForMissingParameter(Object commandArgs, Optional<String> missingParameterOptional) {
 		String value = null;
 
@@ -1179,59 +1127,8 @@ public class BladeCLI {
 		}
 	}
 
-	private boolean _shouldCheckForUpdates() {
-		try {
-			if (_command.contains("update")) {
-				return false;
-			}
-
-			Path updateCheckPath = _getUpdateCheckPath();
-
-			if (!Files.exists(updateCheckPath)) {
-				return true;
-			}
-
-			Properties properties = new Properties();
-
-			try (InputStream inputStream = Files.newInputStream(updateCheckPath)) {
-				properties.load(inputStream);
-			}
-
-			Instant lastUpdateCheck = Instant.ofEpochMilli(
-				Long.parseLong(properties.getProperty(_LAST_UPDATE_CHECK_KEY)));
-
-			Instant now = Instant.now();
-
-			Instant yesterday = now.minus(1, ChronoUnit.DAYS);
-
-			if (yesterday.isAfter(lastUpdateCheck)) {
-				return true;
-			}
-		}
-		catch (Exception ioe) {
-		}
-
-		return false;
-	}
-
-	private void _writeLastUpdateCheck() throws IOException {
-		Path updateCheckPath = _getUpdateCheckPath();
-
-		Properties properties = new Properties();
-
-		Instant now = Instant.now();
-
-		properties.put(_LAST_UPDATE_CHECK_KEY, String.valueOf(now.toEpochMilli()));
-
-		try (OutputStream outputStream = Files.newOutputStream(updateCheckPath)) {
-			properties.store(outputStream, null);
-		}
-	}
-
 	private static final String _BLADE_PROPERTIES = ".blade.properties";
 
-	private static final String _LAST_UPDATE_CHECK_KEY = "lastUpdateCheck";
-
 	private static final String _MESSAGE_OPTION_IS_REQUIRED = "The following option is required: ";
 
 	private static final String _MESSAGE_OPTIONS_ARE_REQUIRED = "The following options are required: ";
@@ -1250,6 +1147,8 @@ public class BladeCLI {
 	private final InputStream _in;
 	private JCommander _jCommander;
 	private PrintStream _out;
+	private StartupProfiler _startupProfiler = new StartupProfiler(false);
+	private UpdateCheck _updateCheck;
 	private Collection<WorkspaceProvider> _workspaceProviders = null;
 
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import aQute.bnd.header.Attrs;
+import aQute.bnd.header.Parameters;
+import aQute.bnd.osgi.Domain;
+import aQute.bnd.osgi.Processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.math.BigInteger;
+
+import java.nio.file.Files;
+
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of a bundle manifest that decide in which order bundles have to
+ * be deployed, read once per file.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class BundleArtifact {
+
+	/**
+	 * Returns the artifact for the given jar, or <code>null</code> if the jar
+	 * is not a bundle.
+	 */
+	public static BundleArtifact read(File file) throws IOException {
+		Domain domain = Domain.domain(file);
+
+		if (domain == null) {
+			return null;
+		}
+
+		Map.Entry<String, Attrs> bsn = domain.getBundleSymbolicName();
+
+		if (bsn == null) {
+			return null;
+		}
+
+		Map.Entry<String, Attrs> fragmentHost = domain.getFragmentHost();
+
+		String fragmentHostBsn = null;
+
+		if (fragmentHost != null) {
+			fragmentHostBsn = fragmentHost.getKey();
+		}
+
+		return new BundleArtifact(
+			file, bsn.getKey(), domain.getBundleVersion(), fragmentHostBsn,
+			_getPackageNames(domain.getExportPackage()), _getPackageNames(domain.getImportPackage()));
+	}
+
+	public BundleArtifact(
+		File file, String bsn, String version, String fragmentHost, Set<String> exportPackages,
+		Set<String> importPackages) {
+
+		_file = file;
+		_bsn = bsn;
+		_version = version;
+		_fragmentHost = fragmentHost;
+		_exportPackages = exportPackages;
+		_importPackages = importPackages;
+	}
+
+	public String getBsn() {
+		return _bsn;
+	}
+
+	/**
+	 * Returns the SHA-256 digest of the jar, computed on first use.
+	 */
+	public synchronized String getDigest() throws IOException {
+		if (_digest == null) {
+			MessageDigest messageDigest = _newMessageDigest();
+
+			try (InputStream inputStream = Files.newInputStream(_file.toPath());
+				DigestInputStream digestInputStream = new DigestInputStream(inputStream, messageDigest)) {
+
+				byte[] buffer = new byte[8192];
+
+				while (digestInputStream.read(buffer) != -1) {
+				}
+			}
+
+			_digest = String.format("%064x", new BigInteger(1, messageDigest.digest()));
+		}
+
+		return _digest;
+	}
+
+	public Set<String> getExportPackages() {
+		return _exportPackages;
+	}
+
+	public File getFile() {
+		return _file;
+	}
+
+	public String getFragmentHost() {
+		return _fragmentHost;
+	}
+
+	public Set<String> getImportPackages() {
+		return _importPackages;
+	}
+
+	public String getVersion() {
+		return _version;
+	}
+
+	public boolean isFragment() {
+		if (_fragmentHost != null) {
+			return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return _bsn;
+	}
+
+	private static Set<String> _getPackageNames(Parameters parameters) {
+		if (parameters == null) {
+			return Collections.emptySet();
+		}
+
+		Set<String> packageNames = new HashSet<>();
+
+		for (String key : parameters.keySet()) {
+			packageNames.add(Processor.removeDuplicateMarker(key));
+		}
+
+		return packageNames;
+	}
+
+	private static MessageDigest _newMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new RuntimeException(nsae);
+		}
+	}
+
+	private final String _bsn;
+	private String _digest;
+	private final Set<String> _exportPackages;
+	private final File _file;
+	private final String _fragmentHost;
+	private final Set<String> _importPackages;
+	private final String _version;
+
+}
@@ -0,0 +1,378 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import java.io.File;
+import java.io.PrintStream;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Deploys a set of bundles in dependency order. Bundles that do not depend on
+ * each other are installed or updated concurrently over a bounded number of
+ * deployer sessions, after which the fragment hosts are refreshed and the
+ * bundles are started once for the whole set.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class BundleDeployScheduler {
+
+	/**
+	 * Groups the bundles into levels so that every bundle only depends on
+	 * bundles of earlier levels. A bundle depends on its fragment host and on
+	 * the bundles exporting the packages it imports, as far as they are part
+	 * of the given set. Bundles that are part of a dependency cycle end up in
+	 * the same level.
+	 */
+	public static List<List<BundleArtifact>> getLevels(Collection<BundleArtifact> bundleArtifacts) {
+		Map<String, BundleArtifact> bsnBundleArtifacts = new HashMap<>();
+		Map<String, BundleArtifact> exportPackageBundleArtifacts = new HashMap<>();
+
+		for (BundleArtifact bundleArtifact : bundleArtifacts) {
+			bsnBundleArtifacts.put(bundleArtifact.getBsn(), bundleArtifact);
+
+			for (String exportPackage : bundleArtifact.getExportPackages()) {
+				exportPackageBundleArtifacts.putIfAbsent(exportPackage, bundleArtifact);
+			}
+		}
+
+		Map<BundleArtifact, Set<BundleArtifact>> dependencies = new LinkedHashMap<>();
+
+		for (BundleArtifact bundleArtifact : bundleArtifacts) {
+			Set<BundleArtifact> bundleArtifactDependencies = new HashSet<>();
+
+			if (bundleArtifact.isFragment()) {
+				BundleArtifact hostBundleArtifact = bsnBundleArtifacts.get(bundleArtifact.getFragmentHost());
+
+				if (hostBundleArtifact != null) {
+					bundleArtifactDependencies.add(hostBundleArtifact);
+				}
+			}
+
+			for (String importPackage : bundleArtifact.getImportPackages()) {
+				BundleArtifact exportBundleArtifact = exportPackageBundleArtifacts.get(importPackage);
+
+				if ((exportBundleArtifact != null) && (exportBundleArtifact != bundleArtifact)) {
+					bundleArtifactDependencies.add(exportBundleArtifact);
+				}
+			}
+
+			dependencies.put(bundleArtifact, bundleArtifactDependencies);
+		}
+
+		List<List<BundleArtifact>> levels = new ArrayList<>();
+
+		Set<BundleArtifact> scheduledBundleArtifacts = new HashSet<>();
+
+		while (scheduledBundleArtifacts.size() < dependencies.size()) {
+			List<BundleArtifact> level = new ArrayList<>();
+
+			for (Map.Entry<BundleArtifact, Set<BundleArtifact>> entry : dependencies.entrySet()) {
+				BundleArtifact bundleArtifact = entry.getKey();
+
+				if (!scheduledBundleArtifacts.contains(bundleArtifact) &&
+					scheduledBundleArtifacts.containsAll(entry.getValue())) {
+
+					level.add(bundleArtifact);
+				}
+			}
+
+			if (level.isEmpty()) {
+				for (BundleArtifact bundleArtifact : dependencies.keySet()) {
+					if (!scheduledBundleArtifacts.contains(bundleArtifact)) {
+						level.add(bundleArtifact);
+					}
+				}
+			}
+
+			scheduledBundleArtifacts.addAll(level);
+
+			levels.add(level);
+		}
+
+		return levels;
+	}
+
+	public BundleDeployScheduler(
+		Callable<LiferayBundleDeployer> liferayBundleDeployerFactory, int parallelism, PrintStream out) {
+
+		this(liferayBundleDeployerFactory, parallelism, out, null);
+	}
+
+	/**
+	 * @param deployLedger the ledger used to skip bundles whose jar is
+	 *        identical to the one last deployed, or <code>null</code> to
+	 *        always deploy every bundle
+	 */
+	public BundleDeployScheduler(
+		Callable<LiferayBundleDeployer> liferayBundleDeployerFactory, int parallelism, PrintStream out,
+		DeployLedger deployLedger) {
+
+		_liferayBundleDeployerFactory = liferayBundleDeployerFactory;
+		_parallelism = Math.max(1, parallelism);
+		_out = out;
+		_deployLedger = deployLedger;
+	}
+
+	/**
+	 * Deploys the bundles and returns their IDs keyed by bundle symbolic name.
+	 * Bundles that fail to deploy do not prevent the others from being
+	 * deployed and started; the failures are reported afterwards as a single
+	 * exception naming every bundle that failed. A bundle that was stopped for
+	 * an update that failed is started again.
+	 */
+	public Map<String, Long> deploy(Collection<BundleArtifact> bundleArtifacts) throws Exception {
+		List<LiferayBundleDeployer> liferayBundleDeployers = new ArrayList<>();
+
+		ExecutorService executorService = null;
+
+		try {
+			LiferayBundleDeployer liferayBundleDeployer = _liferayBundleDeployerFactory.call();
+
+			liferayBundleDeployers.add(liferayBundleDeployer);
+
+			Map<String, Long> unchangedBundleIds = new LinkedHashMap<>();
+			Collection<BundleArtifact> changedBundleArtifacts = new ArrayList<>();
+			Set<String> installedBsns = new HashSet<>();
+			Map<String, Long> stopIds = new LinkedHashMap<>();
+
+			for (BundleArtifact bundleArtifact : bundleArtifacts) {
+				long id = liferayBundleDeployer.getBundleId(bundleArtifact.getBsn());
+
+				if ((_deployLedger != null) && _deployLedger.isUnchanged(bundleArtifact, id)) {
+					unchangedBundleIds.put(bundleArtifact.getBsn(), id);
+
+					_out.println("Skipped unchanged bundle " + id);
+
+					continue;
+				}
+
+				changedBundleArtifacts.add(bundleArtifact);
+
+				if (id > 0) {
+					installedBsns.add(bundleArtifact.getBsn());
+
+					if (!bundleArtifact.isFragment()) {
+						stopIds.put(bundleArtifact.getBsn(), id);
+					}
+				}
+			}
+
+			if (changedBundleArtifacts.isEmpty()) {
+				return unchangedBundleIds;
+			}
+
+			List<List<BundleArtifact>> levels = getLevels(changedBundleArtifacts);
+
+			int sessionCount = 1;
+
+			for (List<BundleArtifact> level : levels) {
+				sessionCount = Math.max(sessionCount, Math.min(_parallelism, level.size()));
+			}
+
+			for (int i = 1; i < sessionCount; i++) {
+				liferayBundleDeployers.add(_liferayBundleDeployerFactory.call());
+			}
+
+			executorService = Executors.newFixedThreadPool(sessionCount);
+
+			liferayBundleDeployer.stop(stopIds.values());
+
+			Map<String, Long> bundleIds = new LinkedHashMap<>(unchangedBundleIds);
+			List<String> errors = new ArrayList<>();
+
+			for (List<BundleArtifact> level : levels) {
+				bundleIds.putAll(_installOrUpdate(executorService, liferayBundleDeployers, level, errors));
+			}
+
+			Collection<Long> refreshIds = new LinkedHashSet<>();
+			Collection<Long> startIds = new ArrayList<>();
+
+			for (List<BundleArtifact> level : levels) {
+				for (BundleArtifact bundleArtifact : level) {
+					Long id = bundleIds.get(bundleArtifact.getBsn());
+
+					if (id == null) {
+						continue;
+					}
+
+					if (installedBsns.contains(bundleArtifact.getBsn())) {
+						_out.println("Updated bundle " + id);
+					}
+					else {
+						_out.println("Installed bundle " + id);
+					}
+
+					if (bundleArtifact.isFragment()) {
+						Long hostId = bundleIds.get(bundleArtifact.getFragmentHost());
+
+						if (hostId == null) {
+							hostId = liferayBundleDeployer.getBundleId(bundleArtifact.getFragmentHost());
+						}
+
+						if (hostId > 0) {
+							refreshIds.add(hostId);
+						}
+					}
+					else {
+						startIds.add(id);
+					}
+				}
+			}
+
+			for (Map.Entry<String, Long> entry : stopIds.entrySet()) {
+				if (!bundleIds.containsKey(entry.getKey())) {
+					startIds.add(entry.getValue());
+				}
+			}
+
+			liferayBundleDeployer.refresh(refreshIds);
+
+			liferayBundleDeployer.start(startIds);
+
+			if (_deployLedger != null) {
+				for (BundleArtifact bundleArtifact : changedBundleArtifacts) {
+					Long id = bundleIds.get(bundleArtifact.getBsn());
+
+					if (id != null) {
+						_deployLedger.record(bundleArtifact, id);
+					}
+				}
+
+				_deployLedger.save();
+			}
+
+			if (!errors.isEmpty()) {
+				throw new Exception(String.join(System.lineSeparator(), errors));
+			}
+
+			return bundleIds;
+		}
+		finally {
+			if (executorService != null) {
+				executorService.shutdownNow();
+			}
+
+			for (LiferayBundleDeployer liferayBundleDeployer : liferayBundleDeployers) {
+				try {
+					liferayBundleDeployer.close();
+				}
+				catch (Exception e) {
+				}
+			}
+		}
+	}
+
+	private Map<String, Long> _installOrUpdate(
+			ExecutorService executorService, List<LiferayBundleDeployer> liferayBundleDeployers,
+			List<BundleArtifact> level, List<String> errors)
+		throws InterruptedException {
+
+		List<Map<String, URI>> chunks = new ArrayList<>();
+
+		for (int i = 0; i < Math.min(liferayBundleDeployers.size(), level.size()); i++) {
+			chunks.add(new LinkedHashMap<>());
+		}
+
+		for (int i = 0; i < level.size(); i++) {
+			BundleArtifact bundleArtifact = level.get(i);
+
+			Map<String, URI> chunk = chunks.get(i % chunks.size());
+
+			File file = bundleArtifact.getFile();
+
+			chunk.put(bundleArtifact.getBsn(), file.toURI());
+		}
+
+		List<Future<Map<String, Long>>> futures = new ArrayList<>();
+
+		for (int i = 0; i < chunks.size(); i++) {
+			LiferayBundleDeployer liferayBundleDeployer = liferayBundleDeployers.get(i);
+			Map<String, URI> chunk = chunks.get(i);
+
+			futures.add(executorService.submit(() -> liferayBundleDeployer.installOrUpdate(chunk)));
+		}
+
+		Map<String, Long> bundleIds = new HashMap<>();
+
+		for (int i = 0; i < futures.size(); i++) {
+			Future<Map<String, Long>> future = futures.get(i);
+
+			try {
+				bundleIds.putAll(future.get());
+			}
+			catch (ExecutionException ee) {
+				Map<String, URI> chunk = chunks.get(i);
+
+				if (chunk.size() == 1) {
+					Throwable cause = ee.getCause();
+
+					errors.add("Unable to deploy " + String.join(", ", chunk.keySet()) + ": " + cause.getMessage());
+				}
+				else {
+					bundleIds.putAll(_installOrUpdateEach(liferayBundleDeployers.get(i), chunk, errors));
+				}
+			}
+		}
+
+		return bundleIds;
+	}
+
+	/**
+	 * Installs or updates the bundles of a chunk that failed one at a time, so
+	 * that only the bundles that fail on their own are reported.
+	 */
+	private Map<String, Long> _installOrUpdateEach(
+		LiferayBundleDeployer liferayBundleDeployer, Map<String, URI> chunk, List<String> errors) {
+
+		Map<String, Long> bundleIds = new HashMap<>();
+
+		for (Map.Entry<String, URI> entry : chunk.entrySet()) {
+			try {
+				bundleIds.putAll(
+					liferayBundleDeployer.installOrUpdate(Collections.singletonMap(entry.getKey(), entry.getValue())));
+			}
+			catch (Exception e) {
+				errors.add("Unable to deploy " + entry.getKey() + ": " + e.getMessage());
+			}
+		}
+
+		return bundleIds;
+	}
+
+	private final DeployLedger _deployLedger;
+	private final Callable<LiferayBundleDeployer> _liferayBundleDeployerFactory;
+	private final PrintStream _out;
+	private final int _parallelism;
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.command.BaseArgs;
+import com.liferay.blade.cli.command.BaseCommand;
+
+import java.util.Collection;
+
+/**
+ * Describes a command without requiring it to be instantiated. Commands read
+ * from a {@link CommandIndex} are only loaded and instantiated the first time
+ * {@link #getCommand()} is called.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class CommandDescriptor {
+
+	public CommandDescriptor(BaseCommand<?> baseCommand, String[] commandNames, Collection<String> profileNames) {
+		Class<?> commandClass = baseCommand.getClass();
+
+		_baseCommand = baseCommand;
+		_classLoader = baseCommand.getClassLoader();
+		_className = commandClass.getName();
+		_argsClassName = null;
+		_commandNames = commandNames;
+		_profileNames = profileNames;
+	}
+
+	public CommandDescriptor(
+		String className, String argsClassName, String[] commandNames, Collection<String> profileNames,
+		ClassLoader classLoader) {
+
+		_className = className;
+		_argsClassName = argsClassName;
+		_commandNames = commandNames;
+		_profileNames = profileNames;
+		_classLoader = classLoader;
+	}
+
+	/**
+	 * Returns the command instance, creating it on first use. Returns
+	 * <code>null</code> if the command could not be loaded; the cause is
+	 * printed to <code>System.err</code> in the same way failing extensions
+	 * are reported during a full scan.
+	 */
+	public BaseCommand<? extends BaseArgs> getCommand() {
+		if ((_baseCommand == null) && !_failed) {
+			try {
+				Class<?> commandClass = Class.forName(_className, true, _classLoader);
+
+				Class<?> argsClass = Class.forName(_argsClassName, true, _classLoader);
+
+				BaseCommand<?> baseCommand = (BaseCommand<?>)commandClass.newInstance();
+
+				baseCommand.setClassLoader(_classLoader);
+
+				baseCommand.setArgs((BaseArgs)argsClass.newInstance());
+
+				_baseCommand = baseCommand;
+			}
+			catch (Throwable th) {
+				_failed = true;
+
+				CommandIndex.printLoadError(th);
+			}
+		}
+
+		return _baseCommand;
+	}
+
+	public String[] getCommandNames() {
+		return _commandNames;
+	}
+
+	public String getName() {
+		return _commandNames[0];
+	}
+
+	public Collection<String> getProfileNames() {
+		return _profileNames;
+	}
+
+	@Override
+	public String toString() {
+		return _className;
+	}
+
+	private final String _argsClassName;
+	private BaseCommand<?> _baseCommand;
+	private final ClassLoader _classLoader;
+	private final String _className;
+	private final String[] _commandNames;
+	private boolean _failed = false;
+	private final Collection<String> _profileNames;
+
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.beust.jcommander.Parameters;
+
+import com.liferay.blade.cli.command.BaseArgs;
+import com.liferay.blade.cli.command.BaseCommand;
+import com.liferay.blade.cli.command.BladeProfile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+
+import java.net.URL;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads and writes the command index that is generated at build time and
+ * embedded next to the <code>BaseCommand</code> service file of the blade jar
+ * and of each extension jar. The index holds the command names, profiles and
+ * args class of every command so that only the command that is actually run
+ * needs to be instantiated. Jars built without an index, and commands missing
+ * from it, are loaded reflectively as before.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class CommandIndex {
+
+	public static final String INDEX_RESOURCE_NAME = "META-INF/blade-commands.properties";
+
+	public static final String SERVICE_RESOURCE_NAME = "META-INF/services/" + BaseCommand.class.getName();
+
+	/**
+	 * Creates the index for the commands listed in the given service file.
+	 * Invoked by the build with the service file and the index file to write
+	 * as arguments.
+	 */
+	public static void main(String[] args) throws Exception {
+		Path servicePath = Paths.get(args[0]);
+		Path indexPath = Paths.get(args[1]);
+
+		Collection<String> classNames;
+
+		try (InputStream inputStream = Files.newInputStream(servicePath)) {
+			classNames = _readServiceClassNames(inputStream);
+		}
+
+		Thread thread = Thread.currentThread();
+
+		Properties properties = write(classNames, thread.getContextClassLoader());
+
+		Files.createDirectories(indexPath.getParent());
+
+		try (OutputStream outputStream = Files.newOutputStream(indexPath)) {
+			properties.store(outputStream, null);
+		}
+	}
+
+	public static Collection<CommandDescriptor> load(ClassLoader classLoader) throws IOException {
+		Map<String, CommandDescriptor> commandDescriptors = new LinkedHashMap<>();
+
+		Enumeration<URL> serviceUrls = classLoader.getResources(SERVICE_RESOURCE_NAME);
+
+		while (serviceUrls.hasMoreElements()) {
+			URL serviceUrl = serviceUrls.nextElement();
+
+			Collection<String> classNames;
+
+			try (InputStream inputStream = serviceUrl.openStream()) {
+				classNames = _readServiceClassNames(inputStream);
+			}
+
+			classNames.removeAll(commandDescriptors.keySet());
+
+			if (classNames.isEmpty()) {
+				continue;
+			}
+
+			Properties index = _readIndex(serviceUrl);
+
+			for (String className : classNames) {
+				CommandDescriptor commandDescriptor = _createCommandDescriptor(index, className, classLoader);
+
+				if (commandDescriptor != null) {
+					commandDescriptors.put(className, commandDescriptor);
+				}
+			}
+		}
+
+		return new ArrayList<>(commandDescriptors.values());
+	}
+
+	public static void printLoadError(Throwable throwable) {
+		Class<?> throwableClass = throwable.getClass();
+
+		System.err.println(
+			"Exception thrown while loading extension." + System.lineSeparator() + "Exception: " +
+				throwableClass.getName() + ": " + throwable.getMessage() + System.lineSeparator());
+
+		Throwable cause = throwable.getCause();
+
+		if (cause != null) {
+			Class<?> throwableCauseClass = cause.getClass();
+
+			System.err.print(throwableCauseClass.getName() + ": " + cause.getMessage() + System.lineSeparator());
+		}
+	}
+
+	public static Properties write(Collection<String> classNames, ClassLoader classLoader) throws Exception {
+		Properties properties = new Properties();
+
+		for (String className : classNames) {
+			BaseCommand<?> baseCommand;
+
+			try {
+				Class<?> commandClass = Class.forName(className, true, classLoader);
+
+				baseCommand = (BaseCommand<?>)commandClass.newInstance();
+			}
+			catch (Throwable th) {
+				System.err.println("Unable to index command " + className + ": " + th);
+
+				continue;
+			}
+
+			Class<? extends BaseArgs> argsClass = baseCommand.getArgsClass();
+
+			String[] commandNames = _getCommandNames(argsClass);
+
+			properties.setProperty(className + _ARGS_CLASS_SUFFIX, argsClass.getName());
+			properties.setProperty(className + _COMMAND_NAMES_SUFFIX, String.join(_SEPARATOR, commandNames));
+			properties.setProperty(
+				className + _PROFILE_NAMES_SUFFIX, String.join(_SEPARATOR, _getProfileNames(baseCommand.getClass())));
+		}
+
+		return properties;
+	}
+
+	private static CommandDescriptor _createCommandDescriptor(
+		Properties index, String className, ClassLoader classLoader) {
+
+		String argsClassName = index.getProperty(className + _ARGS_CLASS_SUFFIX);
+
+		if (argsClassName != null) {
+			String commandNames = index.getProperty(className + _COMMAND_NAMES_SUFFIX, "");
+
+			String profileNames = index.getProperty(className + _PROFILE_NAMES_SUFFIX, "");
+
+			return new CommandDescriptor(
+				className, argsClassName, _split(commandNames), Arrays.asList(_split(profileNames)), classLoader);
+		}
+
+		try {
+			Class<?> commandClass = Class.forName(className, true, classLoader);
+
+			BaseCommand<?> baseCommand = (BaseCommand<?>)commandClass.newInstance();
+
+			baseCommand.setClassLoader(classLoader);
+
+			Class<? extends BaseArgs> argsClass = baseCommand.getArgsClass();
+
+			String[] commandNames = _getCommandNames(argsClass);
+
+			baseCommand.setArgs(argsClass.newInstance());
+
+			return new CommandDescriptor(baseCommand, commandNames, _getProfileNames(commandClass));
+		}
+		catch (IllegalArgumentException iae) {
+			throw iae;
+		}
+		catch (Throwable th) {
+			printLoadError(th);
+		}
+
+		return null;
+	}
+
+	private static String[] _getCommandNames(Class<? extends BaseArgs> argsClass) {
+		Parameters parameters = argsClass.getAnnotation(Parameters.class);
+
+		if (parameters == null) {
+			throw new IllegalArgumentException(
+				"Loaded base command class that does not have a Parameters annotation " + argsClass.getName());
+		}
+
+		return parameters.commandNames();
+	}
+
+	private static Collection<String> _getProfileNames(Class<?> commandClass) {
+		return Stream.of(
+			commandClass.getAnnotationsByType(BladeProfile.class)
+		).filter(
+			Objects::nonNull
+		).map(
+			BladeProfile::value
+		).collect(
+			Collectors.toList()
+		);
+	}
+
+	private static Properties _readIndex(URL serviceUrl) {
+		Properties index = new Properties();
+
+		String serviceUrlString = serviceUrl.toString();
+
+		if (!serviceUrlString.endsWith(SERVICE_RESOURCE_NAME)) {
+			return index;
+		}
+
+		String baseUrlString = serviceUrlString.substring(
+			0, serviceUrlString.length() - SERVICE_RESOURCE_NAME.length());
+
+		try (InputStream inputStream = new URL(baseUrlString + INDEX_RESOURCE_NAME).openStream()) {
+			index.load(inputStream);
+		}
+		catch (IOException ioe) {
+		}
+
+		return index;
+	}
+
+	private static List<String> _readServiceClassNames(InputStream inputStream) throws IOException {
+		List<String> classNames = new ArrayList<>();
+
+		try (BufferedReader bufferedReader = new BufferedReader(
+				new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+
+			String line = null;
+
+			while ((line = bufferedReader.readLine()) != null) {
+				int index = line.indexOf('#');
+
+				if (index >= 0) {
+					line = line.substring(0, index);
+				}
+
+				line = line.trim();
+
+				if (!line.isEmpty() && !classNames.contains(line)) {
+					classNames.add(line);
+				}
+			}
+		}
+
+		return classNames;
+	}
+
+	private static String[] _split(String value) {
+		if (value.isEmpty()) {
+			return new String[0];
+		}
+
+		return value.split(_SEPARATOR);
+	}
+
+	private static final String _ARGS_CLASS_SUFFIX = ".args";
+
+	private static final String _COMMAND_NAMES_SUFFIX = ".commandNames";
+
+	private static final String _PROFILE_NAMES_SUFFIX = ".profileNames";
+
+	private static final String _SEPARATOR = ",";
+
+}
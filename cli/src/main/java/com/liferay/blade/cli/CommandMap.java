@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.command.BaseArgs;
+import com.liferay.blade.cli.command.BaseCommand;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A command map backed by {@link CommandDescriptor}s. Looking up a single
+ * command only instantiates that command; iterating over the entries
+ * instantiates all of them.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class CommandMap extends AbstractMap<String, BaseCommand<? extends BaseArgs>> {
+
+	public CommandMap(Map<String, CommandDescriptor> commandDescriptors) {
+		_commandDescriptors = commandDescriptors;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return _commandDescriptors.containsKey(key);
+	}
+
+	@Override
+	public Set<Entry<String, BaseCommand<? extends BaseArgs>>> entrySet() {
+		Map<String, BaseCommand<? extends BaseArgs>> commands = new LinkedHashMap<>();
+
+		for (Entry<String, CommandDescriptor> entry : _commandDescriptors.entrySet()) {
+			CommandDescriptor commandDescriptor = entry.getValue();
+
+			BaseCommand<? extends BaseArgs> baseCommand = commandDescriptor.getCommand();
+
+			if (baseCommand != null) {
+				commands.put(entry.getKey(), baseCommand);
+			}
+		}
+
+		return commands.entrySet();
+	}
+
+	@Override
+	public BaseCommand<? extends BaseArgs> get(Object key) {
+		CommandDescriptor commandDescriptor = _commandDescriptors.get(key);
+
+		if (commandDescriptor == null) {
+			return null;
+		}
+
+		return commandDescriptor.getCommand();
+	}
+
+	/**
+	 * Returns every name, including aliases, of the commands in this map
+	 * without instantiating them.
+	 */
+	public Collection<String> getCommandNames() {
+		Collection<String> commandNames = new LinkedHashSet<>();
+
+		for (CommandDescriptor commandDescriptor : _commandDescriptors.values()) {
+			for (String commandName : commandDescriptor.getCommandNames()) {
+				commandNames.add(commandName);
+			}
+		}
+
+		return commandNames;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return _commandDescriptors.keySet();
+	}
+
+	@Override
+	public int size() {
+		return _commandDescriptors.size();
+	}
+
+	private final Map<String, CommandDescriptor> _commandDescriptors;
+
+}
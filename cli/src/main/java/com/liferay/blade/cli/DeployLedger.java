@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Remembers which artifact was last deployed for each bundle symbolic name on
+ * one target, by bundle ID, Bundle-Version and SHA-256 digest, so that
+ * deploying a byte-identical jar again can be skipped.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class DeployLedger {
+
+	public static Path getLedgerPath(Path ledgersPath, String host, int port) {
+		return ledgersPath.resolve(host + "-" + port + ".properties");
+	}
+
+	public DeployLedger(Path ledgerPath) {
+		this(ledgerPath, false);
+	}
+
+	/**
+	 * @param force whether every bundle should be considered changed, while
+	 *        still recording the deployed artifacts
+	 */
+	public DeployLedger(Path ledgerPath, boolean force) {
+		_ledgerPath = ledgerPath;
+		_force = force;
+	}
+
+	/**
+	 * Returns whether the given artifact is the one that was last deployed as
+	 * the bundle with the given ID.
+	 */
+	public synchronized boolean isUnchanged(BundleArtifact bundleArtifact, long bundleId) throws IOException {
+		if (_force || (bundleId < 0)) {
+			return false;
+		}
+
+		Properties properties = _getProperties();
+
+		String entry = properties.getProperty(bundleArtifact.getBsn());
+
+		return Objects.equals(entry, _toEntry(bundleArtifact, bundleId));
+	}
+
+	public synchronized void record(BundleArtifact bundleArtifact, long bundleId) throws IOException {
+		Properties properties = _getProperties();
+
+		properties.setProperty(bundleArtifact.getBsn(), _toEntry(bundleArtifact, bundleId));
+
+		_modified = true;
+	}
+
+	public synchronized void remove(String bsn) throws IOException {
+		Properties properties = _getProperties();
+
+		if (properties.remove(bsn) != null) {
+			_modified = true;
+		}
+	}
+
+	public synchronized void save() throws IOException {
+		if (!_modified) {
+			return;
+		}
+
+		Files.createDirectories(_ledgerPath.getParent());
+
+		Path tempPath = Files.createTempFile(_ledgerPath.getParent(), "ledger", ".tmp");
+
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+				_properties.store(outputStream, null);
+			}
+
+			try {
+				Files.move(
+					tempPath, _ledgerPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, _ledgerPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			_modified = false;
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private static String _toEntry(BundleArtifact bundleArtifact, long bundleId) throws IOException {
+		return bundleId + "," + bundleArtifact.getVersion() + "," + bundleArtifact.getDigest();
+	}
+
+	private Properties _getProperties() throws IOException {
+		if (_properties == null) {
+			Properties properties = new Properties();
+
+			if (Files.exists(_ledgerPath)) {
+				try (InputStream inputStream = Files.newInputStream(_ledgerPath)) {
+					properties.load(inputStream);
+				}
+				catch (IllegalArgumentException iae) {
+					properties.clear();
+				}
+			}
+
+			_properties = properties;
+		}
+
+		return _properties;
+	}
+
+	private final boolean _force;
+	private final Path _ledgerPath;
+	private boolean _modified;
+	private Properties _properties;
+
+}
@@ -65,27 +65,7 @@ public class Extensions {
 
 		Collection<String> addLast = new ArrayList<>();
 
-		Collection<BaseArgs> argList = new HashSet<>();
-
-		Collection<BaseCommand<? extends BaseArgs>> values = commands.values();
-
-		Stream<BaseCommand<? extends BaseArgs>> valuesStream = values.stream();
-
-		valuesStream.map(
-			command -> command.getArgs()
-		).forEach(
-			argList::add
-		);
-
-		Stream<BaseArgs> argStream = argList.stream();
-
-		Collection<Class<? extends BaseArgs>> classes = argStream.map(
-			BaseArgs::getClass
-		).collect(
-			Collectors.toSet()
-		);
-
-		Collection<String> commandNames = getCommandNames(classes);
+		Collection<String> commandNames = _getCommandNames(commands);
 
 		Stream<String> commandNamesStream = commandNames.stream();
 
@@ -105,14 +85,10 @@ public class Extensions {
 			spaceCommandSplitCollection::add
 		);
 
-		Collection<String> flagsWithArgs = _getFlags(BaseArgs.class, true);
-
-		Collection<String> flagsWithoutArgs = _getFlags(BaseArgs.class, false);
-
 		for (int x = 0; x < argsList.size(); x++) {
 			String s = argsList.get(x);
 
-			if (flagsWithArgs.contains(s)) {
+			if (_FLAGS_WITH_ARGUMENTS.contains(s)) {
 				addLast.add(argsList.remove(x));
 				addLast.add(argsList.remove(x));
 				x--;
@@ -122,7 +98,7 @@ public class Extensions {
 		for (int x = 0; x < argsList.size(); x++) {
 			String s = argsList.get(x);
 
-			if (flagsWithoutArgs.contains(s)) {
+			if (_FLAGS_WITHOUT_ARGUMENTS.contains(s)) {
 				addLast.add(argsList.remove(x));
 			}
 		}
@@ -204,6 +180,36 @@ public class Extensions {
 		return _getCommands(profileName);
 	}
 
+	private static Collection<String> _getCommandNames(Map<String, BaseCommand<? extends BaseArgs>> commands) {
+		if (commands instanceof CommandMap) {
+			CommandMap commandMap = (CommandMap)commands;
+
+			return commandMap.getCommandNames();
+		}
+
+		Collection<BaseArgs> argList = new HashSet<>();
+
+		Collection<BaseCommand<? extends BaseArgs>> values = commands.values();
+
+		Stream<BaseCommand<? extends BaseArgs>> valuesStream = values.stream();
+
+		valuesStream.map(
+			command -> command.getArgs()
+		).forEach(
+			argList::add
+		);
+
+		Stream<BaseArgs> argStream = argList.stream();
+
+		Collection<Class<? extends BaseArgs>> classes = argStream.map(
+			BaseArgs::getClass
+		).collect(
+			Collectors.toSet()
+		);
+
+		return getCommandNames(classes);
+	}
+
 	private static Collection<String> _getFlags(Class<? extends BaseArgs> clazz, boolean withArguments) {
 		Collection<String> flags = new ArrayList<>();
 
@@ -240,6 +246,10 @@ public class Extensions {
 		return _commands;
 	}
 
+	private static final Collection<String> _FLAGS_WITH_ARGUMENTS = _getFlags(BaseArgs.class, true);
+
+	private static final Collection<String> _FLAGS_WITHOUT_ARGUMENTS = _getFlags(BaseArgs.class, false);
+
 	private Map<String, BaseCommand<? extends BaseArgs>> _commands;
 	private ClassLoader _serviceLoaderClassLoader = null;
 
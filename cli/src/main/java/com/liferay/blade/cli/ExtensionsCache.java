@@ -0,0 +1,393 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.FileUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.math.BigInteger;
+
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Keeps content-addressed copies of extension jars under
+ * <code>~/.blade/cache/extensions</code> so that unchanged jars are reused
+ * across invocations instead of being copied and extracted every time.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class ExtensionsCache implements AutoCloseable {
+
+	public ExtensionsCache(Path cachePath) {
+		_cachePath = cachePath;
+
+		_indexPath = cachePath.resolve("index.properties");
+		_lockPath = cachePath.resolve(".lock");
+	}
+
+	/**
+	 * Returns the cached copy of the given jar, copying it into the cache if
+	 * the cache does not yet contain a jar with the same content. The content
+	 * hash is only recomputed when the size or modification time of the jar
+	 * has changed since it was last seen.
+	 */
+	public Path cache(Path jarPath) throws IOException {
+		_open();
+
+		BasicFileAttributes basicFileAttributes = Files.readAttributes(jarPath, BasicFileAttributes.class);
+
+		String indexKey = String.valueOf(jarPath.toAbsolutePath());
+
+		FileTime lastModifiedTime = basicFileAttributes.lastModifiedTime();
+
+		String stamp = basicFileAttributes.size() + ":" + lastModifiedTime.toMillis();
+
+		String hash = null;
+
+		String indexValue = _index.getProperty(indexKey);
+
+		if ((indexValue != null) && indexValue.startsWith(stamp + ":")) {
+			hash = indexValue.substring(stamp.length() + 1);
+		}
+
+		String fileName = String.valueOf(jarPath.getFileName());
+
+		if (hash != null) {
+			Path cachedJarPath = _getCachedJarPath(hash, fileName);
+
+			if (Files.exists(cachedJarPath)) {
+				_use(hash);
+
+				return cachedJarPath;
+			}
+		}
+
+		try (InputStream inputStream = Files.newInputStream(jarPath)) {
+			Path cachedJarPath = cache(fileName, null, inputStream);
+
+			Path hashPath = cachedJarPath.getParent();
+
+			_index.setProperty(indexKey, stamp + ":" + hashPath.getFileName());
+
+			_indexModified = true;
+
+			return cachedJarPath;
+		}
+	}
+
+	/**
+	 * Returns the cached copy of a jar read from the given input stream. When
+	 * <code>key</code> is not <code>null</code> it must uniquely identify the
+	 * content of the stream (for example the CRC and size of a zip entry) and
+	 * the stream is not read at all if the cache already holds that content.
+	 * Otherwise the stream is hashed while it is copied into the cache.
+	 */
+	public Path cache(String fileName, String key, InputStream inputStream) throws IOException {
+		_open();
+
+		if (key != null) {
+			Path cachedJarPath = _getCachedJarPath(key, fileName);
+
+			if (Files.exists(cachedJarPath)) {
+				_use(key);
+
+				return cachedJarPath;
+			}
+		}
+
+		Path tempPath = Files.createTempFile(_cachePath, fileName, ".tmp");
+
+		try {
+			MessageDigest messageDigest = _newMessageDigest();
+
+			try (DigestInputStream digestInputStream = new DigestInputStream(inputStream, messageDigest)) {
+				Files.copy(digestInputStream, tempPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			if (key == null) {
+				key = String.format("%040x", new BigInteger(1, messageDigest.digest()));
+			}
+
+			Path cachedJarPath = _getCachedJarPath(key, fileName);
+
+			if (Files.notExists(cachedJarPath)) {
+				Files.createDirectories(cachedJarPath.getParent());
+
+				_moveAtomically(tempPath, cachedJarPath);
+			}
+
+			_use(key);
+
+			return cachedJarPath;
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	/**
+	 * Removes every cached jar. Jars that are still held open by another
+	 * process (which prevents deletion on Windows) are left in place and
+	 * returned.
+	 */
+	public Collection<Path> clean() throws IOException {
+		Collection<Path> remainingPaths = new ArrayList<>();
+
+		if (Files.notExists(_cachePath)) {
+			return remainingPaths;
+		}
+
+		_lock();
+
+		try (Stream<Path> cacheEntries = Files.list(_cachePath)) {
+			cacheEntries.filter(
+				path -> !Objects.equals(path.getFileName(), _lockPath.getFileName())
+			).forEach(
+				path -> {
+					try {
+						if (Files.isDirectory(path)) {
+							FileUtil.deleteDir(path);
+						}
+						else {
+							Files.delete(path);
+						}
+					}
+					catch (IOException ioe) {
+						remainingPaths.add(path);
+					}
+				}
+			);
+		}
+		finally {
+			_index.clear();
+
+			_indexModified = false;
+
+			_unlock();
+		}
+
+		return remainingPaths;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (_indexModified) {
+				_storeIndex();
+			}
+		}
+		finally {
+			_unlock();
+		}
+	}
+
+	public Path getCachePath() {
+		return _cachePath;
+	}
+
+	/**
+	 * Removes the jars superseded by the jars cached since the cache was
+	 * opened. Jars that have not been used for a while are removed, so that a
+	 * jar another blade version still relies on is kept, as are jars held open
+	 * by another process.
+	 */
+	public void prune() throws IOException {
+		if ((_fileLock == null) || _usedKeys.isEmpty()) {
+			return;
+		}
+
+		long expirationTime = System.currentTimeMillis() - _PRUNE_AGE;
+
+		Collection<String> prunedKeys = new HashSet<>();
+
+		try (Stream<Path> cacheEntries = Files.list(_cachePath)) {
+			cacheEntries.filter(
+				Files::isDirectory
+			).filter(
+				path -> !_usedKeys.contains(String.valueOf(path.getFileName()))
+			).forEach(
+				path -> {
+					try {
+						FileTime lastModifiedTime = Files.getLastModifiedTime(path);
+
+						if (lastModifiedTime.toMillis() < expirationTime) {
+							FileUtil.deleteDir(path);
+
+							prunedKeys.add(String.valueOf(path.getFileName()));
+						}
+					}
+					catch (IOException ioe) {
+					}
+				}
+			);
+		}
+
+		for (String indexKey : _index.stringPropertyNames()) {
+			String indexValue = _index.getProperty(indexKey);
+
+			String hash = indexValue.substring(indexValue.lastIndexOf(':') + 1);
+
+			if (prunedKeys.contains(hash) || Files.notExists(Paths.get(indexKey))) {
+				_index.remove(indexKey);
+
+				_indexModified = true;
+			}
+		}
+	}
+
+	private static MessageDigest _newMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new RuntimeException(nsae);
+		}
+	}
+
+	private Path _getCachedJarPath(String key, String fileName) {
+		Path hashPath = _cachePath.resolve(key);
+
+		return hashPath.resolve(fileName);
+	}
+
+	private void _lock() throws IOException {
+		if (_fileLock != null) {
+			return;
+		}
+
+		Files.createDirectories(_cachePath);
+
+		_lockChannel = FileChannel.open(_lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+		_fileLock = _lockChannel.lock();
+	}
+
+	private void _moveAtomically(Path sourcePath, Path targetPath) throws IOException {
+		try {
+			Files.move(sourcePath, targetPath, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException amnse) {
+			Files.move(sourcePath, targetPath);
+		}
+		catch (FileAlreadyExistsException faee) {
+		}
+	}
+
+	private void _open() throws IOException {
+		if (_fileLock != null) {
+			return;
+		}
+
+		_lock();
+
+		if (Files.exists(_indexPath)) {
+			try (InputStream inputStream = Files.newInputStream(_indexPath)) {
+				_index.load(inputStream);
+			}
+			catch (IllegalArgumentException iae) {
+				_index.clear();
+			}
+		}
+	}
+
+	private void _storeIndex() throws IOException {
+		Path tempPath = Files.createTempFile(_cachePath, "index", ".tmp");
+
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+				_index.store(outputStream, null);
+			}
+
+			try {
+				Files.move(
+					tempPath, _indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, _indexPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			_indexModified = false;
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private void _unlock() throws IOException {
+		try {
+			if (_fileLock != null) {
+				_fileLock.release();
+			}
+		}
+		finally {
+			_fileLock = null;
+
+			if (_lockChannel != null) {
+				_lockChannel.close();
+
+				_lockChannel = null;
+			}
+		}
+	}
+
+	/**
+	 * Marks the jar as in use, which keeps it from being pruned by other
+	 * processes for a while.
+	 */
+	private void _use(String key) throws IOException {
+		if (_usedKeys.add(key)) {
+			Files.setLastModifiedTime(_cachePath.resolve(key), FileTime.fromMillis(System.currentTimeMillis()));
+		}
+	}
+
+	private static final long _PRUNE_AGE = 7L * 24 * 60 * 60 * 1000;
+
+	private final Path _cachePath;
+	private FileLock _fileLock;
+	private final Properties _index = new Properties();
+	private boolean _indexModified = false;
+	private final Path _indexPath;
+	private FileChannel _lockChannel;
+	private final Path _lockPath;
+	private final Set<String> _usedKeys = new HashSet<>();
+
+}
@@ -16,8 +16,8 @@
 
 package com.liferay.blade.cli;
 
+import com.liferay.blade.cli.util.BladeUtil;
 import com.liferay.blade.cli.util.CombinedClassLoader;
-import com.liferay.blade.cli.util.FileUtil;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -30,15 +30,19 @@ import java.net.URLClassLoader;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
 
 /**
  * @author Christopher Bryan Boyd
@@ -46,7 +50,12 @@ import java.util.stream.Stream;
 public class ExtensionsClassLoaderSupplier implements AutoCloseable, Supplier<ClassLoader> {
 
 	public ExtensionsClassLoaderSupplier(Path extensionsPath) {
+		this(extensionsPath, _getDefaultCachePath(extensionsPath));
+	}
+
+	public ExtensionsClassLoaderSupplier(Path extensionsPath, Path cachePath) {
 		_extensionsPath = extensionsPath;
+		_cachePath = cachePath;
 	}
 
 	@Override
@@ -56,27 +65,21 @@ public class ExtensionsClassLoaderSupplier implements AutoCloseable, Supplier<Cl
 
 			closeable.close();
 		}
-
-		if ((_tempExtensionsDirectory != null) && Files.exists(_tempExtensionsDirectory)) {
-			try {
-				FileUtil.deleteDirIfExists(_tempExtensionsDirectory);
-			}
-			catch (IOException ioe) {
-			}
-		}
 	}
 
 	@Override
 	public ClassLoader get() {
 		try {
 			if (_serviceLoaderClassLoader == null) {
-				_tempExtensionsDirectory = Files.createTempDirectory("extensions");
+				Collection<Path> jarPaths;
 
-				FileUtil.copyDir(_extensionsPath, _tempExtensionsDirectory);
+				try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+					jarPaths = _getCachedJarPaths(extensionsCache);
 
-				_extractBladeExtensions(_tempExtensionsDirectory);
+					extensionsCache.prune();
+				}
 
-				URL[] jarUrls = _getJarUrls(_tempExtensionsDirectory);
+				URL[] jarUrls = _getJarUrls(jarPaths);
 
 				Thread thread = Thread.currentThread();
 
@@ -104,32 +107,101 @@ public class ExtensionsClassLoaderSupplier implements AutoCloseable, Supplier<Cl
 		return null;
 	}
 
-	private static URL[] _getJarUrls(Path jarsPath) throws IOException {
-		try (Stream<Path> files = Files.list(jarsPath)) {
-			return files.filter(
+	private static String _getBladeExtensionKey(JarFile bladeJarFile, String extension) {
+		if (bladeJarFile == null) {
+			return null;
+		}
+
+		ZipEntry zipEntry = bladeJarFile.getEntry(extension);
+
+		if ((zipEntry == null) || (zipEntry.getCrc() == -1) || (zipEntry.getSize() == -1)) {
+			return null;
+		}
+
+		return Long.toHexString(zipEntry.getCrc()) + "-" + zipEntry.getSize();
+	}
+
+	private static JarFile _getBladeJarFile() {
+		try {
+			Path bladeJarPath = BladeUtil.getBladeJarPath();
+
+			if (Files.isRegularFile(bladeJarPath)) {
+				return new JarFile(bladeJarPath.toFile());
+			}
+		}
+		catch (Exception e) {
+		}
+
+		return null;
+	}
+
+	private static Path _getDefaultCachePath(Path extensionsPath) {
+		Path cachePath = extensionsPath.resolveSibling("cache");
+
+		return cachePath.resolve("extensions");
+	}
+
+	private static URL[] _getJarUrls(Collection<Path> jarPaths) {
+		Stream<Path> stream = jarPaths.stream();
+
+		return stream.map(
+			Path::toUri
+		).map(
+			ExtensionsClassLoaderSupplier::_convertUriToUrl
+		).filter(
+			url -> url != null
+		).collect(
+			Collectors.toSet()
+		).toArray(
+			new URL[0]
+		);
+	}
+
+	private static Map<String, Path> _getUserExtensionPaths(Path extensionsPath) throws IOException {
+		Map<String, Path> userExtensionPaths = new HashMap<>();
+
+		try (Stream<Path> files = Files.list(extensionsPath)) {
+			files.filter(
 				path -> String.valueOf(
 					path
 				).endsWith(
 					".jar"
 				)
-			).map(
-				Path::toUri
-			).map(
-				ExtensionsClassLoaderSupplier::_convertUriToUrl
-			).filter(
-				url -> url != null
-			).collect(
-				Collectors.toSet()
-			).toArray(
-				new URL[0]
+			).forEach(
+				path -> userExtensionPaths.put(String.valueOf(path.getFileName()), path)
 			);
 		}
+
+		return userExtensionPaths;
 	}
 
-	private void _extractBladeExtensions(Path extensionsDirectory) throws IOException {
+	private Collection<Path> _getCachedJarPaths(ExtensionsCache extensionsCache) throws IOException {
+		Map<String, Path> jarPaths = new HashMap<>();
+
+		Map<String, Path> userExtensionPaths = _getUserExtensionPaths(_extensionsPath);
+
+		for (Map.Entry<String, Path> entry : userExtensionPaths.entrySet()) {
+			try {
+				jarPaths.put(entry.getKey(), extensionsCache.cache(entry.getValue()));
+			}
+			catch (IOException ioe) {
+				System.err.println(
+					"Error encountered while caching extension " + entry.getKey() + "." + System.lineSeparator() +
+						ioe.getMessage());
+			}
+		}
+
+		jarPaths.putAll(_cacheBladeExtensions(extensionsCache));
+
+		return jarPaths.values();
+	}
+
+	private Map<String, Path> _cacheBladeExtensions(ExtensionsCache extensionsCache) throws IOException {
+		Map<String, Path> bladeExtensionPaths = new HashMap<>();
+
 		try (InputStream inputStream = Extensions.class.getResourceAsStream("/blade-extensions-versions.properties")) {
 			if (inputStream == null) {
-				return;
+				return bladeExtensionPaths;
 			}
 
 			Properties properties = new Properties();
@@ -154,25 +226,29 @@ public class ExtensionsClassLoaderSupplier implements AutoCloseable, Supplier<Cl
 					}
 				}
 
-				for (String extension : extensions) {
-					try (InputStream extensionInputStream = classLoader.getResourceAsStream(extension)) {
-						Path extensionPath = extensionsDirectory.resolve(extension);
+				try (JarFile bladeJarFile = _getBladeJarFile()) {
+					for (String extension : extensions) {
+						try (InputStream extensionInputStream = classLoader.getResourceAsStream(extension)) {
+							String key = _getBladeExtensionKey(bladeJarFile, extension);
 
-						Files.copy(extensionInputStream, extensionPath, StandardCopyOption.REPLACE_EXISTING);
-					}
-					catch (Throwable th) {
-						StringBuilder sb = new StringBuilder();
+							Path extensionPath = extensionsCache.cache(extension, key, extensionInputStream);
 
-						sb.append("Error encountered while loading custom extensions.");
-						sb.append(System.lineSeparator());
-						sb.append(th.getMessage());
-						sb.append(System.lineSeparator());
-						sb.append("Not loading extension " + extension + ".");
-						sb.append(System.lineSeparator());
+							bladeExtensionPaths.put(extension, extensionPath);
+						}
+						catch (Throwable th) {
+							StringBuilder sb = new StringBuilder();
 
-						String errorString = sb.toString();
+							sb.append("Error encountered while loading custom extensions.");
+							sb.append(System.lineSeparator());
+							sb.append(th.getMessage());
+							sb.append(System.lineSeparator());
+							sb.append("Not loading extension " + extension + ".");
+							sb.append(System.lineSeparator());
 
-						System.err.println(errorString);
+							String errorString = sb.toString();
+
+							System.err.println(errorString);
+						}
 					}
 				}
 			}
@@ -196,10 +272,12 @@ public class ExtensionsClassLoaderSupplier implements AutoCloseable, Supplier<Cl
 				throw new RuntimeException(errorMessage, th);
 			}
 		}
+
+		return bladeExtensionPaths;
 	}
 
+	private final Path _cachePath;
 	private final Path _extensionsPath;
 	private ClassLoader _serviceLoaderClassLoader = null;
-	private Path _tempExtensionsDirectory;
 
 }
\ No newline at end of file
@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.net.URI;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.osgi.framework.dto.BundleDTO;
 
@@ -47,6 +49,36 @@ public interface LiferayBundleDeployer extends AutoCloseable {
 
 	public long install(URI uri) throws Exception;
 
+	/**
+	 * Installs the bundles that are not yet installed and updates the ones
+	 * that are, without starting them. Returns the bundle IDs keyed by bundle
+	 * symbolic name.
+	 */
+	public default Map<String, Long> installOrUpdate(Map<String, URI> bundles) throws Exception {
+		Map<String, Long> bundleIds = new LinkedHashMap<>();
+
+		for (Map.Entry<String, URI> entry : bundles.entrySet()) {
+			long id = getBundleId(entry.getKey());
+
+			if (id > 0) {
+				update(id, entry.getValue());
+			}
+			else {
+				id = install(entry.getValue());
+			}
+
+			bundleIds.put(entry.getKey(), id);
+		}
+
+		return bundleIds;
+	}
+
+	public default void refresh(Collection<Long> ids) throws Exception {
+		for (long id : ids) {
+			refresh(id);
+		}
+	}
+
 	public void refresh(long id) throws Exception;
 
 	public default void reloadBundle(long id, URI uri) throws Exception {
@@ -63,8 +95,20 @@ public interface LiferayBundleDeployer extends AutoCloseable {
 		refresh(hostId);
 	}
 
+	public default void start(Collection<Long> ids) throws Exception {
+		for (long id : ids) {
+			start(id);
+		}
+	}
+
 	public void start(long id) throws Exception;
 
+	public default void stop(Collection<Long> ids) throws Exception {
+		for (long id : ids) {
+			stop(id);
+		}
+	}
+
 	public void stop(long id) throws Exception;
 
 	public void uninstall(long id) throws Exception;
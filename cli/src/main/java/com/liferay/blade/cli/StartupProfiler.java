@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import java.io.PrintStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records a tree of named phases and how long each one took, so that
+ * <code>--profile-startup</code> can show where an invocation spends its time.
+ * Phases are opened with {@link #start(String)} and closed when the returned
+ * {@link Phase} is closed; phases opened while another one is open on the same
+ * thread become its children, and phases opened on other threads are children
+ * of the root. A disabled profiler hands out a shared no-op phase.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class StartupProfiler {
+
+	public StartupProfiler(boolean enabled) {
+		_enabled = enabled;
+
+		if (enabled) {
+			_root = new Phase(null, "total");
+		}
+		else {
+			_root = _noOpPhase;
+		}
+	}
+
+	public boolean isEnabled() {
+		return _enabled;
+	}
+
+	public synchronized void print(PrintStream printStream) {
+		if (!_enabled) {
+			return;
+		}
+
+		_root._end();
+
+		printStream.println("Startup profile (ms):");
+
+		_print(printStream, _root, 0);
+	}
+
+	public synchronized Phase start(String name) {
+		if (!_enabled) {
+			return _noOpPhase;
+		}
+
+		Phase parent = _current.get();
+
+		if (parent == null) {
+			parent = _root;
+		}
+
+		Phase phase = new Phase(parent, name);
+
+		parent._children.add(phase);
+
+		_current.set(phase);
+
+		return phase;
+	}
+
+	public class Phase implements AutoCloseable {
+
+		@Override
+		public void close() {
+			if (this == _noOpPhase) {
+				return;
+			}
+
+			synchronized (StartupProfiler.this) {
+				_end();
+			}
+
+			if (_current.get() != this) {
+				return;
+			}
+
+			if (_parent == _root) {
+				_current.remove();
+			}
+			else {
+				_current.set(_parent);
+			}
+		}
+
+		public long getElapsedNanos() {
+			if (_endNanos == 0) {
+				return System.nanoTime() - _startNanos;
+			}
+
+			return _endNanos - _startNanos;
+		}
+
+		public String getName() {
+			return _name;
+		}
+
+		private Phase(Phase parent, String name) {
+			_parent = parent;
+			_name = name;
+
+			_startNanos = System.nanoTime();
+		}
+
+		private void _end() {
+			if (_endNanos == 0) {
+				_endNanos = System.nanoTime();
+			}
+		}
+
+		private final List<Phase> _children = new ArrayList<>();
+		private long _endNanos;
+		private final String _name;
+		private final Phase _parent;
+		private final long _startNanos;
+
+	}
+
+	private void _print(PrintStream printStream, Phase phase, int depth) {
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < depth; i++) {
+			sb.append("  ");
+		}
+
+		sb.append(phase.getName());
+
+		printStream.println(String.format("%10.1f  %s", phase.getElapsedNanos() / 1000000.0, sb));
+
+		for (Phase child : phase._children) {
+			_print(printStream, child, depth + 1);
+		}
+	}
+
+	private final ThreadLocal<Phase> _current = new ThreadLocal<>();
+	private final boolean _enabled;
+	private final Phase _noOpPhase = new Phase(null, "");
+	private final Phase _root;
+
+}
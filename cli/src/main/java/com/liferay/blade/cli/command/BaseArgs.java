@@ -39,6 +39,14 @@ public class BaseArgs {
 		return _help;
 	}
 
+	public boolean isOffline() {
+		return _offline;
+	}
+
+	public boolean isProfileStartup() {
+		return _profileStartup;
+	}
+
 	public boolean isTrace() {
 		return _trace;
 	}
@@ -57,12 +65,22 @@ public class BaseArgs {
 	@Parameter(description = "Get help on a specific command.", help = true, names = "--help")
 	private boolean _help;
 
+	@Parameter(
+		description = "Use cached downloads only, without connecting to the network.", names = "--offline"
+	)
+	private boolean _offline;
+
 	@Parameter(
 		description = "Specify the profile to use when invoking the command.",
 		names = {"-b", "--build", "-P", "--profile-name"}
 	)
 	private String _profileName;
 
+	@Parameter(
+		description = "Print how long each phase of startup took.", hidden = true, names = "--profile-startup"
+	)
+	private boolean _profileStartup;
+
 	@Parameter(description = "Print exception stack traces when they occur.", names = "--trace")
 	private boolean _trace;
 
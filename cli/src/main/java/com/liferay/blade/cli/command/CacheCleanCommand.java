@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import com.liferay.blade.cli.BladeCLI;
+import com.liferay.blade.cli.ExtensionsCache;
+import com.liferay.blade.cli.util.FileUtil;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class CacheCleanCommand extends BaseCommand<CacheCleanArgs> {
+
+	public CacheCleanCommand() {
+	}
+
+	@Override
+	public void execute() throws Exception {
+		BladeCLI bladeCLI = getBladeCLI();
+
+		Path cachePath = bladeCLI.getCachePath();
+
+		Path extensionsCachePath = cachePath.resolve("extensions");
+
+		Collection<Path> remainingPaths = new ArrayList<>();
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(extensionsCachePath)) {
+			remainingPaths.addAll(extensionsCache.clean());
+		}
+
+		try (Stream<Path> cacheEntries = Files.list(cachePath)) {
+			cacheEntries.filter(
+				path -> !path.equals(extensionsCachePath)
+			).forEach(
+				path -> {
+					try {
+						if (Files.isDirectory(path)) {
+							FileUtil.deleteDir(path);
+						}
+						else {
+							Files.delete(path);
+						}
+					}
+					catch (IOException ioe) {
+						remainingPaths.add(path);
+					}
+				}
+			);
+		}
+
+		for (Path remainingPath : remainingPaths) {
+			bladeCLI.error("Unable to remove " + remainingPath + ", it may be in use by another process.");
+		}
+
+		bladeCLI.out("The blade cache has been cleaned.");
+	}
+
+	@Override
+	public Class<CacheCleanArgs> getArgsClass() {
+		return CacheCleanArgs.class;
+	}
+
+}
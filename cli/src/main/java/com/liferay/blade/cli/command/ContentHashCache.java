@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+/**
+ * Remembers a hash of the content of the watched files so that changes which
+ * leave the bytes of a file untouched, such as an editor saving without
+ * changes or a checkout of identical content, can be told apart from real
+ * changes. The hash of a file is only recomputed when its size or
+ * modification time differs from the ones it was hashed with.
+ *
+ * <p>
+ * The hash combines a CRC-32 and an Adler-32 checksum of the content. It is
+ * not meant to resist deliberate collisions, only to detect edits cheaply.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class ContentHashCache {
+
+	/**
+	 * Returns <code>true</code> if the content of the file differs from the
+	 * content it had when it was last seen, or if it had not been seen yet.
+	 * Files that cannot be read are always reported as changed.
+	 */
+	public boolean isChanged(Path path) {
+		FileHash fileHash;
+
+		try {
+			fileHash = _getFileHash(path);
+		}
+		catch (IOException ioe) {
+			_fileHashes.remove(path);
+
+			return true;
+		}
+
+		FileHash previousFileHash = _fileHashes.put(path, fileHash);
+
+		if ((previousFileHash == null) || !previousFileHash.isSameContent(fileHash)) {
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Records the current content of the file, unless it is already known,
+	 * without reporting whether it changed.
+	 */
+	public void prime(Path path) {
+		if (_fileHashes.containsKey(path)) {
+			return;
+		}
+
+		try {
+			_fileHashes.putIfAbsent(path, _getFileHash(path));
+		}
+		catch (IOException ioe) {
+		}
+	}
+
+	public void remove(Path path) {
+		_fileHashes.remove(path);
+	}
+
+	public int size() {
+		return _fileHashes.size();
+	}
+
+	private static long _hash(Path path) throws IOException {
+		CRC32 crc32 = new CRC32();
+		Adler32 adler32 = new Adler32();
+
+		byte[] buffer = new byte[_BUFFER_SIZE];
+
+		try (InputStream inputStream = Files.newInputStream(path)) {
+			int length = inputStream.read(buffer);
+
+			while (length != -1) {
+				crc32.update(buffer, 0, length);
+				adler32.update(buffer, 0, length);
+
+				length = inputStream.read(buffer);
+			}
+		}
+
+		return (crc32.getValue() << 32) | adler32.getValue();
+	}
+
+	private FileHash _getFileHash(Path path) throws IOException {
+		BasicFileAttributes basicFileAttributes = Files.readAttributes(
+			path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+		FileTime lastModifiedTime = basicFileAttributes.lastModifiedTime();
+
+		long lastModified = lastModifiedTime.toMillis();
+		long size = basicFileAttributes.size();
+
+		FileHash fileHash = _fileHashes.get(path);
+
+		if ((fileHash != null) && (fileHash.getLastModified() == lastModified) && (fileHash.getSize() == size)) {
+			return fileHash;
+		}
+
+		return new FileHash(size, lastModified, _hash(path));
+	}
+
+	private static final int _BUFFER_SIZE = 65536;
+
+	private final Map<Path, FileHash> _fileHashes = new ConcurrentHashMap<>();
+
+	private static class FileHash {
+
+		public FileHash(long size, long lastModified, long hash) {
+			_size = size;
+			_lastModified = lastModified;
+			_hash = hash;
+		}
+
+		public long getLastModified() {
+			return _lastModified;
+		}
+
+		public long getSize() {
+			return _size;
+		}
+
+		public boolean isSameContent(FileHash fileHash) {
+			if ((_size == fileHash._size) && (_hash == fileHash._hash)) {
+				return true;
+			}
+
+			return false;
+		}
+
+		private final long _hash;
+		private final long _lastModified;
+		private final long _size;
+
+	}
+
+}
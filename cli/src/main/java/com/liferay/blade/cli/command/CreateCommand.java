@@ -16,6 +16,7 @@
 
 package com.liferay.blade.cli.command;
 
+import com.liferay.blade.cli.ArtifactCache;
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.BladeSettings;
 import com.liferay.blade.cli.WorkspaceConstants;
@@ -288,12 +289,16 @@ public class CreateCommand extends BaseCommand<CreateArgs> {
 	protected Map<String, String> getProjectTemplateArgsExtProperties(CreateArgs createArgs) {
 		Map<String, String> properties = new HashMap<>();
 
+		ArtifactCache artifactCache = getBladeCLI().getArtifactCache();
+
+		properties.put("setArtifactCachePath", String.valueOf(artifactCache.getCachePath()));
 		properties.put("setContributorType", createArgs.getContributorType());
 		properties.put("setDependencyInjector", createArgs.getDependencyInjector());
 		properties.put("setFramework", createArgs.getFramework());
 		properties.put("setFrameworkDependencies", createArgs.getFrameworkDependencies());
 		properties.put("setHostBundleSymbolicName", createArgs.getHostBundleBSN());
 		properties.put("setHostBundleVersion", createArgs.getHostBundleVersion());
+		properties.put("setOffline", String.valueOf(artifactCache.isOffline()));
 		properties.put("setOriginalModuleName", createArgs.getOriginalModuleName());
 		properties.put("setOriginalModuleVersion", createArgs.getOriginalModuleVersion());
 		properties.put("setService", createArgs.getService());
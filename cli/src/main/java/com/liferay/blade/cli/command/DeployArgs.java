@@ -25,10 +25,29 @@ import com.beust.jcommander.Parameters;
 @Parameters(commandDescription = "Builds and deploys bundles to the Liferay module framework.", commandNames = "deploy")
 public class DeployArgs extends BaseArgs {
 
+	public int getParallel() {
+		return _parallel;
+	}
+
+	public boolean isForkGradle() {
+		return _forkGradle;
+	}
+
 	public boolean isWatch() {
 		return _watch;
 	}
 
+	@Parameter(
+		description = "Run each Gradle build in a new gradlew process instead of a Tooling API connection.",
+		names = "--fork-gradle"
+	)
+	private boolean _forkGradle;
+
+	@Parameter(
+		description = "The maximum number of projects Gradle builds and deploys in parallel.", names = "--parallel"
+	)
+	private int _parallel = 1;
+
 	@Parameter(
 		description = "Watches the deployed file for changes and will automatically redeploy", names = {"-w", "--watch"}
 	)
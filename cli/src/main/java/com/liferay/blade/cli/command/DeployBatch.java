@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Coalesces the changes reported while watching into a single Gradle
+ * invocation. Changes are recorded per Gradle project and collapsed into the
+ * least expensive task that brings the project up to date. The batch becomes
+ * due once no change has been added for the quiet period, or once the oldest
+ * pending change has waited ten quiet periods, whichever comes first.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class DeployBatch {
+
+	public DeployBatch(long quietPeriod) {
+		this(quietPeriod, System::nanoTime);
+	}
+
+	public DeployBatch(long quietPeriod, LongSupplier nanoTimeSupplier) {
+		_quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(quietPeriod);
+		_nanoTimeSupplier = nanoTimeSupplier;
+	}
+
+	/**
+	 * Records a change to the given project. An empty project path stands for
+	 * changes outside of any known project, whose tasks are run unqualified.
+	 */
+	public void add(String projectPath, Change change) {
+		long now = _nanoTimeSupplier.getAsLong();
+
+		if (_changes.isEmpty()) {
+			_firstChangeNanos = now;
+		}
+
+		_lastChangeNanos = now;
+
+		_changeCount++;
+
+		_changes.merge(
+			projectPath, change, (change1, change2) -> (change1.compareTo(change2) >= 0) ? change1 : change2);
+	}
+
+	public int getChangeCount() {
+		return _changeCount;
+	}
+
+	public SortedMap<String, Change> getChanges() {
+		return _changes;
+	}
+
+	/**
+	 * Returns the number of milliseconds until the batch is due, or
+	 * <code>-1</code> if the batch is empty.
+	 */
+	public long getDelay() {
+		if (_changes.isEmpty()) {
+			return -1;
+		}
+
+		long now = _nanoTimeSupplier.getAsLong();
+
+		long dueNanos = Math.min(_lastChangeNanos + _quietPeriodNanos, _firstChangeNanos + (_quietPeriodNanos * 10));
+
+		return Math.max(TimeUnit.NANOSECONDS.toMillis(dueNanos - now), 0);
+	}
+
+	/**
+	 * Returns the Gradle arguments that deploy every pending change, for
+	 * example <code>:modules:a:deploy :modules:b:deployFast -a</code>.
+	 * <code>-a</code> is only passed when no project needs its dependencies
+	 * rebuilt.
+	 */
+	public String getTasks() {
+		StringBuilder sb = new StringBuilder();
+
+		boolean rebuild = false;
+
+		for (Map.Entry<String, Change> entry : _changes.entrySet()) {
+			String projectPath = entry.getKey();
+			Change change = entry.getValue();
+
+			for (String taskName : change.getTaskNames()) {
+				if (sb.length() > 0) {
+					sb.append(' ');
+				}
+
+				if (!projectPath.isEmpty()) {
+					sb.append(projectPath);
+					sb.append(':');
+				}
+
+				sb.append(taskName);
+			}
+
+			if (change.isRebuild()) {
+				rebuild = true;
+			}
+		}
+
+		if (!rebuild) {
+			sb.append(" -a");
+		}
+
+		return sb.toString();
+	}
+
+	public boolean isEmpty() {
+		return _changes.isEmpty();
+	}
+
+	public void reset() {
+		_changeCount = 0;
+		_changes.clear();
+	}
+
+	/**
+	 * The kinds of change, from the least to the most expensive to deploy.
+	 */
+	public enum Change {
+
+		MODIFIED_FAST(false, "deployFast"), MODIFIED(false, "deploy"), CREATED(true, "deploy"),
+		DELETED(true, "clean", "deploy");
+
+		public String[] getTaskNames() {
+			return _taskNames;
+		}
+
+		public boolean isRebuild() {
+			return _rebuild;
+		}
+
+		private Change(boolean rebuild, String... taskNames) {
+			_rebuild = rebuild;
+			_taskNames = taskNames;
+		}
+
+		private final boolean _rebuild;
+		private final String[] _taskNames;
+
+	}
+
+	private int _changeCount;
+	private final SortedMap<String, Change> _changes = new TreeMap<>();
+	private long _firstChangeNanos;
+	private long _lastChangeNanos;
+	private final LongSupplier _nanoTimeSupplier;
+	private final long _quietPeriodNanos;
+
+}
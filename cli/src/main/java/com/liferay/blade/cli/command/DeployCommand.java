@@ -18,7 +18,7 @@ package com.liferay.blade.cli.command;
 
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.WorkspaceProvider;
-import com.liferay.blade.cli.gradle.GradleExec;
+import com.liferay.blade.cli.gradle.GradleSession;
 import com.liferay.blade.cli.gradle.ProcessResult;
 
 import java.io.File;
@@ -37,19 +37,25 @@ public class DeployCommand extends BaseCommand<DeployArgs> {
 	public void execute() throws Exception {
 		BladeCLI bladeCLI = getBladeCLI();
 
-		GradleExec gradleExec = new GradleExec(bladeCLI);
-
 		DeployArgs deployArgs = getArgs();
 
 		File baseDir = new File(deployArgs.getBase());
 
 		WorkspaceProvider workspaceProvider = bladeCLI.getWorkspaceProvider(baseDir);
 
-		if (workspaceProvider != null) {
-			_deploy(gradleExec, "deploy");
+		String parallelArguments = "";
+
+		if (deployArgs.getParallel() > 1) {
+			parallelArguments = " --parallel --max-workers=" + deployArgs.getParallel();
 		}
-		else {
-			_deploy(gradleExec, "clean deploy");
+
+		try (GradleSession gradleSession = new GradleSession(bladeCLI, baseDir, deployArgs.isForkGradle())) {
+			if (workspaceProvider != null) {
+				_deploy(gradleSession, "deploy" + parallelArguments);
+			}
+			else {
+				_deploy(gradleSession, "clean deploy" + parallelArguments);
+			}
 		}
 	}
 
@@ -64,12 +70,8 @@ public class DeployCommand extends BaseCommand<DeployArgs> {
 		bladeCLI.addErrors("deploy", Collections.singleton(msg));
 	}
 
-	private void _deploy(GradleExec gradle, String command) throws Exception {
-		DeployArgs deployArgs = getArgs();
-
-		File baseDir = new File(deployArgs.getBase());
-
-		ProcessResult processResult = gradle.executeTask(command, baseDir, false);
+	private void _deploy(GradleSession gradleSession, String command) throws Exception {
+		ProcessResult processResult = gradleSession.executeTask(command, false);
 
 		int resultCode = processResult.getResultCode();
 
@@ -108,11 +108,9 @@ public class InstallExtensionCommand extends BaseCommand<InstallExtensionArgs> {
 
 					Path projectPath = Files.createTempDirectory("extension");
 
-					Path zip = projectPath.resolve("master.zip");
-
 					bladeCLI.out("Downloading github repository " + githubRootUrl);
 
-					BladeUtil.downloadGithubProject(String.valueOf(githubRootUrl), zip);
+					Path zip = _downloadGithubProject(String.valueOf(githubRootUrl));
 
 					bladeCLI.out("Unzipping github repository to " + projectPath);
 
@@ -161,13 +159,11 @@ public class InstallExtensionCommand extends BaseCommand<InstallExtensionArgs> {
 					Path path = Files.createTempDirectory(null);
 
 					try {
-						Path zip = path.resolve("master.zip");
-
 						File dir = path.toFile();
 
 						bladeCLI.out("Downloading github repository " + pathArg);
 
-						BladeUtil.downloadGithubProject(pathArg, zip);
+						Path zip = _downloadGithubProject(pathArg);
 
 						bladeCLI.out("Unzipping github repository to " + path);
 
@@ -315,10 +311,18 @@ public class InstallExtensionCommand extends BaseCommand<InstallExtensionArgs> {
 		}
 	}
 
+	private Path _downloadGithubProject(String url) throws IOException {
+		BladeCLI bladeCLI = getBladeCLI();
+
+		return BladeUtil.downloadGithubProject(bladeCLI.getArtifactCache(), url);
+	}
+
 	private Set<Path> _gradleAssemble(Path projectPath) throws Exception {
-		GradleExec gradleExec = new GradleExec(getBladeCLI());
+		BladeCLI bladeCLI = getBladeCLI();
+
+		GradleExec gradleExec = new GradleExec(bladeCLI);
 
-		ProjectInfo projectInfo = GradleTooling.loadProjectInfo(projectPath);
+		ProjectInfo projectInfo = GradleTooling.loadProjectInfo(bladeCLI.getCachePath(), projectPath);
 
 		Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
 
@@ -56,7 +56,7 @@ public class OpenCommand extends BaseCommand<OpenArgs> {
 		bladeCLI.trace("Trying to open directory : " + file);
 
 		try {
-			IDEConnector connector = new IDEConnector(trace -> bladeCLI.trace(trace));
+			IDEConnector connector = new IDEConnector(bladeCLI.getCachePath(), trace -> bladeCLI.trace(trace));
 
 			if (file.isDirectory()) {
 				Object retval = connector.openDir(file);
@@ -43,7 +43,7 @@ public class OutputsCommand extends BaseCommand<OutputsArgs> {
 
 		File base = new File(args.getBase());
 
-		ProjectInfo projectInfo = GradleTooling.loadProjectInfo(base.toPath());
+		ProjectInfo projectInfo = GradleTooling.loadProjectInfo(bladeCLI.getCachePath(), base.toPath());
 
 		Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
 
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import com.liferay.blade.cli.util.BladeUtil;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Copies changed resources of a module straight into the directory the
+ * running portal extracted the module to, <code>work/[bsn]-[version]</code>
+ * under the Liferay home, which is what the <code>deployFast</code> task does
+ * without the cost of configuring a Gradle build.
+ *
+ * <p>
+ * Only files under <code>src/main/resources</code> that are used as they are
+ * can be copied. Anything that is compiled into another artifact first, or a
+ * module whose symbolic name or version cannot be read from its
+ * <code>bnd.bnd</code>, is left to Gradle.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class ResourceDeployer {
+
+	public ResourceDeployer(Path liferayHomePath) {
+		_workPath = liferayHomePath.resolve("work");
+	}
+
+	/**
+	 * Copies the changed resource of the given project into its extracted
+	 * module and returns <code>true</code>, or returns <code>false</code> if
+	 * the resource has to be deployed by Gradle instead.
+	 */
+	public boolean deploy(Path projectPath, Path resourcePath) throws IOException {
+		Path resourcesPath = projectPath.resolve(_RESOURCES_DIR);
+
+		if (!resourcePath.startsWith(resourcesPath) || !Files.isRegularFile(resourcePath) ||
+			_isCompiled(resourcePath)) {
+
+			return false;
+		}
+
+		Optional<Path> bundleWorkPath = _getBundleWorkPath(projectPath);
+
+		if (!bundleWorkPath.isPresent() || !Files.isDirectory(bundleWorkPath.get())) {
+			return false;
+		}
+
+		Path relativePath = resourcesPath.relativize(resourcePath);
+
+		Path targetPath = bundleWorkPath.get(
+		).resolve(
+			relativePath.toString()
+		);
+
+		Files.createDirectories(targetPath.getParent());
+
+		Path tempPath = Files.createTempFile(targetPath.getParent(), String.valueOf(targetPath.getFileName()), ".tmp");
+
+		try {
+			Files.copy(resourcePath, tempPath, StandardCopyOption.REPLACE_EXISTING);
+
+			try {
+				Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+
+		return true;
+	}
+
+	private static boolean _isCompiled(Path resourcePath) {
+		String fileName = String.valueOf(resourcePath.getFileName());
+
+		for (String compiledExtension : _COMPILED_EXTENSIONS) {
+			if (fileName.endsWith(compiledExtension)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Reads the work directory from the <code>bnd.bnd</code> on every call,
+	 * a bump of the <code>Bundle-Version</code> moves the extracted module to
+	 * a new directory.
+	 */
+	private Optional<Path> _getBundleWorkPath(Path projectPath) {
+		File bndFile = new File(projectPath.toFile(), "bnd.bnd");
+
+		if (!bndFile.exists()) {
+			return Optional.empty();
+		}
+
+		Properties properties = BladeUtil.getProperties(bndFile);
+
+		if (properties == null) {
+			return Optional.empty();
+		}
+
+		String bundleSymbolicName = properties.getProperty("Bundle-SymbolicName");
+		String bundleVersion = properties.getProperty("Bundle-Version");
+
+		if (BladeUtil.isEmpty(bundleSymbolicName) || BladeUtil.isEmpty(bundleVersion) ||
+			bundleSymbolicName.contains("$") || bundleVersion.contains("$")) {
+
+			return Optional.empty();
+		}
+
+		int index = bundleSymbolicName.indexOf(';');
+
+		if (index != -1) {
+			bundleSymbolicName = bundleSymbolicName.substring(0, index);
+		}
+
+		return Optional.of(_workPath.resolve(bundleSymbolicName.trim() + "-" + bundleVersion.trim()));
+	}
+
+	private static final List<String> _COMPILED_EXTENSIONS = Arrays.asList(
+		".es.js", ".sass", ".scss", ".soy", ".ts", ".tsx");
+	private static final String _RESOURCES_DIR = "src/main/resources";
+
+	private final Path _workPath;
+
+}
@@ -16,6 +16,7 @@
 
 package com.liferay.blade.cli.command;
 
+import com.liferay.blade.cli.ArtifactCache;
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.BladeSettings;
 import com.liferay.blade.cli.WorkspaceProvider;
@@ -25,6 +26,7 @@ import com.liferay.blade.cli.util.FileUtil;
 import java.io.File;
 import java.io.IOException;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
@@ -32,7 +34,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -57,16 +58,16 @@ public class SamplesCommand extends BaseCommand<SamplesArgs> {
 
 		final String bladeRepoName = "liferay-blade-samples-" + liferayVersion;
 
-		final String bladeRepoArchiveName = bladeRepoName + ".zip";
-
 		final String bladeRepoUrl =
 			"https://github.com/liferay/liferay-blade-samples/archive/" + liferayVersion + ".zip";
 
 		final String sampleName = samplesArgs.getSampleName();
 
-		if (_downloadBladeRepoIfNeeded(bladeRepoArchiveName, bladeRepoUrl)) {
-			_extractBladeRepo(bladeRepoArchiveName);
-		}
+		ArtifactCache artifactCache = bladeCLI.getArtifactCache();
+
+		Path bladeRepoArchivePath = artifactCache.get(bladeRepoUrl);
+
+		_extractBladeRepoIfNeeded(bladeRepoName, bladeRepoArchivePath, artifactCache.getHash(bladeRepoArchivePath));
 
 		if (sampleName == null) {
 			_listSamples(bladeRepoName);
@@ -133,42 +134,30 @@ public class SamplesCommand extends BaseCommand<SamplesArgs> {
 		return s.replaceAll("(?m)^\t", "");
 	}
 
-	private boolean _downloadBladeRepoIfNeeded(String bladeRepoArchiveName, String bladeRepoUrl) throws Exception {
-		Path cachePath = _getSamplesCachePath();
-
-		File bladeRepoArchive = new File(cachePath.toFile(), bladeRepoArchiveName);
-
-		Date now = new Date();
-
-		if (bladeRepoArchive.exists()) {
-			long diff = now.getTime() - bladeRepoArchive.lastModified();
+	/**
+	 * Extracts the samples archive unless the samples were already extracted
+	 * from an archive with the same content hash.
+	 */
+	private void _extractBladeRepoIfNeeded(String bladeRepoName, Path bladeRepoArchivePath, String source)
+		throws IOException {
 
-			boolean old = false;
+		Path samplesCachePath = _getSamplesCachePath();
 
-			if (diff > _FILE_EXPIRATION_TIME) {
-				old = true;
-			}
+		Path bladeRepoPath = samplesCachePath.resolve(bladeRepoName);
 
-			if (old || !BladeUtil.isZipValid(bladeRepoArchive)) {
-				bladeRepoArchive.delete();
-			}
-		}
+		Path sourcePath = samplesCachePath.resolve(bladeRepoName + ".source");
 
-		if (!bladeRepoArchive.exists()) {
-			BladeUtil.downloadLink(bladeRepoUrl, bladeRepoArchive.toPath());
+		if (Files.exists(bladeRepoPath) && Files.exists(sourcePath) &&
+			source.equals(new String(Files.readAllBytes(sourcePath), StandardCharsets.UTF_8))) {
 
-			return true;
+			return;
 		}
 
-		return false;
-	}
-
-	private void _extractBladeRepo(String bladeRepoArchiveName) throws Exception {
-		Path samplesCachePath = _getSamplesCachePath();
+		FileUtil.deleteDirIfExists(bladeRepoPath);
 
-		File bladeRepoArchive = new File(samplesCachePath.toFile(), bladeRepoArchiveName);
+		FileUtil.unzip(bladeRepoArchivePath.toFile(), samplesCachePath.toFile(), null);
 
-		FileUtil.unzip(bladeRepoArchive, samplesCachePath.toFile(), null);
+		Files.write(sourcePath, source.getBytes(StandardCharsets.UTF_8));
 	}
 
 	private String _getLiferayVersion(BladeCLI bladeCLI, SamplesArgs samplesArgs) throws IOException {
@@ -357,8 +346,6 @@ public class SamplesCommand extends BaseCommand<SamplesArgs> {
 		Files.write(sampleGradleFile.toPath(), script.getBytes());
 	}
 
-	private static final long _FILE_EXPIRATION_TIME = 604800000;
-
 	private static final File _USER_HOME_DIR = new File(System.getProperty("user.home"));
 
 	private static final Collection<String> _topLevelFolders = Arrays.asList(
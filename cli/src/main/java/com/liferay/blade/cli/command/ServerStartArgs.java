@@ -31,6 +31,10 @@ public class ServerStartArgs extends BaseArgs {
 		return _debugPort;
 	}
 
+	public String getTailFilter() {
+		return _tailFilter;
+	}
+
 	public boolean isDebug() {
 		return _debug;
 	}
@@ -62,4 +66,10 @@ public class ServerStartArgs extends BaseArgs {
 	@Parameter(description = "Tail the started server", names = {"-t", "--tail"})
 	private boolean _tail;
 
+	@Parameter(
+		description = "When tailing, only print the log lines that contain the given text",
+		names = "--tail-filter"
+	)
+	private String _tailFilter;
+
 }
\ No newline at end of file
@@ -165,7 +165,7 @@ public class ServerStartCommand extends BaseCommand<ServerStartArgs> {
 
 		if (serverStartArgs.isTail()) {
 			if (log.isPresent()) {
-				BladeUtil.tail(log.get(), bladeCLI.out());
+				BladeUtil.tail(log.get(), serverStartArgs.getTailFilter(), bladeCLI.out());
 			}
 		}
 		else {
@@ -0,0 +1,422 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import com.liferay.blade.cli.BladeCLI;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.select.Elements;
+
+/**
+ * Checks for blade updates on a background thread while a command runs. The
+ * result is cached in <code>~/.blade/update-check</code> together with the
+ * ETag and Last-Modified headers of the metadata that was fetched, so the
+ * notice can be printed from the cache without touching the network and the
+ * daily refresh is a conditional request. The check is given a fixed time
+ * budget; if it has not finished by the time the command completes the cached
+ * result is used instead. The check runs on a daemon thread, so it is
+ * abandoned when blade exits before it completes. The check time is only
+ * recorded once a fetched result is stored, so a failed or abandoned check is
+ * retried by the next command.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class UpdateCheck {
+
+	public UpdateCheck(Path updateCheckPath, String currentVersion) {
+		this(updateCheckPath, currentVersion, UpdateCommand.getUpdateUrl(false), UpdateCommand.getUpdateUrl(true));
+	}
+
+	public UpdateCheck(Path updateCheckPath, String currentVersion, String releaseUrl, String snapshotUrl) {
+		_updateCheckPath = updateCheckPath;
+		_currentVersion = currentVersion;
+		_releaseUrl = releaseUrl;
+		_snapshotUrl = snapshotUrl;
+	}
+
+	public void printUpdateIfAvailable(BladeCLI bladeCLI) throws IOException {
+		if (_future != null) {
+			try {
+				long timeout = Math.max(_deadline - System.currentTimeMillis(), 0);
+
+				_properties = _future.get(timeout, TimeUnit.MILLISECONDS);
+			}
+			catch (ExecutionException | TimeoutException e) {
+				BaseArgs args = bladeCLI.getArgs();
+
+				if (args.isTrace()) {
+					bladeCLI.error("Could not determine if blade update is available.");
+
+					e.printStackTrace(bladeCLI.error());
+				}
+			}
+			catch (InterruptedException ie) {
+				Thread thread = Thread.currentThread();
+
+				thread.interrupt();
+			}
+		}
+
+		String releaseUpdateVersion = _getProperty(_RELEASE_UPDATE_VERSION_KEY);
+		String snapshotUpdateVersion = _getProperty(_SNAPSHOT_UPDATE_VERSION_KEY);
+
+		if (((releaseUpdateVersion != null) || (snapshotUpdateVersion != null)) &&
+			_isDue(_LAST_UPDATE_NOTICE_KEY)) {
+
+			_printUpdate(bladeCLI, releaseUpdateVersion, snapshotUpdateVersion);
+
+			_storeLastUpdateNotice();
+		}
+	}
+
+	public void start() {
+		_load(_properties);
+
+		if (!Objects.equals(_currentVersion, _properties.getProperty(_BLADE_VERSION_KEY))) {
+			_properties.clear();
+		}
+		else if (!_isDue(_LAST_UPDATE_CHECK_KEY)) {
+			return;
+		}
+
+		ExecutorService executorService = Executors.newSingleThreadExecutor(
+			runnable -> {
+				Thread thread = new Thread(runnable, "blade-update-check");
+
+				thread.setDaemon(true);
+
+				return thread;
+			});
+
+		Properties properties = new Properties();
+
+		properties.putAll(_properties);
+
+		_deadline = System.currentTimeMillis() + _TIMEOUT;
+
+		_future = executorService.submit(
+			() -> {
+				_check(properties);
+
+				properties.setProperty(_LAST_UPDATE_CHECK_KEY, String.valueOf(System.currentTimeMillis()));
+
+				_storeCheck(properties);
+
+				return properties;
+			});
+
+		executorService.shutdown();
+	}
+
+	private static String _getLatestVersion(Document document, boolean snapshots) {
+		Elements versionElements = document.select("version");
+
+		String latestVersion = null;
+
+		for (Element versionElement : versionElements) {
+			String version = versionElement.text();
+
+			if (version.contains("SNAPSHOT") == snapshots) {
+				latestVersion = version;
+			}
+		}
+
+		return latestVersion;
+	}
+
+	private static String _getSnapshotVersion(Document document) {
+		Elements valueElements = document.select("snapshotVersion > value");
+
+		if (valueElements.isEmpty()) {
+			return null;
+		}
+
+		Element valueElement = valueElements.get(0);
+
+		return valueElement.text();
+	}
+
+	private void _check(Properties properties) throws IOException {
+		properties.remove(_RELEASE_UPDATE_VERSION_KEY);
+		properties.remove(_SNAPSHOT_UPDATE_VERSION_KEY);
+
+		String releaseVersion = _fetch(
+			properties, _releaseUrl + "maven-metadata.xml", document -> _getLatestVersion(document, false));
+
+		if ((releaseVersion != null) && UpdateCommand.shouldUpdate(_currentVersion, releaseVersion, true)) {
+			properties.setProperty(_RELEASE_UPDATE_VERSION_KEY, releaseVersion);
+		}
+
+		if (_currentVersion.contains("SNAPSHOT")) {
+			String snapshotVersion = _fetch(
+				properties, _snapshotUrl + "maven-metadata.xml", document -> _getLatestVersion(document, true));
+
+			if (snapshotVersion != null) {
+				snapshotVersion = _fetch(
+					properties, _snapshotUrl + snapshotVersion + "/maven-metadata.xml",
+					UpdateCheck::_getSnapshotVersion);
+			}
+
+			if ((snapshotVersion != null) && UpdateCommand.shouldUpdate(_currentVersion, snapshotVersion, false)) {
+				properties.setProperty(_SNAPSHOT_UPDATE_VERSION_KEY, snapshotVersion);
+			}
+		}
+
+		properties.setProperty(_BLADE_VERSION_KEY, _currentVersion);
+	}
+
+	private String _fetch(Properties properties, String url, Function<Document, String> function)
+		throws IOException {
+
+		Connection connection = Jsoup.connect(url);
+
+		connection = connection.ignoreHttpErrors(true);
+		connection = connection.parser(Parser.xmlParser());
+		connection = connection.timeout(_TIMEOUT);
+
+		String etag = properties.getProperty(_ETAG_KEY_PREFIX + url);
+
+		if (etag != null) {
+			connection = connection.header("If-None-Match", etag);
+		}
+
+		String lastModified = properties.getProperty(_LAST_MODIFIED_KEY_PREFIX + url);
+
+		if (lastModified != null) {
+			connection = connection.header("If-Modified-Since", lastModified);
+		}
+
+		Connection.Response response = connection.execute();
+
+		int statusCode = response.statusCode();
+
+		if ((statusCode == 304) && properties.containsKey(_VALUE_KEY_PREFIX + url)) {
+			return _getProperty(properties, _VALUE_KEY_PREFIX + url);
+		}
+
+		if (statusCode != 200) {
+			throw new IOException("Unable to fetch " + url + ": " + statusCode + " " + response.statusMessage());
+		}
+
+		String value = function.apply(response.parse());
+
+		_setProperty(properties, _ETAG_KEY_PREFIX + url, response.header("ETag"));
+		_setProperty(properties, _LAST_MODIFIED_KEY_PREFIX + url, response.header("Last-Modified"));
+
+		properties.setProperty(_VALUE_KEY_PREFIX + url, Objects.toString(value, ""));
+
+		return value;
+	}
+
+	private String _getProperty(Properties properties, String key) {
+		String value = properties.getProperty(key);
+
+		if ((value == null) || value.isEmpty()) {
+			return null;
+		}
+
+		return value;
+	}
+
+	private String _getProperty(String key) {
+		return _getProperty(_properties, key);
+	}
+
+	private boolean _isDue(String key) {
+		try {
+			Instant instant = Instant.ofEpochMilli(Long.parseLong(_properties.getProperty(key)));
+
+			Instant now = Instant.now();
+
+			return instant.isBefore(now.minus(1, ChronoUnit.DAYS));
+		}
+		catch (NumberFormatException nfe) {
+			return true;
+		}
+	}
+
+	private void _load(Properties properties) {
+		if (Files.notExists(_updateCheckPath)) {
+			return;
+		}
+
+		try (InputStream inputStream = Files.newInputStream(_updateCheckPath)) {
+			properties.load(inputStream);
+		}
+		catch (IllegalArgumentException | IOException e) {
+			properties.clear();
+		}
+	}
+
+	private void _printUpdate(BladeCLI bladeCLI, String releaseUpdateVersion, String snapshotUpdateVersion) {
+		String currentVersion = _currentVersion;
+
+		boolean currentVersionIsSnapshot = currentVersion.contains("SNAPSHOT");
+
+		currentVersion = currentVersion.replace("SNAPSHOT", "");
+
+		if (!currentVersionIsSnapshot) {
+			currentVersion = currentVersion.substring(0, 5);
+		}
+
+		if (currentVersionIsSnapshot) {
+			if (snapshotUpdateVersion != null) {
+				snapshotUpdateVersion =
+					snapshotUpdateVersion.substring(0, 14) + snapshotUpdateVersion.substring(15, 19);
+
+				snapshotUpdateVersion = snapshotUpdateVersion.replace('-', '.');
+
+				snapshotUpdateVersion = snapshotUpdateVersion.trim();
+			}
+
+			if ((releaseUpdateVersion != null) && (snapshotUpdateVersion != null)) {
+				bladeCLI.out("Updates available to the installed version: " + currentVersion);
+				bladeCLI.out("-> (Snapshot) " + snapshotUpdateVersion + "\t Run `blade update` to install");
+				bladeCLI.out("-> (Release) " + releaseUpdateVersion + "\t\t\t Run `blade update -r` to install");
+			}
+			else if (snapshotUpdateVersion != null) {
+				bladeCLI.out("Update available " + currentVersion + " -> " + snapshotUpdateVersion);
+				bladeCLI.out("Run `blade update` to install");
+			}
+			else if (releaseUpdateVersion != null) {
+				bladeCLI.out("Update available " + currentVersion + " -> " + releaseUpdateVersion);
+				bladeCLI.out("Run `blade update -r` to install");
+			}
+		}
+		else if (releaseUpdateVersion != null) {
+			bladeCLI.out("Update available " + currentVersion + " -> " + releaseUpdateVersion);
+			bladeCLI.out("Run `blade update` to install");
+		}
+	}
+
+	private void _setProperty(Properties properties, String key, String value) {
+		if (value == null) {
+			properties.remove(key);
+		}
+		else {
+			properties.setProperty(key, value);
+		}
+	}
+
+	private void _store(Properties properties) throws IOException {
+		Files.createDirectories(_updateCheckPath.getParent());
+
+		Path tempPath = Files.createTempFile(_updateCheckPath.getParent(), "update-check", ".tmp");
+
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+				properties.store(outputStream, null);
+			}
+
+			try {
+				Files.move(
+					tempPath, _updateCheckPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, _updateCheckPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private synchronized void _storeCheck(Properties properties) throws IOException {
+		Properties storedProperties = new Properties();
+
+		_load(storedProperties);
+
+		String lastUpdateNotice = storedProperties.getProperty(_LAST_UPDATE_NOTICE_KEY);
+
+		if ((lastUpdateNotice != null) &&
+			Objects.equals(_currentVersion, storedProperties.getProperty(_BLADE_VERSION_KEY))) {
+
+			properties.setProperty(_LAST_UPDATE_NOTICE_KEY, lastUpdateNotice);
+		}
+
+		_store(properties);
+	}
+
+	private synchronized void _storeLastUpdateNotice() throws IOException {
+		Properties storedProperties = new Properties();
+
+		_load(storedProperties);
+
+		if (!Objects.equals(_currentVersion, storedProperties.getProperty(_BLADE_VERSION_KEY))) {
+			storedProperties.clear();
+
+			storedProperties.setProperty(_BLADE_VERSION_KEY, _currentVersion);
+		}
+
+		storedProperties.setProperty(_LAST_UPDATE_NOTICE_KEY, String.valueOf(System.currentTimeMillis()));
+
+		_store(storedProperties);
+	}
+
+	private static final String _BLADE_VERSION_KEY = "bladeVersion";
+
+	private static final String _ETAG_KEY_PREFIX = "etag.";
+
+	private static final String _LAST_MODIFIED_KEY_PREFIX = "lastModified.";
+
+	private static final String _LAST_UPDATE_CHECK_KEY = "lastUpdateCheck";
+
+	private static final String _LAST_UPDATE_NOTICE_KEY = "lastUpdateNotice";
+
+	private static final String _RELEASE_UPDATE_VERSION_KEY = "releaseUpdateVersion";
+
+	private static final String _SNAPSHOT_UPDATE_VERSION_KEY = "snapshotUpdateVersion";
+
+	private static final int _TIMEOUT = 2000;
+
+	private static final String _VALUE_KEY_PREFIX = "value.";
+
+	private final String _currentVersion;
+	private long _deadline;
+	private Future<Properties> _future;
+	private Properties _properties = new Properties();
+	private final String _releaseUrl;
+	private final String _snapshotUrl;
+	private final Path _updateCheckPath;
+
+}
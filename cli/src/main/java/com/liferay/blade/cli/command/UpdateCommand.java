@@ -18,6 +18,7 @@ package com.liferay.blade.cli.command;
 
 import aQute.bnd.version.Version;
 
+import com.liferay.blade.cli.ArtifactCache;
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.util.BladeUtil;
 import com.liferay.blade.cli.util.BladeVersions;
@@ -31,6 +32,7 @@ import java.math.BigInteger;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -60,6 +62,28 @@ import org.jsoup.select.Elements;
  */
 public class UpdateCommand extends BaseCommand<UpdateArgs> {
 
+	public static String getUpdateUrl(boolean snapshots) {
+		if (_hasUpdateUrlFromBladeDir()) {
+			return _getUpdateUrlFromBladeDir();
+		}
+
+		if (snapshots) {
+			return _SNAPSHOTS_REPO_URL;
+		}
+
+		return _RELEASES_REPO_URL;
+	}
+
+	public static boolean shouldUpdate(String currentVersion, String updateVersion, boolean release) {
+		String url = null;
+
+		if (_hasUpdateUrlFromBladeDir()) {
+			url = _getUpdateUrlFromBladeDir();
+		}
+
+		return _shouldUpdate(currentVersion, updateVersion, url, release);
+	}
+
 	public UpdateCommand() {
 	}
 
@@ -581,15 +605,7 @@ public class UpdateCommand extends BaseCommand<UpdateArgs> {
 	}
 
 	private static String _getUpdateVersion(boolean snapshotsArg) throws IOException {
-		String url = _RELEASES_REPO_URL;
-
-		if (snapshotsArg) {
-			url = _SNAPSHOTS_REPO_URL;
-		}
-
-		if (_hasUpdateUrlFromBladeDir()) {
-			url = _getUpdateUrlFromBladeDir();
-		}
+		String url = getUpdateUrl(snapshotsArg);
 
 		Connection connection = Jsoup.connect(url + "maven-metadata.xml");
 
@@ -691,12 +707,25 @@ public class UpdateCommand extends BaseCommand<UpdateArgs> {
 		return hasUpdate;
 	}
 
+	/**
+	 * Quotes the argument for <code>sh</code>, so a path with spaces is passed
+	 * as one argument.
+	 */
+	private static String _quote(String argument) {
+		return "'" + argument.replace("'", "'\\''") + "'";
+	}
+
 	private static String _readTextFileFromURL(String urlString) {
 		try {
 			StringBuilder sb = new StringBuilder();
 			URL url = new URL(urlString);
 
-			try (Scanner scanner = new Scanner(url.openStream())) {
+			URLConnection urlConnection = url.openConnection();
+
+			urlConnection.setConnectTimeout(_URL_TIMEOUT);
+			urlConnection.setReadTimeout(_URL_TIMEOUT);
+
+			try (Scanner scanner = new Scanner(urlConnection.getInputStream())) {
 				while (scanner.hasNextLine()) {
 					sb.append(scanner.nextLine() + System.lineSeparator());
 				}
@@ -777,6 +806,17 @@ public class UpdateCommand extends BaseCommand<UpdateArgs> {
 
 		bladeCLI.out("Updating from: " + url);
 
+		ArtifactCache artifactCache = bladeCLI.getArtifactCache();
+
+		try {
+			Path jarPath = artifactCache.get(url);
+
+			url = String.valueOf(jarPath.toAbsolutePath());
+		}
+		catch (IOException ioe) {
+			bladeCLI.error("Unable to download " + url + " into the cache, jpm will download it instead.");
+		}
+
 		if (BladeUtil.isWindows()) {
 			_updateWindows(url);
 		}
@@ -793,7 +833,7 @@ public class UpdateCommand extends BaseCommand<UpdateArgs> {
 		File baseDir = new File(args.getBase());
 
 		try {
-			Process process = BladeUtil.startProcess("jpm install -f " + url, baseDir);
+			Process process = BladeUtil.startProcess("jpm install -f " + _quote(url), baseDir);
 
 			int errCode = process.waitFor();
 
@@ -850,6 +890,8 @@ public class UpdateCommand extends BaseCommand<UpdateArgs> {
 
 	private static final String _SNAPSHOTS_REPO_URL = _BASE_CDN_URL + "liferay-public-snapshots/" + _BLADE_CLI_CONTEXT;
 
+	private static final int _URL_TIMEOUT = 5000;
+
 	private static final Pattern _bladeSnapshotPattern = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+).SNAPSHOT(\\d+)");
 	private static final Pattern _nexusSnapshotPattern = Pattern.compile(
 		"(\\d+)\\.(\\d+)\\.(\\d+)-(\\d+)\\.(\\d\\d\\d\\d)\\d\\d-\\d+");
@@ -19,6 +19,8 @@ package com.liferay.blade.cli.command;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 
+import com.liferay.properties.locator.ReportFormat;
+
 import java.io.File;
 
 /**
@@ -34,6 +36,10 @@ public class UpgradePropsArgs extends BaseArgs {
 		return _bundleDir;
 	}
 
+	public ReportFormat getFormat() {
+		return _format;
+	}
+
 	public File getOutputFile() {
 		return _outputFile;
 	}
@@ -45,6 +51,13 @@ public class UpgradePropsArgs extends BaseArgs {
 	@Parameter(description = "Liferay server bundle directory.", names = {"-d", "--bundle-dir"})
 	private File _bundleDir;
 
+	@Parameter(
+		description = "The format of the report: text, json (a JSON array) or ndjson (one JSON object per line). " +
+			"JSON reports are written while the bundle is being analyzed.",
+		names = "--format"
+	)
+	private ReportFormat _format = ReportFormat.TEXT;
+
 	@Parameter(
 		description = "If specified, write out report to this file, otherwise uses stdout.",
 		names = {"-o", "--output-file"}
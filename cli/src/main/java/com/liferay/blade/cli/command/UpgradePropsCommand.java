@@ -22,6 +22,8 @@ import com.liferay.properties.locator.PropertiesLocatorArgs;
 
 import java.io.File;
 
+import java.nio.file.Path;
+
 import java.util.Collections;
 
 /**
@@ -50,7 +52,11 @@ public class UpgradePropsCommand extends BaseCommand<UpgradePropsArgs> {
 
 		PropertiesLocatorArgs args = new PropertiesLocatorArgs();
 
+		Path cachePath = bladeCLI.getCachePath();
+
 		args.setBundleDir(upgradePropsArgs.getBundleDir());
+		args.setCacheDir(new File(cachePath.toFile(), "properties-locator"));
+		args.setFormat(upgradePropsArgs.getFormat());
 		args.setOutputFile(upgradePropsArgs.getOutputFile());
 		args.setPropertiesFile(upgradePropsArgs.getPropertiesFile());
 
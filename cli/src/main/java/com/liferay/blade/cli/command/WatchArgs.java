@@ -35,6 +35,10 @@ import java.util.stream.Stream;
 )
 public class WatchArgs extends BaseArgs {
 
+	public long getDebounce() {
+		return _debounce;
+	}
+
 	public List<String> getFastPaths() {
 		return Stream.concat(
 			_defaultFastPaths.stream(), _fastPaths.stream()
@@ -51,6 +55,14 @@ public class WatchArgs extends BaseArgs {
 		);
 	}
 
+	public long getPollInterval() {
+		return _pollInterval;
+	}
+
+	public int getPollThreads() {
+		return _pollThreads;
+	}
+
 	public List<String> getProjectPaths() {
 		return Stream.concat(
 			_defaultProjectPaths.stream(), _projectPaths.stream()
@@ -59,10 +71,22 @@ public class WatchArgs extends BaseArgs {
 		);
 	}
 
+	public boolean isForkGradle() {
+		return _forkGradle;
+	}
+
+	public boolean isPoll() {
+		return _poll;
+	}
+
 	public boolean isSkipInit() {
 		return _skipInit;
 	}
 
+	public void setDebounce(long debounce) {
+		_debounce = debounce;
+	}
+
 	public void setFastPaths(List<String> fastPaths) {
 		_fastPaths.addAll(fastPaths);
 	}
@@ -71,6 +95,18 @@ public class WatchArgs extends BaseArgs {
 		_ignorePaths.addAll(ignorePaths);
 	}
 
+	public void setPoll(boolean poll) {
+		_poll = poll;
+	}
+
+	public void setPollInterval(long pollInterval) {
+		_pollInterval = pollInterval;
+	}
+
+	public void setPollThreads(int pollThreads) {
+		_pollThreads = pollThreads;
+	}
+
 	public void setProjectPaths(List<String> projectPaths) {
 		_projectPaths.addAll(projectPaths);
 	}
@@ -87,12 +123,41 @@ public class WatchArgs extends BaseArgs {
 		"gradle");
 	private static final List<String> _defaultProjectPaths = Arrays.asList("src");
 
-	@Parameter(description = "File paths that will use deployFast instead of deploy.", names = {"-f", "--fast-paths"})
+	@Parameter(
+		description = "Milliseconds to wait for further changes before deploying the changed projects together.",
+		names = "--debounce"
+	)
+	private long _debounce = 500;
+
+	@Parameter(
+		description = "File paths that are copied straight into the running portal when possible, or deployed with " +
+			"deployFast instead of deploy.",
+		names = {"-f", "--fast-paths"}
+	)
 	private List<String> _fastPaths = new ArrayList<>();
 
+	@Parameter(
+		description = "Run each Gradle build in a new gradlew process instead of a Tooling API connection.",
+		names = "--fork-gradle"
+	)
+	private boolean _forkGradle;
+
 	@Parameter(description = "Ignored watch paths.", names = {"-i", "--ignore-paths"})
 	private List<String> _ignorePaths = new ArrayList<>();
 
+	@Parameter(
+		description = "Find changes by scanning the files periodically instead of relying on file system events, " +
+			"for workspaces on network file systems or mounted Docker volumes.",
+		names = "--poll"
+	)
+	private boolean _poll;
+
+	@Parameter(description = "Milliseconds between two scans when polling.", names = "--poll-interval")
+	private long _pollInterval = 1000;
+
+	@Parameter(description = "Number of threads used to scan the files when polling.", names = "--poll-threads")
+	private int _pollThreads = Runtime.getRuntime().availableProcessors();
+
 	@Parameter(description = "File paths to use to identify a project path.", names = {"-p", "--project-paths"})
 	private List<String> _projectPaths = new ArrayList<>();
 
@@ -17,9 +17,13 @@
 package com.liferay.blade.cli.command;
 
 import com.liferay.blade.cli.BladeCLI;
-import com.liferay.blade.cli.gradle.GradleExec;
-
-import com.sun.nio.file.SensitivityWatchEventModifier;
+import com.liferay.blade.cli.gradle.GradleSession;
+import com.liferay.blade.cli.gradle.ProcessResult;
+import com.liferay.blade.cli.util.BladeUtil;
+import com.liferay.blade.cli.util.ChangeWatcher;
+import com.liferay.blade.cli.util.FileWatcher;
+import com.liferay.blade.cli.util.PollingFileWatcher;
+import com.liferay.blade.gradle.tooling.ProjectInfo;
 
 import java.io.File;
 import java.io.IOException;
@@ -33,10 +37,6 @@ import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardWatchEventKinds;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
 
 import java.util.ArrayList;
@@ -45,6 +45,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -52,7 +58,6 @@ import java.util.stream.Stream;
  * @author Gregory Amerson
  * @author David Truong
  */
-@SuppressWarnings("restriction")
 public class WatchCommand extends BaseCommand<WatchArgs> {
 
 	public WatchCommand() {
@@ -86,7 +91,7 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 			bladeCLI::out
 		);
 
-		_watch(watchPath, projectPaths, watchArgs.getFastPaths(), ignorePaths, !watchArgs.isSkipInit());
+		_watch(watchPath, projectPaths, watchArgs.getFastPaths(), ignorePaths);
 	}
 
 	@Override
@@ -94,6 +99,16 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 		return WatchArgs.class;
 	}
 
+	private static boolean _isIgnored(Path path, List<PathMatcher> ignorePathMatchers) {
+		for (PathMatcher pathMatcher : ignorePathMatchers) {
+			if (pathMatcher.matches(path)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
 	private void _addError(String prefix, String msg) {
 		getBladeCLI().addErrors(prefix, Collections.singleton(msg));
 	}
@@ -108,6 +123,127 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 		pathMatchers.add(pathMatcher);
 	}
 
+	private void _cancelBuild(GradleSession gradleSession, DeployBatch deployBatch) {
+		synchronized (deployBatch) {
+			if ((_build == null) || _build.isDone() || _buildChanges.isEmpty() || gradleSession.isFork()) {
+				return;
+			}
+
+			BladeCLI bladeCLI = getBladeCLI();
+
+			bladeCLI.out("New changes detected, cancelling the build in progress...");
+
+			gradleSession.cancel();
+
+			_buildChanges.forEach(deployBatch::add);
+
+			_buildChanges = Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * Starts a build for the pending changes. If a build is still running, the
+	 * changes stay in the batch and are deployed once that build completes, so
+	 * the watch thread never waits for Gradle.
+	 */
+	private void _deploy(GradleSession gradleSession, Path watchPath, DeployBatch deployBatch) {
+		synchronized (deployBatch) {
+			if (deployBatch.isEmpty()) {
+				return;
+			}
+
+			if ((_build != null) && !_build.isDone()) {
+				if (!_deployQueued) {
+					_deployQueued = true;
+
+					_build.whenComplete(
+						(processResult, throwable) -> {
+							synchronized (deployBatch) {
+								_deployQueued = false;
+							}
+
+							_deploy(gradleSession, watchPath, deployBatch);
+						});
+				}
+
+				return;
+			}
+
+			BladeCLI bladeCLI = getBladeCLI();
+
+			String tasks = deployBatch.getTasks();
+
+			bladeCLI.out(deployBatch.getChangeCount() + " change(s) detected, running " + tasks);
+
+			_buildChanges = new TreeMap<>(deployBatch.getChanges());
+
+			deployBatch.reset();
+
+			CompletableFuture<ProcessResult> build = gradleSession.submitTask(tasks, false);
+
+			_build = build.whenComplete(
+				(processResult, throwable) -> {
+					if (throwable instanceof CompletionException) {
+						throwable = throwable.getCause();
+					}
+
+					if (throwable == null) {
+						bladeCLI.out("Watching files in " + watchPath + ". Press Crtl + C to stop.");
+					}
+					else if (!(throwable instanceof CancellationException)) {
+						bladeCLI.error(throwable.getMessage());
+					}
+				});
+		}
+	}
+
+	/**
+	 * Copies a changed resource directly into the running portal when
+	 * possible. Returns <code>false</code> if the change has to be deployed by
+	 * Gradle instead.
+	 */
+	private boolean _deployResource(GradleSession gradleSession, Path projectPath, Path path) {
+		if (_resourceDeployer == null) {
+			_resourceDeployer = _newResourceDeployer(gradleSession);
+		}
+
+		if (!_resourceDeployer.isPresent()) {
+			return false;
+		}
+
+		ResourceDeployer resourceDeployer = _resourceDeployer.get();
+
+		try {
+			return resourceDeployer.deploy(projectPath, path);
+		}
+		catch (IOException ioe) {
+			BladeCLI bladeCLI = getBladeCLI();
+
+			bladeCLI.error("Unable to copy " + path + ": " + ioe.getMessage());
+
+			return false;
+		}
+	}
+
+	private DeployBatch.Change _getChange(
+		FileWatcher.Change change, Path path, List<PathMatcher> fastPathMatchers) {
+
+		if (change == FileWatcher.Change.CREATED) {
+			return DeployBatch.Change.CREATED;
+		}
+		else if (change == FileWatcher.Change.DELETED) {
+			return DeployBatch.Change.DELETED;
+		}
+
+		for (PathMatcher pathMatcher : fastPathMatchers) {
+			if (pathMatcher.matches(path)) {
+				return DeployBatch.Change.MODIFIED_FAST;
+			}
+		}
+
+		return DeployBatch.Change.MODIFIED;
+	}
+
 	private String _getGradlePath(Path path, Path basePath) {
 		Path relativePath = basePath.relativize(path);
 
@@ -132,6 +268,16 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 		return basePath;
 	}
 
+	private Path _getRootPath(Path watchPath) {
+		File rootDir = BladeUtil.findParentFile(watchPath.toFile(), new String[] {"settings.gradle"}, true);
+
+		if (rootDir == null) {
+			return watchPath;
+		}
+
+		return rootDir.toPath();
+	}
+
 	private List<PathMatcher> _getPathMatchers(Path baseDirPath, String... patterns) {
 		FileSystem fileSystem = FileSystems.getDefault();
 
@@ -220,176 +366,192 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 		return foundProjectPaths;
 	}
 
-	private void _registerDirectory(WatchService watcher, Map<WatchKey, Path> keys, Path dir) throws IOException {
-		WatchKey watchKey = dir.register(
-			watcher,
-			new WatchEvent.Kind[] {
-				StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
-				StandardWatchEventKinds.ENTRY_MODIFY
-			},
-			SensitivityWatchEventModifier.HIGH);
+	private ChangeWatcher _newChangeWatcher(Path watchPath, List<PathMatcher> ignorePathMatchers)
+		throws IOException {
+
+		WatchArgs watchArgs = getArgs();
+
+		if (watchArgs.isPoll()) {
+			return new PollingFileWatcher(
+				watchPath, ignorePathMatchers, watchArgs.getPollInterval(), watchArgs.getPollThreads());
+		}
 
-		keys.put(watchKey, dir);
+		return new FileWatcher(watchPath, true, ignorePathMatchers);
 	}
 
-	private void _walkAndRegisterDirectories(
-			final WatchService watchService, final Map<WatchKey, Path> watchKeys, final Path basePath,
-			final List<PathMatcher> ignorePathMatchers)
-		throws IOException {
+	private Optional<ResourceDeployer> _newResourceDeployer(GradleSession gradleSession) {
+		try {
+			ProjectInfo projectInfo = gradleSession.getProjectInfo();
 
-		Files.walkFileTree(
-			basePath,
-			new SimpleFileVisitor<Path>() {
+			String liferayHome = projectInfo.getLiferayHome();
 
-				@Override
-				public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes basicFileAttributes)
-					throws IOException {
+			if (BladeUtil.isEmpty(liferayHome)) {
+				return Optional.empty();
+			}
 
-					for (PathMatcher pathMatcher : ignorePathMatchers) {
-						if (pathMatcher.matches(path)) {
+			return Optional.of(new ResourceDeployer(Paths.get(liferayHome)));
+		}
+		catch (Exception e) {
+			BladeCLI bladeCLI = getBladeCLI();
+
+			bladeCLI.error("Unable to resolve the Liferay home, changed resources will be deployed by Gradle");
+
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Hashes the watched files, so that the first change to a file can be
+	 * compared against its original content. This has to happen before the
+	 * watcher is registered, a file hashed afterwards could already hold the
+	 * changed content and the change would be taken for a no-op.
+	 */
+	private void _primeContentHashCache(
+		ContentHashCache contentHashCache, Path watchPath, List<PathMatcher> ignorePathMatchers) {
+
+		try {
+			Files.walkFileTree(
+				watchPath,
+				new SimpleFileVisitor<Path>() {
+
+					@Override
+					public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes basicFileAttributes) {
+						if (_isIgnored(path, ignorePathMatchers)) {
 							return FileVisitResult.SKIP_SUBTREE;
 						}
+
+						return FileVisitResult.CONTINUE;
 					}
 
-					_registerDirectory(watchService, watchKeys, path);
+					@Override
+					public FileVisitResult visitFile(Path path, BasicFileAttributes basicFileAttributes) {
+						if (basicFileAttributes.isRegularFile() && !_isIgnored(path, ignorePathMatchers)) {
+							contentHashCache.prime(path);
+						}
 
-					return FileVisitResult.CONTINUE;
-				}
+						return FileVisitResult.CONTINUE;
+					}
 
-			});
+					@Override
+					public FileVisitResult visitFileFailed(Path path, IOException ioe) {
+						return FileVisitResult.CONTINUE;
+					}
+
+				});
+		}
+		catch (IOException ioe) {
+		}
 	}
 
 	private void _watch(
-			Path watchPath, Map<String, Path> projectPaths, List<String> fastPaths, List<String> ignorePaths,
-			boolean deploy)
+			Path watchPath, Map<String, Path> projectPaths, List<String> fastPaths, List<String> ignorePaths)
 		throws InterruptedException {
 
+		WatchArgs watchArgs = getArgs();
+
+		boolean deploy = !watchArgs.isSkipInit();
+		long debounce = watchArgs.getDebounce();
+
 		Thread watchThread = new Thread() {
 
 			@Override
 			public void run() {
 				BladeCLI bladeCLI = getBladeCLI();
 
-				try (final FileSystem fileSystem = FileSystems.getDefault();
-					final WatchService watchService = fileSystem.newWatchService()) {
+				final List<PathMatcher> ignorePathMatchers = _getPathMatchers(
+					watchPath, ignorePaths.toArray(new String[0]));
 
-					final Map<WatchKey, Path> watchKeys = new HashMap<>();
+				final ContentHashCache contentHashCache = new ContentHashCache();
 
-					final List<PathMatcher> ignorePathMatchers = _getPathMatchers(
-						watchPath, ignorePaths.toArray(new String[0]));
+				_primeContentHashCache(contentHashCache, watchPath, ignorePathMatchers);
+
+				try (final ChangeWatcher changeWatcher = _newChangeWatcher(watchPath, ignorePathMatchers);
+					final GradleSession gradleSession = new GradleSession(
+						bladeCLI, watchPath.toFile(), watchArgs.isForkGradle())) {
 
 					final List<PathMatcher> fastPathMatchers = _getPathMatchers(
 						watchPath, fastPaths.toArray(new String[0]));
 
-					_walkAndRegisterDirectories(watchService, watchKeys, watchPath, ignorePathMatchers);
+					final Path rootPath = _getRootPath(watchPath);
 
-					final GradleExec gradleExec = new GradleExec(bladeCLI);
+					final DeployBatch deployBatch = new DeployBatch(debounce);
 
 					if (deploy) {
 						bladeCLI.out("Deploying...  To skip initial deployment, use `blade watch -s`");
 
-						gradleExec.executeTask("deploy", false);
+						gradleSession.executeTask("deploy", false);
 					}
 
-					while (true) {
-						WatchKey watchKey;
-
-						try {
-							watchKey = watchService.take();
-						}
-						catch (InterruptedException ie) {
-							continue;
-						}
-
-						Path dir = watchKeys.get(watchKey);
-
-						if (dir == null) {
-							bladeCLI.error("WatchKey not recognized!!");
-
-							continue;
-						}
-
-						for (WatchEvent<?> event : watchKey.pollEvents()) {
-							WatchEvent.Kind<?> kind = event.kind();
-
-							Path path = (Path)event.context();
+					changeWatcher.processChanges(
+						debounce,
+						changes -> {
+							long start = System.nanoTime();
 
-							Path resolvedPath = dir.resolve(path);
+							int resourceCount = 0;
+							int unchangedCount = 0;
 
-							boolean ignoredPath = false;
+							for (Map.Entry<Path, FileWatcher.Change> entry : changes.entrySet()) {
+								Path path = entry.getKey();
+								FileWatcher.Change change = entry.getValue();
 
-							for (PathMatcher pathMatcher : ignorePathMatchers) {
-								if (pathMatcher.matches(resolvedPath)) {
-									ignoredPath = true;
-
-									break;
+								if (change == FileWatcher.Change.DELETED) {
+									contentHashCache.remove(path);
 								}
-							}
-
-							if (ignoredPath) {
-								continue;
-							}
-
-							boolean directory = Files.isDirectory(resolvedPath);
+								else {
+									boolean contentChanged = contentHashCache.isChanged(path);
 
-							Path projectPath = _getGradleProjectPath(watchPath, resolvedPath, projectPaths);
+									if (!contentChanged && (change == FileWatcher.Change.MODIFIED)) {
+										unchangedCount++;
 
-							if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
-								if (directory) {
-									try {
-										_walkAndRegisterDirectories(
-											watchService, watchKeys, resolvedPath, ignorePathMatchers);
-									}
-									catch (IOException ioe) {
-										bladeCLI.error("Could not register directory:" + resolvedPath);
+										continue;
 									}
 								}
 
-								bladeCLI.out(resolvedPath + " has been created, deploying...");
+								Path projectPath = _getGradleProjectPath(watchPath, path, projectPaths);
 
-								gradleExec.executeTask("deploy", projectPath.toFile(), false);
-							}
-							else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
-								bladeCLI.out(resolvedPath + " has been deleted, redeploying...");
+								String gradlePath = "";
 
-								gradleExec.executeTask("clean deploy", projectPath.toFile(), false);
-							}
-							else if (!directory) {
-								boolean fastExtension = false;
+								if (!Objects.equals(projectPath, watchPath)) {
+									gradlePath = _getGradlePath(projectPath, rootPath);
+								}
 
-								for (PathMatcher pathMatcher : fastPathMatchers) {
-									if (pathMatcher.matches(resolvedPath)) {
-										fastExtension = true;
+								DeployBatch.Change deployChange = _getChange(change, path, fastPathMatchers);
 
-										break;
-									}
-								}
+								if ((deployChange == DeployBatch.Change.MODIFIED_FAST) &&
+									_deployResource(gradleSession, projectPath, path)) {
 
-								if (fastExtension) {
-									bladeCLI.out(resolvedPath + " has changed, fast deploying...");
+									resourceCount++;
 
-									gradleExec.executeTask("deployFast -a", projectPath.toFile(), false);
+									continue;
 								}
-								else {
-									System.out.println(resolvedPath + " has changed, deploying...");
 
-									gradleExec.executeTask("deploy -a", projectPath.toFile(), false);
+								synchronized (deployBatch) {
+									deployBatch.add(gradlePath, deployChange);
 								}
 							}
 
-							bladeCLI.out("Watching files in " + watchPath + ". Press Crtl + C to stop.");
-						}
+							if (resourceCount > 0) {
+								bladeCLI.out(
+									"Copied " + resourceCount + " changed resource(s) in " +
+										TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+							}
 
-						boolean valid = watchKey.reset();
+							if (unchangedCount > 0) {
+								_unchangedCount += unchangedCount;
 
-						if (!valid) {
-							watchKeys.remove(watchKey);
+								bladeCLI.out(
+									"Ignored " + unchangedCount + " change(s) that left file contents unchanged (" +
+										_unchangedCount + " in total)");
+							}
 
-							if (watchKeys.isEmpty()) {
-								break;
+							if (deployBatch.isEmpty()) {
+								return;
 							}
-						}
-					}
+
+							_cancelBuild(gradleSession, deployBatch);
+
+							_deploy(gradleSession, watchPath, deployBatch);
+						});
 				}
 				catch (Exception e) {
 					_addError("watch", e.getMessage());
@@ -407,4 +569,10 @@ public class WatchCommand extends BaseCommand<WatchArgs> {
 		watchThread.join();
 	}
 
-}
\ No newline at end of file
+	private CompletableFuture<ProcessResult> _build;
+	private Map<String, DeployBatch.Change> _buildChanges = Collections.emptyMap();
+	private boolean _deployQueued;
+	private Optional<ResourceDeployer> _resourceDeployer;
+	private int _unchangedCount;
+
+}
@@ -18,14 +18,17 @@ package com.liferay.blade.cli.gradle;
 
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.StringConverter;
-import com.liferay.blade.cli.StringPrintStream;
 import com.liferay.blade.cli.command.BaseArgs;
 import com.liferay.blade.cli.util.BladeUtil;
+import com.liferay.blade.cli.util.ProcessOutputBuffer;
+import com.liferay.blade.cli.util.ProcessPump;
 
 import java.io.File;
+import java.io.OutputStream;
 
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author David Truong
@@ -61,18 +64,30 @@ public class GradleExec {
 		String executable = _getGradleExecutable(baseDir);
 
 		if (captureOutput) {
-			StringPrintStream outputStream = StringPrintStream.newInstance();
+			ProcessBuilder processBuilder = BladeUtil.buildProcessBuilder(
+				"\"" + executable + "\" " + task, baseDir, null, false);
 
-			StringPrintStream errorStream = StringPrintStream.newInstance();
+			Process process = processBuilder.start();
 
-			Process process = BladeUtil.startProcess(
-				"\"" + executable + "\" " + task, baseDir, outputStream, errorStream);
+			OutputStream outputStream = process.getOutputStream();
+
+			outputStream.close();
+
+			ProcessOutputBuffer outputBuffer = new ProcessOutputBuffer();
+			ProcessOutputBuffer errorBuffer = new ProcessOutputBuffer();
+
+			CompletableFuture<Void> outputPump = ProcessPump.pump(process.getInputStream(), outputBuffer);
+			CompletableFuture<Void> errorPump = ProcessPump.pump(process.getErrorStream(), errorBuffer);
 
 			int returnCode = process.waitFor();
 
-			String output = outputStream.get();
+			CompletableFuture.allOf(
+				outputPump, errorPump
+			).join();
+
+			String output = outputBuffer.get();
 
-			String error = errorStream.get();
+			String error = errorBuffer.get();
 
 			if (returnCode > 0) {
 				throw new GradleExecutionException(error, returnCode);
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import com.liferay.blade.cli.BladeCLI;
+import com.liferay.blade.cli.util.ProcessOutputBuffer;
+import com.liferay.blade.gradle.tooling.ProjectInfo;
+
+import java.io.File;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.gradle.tooling.BuildCancelledException;
+import org.gradle.tooling.BuildLauncher;
+import org.gradle.tooling.CancellationTokenSource;
+import org.gradle.tooling.GradleConnectionException;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+import org.gradle.tooling.ResultHandler;
+
+/**
+ * Runs Gradle builds for a project over a single Tooling API connection that
+ * stays open for the lifetime of the session, so repeated builds reuse the
+ * same daemon instead of forking gradlew and repeating the daemon handshake
+ * every time. The build in progress can be cancelled with {@link #cancel()}.
+ *
+ * <p>
+ * In fork mode every build is run in a new gradlew process through
+ * {@link GradleExec}, and cancellation has no effect.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class GradleSession implements AutoCloseable {
+
+	public GradleSession(BladeCLI bladeCLI, File projectDir) {
+		this(bladeCLI, projectDir, false);
+	}
+
+	public GradleSession(BladeCLI bladeCLI, File projectDir, boolean fork) {
+		_bladeCLI = bladeCLI;
+		_projectDir = projectDir;
+		_fork = fork;
+	}
+
+	public synchronized void cancel() {
+		if (_cancellationTokenSource != null) {
+			_cancellationTokenSource.cancel();
+
+			_cancellationTokenSource = null;
+		}
+	}
+
+	@Override
+	public synchronized void close() {
+		cancel();
+
+		if (_projectConnection != null) {
+			_projectConnection.close();
+
+			_projectConnection = null;
+		}
+
+		if (_executorService != null) {
+			_executorService.shutdownNow();
+
+			_executorService = null;
+		}
+	}
+
+	public ProcessResult executeTask(String task) throws Exception {
+		return executeTask(task, true);
+	}
+
+	public ProcessResult executeTask(String task, boolean captureOutput) throws Exception {
+		CompletableFuture<ProcessResult> completableFuture = submitTask(task, captureOutput);
+
+		try {
+			return completableFuture.get();
+		}
+		catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+
+			if (cause instanceof Exception) {
+				throw (Exception)cause;
+			}
+
+			throw ee;
+		}
+	}
+
+	public ProjectInfo getProjectInfo() throws Exception {
+		if (_fork) {
+			return GradleTooling.loadProjectInfo(_bladeCLI.getCachePath(), _projectDir.toPath());
+		}
+
+		return GradleTooling.loadProjectInfo(
+			_bladeCLI.getCachePath(), _projectDir.toPath(), this::_getProjectConnection);
+	}
+
+	public boolean isFork() {
+		return _fork;
+	}
+
+	/**
+	 * Starts the given tasks (and command line arguments) without waiting for
+	 * the build to finish. The returned future completes exceptionally with a
+	 * {@link GradleExecutionException} if the build fails, and is cancelled if
+	 * the build is cancelled.
+	 */
+	public synchronized CompletableFuture<ProcessResult> submitTask(String task, boolean captureOutput) {
+		if (_fork) {
+			return _submitForkedTask(task, captureOutput);
+		}
+
+		CompletableFuture<ProcessResult> completableFuture = new CompletableFuture<>();
+
+		ProjectConnection projectConnection = _getProjectConnection();
+
+		BuildLauncher buildLauncher = projectConnection.newBuild();
+
+		String trimmedTask = task.trim();
+
+		buildLauncher.withArguments(trimmedTask.split("\\s+"));
+
+		CancellationTokenSource cancellationTokenSource = GradleConnector.newCancellationTokenSource();
+
+		buildLauncher.withCancellationToken(cancellationTokenSource.token());
+
+		_cancellationTokenSource = cancellationTokenSource;
+
+		ProcessOutputBuffer outputBuffer = null;
+		ProcessOutputBuffer errorBuffer = null;
+
+		if (captureOutput) {
+			outputBuffer = new ProcessOutputBuffer();
+			errorBuffer = new ProcessOutputBuffer();
+
+			buildLauncher.setStandardError(errorBuffer);
+			buildLauncher.setStandardOutput(outputBuffer);
+		}
+		else {
+			buildLauncher.setStandardError(_bladeCLI.error());
+			buildLauncher.setStandardOutput(_bladeCLI.out());
+		}
+
+		ProcessOutputBuffer capturedErrorBuffer = errorBuffer;
+		ProcessOutputBuffer capturedOutputBuffer = outputBuffer;
+
+		buildLauncher.run(
+			new ResultHandler<Void>() {
+
+				@Override
+				public void onComplete(Void result) {
+					_buildFinished(cancellationTokenSource);
+
+					completableFuture.complete(
+						new ProcessResult(
+							0, _toString(capturedOutputBuffer), _toString(capturedErrorBuffer)));
+				}
+
+				@Override
+				public void onFailure(GradleConnectionException gce) {
+					_buildFinished(cancellationTokenSource);
+
+					if (gce instanceof BuildCancelledException) {
+						completableFuture.cancel(false);
+
+						return;
+					}
+
+					String message;
+
+					if (captureOutput) {
+						message = capturedErrorBuffer.get();
+					}
+					else {
+						message = "Gradle error executing task '" + task + "' in " + _projectDir.getAbsolutePath();
+					}
+
+					GradleExecutionException gradleExecutionException = new GradleExecutionException(message, 1);
+
+					gradleExecutionException.initCause(gce);
+
+					completableFuture.completeExceptionally(gradleExecutionException);
+				}
+
+			});
+
+		return completableFuture;
+	}
+
+	private static String _toString(ProcessOutputBuffer processOutputBuffer) {
+		if (processOutputBuffer == null) {
+			return null;
+		}
+
+		return processOutputBuffer.get();
+	}
+
+	private synchronized void _buildFinished(CancellationTokenSource cancellationTokenSource) {
+		if (_cancellationTokenSource == cancellationTokenSource) {
+			_cancellationTokenSource = null;
+		}
+	}
+
+	private synchronized ProjectConnection _getProjectConnection() {
+		if (_projectConnection == null) {
+			GradleConnector gradleConnector = GradleConnector.newConnector();
+
+			gradleConnector.forProjectDirectory(_projectDir);
+
+			_projectConnection = gradleConnector.connect();
+		}
+
+		return _projectConnection;
+	}
+
+	private CompletableFuture<ProcessResult> _submitForkedTask(String task, boolean captureOutput) {
+		if (_executorService == null) {
+			_executorService = Executors.newSingleThreadExecutor();
+		}
+
+		GradleExec gradleExec = new GradleExec(_bladeCLI);
+
+		return CompletableFuture.supplyAsync(
+			() -> {
+				try {
+					return gradleExec.executeTask(task, _projectDir, captureOutput);
+				}
+				catch (Exception e) {
+					throw new CompletionException(e);
+				}
+			},
+			_executorService);
+	}
+
+	private final BladeCLI _bladeCLI;
+	private CancellationTokenSource _cancellationTokenSource;
+	private ExecutorService _executorService;
+	private final boolean _fork;
+	private ProjectConnection _projectConnection;
+	private final File _projectDir;
+
+}
@@ -19,11 +19,25 @@ package com.liferay.blade.cli.gradle;
 import com.liferay.blade.cli.util.FileUtil;
 import com.liferay.blade.gradle.tooling.ProjectInfo;
 
+import java.io.IOException;
 import java.io.InputStream;
 
+import java.math.BigInteger;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,57 +50,205 @@ import org.gradle.tooling.ProjectConnection;
  */
 public class GradleTooling {
 
+	/**
+	 * Returns the model of the given project, caching it and the extracted
+	 * tooling jars under <code>~/.blade/cache</code>.
+	 */
 	public static ProjectInfo loadProjectInfo(Path projectPath) throws Exception {
-		ProjectInfo projectInfo = null;
+		return loadProjectInfo(_CACHE_PATH, projectPath);
+	}
 
-		GradleConnector connector = GradleConnector.newConnector();
+	/**
+	 * Returns the model of the given project, caching it and the extracted
+	 * tooling jars under the given blade cache directory.
+	 */
+	public static ProjectInfo loadProjectInfo(Path cachePath, Path projectPath) throws Exception {
+		ProjectInfoCache projectInfoCache = _getProjectInfoCache(cachePath);
+
+		return projectInfoCache.load(
+			projectPath,
+			() -> {
+				GradleConnector connector = GradleConnector.newConnector();
+
+				connector.forProjectDirectory(projectPath.toFile());
+
+				ProjectConnection connection = null;
+
+				try {
+					connection = connector.connect();
+
+					return _loadProjectInfo(cachePath, connection);
+				}
+				finally {
+					if (connection != null) {
+						connection.close();
+					}
+				}
+			});
+	}
 
-		connector.forProjectDirectory(projectPath.toFile());
+	/**
+	 * Returns the cached model of the given project, only asking the supplier
+	 * for a connection when the model has to be built again.
+	 */
+	public static ProjectInfo loadProjectInfo(
+			Path cachePath, Path projectPath, Supplier<ProjectConnection> connectionSupplier)
+		throws Exception {
+
+		ProjectInfoCache projectInfoCache = _getProjectInfoCache(cachePath);
+
+		return projectInfoCache.load(projectPath, () -> _loadProjectInfo(cachePath, connectionSupplier.get()));
+	}
 
-		ProjectConnection connection = null;
+	/**
+	 * Returns the cached model of the given project from
+	 * <code>~/.blade/cache</code>, only asking the supplier for a connection
+	 * when the model has to be built again.
+	 */
+	public static ProjectInfo loadProjectInfo(Path projectPath, Supplier<ProjectConnection> connectionSupplier)
+		throws Exception {
+
+		return loadProjectInfo(_CACHE_PATH, projectPath, connectionSupplier);
+	}
+
+	private static void _extractTooling(Path toolingPath) throws IOException {
+		Path tempZipPath = Files.createTempFile(toolingPath.getParent(), "tooling", ".zip");
+		Path tempPath = Files.createTempDirectory(toolingPath.getParent(), "tooling");
 
 		try {
-			connection = connector.connect();
+			try (InputStream inputStream = GradleTooling.class.getResourceAsStream("/tooling.zip")) {
+				Files.copy(inputStream, tempZipPath, StandardCopyOption.REPLACE_EXISTING);
+			}
 
-			ModelBuilder<ProjectInfo> modelBuilder = connection.model(ProjectInfo.class);
+			FileUtil.unzip(tempZipPath.toFile(), tempPath.toFile());
 
-			Path tempPath = Files.createTempDirectory("tooling");
+			try {
+				Files.move(tempPath, toolingPath, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, toolingPath);
+			}
+			catch (FileAlreadyExistsException faee) {
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempZipPath);
 
-			InputStream in = GradleTooling.class.getResourceAsStream("/tooling.zip");
+			if (Files.exists(tempPath)) {
+				FileUtil.deleteDir(tempPath);
+			}
+		}
+	}
 
-			FileUtil.unzip(in, tempPath.toFile());
+	private static Path _getInitScriptPath(Path toolingPath) throws IOException {
+		Path initPath = toolingPath.resolve("init.gradle");
 
-			try (Stream<Path> toolingFiles = Files.list(tempPath)) {
-				String files = toolingFiles.map(
-					Path::toAbsolutePath
-				).map(
-					Path::toString
-				).map(
-					path -> "\"" + path.replaceAll("\\\\", "/") + "\""
-				).collect(
-					Collectors.joining(", ")
-				);
+		if (Files.exists(initPath)) {
+			return initPath;
+		}
 
-				String initScriptTemplate = FileUtil.collect(GradleTooling.class.getResourceAsStream("init.gradle"));
+		try (Stream<Path> toolingFiles = Files.list(toolingPath)) {
+			String files = toolingFiles.map(
+				Path::toAbsolutePath
+			).map(
+				Path::toString
+			).map(
+				path -> "\"" + path.replaceAll("\\\\", "/") + "\""
+			).collect(
+				Collectors.joining(", ")
+			);
+
+			String initScriptTemplate = FileUtil.collect(GradleTooling.class.getResourceAsStream("init.gradle"));
+
+			String initScriptContents = initScriptTemplate.replaceAll("%files%", files);
+
+			Path tempPath = Files.createTempFile(toolingPath.getParent(), "init", ".tmp");
+
+			try {
+				Files.write(tempPath, initScriptContents.getBytes());
+
+				try {
+					Files.move(tempPath, initPath, StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (AtomicMoveNotSupportedException amnse) {
+					Files.move(tempPath, initPath);
+				}
+				catch (FileAlreadyExistsException faee) {
+				}
+			}
+			finally {
+				Files.deleteIfExists(tempPath);
+			}
+		}
 
-				String initScriptContents = initScriptTemplate.replaceAll("%files%", files);
+		return initPath;
+	}
 
-				Path initPath = tempPath.resolve("init.gradle");
+	private static ProjectInfoCache _getProjectInfoCache(Path cachePath) throws IOException {
+		Path toolingPath = _getToolingPath(cachePath);
 
-				Files.write(initPath, initScriptContents.getBytes());
+		return new ProjectInfoCache(cachePath.resolve("project-info"), String.valueOf(toolingPath.getFileName()));
+	}
 
-				modelBuilder.withArguments("--init-script", initPath.toString(), "--stacktrace");
+	/**
+	 * Extracts the tooling jars once per distinct <code>tooling.zip</code>
+	 * into <code>tooling/&lt;sha1&gt;</code> under the blade cache directory
+	 * and reuses them afterwards.
+	 */
+	private static synchronized Path _getToolingPath(Path cachePath) throws IOException {
+		Path toolingPath = _toolingPaths.get(cachePath);
 
-				projectInfo = modelBuilder.get();
-			}
+		if (toolingPath != null) {
+			return toolingPath;
 		}
-		finally {
-			if (connection != null) {
-				connection.close();
+
+		MessageDigest messageDigest = _newMessageDigest();
+
+		try (InputStream inputStream = GradleTooling.class.getResourceAsStream("/tooling.zip");
+			DigestInputStream digestInputStream = new DigestInputStream(inputStream, messageDigest)) {
+
+			byte[] buffer = new byte[8192];
+
+			while (digestInputStream.read(buffer) != -1) {
 			}
 		}
 
-		return projectInfo;
+		Path toolingCachePath = cachePath.resolve("tooling");
+
+		toolingPath = toolingCachePath.resolve(String.format("%040x", new BigInteger(1, messageDigest.digest())));
+
+		if (Files.notExists(toolingPath)) {
+			Files.createDirectories(toolingCachePath);
+
+			_extractTooling(toolingPath);
+		}
+
+		_toolingPaths.put(cachePath, toolingPath);
+
+		return toolingPath;
 	}
 
-}
\ No newline at end of file
+	private static ProjectInfo _loadProjectInfo(Path cachePath, ProjectConnection connection) throws Exception {
+		ModelBuilder<ProjectInfo> modelBuilder = connection.model(ProjectInfo.class);
+
+		Path initPath = _getInitScriptPath(_getToolingPath(cachePath));
+
+		modelBuilder.withArguments("--init-script", initPath.toString(), "--stacktrace");
+
+		return modelBuilder.get();
+	}
+
+	private static MessageDigest _newMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new RuntimeException(nsae);
+		}
+	}
+
+	private static final Path _CACHE_PATH = Paths.get(System.getProperty("user.home"), ".blade", "cache");
+
+	private static final Map<Path, Path> _toolingPaths = new HashMap<>();
+
+}
@@ -29,8 +29,11 @@ import java.nio.file.Path;
 import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.regex.Matcher;
@@ -105,9 +108,28 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		return bundleId;
 	}
 
+	@Override
+	public long getBundleId(String bsn) throws Exception {
+		Map<String, BundleDTO> bundleIndex = _getBundleIndex();
+
+		BundleDTO bundleDTO = bundleIndex.get(bsn);
+
+		if (bundleDTO == null) {
+			return -1L;
+		}
+
+		return bundleDTO.id;
+	}
+
+	/**
+	 * Returns the installed bundles. The listing is only fetched once per
+	 * connection and is kept up to date by the operations of this deployer.
+	 */
 	@Override
 	public Collection<BundleDTO> getBundles() throws Exception {
-		return _getBundles(_client);
+		Map<String, BundleDTO> bundleIndex = _getBundleIndex();
+
+		return bundleIndex.values();
 	}
 
 	@Override
@@ -130,18 +152,104 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 
 			matcher.matches();
 
-			return Integer.parseInt(matcher.group(1));
+			long id = Integer.parseInt(matcher.group(1));
+
+			_bundleIndex = null;
+
+			return id;
 		}
 		catch (Exception e) {
 			throw new Exception("Unable to install bundle.  Unexpected response: \n" + response, e);
 		}
 	}
 
+	/**
+	 * Sends every update in pipelined batches and every install in a single
+	 * command per batch, followed by one listing to learn the new IDs.
+	 */
+	@Override
+	public Map<String, Long> installOrUpdate(Map<String, URI> bundles) throws Exception {
+		Map<String, BundleDTO> bundleIndex = _getBundleIndex();
+
+		Map<String, Long> bundleIds = new LinkedHashMap<>();
+		Collection<URI> installUris = new ArrayList<>();
+		List<String> updateCommands = new ArrayList<>();
+
+		for (Map.Entry<String, URI> entry : bundles.entrySet()) {
+			String bsn = entry.getKey();
+			URI uri = entry.getValue();
+
+			BundleDTO bundleDTO = bundleIndex.get(bsn);
+
+			if (bundleDTO != null) {
+				bundleIds.put(bsn, bundleDTO.id);
+				updateCommands.add(String.format("update %s %s", bundleDTO.id, _getLocation(uri)));
+			}
+			else {
+				installUris.add(uri);
+			}
+		}
+
+		_sendPipelined(updateCommands);
+
+		if (installUris.isEmpty()) {
+			return bundleIds;
+		}
+
+		Stream<URI> stream = installUris.stream();
+
+		_sendInBatches(
+			"install",
+			stream.map(
+				LiferayBundleDeployerImpl::_getLocation
+			).collect(
+				Collectors.toList()
+			));
+
+		_bundleIndex = null;
+
+		bundleIndex = _getBundleIndex();
+
+		for (String bsn : bundles.keySet()) {
+			if (bundleIds.containsKey(bsn)) {
+				continue;
+			}
+
+			BundleDTO bundleDTO = bundleIndex.get(bsn);
+
+			if (bundleDTO == null) {
+				throw new Exception("Unable to install bundle " + bsn);
+			}
+
+			bundleIds.put(bsn, bundleDTO.id);
+		}
+
+		return bundleIds;
+	}
+
+	@Override
+	public void refresh(Collection<Long> ids) throws Exception {
+		_sendInBatches("refresh", ids);
+	}
+
 	@Override
 	public void refresh(long id) throws Exception {
 		_sendGogo(String.format("refresh %s", id));
 	}
 
+	@Override
+	public void start(Collection<Long> ids) throws Exception {
+		_sendInBatches("start", ids);
+
+		if (_bundleIndex != null) {
+			for (BundleDTO bundleDTO : _bundleIndex.values()) {
+				if (ids.contains(bundleDTO.id)) {
+					bundleDTO.state = Bundle.ACTIVE;
+				}
+			}
+		}
+	}
+
 	@Override
 	public void start(long id) throws Exception {
 		String request = String.format("start %s", id);
@@ -151,6 +259,11 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		_verify(request, response);
 	}
 
+	@Override
+	public void stop(Collection<Long> ids) throws Exception {
+		_sendInBatches("stop", ids);
+	}
+
 	@Override
 	public void stop(long id) throws Exception {
 		_sendGogo(String.format("stop %s", id));
@@ -159,22 +272,17 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 	@Override
 	public void uninstall(long id) throws Exception {
 		_sendGogo(String.format("uninstall %s", id));
-	}
 
-	@Override
-	public void update(long id, URI uri) throws Exception {
-		final String installString;
+		if (_bundleIndex != null) {
+			Collection<BundleDTO> bundleDTOs = _bundleIndex.values();
 
-		Path uriPath = Paths.get(uri);
-
-		if (_WAR_FILE_GLOB.matches(uriPath)) {
-			installString = "update " + _getWarString(uriPath);
-		}
-		else {
-			installString = _sendGogo(String.format("update %s %s", id, uri.toASCIIString()));
+			bundleDTOs.removeIf(bundleDTO -> bundleDTO.id == id);
 		}
+	}
 
-		_sendGogo(installString);
+	@Override
+	public void update(long id, URI uri) throws Exception {
+		_sendGogo(String.format("update %s %s", id, _getLocation(uri)));
 	}
 
 	private static List<BundleDTO> _getBundles(GogoShellClient client) throws IOException {
@@ -193,6 +301,16 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		);
 	}
 
+	private static String _getLocation(URI uri) {
+		Path uriPath = Paths.get(uri);
+
+		if (_WAR_FILE_GLOB.matches(uriPath)) {
+			return _getWarString(uriPath);
+		}
+
+		return uri.toASCIIString();
+	}
+
 	private static final int _getState(String state) {
 		String bundleState = state.toUpperCase();
 
@@ -264,6 +382,19 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		return response.split("\\r?\\n");
 	}
 
+	/**
+	 * Returns <code>true</code> if a line of the response is an error reported
+	 * by the Gogo shell, such as
+	 * <code>gogo: BundleException: Bundle symbolic name and version are not
+	 * unique</code>. Bundle listings may mention exceptions in bundle names,
+	 * so only the error prefix is matched.
+	 */
+	private static boolean _isError(String response) {
+		Matcher matcher = _errorPattern.matcher(response);
+
+		return matcher.find();
+	}
+
 	private static void _verify(String request, String response) throws Exception {
 		Objects.requireNonNull(request, "Request cannot be null");
 		Objects.requireNonNull(request, "Response cannot be null");
@@ -306,20 +437,115 @@ public class LiferayBundleDeployerImpl implements LiferayBundleDeployer {
 		}
 	}
 
+	private Map<String, BundleDTO> _getBundleIndex() throws IOException {
+		if (_bundleIndex == null) {
+			Map<String, BundleDTO> bundleIndex = new LinkedHashMap<>();
+
+			for (BundleDTO bundleDTO : _getBundles(_client)) {
+				bundleIndex.put(bundleDTO.symbolicName, bundleDTO);
+			}
+
+			_bundleIndex = bundleIndex;
+		}
+
+		return _bundleIndex;
+	}
+
 	private String _sendGogo(String data) throws Exception {
 		return _client.send(data);
 	}
 
+	/**
+	 * Sends a command that accepts several arguments, such as
+	 * <code>start</code> or <code>install</code>, once per batch of arguments
+	 * instead of once per argument.
+	 */
+	private void _sendInBatches(String command, Collection<?> arguments) throws Exception {
+		List<String> commands = new ArrayList<>();
+
+		StringBuilder sb = new StringBuilder();
+
+		int count = 0;
+
+		for (Object argument : arguments) {
+			if (count == 0) {
+				sb.append(command);
+			}
+
+			sb.append(' ');
+			sb.append(argument);
+
+			if (++count == _BATCH_SIZE) {
+				commands.add(sb.toString());
+
+				sb.setLength(0);
+
+				count = 0;
+			}
+		}
+
+		if (count > 0) {
+			commands.add(sb.toString());
+		}
+
+		for (String batchCommand : commands) {
+			String response = _sendGogo(batchCommand);
+
+			if (_isError(response)) {
+				throw new Exception(
+					"Unexpected response encountered while processing command \"" + batchCommand + "\":" +
+						System.lineSeparator() + response);
+			}
+		}
+	}
+
+	/**
+	 * Sends the commands separated by semicolons so that each batch takes a
+	 * single round trip. When a batch fails its commands are sent again one at
+	 * a time to find out which of them failed.
+	 */
+	private void _sendPipelined(List<String> commands) throws Exception {
+		List<String> failures = new ArrayList<>();
+
+		for (int i = 0; i < commands.size(); i += _BATCH_SIZE) {
+			List<String> batch = commands.subList(i, Math.min(i + _BATCH_SIZE, commands.size()));
+
+			String response = _sendGogo(String.join("; ", batch));
+
+			if (!_isError(response)) {
+				continue;
+			}
+
+			for (String command : batch) {
+				response = _sendGogo(command);
+
+				if (_isError(response)) {
+					failures.add(command + ": " + response.trim());
+				}
+			}
+		}
+
+		if (!failures.isEmpty()) {
+			throw new Exception(
+				"Unexpected response encountered while processing commands:" + System.lineSeparator() +
+					String.join(System.lineSeparator(), failures));
+		}
+	}
+
+	private static final int _BATCH_SIZE = 20;
+
 	private static final FileSystem _FILE_SYSTEM = FileSystems.getDefault();
 
 	private static final PathMatcher _WAR_FILE_GLOB = _FILE_SYSTEM.getPathMatcher("glob:**.war");
 
 	private static final String _WAR_STRING_TEMPLATE = "webbundle:%s?Bundle-SymbolicName=%s&Web-ContextPath=/%s";
 
+	private static final Pattern _errorPattern = Pattern.compile("^\\s*gogo: \\S", Pattern.MULTILINE);
 	private static final Pattern _installResponse = Pattern.compile(
 		".*Bundle ID: (.*$).*", Pattern.DOTALL | Pattern.MULTILINE);
 	private static final Pattern _versionPattern = Pattern.compile("-[\\d]+((\\.[\\d]+)+(-.+)*)\\.war$");
 
+	private Map<String, BundleDTO> _bundleIndex;
 	private GogoShellClient _client;
 
 }
\ No newline at end of file
@@ -0,0 +1,267 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import com.liferay.blade.cli.util.BladeUtil;
+import com.liferay.blade.gradle.tooling.DefaultModel;
+import com.liferay.blade.gradle.tooling.ProjectInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import java.math.BigInteger;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+/**
+ * Stores the {@link ProjectInfo} model of a project on disk so that it only
+ * has to be built by Gradle again when one of the build files of the
+ * surrounding workspace changes. Build files are the Groovy and Kotlin build
+ * scripts, the Gradle and bnd properties files, and the wrapper properties of
+ * the root project.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class ProjectInfoCache {
+
+	public ProjectInfoCache(Path cachePath, String toolingKey) {
+		_cachePath = cachePath;
+		_toolingKey = toolingKey;
+	}
+
+	/**
+	 * Returns the cached model of the given project, or calls the loader and
+	 * caches its result when the build files of the workspace have changed
+	 * since the model was stored.
+	 */
+	public ProjectInfo load(Path projectPath, Callable<ProjectInfo> loader) throws Exception {
+		projectPath = projectPath.toAbsolutePath();
+
+		projectPath = projectPath.normalize();
+
+		String fingerprint = _getFingerprint(projectPath);
+
+		Path entryPath = _cachePath.resolve(_hash(String.valueOf(projectPath)));
+
+		ProjectInfo projectInfo = _read(entryPath, fingerprint);
+
+		if (projectInfo != null) {
+			return projectInfo;
+		}
+
+		projectInfo = loader.call();
+
+		try {
+			_write(entryPath, fingerprint, projectInfo);
+		}
+		catch (IOException ioe) {
+		}
+
+		return projectInfo;
+	}
+
+	private static MessageDigest _newMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new RuntimeException(nsae);
+		}
+	}
+
+	private static DefaultModel _toDefaultModel(ProjectInfo projectInfo) {
+		Map<String, Set<File>> projectOutputFiles = new HashMap<>();
+
+		for (Map.Entry<String, Set<File>> entry : projectInfo.getProjectOutputFiles().entrySet()) {
+			projectOutputFiles.put(entry.getKey(), new HashSet<>(entry.getValue()));
+		}
+
+		return new DefaultModel(
+			new HashSet<>(projectInfo.getPluginClassNames()), projectOutputFiles, projectInfo.getDeployDir(),
+			projectInfo.getLiferayHome(), projectInfo.getDockerImageLiferay(), projectInfo.getDockerImageId(),
+			projectInfo.getDockerContainerId());
+	}
+
+	private Map<String, Path> _getBuildFiles(Path rootPath) throws IOException {
+		Map<String, Path> buildFiles = new TreeMap<>();
+
+		Files.walkFileTree(
+			rootPath,
+			new SimpleFileVisitor<Path>() {
+
+				@Override
+				public FileVisitResult preVisitDirectory(Path dirPath, BasicFileAttributes basicFileAttributes) {
+					String dirName = String.valueOf(dirPath.getFileName());
+
+					if (!dirPath.equals(rootPath) &&
+						(dirName.startsWith(".") || _IGNORED_DIR_NAMES.contains(dirName))) {
+
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path path, BasicFileAttributes basicFileAttributes) {
+					Path relativePath = rootPath.relativize(path);
+
+					if (_isBuildFile(relativePath)) {
+						buildFiles.put(relativePath.toString(), path);
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path path, IOException ioe) {
+					return FileVisitResult.CONTINUE;
+				}
+
+			});
+
+		return buildFiles;
+	}
+
+	private String _getFingerprint(Path projectPath) throws IOException {
+		File rootDir = BladeUtil.findParentFile(
+			projectPath.toFile(), new String[] {"settings.gradle", "settings.gradle.kts"}, true);
+
+		Path rootPath = projectPath;
+
+		if (rootDir != null) {
+			rootPath = rootDir.toPath();
+		}
+
+		MessageDigest messageDigest = _newMessageDigest();
+
+		messageDigest.update(_toolingKey.getBytes(StandardCharsets.UTF_8));
+		messageDigest.update(_SEPARATOR);
+
+		Map<String, Path> buildFiles = _getBuildFiles(rootPath);
+
+		for (Map.Entry<String, Path> entry : buildFiles.entrySet()) {
+			String relativePath = entry.getKey();
+
+			messageDigest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+			messageDigest.update(_SEPARATOR);
+			messageDigest.update(Files.readAllBytes(entry.getValue()));
+			messageDigest.update(_SEPARATOR);
+		}
+
+		return String.format("%040x", new BigInteger(1, messageDigest.digest()));
+	}
+
+	private String _hash(String value) {
+		MessageDigest messageDigest = _newMessageDigest();
+
+		return String.format(
+			"%040x", new BigInteger(1, messageDigest.digest(value.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	private boolean _isBuildFile(Path relativePath) {
+		String fileName = String.valueOf(relativePath.getFileName());
+
+		if (_BUILD_FILE_NAMES.contains(fileName) || fileName.endsWith(".gradle") ||
+			fileName.endsWith(".gradle.kts")) {
+
+			return true;
+		}
+
+		return _WRAPPER_PROPERTIES_PATH.equals(relativePath);
+	}
+
+	private ProjectInfo _read(Path entryPath, String fingerprint) {
+		if (Files.notExists(entryPath)) {
+			return null;
+		}
+
+		try (InputStream inputStream = Files.newInputStream(entryPath);
+			ObjectInputStream objectInputStream = new ObjectInputStream(inputStream)) {
+
+			if (fingerprint.equals(objectInputStream.readUTF())) {
+				return (ProjectInfo)objectInputStream.readObject();
+			}
+		}
+		catch (ClassCastException | ClassNotFoundException | IOException e) {
+		}
+
+		return null;
+	}
+
+	private void _write(Path entryPath, String fingerprint, ProjectInfo projectInfo) throws IOException {
+		Files.createDirectories(_cachePath);
+
+		Path tempPath = Files.createTempFile(_cachePath, String.valueOf(entryPath.getFileName()), ".tmp");
+
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tempPath);
+				ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+
+				objectOutputStream.writeUTF(fingerprint);
+				objectOutputStream.writeObject(_toDefaultModel(projectInfo));
+			}
+
+			try {
+				Files.move(tempPath, entryPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, entryPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private static final Collection<String> _BUILD_FILE_NAMES = Arrays.asList(
+		"bnd.bnd", "gradle-local.properties", "gradle.properties");
+
+	private static final Collection<String> _IGNORED_DIR_NAMES = Arrays.asList("build", "bundles", "node_modules");
+
+	private static final byte[] _SEPARATOR = {0};
+
+	private static final Path _WRAPPER_PROPERTIES_PATH = Paths.get("gradle", "wrapper", "gradle-wrapper.properties");
+
+	private final Path _cachePath;
+	private final String _toolingKey;
+
+}
@@ -21,6 +21,8 @@ import java.io.IOException;
 
 import java.net.MalformedURLException;
 
+import java.nio.file.Path;
+
 import java.util.Iterator;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -40,6 +42,12 @@ public class IDEConnector extends JMXLocalConnector {
 		_logger = logger;
 	}
 
+	public IDEConnector(Path cachePath, Consumer<String> logger) throws MalformedURLException {
+		super(cachePath, _NAME + ":type=" + _TYPE + ",*", logger);
+
+		_logger = logger;
+	}
+
 	public Object openDir(File dir) throws Exception {
 		final ObjectName workspaceHelper = _getWorkspaceHelper(mBeanServerConnection);
 
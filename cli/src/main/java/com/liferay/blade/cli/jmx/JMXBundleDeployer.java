@@ -16,9 +16,14 @@
 
 package com.liferay.blade.cli.jmx;
 
+import com.liferay.blade.cli.BundleArtifact;
+import com.liferay.blade.cli.DeployLedger;
+
+import java.io.File;
 import java.io.IOException;
 
 import java.net.MalformedURLException;
+import java.net.URI;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -49,61 +54,137 @@ import org.osgi.framework.dto.BundleDTO;
  */
 public class JMXBundleDeployer extends JMXLocalConnector {
 
+	static BundleDTO newBundleDTO(CompositeData cd) {
+		final BundleDTO dto = new BundleDTO();
+
+		Object identifier = cd.get("Identifier");
+
+		dto.id = Long.parseLong(identifier.toString());
+
+		Object symbolicName = cd.get("SymbolicName");
+
+		dto.symbolicName = symbolicName.toString();
+
+		Object state = cd.get("State");
+
+		if (Objects.equals("UNINSTALLED", state)) {
+			dto.state = Bundle.UNINSTALLED;
+		}
+		else if (Objects.equals("INSTALLED", state)) {
+			dto.state = Bundle.INSTALLED;
+		}
+		else if (Objects.equals("RESOLVED", state)) {
+			dto.state = Bundle.RESOLVED;
+		}
+		else if (Objects.equals("STARTING", state)) {
+			dto.state = Bundle.STARTING;
+		}
+		else if (Objects.equals("STOPPING", state)) {
+			dto.state = Bundle.STOPPING;
+		}
+		else if (Objects.equals("ACTIVE", state)) {
+			dto.state = Bundle.ACTIVE;
+		}
+
+		Object version = cd.get("Version");
+
+		dto.version = version.toString();
+
+		return dto;
+	}
+
 	public JMXBundleDeployer(Consumer<String> logger) throws MalformedURLException {
+		this(logger, null);
+	}
+
+	/**
+	 * @param deployLedger the ledger used to skip bundles whose jar is
+	 *        identical to the one last deployed, or <code>null</code> to
+	 *        always deploy every bundle
+	 */
+	public JMXBundleDeployer(Consumer<String> logger, DeployLedger deployLedger) throws MalformedURLException {
 		super(_NAME + ":type=" + _TYPE + ",*", logger);
+
+		_deployLedger = deployLedger;
 	}
 
 	public JMXBundleDeployer(int port) throws MalformedURLException {
+		this(port, null);
+	}
+
+	/**
+	 * @param deployLedger the ledger used to skip bundles whose jar is
+	 *        identical to the one last deployed, or <code>null</code> to
+	 *        always deploy every bundle
+	 */
+	public JMXBundleDeployer(int port, DeployLedger deployLedger) throws MalformedURLException {
 		super(port);
+
+		_deployLedger = deployLedger;
 	}
 
 	/**
-	 * Gets the current list of installed bsns, compares it to the bsn provided.
-	 * If bsn doesn't exist, then install it. If it does exist then update it.
+	 * Deploys the bundle unless the ledger shows that the same jar was already
+	 * deployed as the currently installed bundle, and records the deployment.
 	 *
-	 * @param bsn
-	 *            Bundle-SymbolicName of bundle you are wanting to deploy
-	 * @param bundle
+	 * @param bundleArtifact
 	 *            the bundle
-	 * @return the id of the updated or installed bundle
+	 * @param deployLedger
+	 *            the ledger of the target framework
+	 * @return the id of the updated, installed or unchanged bundle
 	 * @throws Exception
 	 */
-	public long deploy(String bsn, String bundleUrl) throws Exception {
-		final ObjectName framework = _getFramework(mBeanServerConnection);
-
+	public long deploy(BundleArtifact bundleArtifact, DeployLedger deployLedger) throws Exception {
 		long bundleId = -1;
 
 		for (BundleDTO osgiBundle : listBundles()) {
-			if (osgiBundle.symbolicName.equals(bsn)) {
+			if (osgiBundle.symbolicName.equals(bundleArtifact.getBsn())) {
 				bundleId = osgiBundle.id;
 
 				break;
 			}
 		}
 
-		if (bundleId > -1) {
-			mBeanServerConnection.invoke(framework, "stopBundle", new Object[] {bundleId}, new String[] {"long"});
+		if (deployLedger.isUnchanged(bundleArtifact, bundleId)) {
+			return bundleId;
+		}
 
-			Object[] params = {bundleId, bundleUrl};
+		File file = bundleArtifact.getFile();
 
-			mBeanServerConnection.invoke(
-				framework, "updateBundleFromURL", params, new String[] {"long", String.class.getName()});
+		URI uri = file.toURI();
 
-			mBeanServerConnection.invoke(framework, "refreshBundle", new Object[] {bundleId}, new String[] {"long"});
-		}
-		else {
-			Object[] params = {bundleUrl, bundleUrl};
+		bundleId = _deploy(bundleArtifact.getBsn(), uri.toASCIIString());
 
-			String[] signature = {String.class.getName(), String.class.getName()};
+		deployLedger.record(bundleArtifact, bundleId);
 
-			Object installed = mBeanServerConnection.invoke(framework, "installBundleFromURL", params, signature);
+		deployLedger.save();
 
-			bundleId = Long.parseLong(installed.toString());
-		}
+		return bundleId;
+	}
 
-		mBeanServerConnection.invoke(framework, "startBundle", new Object[] {bundleId}, new String[] {"long"});
+	/**
+	 * Gets the current list of installed bsns, compares it to the bsn provided.
+	 * If bsn doesn't exist, then install it. If it does exist then update it.
+	 * When this deployer has a ledger and the bundle is a local file, the
+	 * bundle is skipped if the ledger shows it unchanged.
+	 *
+	 * @param bsn
+	 *            Bundle-SymbolicName of bundle you are wanting to deploy
+	 * @param bundle
+	 *            the bundle
+	 * @return the id of the updated, installed or unchanged bundle
+	 * @throws Exception
+	 */
+	public long deploy(String bsn, String bundleUrl) throws Exception {
+		if (_deployLedger != null) {
+			BundleArtifact bundleArtifact = _readBundleArtifact(bundleUrl);
 
-		return bundleId;
+			if ((bundleArtifact != null) && bsn.equals(bundleArtifact.getBsn())) {
+				return deploy(bundleArtifact, _deployLedger);
+			}
+		}
+
+		return _deploy(bsn, bundleUrl);
 	}
 
 	/**
@@ -128,7 +209,7 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 				final CompositeData cd = (CompositeData)value;
 
 				try {
-					retval.add(_newFromData(cd));
+					retval.add(newBundleDTO(cd));
 				}
 				catch (Exception e) {
 					e.printStackTrace();
@@ -142,6 +223,14 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 		return retval.toArray(new BundleDTO[0]);
 	}
 
+	/**
+	 * Opens a session for deploying several bundles over this connection
+	 * without listing the installed bundles for every operation.
+	 */
+	public JMXBundleDeployerSession openSession() throws Exception {
+		return new JMXBundleDeployerSession(mBeanServerConnection);
+	}
+
 	/**
 	 * Calls through directly to the OSGi frameworks MBean uninstallBundle
 	 * operation
@@ -196,43 +285,52 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 		return null;
 	}
 
-	private static BundleDTO _newFromData(CompositeData cd) {
-		final BundleDTO dto = new BundleDTO();
+	private static BundleArtifact _readBundleArtifact(String bundleUrl) throws Exception {
+		URI uri = new URI(bundleUrl);
 
-		Object identifier = cd.get("Identifier");
+		if (!"file".equals(uri.getScheme())) {
+			return null;
+		}
 
-		dto.id = Long.parseLong(identifier.toString());
+		return BundleArtifact.read(new File(uri));
+	}
 
-		Object symbolicName = cd.get("SymbolicName");
+	private long _deploy(String bsn, String bundleUrl) throws Exception {
+		final ObjectName framework = _getFramework(mBeanServerConnection);
 
-		dto.symbolicName = symbolicName.toString();
+		long bundleId = -1;
 
-		Object state = cd.get("State");
+		for (BundleDTO osgiBundle : listBundles()) {
+			if (osgiBundle.symbolicName.equals(bsn)) {
+				bundleId = osgiBundle.id;
 
-		if (Objects.equals("UNINSTALLED", state)) {
-			dto.state = Bundle.UNINSTALLED;
-		}
-		else if (Objects.equals("INSTALLED", state)) {
-			dto.state = Bundle.INSTALLED;
-		}
-		else if (Objects.equals("RESOLVED", state)) {
-			dto.state = Bundle.RESOLVED;
-		}
-		else if (Objects.equals("STARTING", state)) {
-			dto.state = Bundle.STARTING;
-		}
-		else if (Objects.equals("STOPPING", state)) {
-			dto.state = Bundle.STOPPING;
+				break;
+			}
 		}
-		else if (Objects.equals("ACTIVE", state)) {
-			dto.state = Bundle.ACTIVE;
+
+		if (bundleId > -1) {
+			mBeanServerConnection.invoke(framework, "stopBundle", new Object[] {bundleId}, new String[] {"long"});
+
+			Object[] params = {bundleId, bundleUrl};
+
+			mBeanServerConnection.invoke(
+				framework, "updateBundleFromURL", params, new String[] {"long", String.class.getName()});
+
+			mBeanServerConnection.invoke(framework, "refreshBundle", new Object[] {bundleId}, new String[] {"long"});
 		}
+		else {
+			Object[] params = {bundleUrl, bundleUrl};
 
-		Object version = cd.get("Version");
+			String[] signature = {String.class.getName(), String.class.getName()};
 
-		dto.version = version.toString();
+			Object installed = mBeanServerConnection.invoke(framework, "installBundleFromURL", params, signature);
 
-		return dto;
+			bundleId = Long.parseLong(installed.toString());
+		}
+
+		mBeanServerConnection.invoke(framework, "startBundle", new Object[] {bundleId}, new String[] {"long"});
+
+		return bundleId;
 	}
 
 	private ObjectName _getBundleState() throws IOException, MalformedObjectNameException {
@@ -249,4 +347,6 @@ public class JMXBundleDeployer extends JMXLocalConnector {
 
 	private static final String _TYPE = "framework";
 
+	private final DeployLedger _deployLedger;
+
 }
\ No newline at end of file
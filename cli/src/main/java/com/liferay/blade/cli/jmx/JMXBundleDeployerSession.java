@@ -0,0 +1,424 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.jmx;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.MBeanServerConnection;
+import javax.management.MalformedObjectNameException;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.dto.BundleDTO;
+
+/**
+ * Deploys any number of bundles over one JMX connection. The framework and
+ * bundle state MBeans are looked up once, and the installed bundles are listed
+ * once and then kept up to date from the results of the operations of the
+ * session and from the bundle events the bundle state MBean sends, so
+ * deploying a bundle does not require listing every bundle again.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class JMXBundleDeployerSession implements AutoCloseable {
+
+	public JMXBundleDeployerSession(MBeanServerConnection mBeanServerConnection) throws Exception {
+		_mBeanServerConnection = mBeanServerConnection;
+
+		_framework = _getObjectName(mBeanServerConnection, _NAME + ":type=framework,*");
+		_bundleState = _getObjectName(mBeanServerConnection, _NAME + ":type=bundleState,*");
+
+		if ((_framework == null) || (_bundleState == null)) {
+			throw new IllegalStateException("Unable to find the OSGi framework MBeans");
+		}
+
+		_listening = _addNotificationListener();
+
+		_loadBundles();
+	}
+
+	@Override
+	public void close() {
+		if (!_listening) {
+			return;
+		}
+
+		try {
+			_mBeanServerConnection.removeNotificationListener(_bundleState, _notificationListener);
+		}
+		catch (Exception e) {
+		}
+
+		_listening = false;
+	}
+
+	/**
+	 * Installs or updates the bundle and starts it. Returns the id of the
+	 * bundle.
+	 */
+	public long deploy(String bsn, String bundleUrl) throws Exception {
+		Map<String, Long> bundleIds = deployAll(Collections.singletonMap(bsn, bundleUrl));
+
+		return bundleIds.get(bsn);
+	}
+
+	/**
+	 * Installs the bundles that are not yet installed and updates the ones
+	 * that are, keyed by bundle symbolic name. The updated bundles are
+	 * refreshed together, and then every bundle is started. A bundle that
+	 * fails to install, update, refresh or start does not stop the others
+	 * from being deployed; the failures are thrown together once every bundle
+	 * has been tried. Returns the bundle ids keyed by bundle symbolic name.
+	 */
+	public Map<String, Long> deployAll(Map<String, String> bundleUrls) throws Exception {
+		Map<String, Long> bundleIds = new LinkedHashMap<>();
+
+		Map<String, Exception> failures = new LinkedHashMap<>();
+
+		Map<String, Long> updatedBundleIds = new LinkedHashMap<>();
+
+		for (Map.Entry<String, String> entry : bundleUrls.entrySet()) {
+			String bsn = entry.getKey();
+			String bundleUrl = entry.getValue();
+
+			BundleDTO bundleDTO = _bundles.get(bsn);
+
+			try {
+				if (bundleDTO != null) {
+					_invokeFramework("stopBundle", bundleDTO.id);
+
+					_mBeanServerConnection.invoke(
+						_framework, "updateBundleFromURL", new Object[] {bundleDTO.id, bundleUrl},
+						new String[] {"long", String.class.getName()});
+
+					// The update may change the version, it is looked up again
+					// when asked for
+
+					_bundles.put(bsn, _newBundleDTO(bundleDTO.id, bsn, Bundle.INSTALLED, null));
+
+					updatedBundleIds.put(bsn, bundleDTO.id);
+
+					bundleIds.put(bsn, bundleDTO.id);
+				}
+				else {
+					Object installed = _mBeanServerConnection.invoke(
+						_framework, "installBundleFromURL", new Object[] {bundleUrl, bundleUrl},
+						new String[] {String.class.getName(), String.class.getName()});
+
+					long id = Long.parseLong(installed.toString());
+
+					_bundles.put(bsn, _newBundleDTO(id, bsn, Bundle.INSTALLED, _getVersion(id)));
+
+					bundleIds.put(bsn, id);
+				}
+			}
+			catch (Exception e) {
+				failures.put(bsn, e);
+			}
+		}
+
+		if (!updatedBundleIds.isEmpty()) {
+			long[] ids = new long[updatedBundleIds.size()];
+
+			int i = 0;
+
+			for (long id : updatedBundleIds.values()) {
+				ids[i++] = id;
+			}
+
+			try {
+				_mBeanServerConnection.invoke(
+					_framework, "refreshBundles", new Object[] {ids}, new String[] {long[].class.getName()});
+			}
+			catch (Exception e) {
+				for (String bsn : updatedBundleIds.keySet()) {
+					failures.putIfAbsent(bsn, e);
+				}
+			}
+		}
+
+		for (Map.Entry<String, Long> entry : bundleIds.entrySet()) {
+			try {
+				_invokeFramework("startBundle", entry.getValue());
+
+				_setState(entry.getKey(), entry.getValue(), Bundle.ACTIVE);
+			}
+			catch (Exception e) {
+				failures.put(entry.getKey(), e);
+			}
+		}
+
+		if (!failures.isEmpty()) {
+			Exception exception = new Exception("Unable to deploy " + String.join(", ", failures.keySet()));
+
+			for (Exception failure : new LinkedHashSet<>(failures.values())) {
+				exception.addSuppressed(failure);
+			}
+
+			throw exception;
+		}
+
+		return bundleIds;
+	}
+
+	/**
+	 * Returns the bundle with the given symbolic name, or <code>null</code> if
+	 * it is not installed. The returned bundle is not updated by later
+	 * operations or bundle events.
+	 */
+	public BundleDTO getBundle(String bsn) {
+		BundleDTO bundleDTO = _bundles.get(bsn);
+
+		if (bundleDTO == null) {
+			return null;
+		}
+
+		return _withVersion(bundleDTO);
+	}
+
+	public Collection<BundleDTO> getBundles() {
+		List<BundleDTO> bundleDTOs = new ArrayList<>();
+
+		for (BundleDTO bundleDTO : _bundles.values()) {
+			bundleDTOs.add(_withVersion(bundleDTO));
+		}
+
+		return bundleDTOs;
+	}
+
+	/**
+	 * Returns <code>true</code> if the installed bundles are kept up to date
+	 * from the bundle events of the framework, and not only from the results
+	 * of the operations of this session.
+	 */
+	public boolean isListening() {
+		return _listening;
+	}
+
+	public void uninstall(String bsn) throws Exception {
+		BundleDTO bundleDTO = _bundles.get(bsn);
+
+		if (bundleDTO == null) {
+			throw new IllegalStateException("Unable to uninstall " + bsn);
+		}
+
+		_invokeFramework("uninstallBundle", bundleDTO.id);
+
+		_bundles.remove(bsn);
+	}
+
+	private static ObjectName _getObjectName(MBeanServerConnection mBeanServerConnection, String name)
+		throws IOException, MalformedObjectNameException {
+
+		Set<ObjectName> objectNames = mBeanServerConnection.queryNames(new ObjectName(name), null);
+
+		if ((objectNames == null) || objectNames.isEmpty()) {
+			return null;
+		}
+
+		Iterator<ObjectName> iterator = objectNames.iterator();
+
+		return iterator.next();
+	}
+
+	private static int _getState(int eventType) {
+		switch (eventType) {
+			case BundleEvent.LAZY_ACTIVATION:
+			case BundleEvent.STARTING:
+				return Bundle.STARTING;
+			case BundleEvent.RESOLVED:
+			case BundleEvent.STOPPED:
+				return Bundle.RESOLVED;
+			case BundleEvent.STARTED:
+				return Bundle.ACTIVE;
+			case BundleEvent.STOPPING:
+				return Bundle.STOPPING;
+			case BundleEvent.UNINSTALLED:
+				return Bundle.UNINSTALLED;
+			default:
+				return Bundle.INSTALLED;
+		}
+	}
+
+	private static BundleDTO _newBundleDTO(long id, String bsn, int state, String version) {
+		BundleDTO bundleDTO = new BundleDTO();
+
+		bundleDTO.id = id;
+		bundleDTO.state = state;
+		bundleDTO.symbolicName = bsn;
+		bundleDTO.version = version;
+
+		return bundleDTO;
+	}
+
+	private boolean _addNotificationListener() {
+		try {
+			_mBeanServerConnection.addNotificationListener(_bundleState, _notificationListener, null, null);
+
+			return true;
+		}
+		catch (Exception e) {
+			return false;
+		}
+	}
+
+	private String _getVersion(long id) {
+		try {
+			Object version = _mBeanServerConnection.invoke(
+				_bundleState, "getVersion", new Object[] {id}, new String[] {"long"});
+
+			if (version != null) {
+				return version.toString();
+			}
+		}
+		catch (Exception e) {
+		}
+
+		return null;
+	}
+
+	private void _handleNotification(Notification notification, Object handback) {
+		Object userData = notification.getUserData();
+
+		if (!(userData instanceof CompositeData)) {
+			return;
+		}
+
+		CompositeData compositeData = (CompositeData)userData;
+
+		Object identifier = compositeData.get("Identifier");
+		Object symbolicName = compositeData.get("SymbolicName");
+		Object eventType = compositeData.get("EventType");
+
+		if ((identifier == null) || (symbolicName == null) || (eventType == null)) {
+			return;
+		}
+
+		long id = Long.parseLong(identifier.toString());
+		String bsn = symbolicName.toString();
+		int state = _getState(Integer.parseInt(eventType.toString()));
+
+		if (state == Bundle.UNINSTALLED) {
+			_bundles.remove(bsn);
+
+			return;
+		}
+
+		// The version is looked up later by the caller, a remote call would
+		// hold up the delivery of the next notifications
+
+		_bundles.compute(
+			bsn,
+			(key, bundleDTO) -> {
+				if ((bundleDTO == null) || (bundleDTO.id != id)) {
+					return _newBundleDTO(id, bsn, state, null);
+				}
+
+				return _newBundleDTO(id, bsn, state, bundleDTO.version);
+			});
+	}
+
+	private void _invokeFramework(String operationName, long id) throws Exception {
+		_mBeanServerConnection.invoke(_framework, operationName, new Object[] {id}, new String[] {"long"});
+	}
+
+	private void _loadBundles() throws Exception {
+		Object[] params = {new String[] {"Identifier", "SymbolicName", "State", "Version"}};
+
+		String[] signature = {String[].class.getName()};
+
+		TabularData tabularData = (TabularData)_mBeanServerConnection.invoke(
+			_bundleState, "listBundles", params, signature);
+
+		for (Object value : tabularData.values()) {
+			BundleDTO bundleDTO = JMXBundleDeployer.newBundleDTO((CompositeData)value);
+
+			_bundles.put(bundleDTO.symbolicName, bundleDTO);
+		}
+	}
+
+	/**
+	 * Replaces the bundle with a copy in the given state. The bundles in the
+	 * map are never modified, since they are shared with the notification
+	 * thread and with the callers of {@link #getBundle(String)}.
+	 */
+	private void _setState(String bsn, long id, int state) {
+		_bundles.computeIfPresent(
+			bsn,
+			(key, bundleDTO) -> {
+				if (bundleDTO.id != id) {
+					return bundleDTO;
+				}
+
+				return _newBundleDTO(id, bsn, state, bundleDTO.version);
+			});
+	}
+
+	/**
+	 * Returns the bundle, asking the bundle state MBean for its version if it
+	 * is not known yet.
+	 */
+	private BundleDTO _withVersion(BundleDTO bundleDTO) {
+		if (bundleDTO.version != null) {
+			return bundleDTO;
+		}
+
+		String version = _getVersion(bundleDTO.id);
+
+		if (version == null) {
+			return bundleDTO;
+		}
+
+		_bundles.computeIfPresent(
+			bundleDTO.symbolicName,
+			(key, currentBundleDTO) -> {
+				if ((currentBundleDTO.id != bundleDTO.id) || (currentBundleDTO.version != null)) {
+					return currentBundleDTO;
+				}
+
+				return _newBundleDTO(currentBundleDTO.id, key, currentBundleDTO.state, version);
+			});
+
+		return _newBundleDTO(bundleDTO.id, bundleDTO.symbolicName, bundleDTO.state, version);
+	}
+
+	private static final String _NAME = "osgi.core";
+
+	private final ObjectName _bundleState;
+	private final Map<String, BundleDTO> _bundles = new ConcurrentHashMap<>();
+	private final ObjectName _framework;
+	private volatile boolean _listening;
+	private final MBeanServerConnection _mBeanServerConnection;
+	private final NotificationListener _notificationListener = this::_handleNotification;
+
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.jmx;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.lang.reflect.Method;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.time.Instant;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Remembers, across invocations, the local connector address of the JVM that
+ * published a given object name, so the next connection does not have to
+ * attach to every JVM on the machine again. Each entry records the process id
+ * and start time of the JVM, and is ignored once a process with that id is no
+ * longer running or was started at another time. On platforms where the start
+ * time of a process cannot be determined the address is returned as it is, and
+ * must be checked by connecting to it.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class JMXConnectorRegistry {
+
+	/**
+	 * Returns an opaque value identifying when the process was started, or
+	 * <code>-1</code> if the process is not running or the start time cannot
+	 * be determined on this platform.
+	 */
+	public static long getStartTime(String pid) {
+		try {
+			Class<?> processHandleClass = Class.forName("java.lang.ProcessHandle");
+
+			Method ofMethod = processHandleClass.getMethod("of", long.class);
+
+			Optional<?> processHandle = (Optional<?>)ofMethod.invoke(null, Long.parseLong(pid));
+
+			if (!processHandle.isPresent()) {
+				return -1;
+			}
+
+			Method infoMethod = processHandleClass.getMethod("info");
+
+			Object info = infoMethod.invoke(processHandle.get());
+
+			Class<?> infoClass = Class.forName("java.lang.ProcessHandle$Info");
+
+			Method startInstantMethod = infoClass.getMethod("startInstant");
+
+			Optional<?> startInstant = (Optional<?>)startInstantMethod.invoke(info);
+
+			if (startInstant.isPresent()) {
+				return ((Instant)startInstant.get()).toEpochMilli();
+			}
+
+			return -1;
+		}
+		catch (ClassNotFoundException cnfe) {
+			return _getProcStartTime(pid);
+		}
+		catch (Exception e) {
+			return -1;
+		}
+	}
+
+	public JMXConnectorRegistry(Path registryPath) {
+		_registryPath = registryPath;
+	}
+
+	/**
+	 * Returns the local connector address recorded for the object name, or
+	 * <code>null</code> if there is none or the JVM it belonged to is gone. An
+	 * entry that cannot be parsed is dropped.
+	 */
+	public synchronized String get(String objectName) {
+		Properties properties = _load();
+
+		String value = properties.getProperty(objectName);
+
+		if (value == null) {
+			return null;
+		}
+
+		String[] parts = value.split(",", 3);
+
+		if ((parts.length != 3) || !_isLong(parts[1])) {
+			properties.remove(objectName);
+
+			_store(properties);
+
+			return null;
+		}
+
+		long startTime = Long.parseLong(parts[1]);
+
+		if ((startTime != -1) && (startTime != getStartTime(parts[0]))) {
+			return null;
+		}
+
+		return parts[2];
+	}
+
+	public synchronized void put(String objectName, String pid, String localConnectorAddress) {
+		Properties properties = _load();
+
+		properties.setProperty(objectName, pid + "," + getStartTime(pid) + "," + localConnectorAddress);
+
+		_store(properties);
+	}
+
+	public synchronized void remove(String objectName) {
+		Properties properties = _load();
+
+		if (properties.remove(objectName) != null) {
+			_store(properties);
+		}
+	}
+
+	private static long _getProcStartTime(String pid) {
+		Path statPath = Paths.get("/proc", pid, "stat");
+
+		try {
+			List<String> lines = Files.readAllLines(statPath, StandardCharsets.UTF_8);
+
+			if (lines.isEmpty()) {
+				return -1;
+			}
+
+			String stat = lines.get(0);
+
+			String[] fields = stat.substring(
+				stat.lastIndexOf(')') + 2
+			).split(
+				" "
+			);
+
+			return Long.parseLong(fields[19]);
+		}
+		catch (Exception e) {
+			return -1;
+		}
+	}
+
+	private static boolean _isLong(String value) {
+		try {
+			Long.parseLong(value);
+
+			return true;
+		}
+		catch (NumberFormatException nfe) {
+			return false;
+		}
+	}
+
+	private Properties _load() {
+		Properties properties = new Properties();
+
+		if (Files.exists(_registryPath)) {
+			try (InputStream inputStream = Files.newInputStream(_registryPath)) {
+				properties.load(inputStream);
+			}
+			catch (IOException | IllegalArgumentException e) {
+				properties.clear();
+			}
+		}
+
+		return properties;
+	}
+
+	private void _store(Properties properties) {
+		try {
+			Files.createDirectories(_registryPath.getParent());
+
+			Path tempPath = Files.createTempFile(_registryPath.getParent(), "jmx-connectors", ".tmp");
+
+			try {
+				try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+					properties.store(outputStream, null);
+				}
+
+				try {
+					Files.move(
+						tempPath, _registryPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				}
+				catch (AtomicMoveNotSupportedException amnse) {
+					Files.move(tempPath, _registryPath, StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			finally {
+				Files.deleteIfExists(tempPath);
+			}
+		}
+		catch (IOException ioe) {
+		}
+	}
+
+	private final Path _registryPath;
+
+}
@@ -19,6 +19,8 @@ package com.liferay.blade.cli.jmx;
 import java.io.File;
 import java.io.IOException;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 
@@ -27,11 +29,23 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import javax.management.MBeanServerConnection;
@@ -50,19 +64,49 @@ public class JMXLocalConnector {
 	 * Uses Oracle JDK's Attach API to try to search VMs on this machine looking
 	 * for the osgi.core MBeans. This will stop searching for VMs once the
 	 * MBeans are found. Beware if you have multiple JVMs with osgi.core MBeans
-	 * published.
+	 * published. VMs are probed in parallel, each for a limited time, and VMs
+	 * known not to publish the MBeans (such as Gradle daemons) are skipped. The
+	 * address found is registered in <code>~/.blade/cache</code> and tried
+	 * first by later calls for as long as the same VM is running.
 	 * @param logger
 	 *
 	 * @return
 	 */
-	@SuppressWarnings("unchecked")
 	public static String getLocalConnectorAddress(String objName, Consumer<String> logger) {
+		return getLocalConnectorAddress(_CACHE_PATH, objName, logger);
+	}
+
+	/**
+	 * Searches the VMs on this machine for the given MBeans like
+	 * <code>getLocalConnectorAddress(String, Consumer)</code>, registering the
+	 * address found under the given blade cache directory.
+	 */
+	@SuppressWarnings("unchecked")
+	public static String getLocalConnectorAddress(Path cachePath, String objName, Consumer<String> logger) {
+		JMXConnectorRegistry jmxConnectorRegistry = new JMXConnectorRegistry(
+			cachePath.resolve("jmx-connectors.properties"));
+
+		String registeredConnectorAddress = jmxConnectorRegistry.get(objName);
+
+		if (registeredConnectorAddress != null) {
+			logger.accept("Trying registered localConnectorAddress=" + registeredConnectorAddress);
+
+			if (_hasObjectName(registeredConnectorAddress, objName, logger)) {
+				return registeredConnectorAddress;
+			}
+
+			jmxConnectorRegistry.remove(objName);
+		}
+
 		Thread thread = Thread.currentThread();
 
 		ClassLoader cl = thread.getContextClassLoader();
 
 		ClassLoader toolsClassloader = null;
 
+		ExecutorService attachExecutorService = null;
+		ExecutorService executorService = null;
+
 		try {
 			toolsClassloader = _getToolsClassLoader(cl);
 
@@ -79,59 +123,115 @@ public class JMXLocalConnector {
 
 				logger.accept("Found " + vmds.size() + " vms on this machine.");
 
-				for (Object vmd : vmds) {
-					String localConnectorAddress = _attach(toolsClassloader, vmClass, vmd, objName, logger);
+				List<Object> candidateVmds = _getCandidateVmds(toolsClassloader, vmds, logger);
 
-					if (localConnectorAddress != null) {
-						logger.accept("Using localConnectorAddress=" + localConnectorAddress);
+				if (candidateVmds.isEmpty()) {
+					return null;
+				}
 
-						return localConnectorAddress;
-					}
+				int threadCount = Math.min(candidateVmds.size(), _ATTACH_THREADS);
 
-					logger.accept("Could not find " + objName + " in this vm.");
-				}
-			}
-		}
-		catch (Exception e) {
-			e.printStackTrace();
-		}
-		finally {
-			thread.setContextClassLoader(cl);
+				attachExecutorService = Executors.newCachedThreadPool(
+					runnable -> {
+						Thread attachThread = new Thread(runnable, "blade-jmx-attach");
 
-			// try to get custom classloader to unload native libs
+						attachThread.setDaemon(true);
 
-			try {
-				if (toolsClassloader != null) {
-					Field nl = ClassLoader.class.getDeclaredField("nativeLibraries");
+						return attachThread;
+					});
+
+				executorService = Executors.newFixedThreadPool(
+					threadCount,
+					runnable -> {
+						Thread probeThread = new Thread(runnable, "blade-jmx-probe");
 
-					nl.setAccessible(true);
+						probeThread.setDaemon(true);
 
-					Vector<?> nativeLibs = (Vector<?>)nl.get(toolsClassloader);
+						return probeThread;
+					});
 
-					for (Object nativeLib : nativeLibs) {
-						Class<?> clazz = nativeLib.getClass();
+				CompletionService<String[]> completionService = new ExecutorCompletionService<>(executorService);
 
-						Field nameField = clazz.getDeclaredField("name");
+				ClassLoader attachClassLoader = toolsClassloader;
 
-						nameField.setAccessible(true);
+				ExecutorService vmExecutorService = attachExecutorService;
 
-						String name = (String)nameField.get(nativeLib);
+				for (Object vmd : candidateVmds) {
+					completionService.submit(
+						() -> {
+							String id = _getDescriptorProperty(attachClassLoader, vmd, "id");
+
+							Future<String> future = vmExecutorService.submit(
+								() -> _attach(attachClassLoader, vmClass, vmd, objName, logger));
+
+							String localConnectorAddress = null;
+
+							try {
+								localConnectorAddress = future.get(_ATTACH_TIMEOUT, TimeUnit.MILLISECONDS);
+							}
+							catch (TimeoutException te) {
+								future.cancel(true);
+
+								logger.accept("Timed out attaching to vm " + id + ".");
+
+								return null;
+							}
+
+							if (localConnectorAddress == null) {
+								logger.accept("Could not find " + objName + " in vm " + id + ".");
+
+								return null;
+							}
+
+							return new String[] {id, localConnectorAddress};
+						});
+				}
 
-						File nativeLibFile = new File(name);
+				int rounds = (candidateVmds.size() + threadCount - 1) / threadCount;
 
-						String nativeLibFileName = nativeLibFile.getName();
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(_ATTACH_TIMEOUT * (rounds + 1));
 
-						if (nativeLibFileName.contains("attach")) {
-							Method f = clazz.getDeclaredMethod("finalize");
+				for (int i = 0; i < candidateVmds.size(); i++) {
+					Future<String[]> future = completionService.poll(
+						deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
 
-							f.setAccessible(true);
-							f.invoke(nativeLib);
-						}
+					if (future == null) {
+						logger.accept("Timed out attaching to the remaining vms.");
+
+						break;
+					}
+
+					String[] result = future.get();
+
+					if (result != null) {
+						logger.accept("Using localConnectorAddress=" + result[1]);
+
+						jmxConnectorRegistry.put(objName, result[0], result[1]);
+
+						return result[1];
 					}
 				}
 			}
-			catch (Exception e) {
-				e.printStackTrace();
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+		}
+		finally {
+			thread.setContextClassLoader(cl);
+
+			if (executorService != null) {
+				executorService.shutdownNow();
+			}
+
+			if (toolsClassloader != null) {
+				if (attachExecutorService == null) {
+					_unloadNativeLibraries(toolsClassloader);
+				}
+				else {
+					attachExecutorService.shutdownNow();
+
+					_unloadNativeLibrariesLater(attachExecutorService, toolsClassloader);
+				}
 			}
 		}
 
@@ -153,8 +253,14 @@ public class JMXLocalConnector {
 		}
 	}
 
+	public JMXLocalConnector(Path cachePath, String objectName, Consumer<String> logger)
+		throws MalformedURLException {
+
+		this(new JMXServiceURL(getLocalConnectorAddress(cachePath, objectName, logger)));
+	}
+
 	public JMXLocalConnector(String objectName, Consumer<String> logger) throws MalformedURLException {
-		this(new JMXServiceURL(getLocalConnectorAddress(objectName, logger)));
+		this(_CACHE_PATH, objectName, logger);
 	}
 
 	protected MBeanServerConnection mBeanServerConnection;
@@ -216,24 +322,8 @@ public class JMXLocalConnector {
 				if (localConnectorAddress != null) {
 					logger.accept("Found localConnectorAddress=" + localConnectorAddress);
 
-					final JMXServiceURL jmxServiceURL = new JMXServiceURL(localConnectorAddress);
-
-					final JMXConnector jmxConnector = JMXConnectorFactory.connect(jmxServiceURL, null);
-
-					logger.accept("Getting mbean server connection...");
-
-					final MBeanServerConnection mBeanServerConnection = jmxConnector.getMBeanServerConnection();
-
-					if (mBeanServerConnection != null) {
-						logger.accept("querying for objectname " + name);
-
-						final ObjectName objectName = _getObjectName(name, mBeanServerConnection);
-
-						logger.accept("found objectName = " + objectName);
-
-						if (objectName != null) {
-							return localConnectorAddress;
-						}
+					if (_hasObjectName(localConnectorAddress, name, logger)) {
+						return localConnectorAddress;
 					}
 				}
 			}
@@ -275,6 +365,44 @@ public class JMXLocalConnector {
 		return retval;
 	}
 
+	private static List<Object> _getCandidateVmds(
+			ClassLoader toolsClassloader, List<Object> vmds, Consumer<String> logger)
+		throws Exception {
+
+		RuntimeMXBean runtimeMXBean = ManagementFactory.getRuntimeMXBean();
+
+		String runtimeName = runtimeMXBean.getName();
+
+		String pid = runtimeName.substring(0, runtimeName.indexOf('@'));
+
+		List<Object> candidateVmds = new ArrayList<>();
+
+		for (Object vmd : vmds) {
+			String id = _getDescriptorProperty(toolsClassloader, vmd, "id");
+			String displayName = _getDescriptorProperty(toolsClassloader, vmd, "displayName");
+
+			if (Objects.equals(id, pid) || _isSkipped(displayName)) {
+				logger.accept("Skipping vm " + id + " (" + displayName + ")");
+
+				continue;
+			}
+
+			candidateVmds.add(vmd);
+		}
+
+		return candidateVmds;
+	}
+
+	private static String _getDescriptorProperty(ClassLoader toolsClassloader, Object vmd, String methodName)
+		throws Exception {
+
+		Class<?> vmdClass = toolsClassloader.loadClass("com.sun.tools.attach.VirtualMachineDescriptor");
+
+		Method method = vmdClass.getMethod(methodName);
+
+		return (String)method.invoke(vmd);
+	}
+
 	private static ObjectName _getObjectName(String objectNameValue, MBeanServerConnection mBeanServerConnection)
 		throws IOException, MalformedObjectNameException {
 
@@ -314,4 +442,126 @@ public class JMXLocalConnector {
 		throw new IOException("Could not find tools.jar in JDK at this location: " + toolsJar);
 	}
 
-}
\ No newline at end of file
+	private static boolean _hasObjectName(String localConnectorAddress, String name, Consumer<String> logger) {
+		JMXServiceURL jmxServiceURL;
+
+		try {
+			jmxServiceURL = new JMXServiceURL(localConnectorAddress);
+		}
+		catch (MalformedURLException murle) {
+			return false;
+		}
+
+		try (JMXConnector jmxConnector = JMXConnectorFactory.connect(jmxServiceURL, null)) {
+			logger.accept("Getting mbean server connection...");
+
+			MBeanServerConnection mBeanServerConnection = jmxConnector.getMBeanServerConnection();
+
+			logger.accept("querying for objectname " + name);
+
+			ObjectName objectName = _getObjectName(name, mBeanServerConnection);
+
+			logger.accept("found objectName = " + objectName);
+
+			if (objectName != null) {
+				return true;
+			}
+		}
+		catch (Exception e) {
+			logger.accept("Unable to query " + localConnectorAddress + ": " + e.getMessage());
+		}
+
+		return false;
+	}
+
+	private static boolean _isSkipped(String displayName) {
+		if (displayName == null) {
+			return false;
+		}
+
+		for (String skippedDisplayName : _SKIPPED_DISPLAY_NAMES) {
+			if (displayName.startsWith(skippedDisplayName)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Unloads the attach library loaded through the tools class loader, so a
+	 * later attach can load it again from a new class loader.
+	 */
+	private static void _unloadNativeLibraries(ClassLoader toolsClassloader) {
+		try {
+			Field nl = ClassLoader.class.getDeclaredField("nativeLibraries");
+
+			nl.setAccessible(true);
+
+			Vector<?> nativeLibs = (Vector<?>)nl.get(toolsClassloader);
+
+			for (Object nativeLib : nativeLibs) {
+				Class<?> clazz = nativeLib.getClass();
+
+				Field nameField = clazz.getDeclaredField("name");
+
+				nameField.setAccessible(true);
+
+				String name = (String)nameField.get(nativeLib);
+
+				File nativeLibFile = new File(name);
+
+				String nativeLibFileName = nativeLibFile.getName();
+
+				if (nativeLibFileName.contains("attach")) {
+					Method f = clazz.getDeclaredMethod("finalize");
+
+					f.setAccessible(true);
+					f.invoke(nativeLib);
+				}
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Unloads the attach library once the attach threads have finished. The
+	 * threads may still be stuck attaching to an unresponsive VM, so this
+	 * waits on a separate thread rather than delaying the address that was
+	 * already found.
+	 */
+	private static void _unloadNativeLibrariesLater(ExecutorService executorService, ClassLoader toolsClassloader) {
+		Thread cleanupThread = new Thread(
+			() -> {
+				try {
+					if (executorService.awaitTermination(_ATTACH_TIMEOUT, TimeUnit.MILLISECONDS)) {
+						_unloadNativeLibraries(toolsClassloader);
+					}
+				}
+				catch (InterruptedException ie) {
+				}
+			},
+			"blade-jmx-cleanup");
+
+		cleanupThread.setDaemon(true);
+
+		cleanupThread.start();
+	}
+
+	private static final int _ATTACH_THREADS = 8;
+
+	private static final long _ATTACH_TIMEOUT = 5000;
+
+	private static final Path _CACHE_PATH = Paths.get(System.getProperty("user.home"), ".blade", "cache");
+
+	private static final String[] _SKIPPED_DISPLAY_NAMES = {
+		"com.intellij.idea.Main", "jdk.jcmd/sun.tools.jcmd.JCmd", "jdk.jcmd/sun.tools.jps.Jps",
+		"org.codehaus.plexus.classworlds.launcher.Launcher", "org.gradle.launcher.daemon.bootstrap.GradleDaemon",
+		"org.gradle.wrapper.GradleWrapperMain", "org.jetbrains.jps.cmdline.Launcher",
+		"org.jetbrains.kotlin.daemon.KotlinCompileDaemon", "sun.tools.jcmd.JCmd", "sun.tools.jps.Jps",
+		"worker.org.gradle.process.internal.worker.GradleWorkerMain"
+	};
+
+}
@@ -0,0 +1,365 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+/**
+ * Extracts zip and tar archives, refusing entries that would be written
+ * outside of the destination directory.
+ *
+ * <p>
+ * Zip files are read with random access: every entry is checked and the
+ * directory tree is created before anything is written, then the entries are
+ * extracted in parallel on a shared pool with one thread per core. Stored
+ * entries are copied straight from the archive to the destination file
+ * channel without passing through the heap. Zip and tar streams are extracted
+ * as they are read.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class ArchiveExtractor {
+
+	/**
+	 * Extracts a tar archive, compressed with gzip when its name ends with
+	 * <code>.gz</code> or <code>.tgz</code>, removing the given number of
+	 * leading path elements from the names of its entries.
+	 */
+	public static void untar(Path tarPath, Path destinationDirPath, int stripComponents) throws IOException {
+		String fileName = String.valueOf(tarPath.getFileName());
+
+		try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(tarPath), _BUFFER_SIZE)) {
+			if (fileName.endsWith(".gz") || fileName.endsWith(".tgz")) {
+				untar(new GzipCompressorInputStream(inputStream), destinationDirPath, stripComponents);
+			}
+			else {
+				untar(inputStream, destinationDirPath, stripComponents);
+			}
+		}
+	}
+
+	/**
+	 * Extracts an uncompressed tar stream as it is read, removing the given
+	 * number of leading path elements from the names of its entries.
+	 */
+	public static void untar(InputStream inputStream, Path destinationDirPath, int stripComponents)
+		throws IOException {
+
+		Set<Path> dirPaths = new HashSet<>();
+
+		try (TarArchiveInputStream tarArchiveInputStream = new TarArchiveInputStream(inputStream)) {
+			TarArchiveEntry tarArchiveEntry = null;
+
+			while ((tarArchiveEntry = tarArchiveInputStream.getNextTarEntry()) != null) {
+				Path entryPath = _stripComponents(
+					Paths.get(tarArchiveEntry.getName()), stripComponents, tarArchiveEntry.isDirectory());
+
+				Path destinationPath = _resolve(destinationDirPath, entryPath.toString(), IOException::new);
+
+				if (tarArchiveEntry.isDirectory()) {
+					_createDirectories(destinationPath, dirPaths);
+
+					continue;
+				}
+
+				_createDirectories(destinationPath.getParent(), dirPaths);
+
+				Files.copy(tarArchiveInputStream, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+
+				Date lastModifiedDate = tarArchiveEntry.getLastModifiedDate();
+
+				Files.setLastModifiedTime(destinationPath, FileTime.fromMillis(lastModifiedDate.getTime()));
+			}
+		}
+	}
+
+	/**
+	 * Extracts a zip stream as it is read.
+	 */
+	public static void unzip(InputStream inputStream, Path destinationDirPath) throws IOException {
+		Set<Path> dirPaths = new HashSet<>();
+
+		try (ZipInputStream zipInputStream = new ZipInputStream(new BufferedInputStream(inputStream, _BUFFER_SIZE))) {
+			ZipEntry zipEntry = null;
+
+			while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+				if (zipEntry.isDirectory()) {
+					continue;
+				}
+
+				Path destinationPath = _resolve(destinationDirPath, zipEntry.getName(), ZipException::new);
+
+				_createDirectories(destinationPath.getParent(), dirPaths);
+
+				Files.copy(zipInputStream, destinationPath, StandardCopyOption.REPLACE_EXISTING);
+
+				zipInputStream.closeEntry();
+			}
+		}
+	}
+
+	/**
+	 * Extracts the files of a zip file in parallel. When
+	 * <code>entryToStart</code> is not <code>null</code> only the files
+	 * following the entry with that name and starting with it are extracted,
+	 * relative to it.
+	 */
+	public static void unzip(Path zipPath, Path destinationDirPath, String entryToStart) throws IOException {
+		try (ZipFile zipFile = new ZipFile(zipPath.toFile());
+			FileChannel zipFileChannel = FileChannel.open(zipPath, StandardOpenOption.READ)) {
+
+			Map<ZipArchiveEntry, Path> destinationPaths = _getDestinationPaths(
+				zipFile, destinationDirPath, entryToStart);
+
+			Set<Path> dirPaths = new TreeSet<>();
+
+			for (Path destinationPath : destinationPaths.values()) {
+				dirPaths.add(destinationPath.getParent());
+			}
+
+			for (Path dirPath : dirPaths) {
+				Files.createDirectories(dirPath);
+			}
+
+			List<ZipArchiveEntry> zipArchiveEntries = new ArrayList<>(destinationPaths.keySet());
+
+			if (zipArchiveEntries.size() < _PARALLEL_THRESHOLD) {
+				for (ZipArchiveEntry zipArchiveEntry : zipArchiveEntries) {
+					_extract(zipFile, zipFileChannel, zipArchiveEntry, destinationPaths.get(zipArchiveEntry));
+				}
+
+				return;
+			}
+
+			Collections.sort(zipArchiveEntries, Comparator.comparingLong(ZipArchiveEntry::getSize).reversed());
+
+			List<CompletableFuture<Void>> completableFutures = new ArrayList<>();
+
+			for (ZipArchiveEntry zipArchiveEntry : zipArchiveEntries) {
+				completableFutures.add(
+					CompletableFuture.runAsync(
+						() -> {
+							try {
+								_extract(
+									zipFile, zipFileChannel, zipArchiveEntry, destinationPaths.get(zipArchiveEntry));
+							}
+							catch (IOException ioe) {
+								throw new CompletionException(ioe);
+							}
+						},
+						_executorService));
+			}
+
+			try {
+				CompletableFuture.allOf(
+					completableFutures.toArray(new CompletableFuture<?>[0])
+				).join();
+			}
+			catch (CompletionException ce) {
+				Throwable cause = ce.getCause();
+
+				if (cause instanceof IOException) {
+					throw (IOException)cause;
+				}
+
+				throw ce;
+			}
+		}
+	}
+
+	private static void _createDirectories(Path dirPath, Set<Path> dirPaths) throws IOException {
+		if ((dirPath != null) && dirPaths.add(dirPath)) {
+			Files.createDirectories(dirPath);
+		}
+	}
+
+	private static void _extract(
+			ZipFile zipFile, FileChannel zipFileChannel, ZipArchiveEntry zipArchiveEntry, Path destinationPath)
+		throws IOException {
+
+		Files.deleteIfExists(destinationPath);
+
+		long dataOffset = zipArchiveEntry.getDataOffset();
+
+		if ((zipArchiveEntry.getMethod() == ZipEntry.STORED) && (dataOffset >= 0)) {
+			try (FileChannel fileChannel = FileChannel.open(
+					destinationPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+
+				long size = zipArchiveEntry.getSize();
+
+				long position = 0;
+
+				while (position < size) {
+					long transferred = zipFileChannel.transferTo(
+						dataOffset + position, size - position, fileChannel);
+
+					if (transferred <= 0) {
+						throw new ZipException("Entry " + zipArchiveEntry.getName() + " is truncated");
+					}
+
+					position += transferred;
+				}
+			}
+
+			return;
+		}
+
+		try (InputStream inputStream = zipFile.getInputStream(zipArchiveEntry)) {
+			Files.copy(inputStream, destinationPath);
+		}
+	}
+
+	/**
+	 * Returns the destination path of every file to extract, in the order of
+	 * the archive, after checking that none of them is outside of the
+	 * destination directory.
+	 */
+	private static Map<ZipArchiveEntry, Path> _getDestinationPaths(
+			ZipFile zipFile, Path destinationDirPath, String entryToStart)
+		throws IOException {
+
+		Map<ZipArchiveEntry, Path> destinationPaths = new LinkedHashMap<>();
+
+		boolean foundStartEntry = false;
+
+		if (entryToStart == null) {
+			foundStartEntry = true;
+		}
+
+		Enumeration<ZipArchiveEntry> zipArchiveEntries = zipFile.getEntries();
+
+		while (zipArchiveEntries.hasMoreElements()) {
+			ZipArchiveEntry zipArchiveEntry = zipArchiveEntries.nextElement();
+
+			String entryName = zipArchiveEntry.getName();
+
+			if (!foundStartEntry) {
+				foundStartEntry = entryToStart.equals(entryName);
+
+				continue;
+			}
+
+			if (zipArchiveEntry.isDirectory() || ((entryToStart != null) && !entryName.startsWith(entryToStart))) {
+				continue;
+			}
+
+			if (entryToStart != null) {
+				entryName = entryName.substring(entryToStart.length());
+			}
+
+			destinationPaths.put(zipArchiveEntry, _resolve(destinationDirPath, entryName, ZipException::new));
+		}
+
+		return destinationPaths;
+	}
+
+	private static <E extends IOException> Path _resolve(
+			Path destinationDirPath, String entryName, ExceptionSupplier<E> exceptionSupplier)
+		throws E {
+
+		Path destinationPath = destinationDirPath.resolve(entryName);
+
+		if (!BladeUtil.isSafelyRelative(destinationPath.toFile(), destinationDirPath.toFile())) {
+			throw exceptionSupplier.get(
+				"Entry " + destinationPath.getFileName() + " is outside of the target destination: " +
+					destinationDirPath);
+		}
+
+		return destinationPath;
+	}
+
+	private static Path _stripComponents(Path path, int stripComponents, boolean directory) {
+		if (stripComponents > 0) {
+			int nameCount = path.getNameCount();
+
+			if (stripComponents < nameCount) {
+				return path.subpath(stripComponents, nameCount);
+			}
+			else if (directory && (stripComponents == nameCount)) {
+				return path.relativize(path);
+			}
+		}
+
+		return path;
+	}
+
+	private static final int _BUFFER_SIZE = 65536;
+
+	private static final int _PARALLEL_THRESHOLD = 16;
+
+	private static final ExecutorService _executorService = Executors.newFixedThreadPool(
+		Runtime.getRuntime().availableProcessors(),
+		new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "blade-extract-" + _threadCount.incrementAndGet());
+
+				thread.setDaemon(true);
+
+				return thread;
+			}
+
+			private final AtomicInteger _threadCount = new AtomicInteger();
+
+		});
+
+	private interface ExceptionSupplier<E extends IOException> {
+
+		public E get(String message);
+
+	}
+
+}
@@ -16,15 +16,14 @@
 
 package com.liferay.blade.cli.util;
 
+import com.liferay.blade.cli.ArtifactCache;
 import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.command.SamplesCommand;
 import com.liferay.project.templates.ProjectTemplates;
 import com.liferay.project.templates.extensions.util.ProjectTemplatesUtil;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -36,6 +35,7 @@ import java.net.Socket;
 import java.net.URISyntaxException;
 import java.net.URL;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -52,7 +52,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
-import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
@@ -82,6 +82,30 @@ public class BladeUtil {
 		gradlewFile.setExecutable(true);
 	}
 
+	public static ProcessBuilder buildProcessBuilder(
+		String command, File dir, Map<String, String> environment, boolean inheritIO) {
+
+		ProcessBuilder processBuilder = new ProcessBuilder();
+
+		Map<String, String> env = processBuilder.environment();
+
+		if (environment != null) {
+			env.putAll(environment);
+		}
+
+		if ((dir != null) && dir.exists()) {
+			processBuilder.directory(dir);
+		}
+
+		setShell(processBuilder, command);
+
+		if (inheritIO) {
+			processBuilder.inheritIO();
+		}
+
+		return processBuilder;
+	}
+
 	public static boolean canConnect(String host, int port) {
 		InetSocketAddress localAddress = new InetSocketAddress(0);
 		InetSocketAddress remoteAddress = new InetSocketAddress(host, Integer.valueOf(port));
@@ -89,17 +113,25 @@ public class BladeUtil {
 		return _canConnect(localAddress, remoteAddress);
 	}
 
+	/**
+	 * Returns the cached archive of the master branch of the given GitHub
+	 * project, downloading it only when it has changed.
+	 */
+	public static Path downloadGithubProject(ArtifactCache artifactCache, String url) throws IOException {
+		return artifactCache.get(url + _GITHUB_ARCHIVE_PATH);
+	}
+
 	public static void downloadGithubProject(String url, Path target) throws IOException {
-		String zipUrl = url + "/archive/master.zip";
+		String zipUrl = url + _GITHUB_ARCHIVE_PATH;
 
 		downloadLink(zipUrl, target);
 	}
 
 	public static void downloadLink(String link, Path target) throws IOException {
 		if (_isURLAvailable(link)) {
-			LinkDownloader downloader = new LinkDownloader(link, target);
+			LinkDownloader linkDownloader = new LinkDownloader(link, target);
 
-			downloader.run();
+			linkDownloader.download();
 		}
 		else {
 			throw new RuntimeException("url '" + link + "' is not accessible.");
@@ -348,27 +380,12 @@ public class BladeUtil {
 		return new String(Files.readAllBytes(file.toPath()));
 	}
 
-	public static void readProcessStream(final InputStream inputStream, final PrintStream printStream) {
-		Thread thread = new Thread(
-			new Runnable() {
-
-				@Override
-				public void run() {
-					try (Scanner scanner = new Scanner(inputStream)) {
-						while (scanner.hasNextLine()) {
-							String line = scanner.nextLine();
-
-							if (line != null) {
-								AnsiLinePrinter.println(printStream, line);
-							}
-						}
-					}
-				}
-
-			});
-
-		thread.setDaemon(true);
-		thread.start();
+	/**
+	 * Prints the lines of the process stream on a shared pump thread. The
+	 * returned future completes once the end of the stream is reached.
+	 */
+	public static CompletableFuture<Void> readProcessStream(InputStream inputStream, PrintStream printStream) {
+		return ProcessPump.pumpLines(inputStream, printStream);
 	}
 
 	public static boolean searchZip(Path path, Predicate<String> test) {
@@ -422,7 +439,7 @@ public class BladeUtil {
 	}
 
 	public static Process startProcess(String command, File dir, Map<String, String> environment) throws Exception {
-		ProcessBuilder processBuilder = _buildProcessBuilder(command, dir, environment, true);
+		ProcessBuilder processBuilder = buildProcessBuilder(command, dir, environment, true);
 
 		Process process = processBuilder.start();
 
@@ -437,7 +454,7 @@ public class BladeUtil {
 			String command, File dir, Map<String, String> environment, PrintStream out, PrintStream err)
 		throws Exception {
 
-		ProcessBuilder processBuilder = _buildProcessBuilder(command, dir, environment, false);
+		ProcessBuilder processBuilder = buildProcessBuilder(command, dir, environment, false);
 
 		Process process = processBuilder.start();
 
@@ -456,52 +473,19 @@ public class BladeUtil {
 	}
 
 	public static void tail(Path path, PrintStream printStream) throws IOException {
-		try (BufferedReader input = new BufferedReader(new FileReader(path.toFile()))) {
-			String currentLine = null;
-
-			while (true) {
-				if ((currentLine = input.readLine()) != null) {
-					printStream.println(currentLine);
-
-					continue;
-				}
-
-				try {
-					Thread.sleep(1000);
-				}
-				catch (InterruptedException ie) {
-					Thread currentThread = Thread.currentThread();
-
-					currentThread.interrupt();
-
-					break;
-				}
-			}
-		}
+		tail(path, null, printStream);
 	}
 
-	private static ProcessBuilder _buildProcessBuilder(
-		String command, File dir, Map<String, String> environment, boolean inheritIO) {
-
-		ProcessBuilder processBuilder = new ProcessBuilder();
-
-		Map<String, String> env = processBuilder.environment();
-
-		if (environment != null) {
-			env.putAll(environment);
-		}
-
-		if ((dir != null) && dir.exists()) {
-			processBuilder.directory(dir);
+	/**
+	 * Prints the log and every line appended to it, including after the log is
+	 * rotated or truncated, until the current thread is interrupted. Only the
+	 * lines containing the filter are printed when it is not
+	 * <code>null</code>.
+	 */
+	public static void tail(Path path, String filter, PrintStream printStream) throws IOException {
+		try (LogTailer logTailer = new LogTailer(path, printStream, filter, StandardCharsets.UTF_8)) {
+			logTailer.tail();
 		}
-
-		setShell(processBuilder, command);
-
-		if (inheritIO) {
-			processBuilder.inheritIO();
-		}
-
-		return processBuilder;
 	}
 
 	private static boolean _canConnect(InetSocketAddress localAddress, InetSocketAddress remoteAddress) {
@@ -552,6 +536,8 @@ public class BladeUtil {
 		"build." + System.getenv("HOSTNAME") + ".properties", "build.properties"
 	};
 
+	private static final String _GITHUB_ARCHIVE_PATH = "/archive/master.zip";
+
 	private static final String _GRADLEW_UNIX_FILE_NAME = "gradlew";
 
 	private static final String _GRADLEW_WINDOWS_FILE_NAME = "gradlew.bat";
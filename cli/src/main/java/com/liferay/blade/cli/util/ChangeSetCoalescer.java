@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.nio.file.Path;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the changes found by a {@link ChangeWatcher} into change sets.
+ *
+ * <p>
+ * A change set is due once no further change has been added for the quiet
+ * period, or once its oldest change has waited ten quiet periods. Due change
+ * sets are handed to the consumer on the given executor. The change sets that
+ * become due while the consumer is still busy are merged and handed over
+ * together once it returns.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+class ChangeSetCoalescer {
+
+	public ChangeSetCoalescer(
+		long quietPeriod, Executor executor, FileWatcher.Consumer<SortedMap<Path, FileWatcher.Change>> consumer) {
+
+		_quietPeriodNanos = TimeUnit.MILLISECONDS.toNanos(quietPeriod);
+		_executor = executor;
+		_consumer = consumer;
+	}
+
+	/**
+	 * Merges the given changes into the change set being collected.
+	 */
+	public void addChanges(Map<Path, FileWatcher.Change> changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+
+		boolean empty = _changes.isEmpty();
+
+		for (Map.Entry<Path, FileWatcher.Change> entry : changes.entrySet()) {
+			FileWatcher.addChange(_changes, entry.getKey(), entry.getValue());
+		}
+
+		_lastChangeNanos = System.nanoTime();
+
+		if (empty) {
+			_firstChangeNanos = _lastChangeNanos;
+		}
+	}
+
+	/**
+	 * Hands the change set being collected to the consumer if it is due.
+	 */
+	public void dispatchIfDue() {
+		if (_changes.isEmpty() || (getDelay() > 0)) {
+			return;
+		}
+
+		synchronized (_pendingChanges) {
+			for (Map.Entry<Path, FileWatcher.Change> entry : _changes.entrySet()) {
+				FileWatcher.addChange(_pendingChanges, entry.getKey(), entry.getValue());
+			}
+
+			_changes.clear();
+
+			if (_consuming || _pendingChanges.isEmpty()) {
+				return;
+			}
+
+			_consuming = true;
+		}
+
+		_executor.execute(this::_consume);
+	}
+
+	/**
+	 * Returns the number of nanoseconds until the change set being collected
+	 * is due, or <code>-1</code> when no change has been collected.
+	 */
+	public long getDelay() {
+		if (_changes.isEmpty()) {
+			return -1;
+		}
+
+		long dueNanos = Math.min(_lastChangeNanos + _quietPeriodNanos, _firstChangeNanos + (_quietPeriodNanos * 10));
+
+		return Math.max(dueNanos - System.nanoTime(), 0);
+	}
+
+	private void _consume() {
+		while (true) {
+			SortedMap<Path, FileWatcher.Change> changeSet;
+
+			synchronized (_pendingChanges) {
+				if (_pendingChanges.isEmpty()) {
+					_consuming = false;
+
+					return;
+				}
+
+				changeSet = new TreeMap<>(_pendingChanges);
+
+				_pendingChanges.clear();
+			}
+
+			try {
+				_consumer.consume(changeSet);
+			}
+			catch (RuntimeException re) {
+				re.printStackTrace();
+			}
+		}
+	}
+
+	private final SortedMap<Path, FileWatcher.Change> _changes = new TreeMap<>();
+	private final FileWatcher.Consumer<SortedMap<Path, FileWatcher.Change>> _consumer;
+	private boolean _consuming;
+	private final Executor _executor;
+	private long _firstChangeNanos;
+	private long _lastChangeNanos;
+	private final SortedMap<Path, FileWatcher.Change> _pendingChanges = new TreeMap<>();
+	private final long _quietPeriodNanos;
+
+}
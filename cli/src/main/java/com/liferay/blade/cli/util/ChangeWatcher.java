@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.Closeable;
+
+import java.nio.file.Path;
+
+import java.util.SortedMap;
+
+/**
+ * A source of the changes made to the files of a directory tree.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public interface ChangeWatcher extends Closeable {
+
+	/**
+	 * Reports the changes as change sets once no further change has been seen
+	 * for <code>quietPeriod</code> milliseconds, or once the oldest pending
+	 * change has waited ten quiet periods. The consumer runs on a separate
+	 * thread. Returns when the watcher is closed.
+	 */
+	public void processChanges(long quietPeriod, FileWatcher.Consumer<SortedMap<Path, FileWatcher.Change>> consumer);
+
+}
@@ -18,7 +18,6 @@ package com.liferay.blade.cli.util;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -35,27 +34,15 @@ import java.nio.charset.Charset;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.nio.file.attribute.FileTime;
 
-import java.util.Date;
 import java.util.EnumSet;
-import java.util.Enumeration;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipException;
-import java.util.zip.ZipFile;
-import java.util.zip.ZipInputStream;
-
-import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
-import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 /**
  * @author Gregory Amerson
@@ -128,7 +115,7 @@ public class FileUtil {
 		String fileName = String.valueOf(path.getFileName());
 
 		if (fileName.endsWith(".gz") || fileName.endsWith(".tar") || fileName.endsWith(".tgz")) {
-			_untar(path, destinationDirPath, stripComponents);
+			ArchiveExtractor.untar(path, destinationDirPath, stripComponents);
 		}
 		else if (fileName.endsWith(".zip")) {
 			unzip(path.toFile(), destinationDirPath.toFile());
@@ -143,125 +130,11 @@ public class FileUtil {
 	}
 
 	public static void unzip(File srcFile, File destDir, String entryToStart) throws IOException {
-		try (final ZipFile zip = new ZipFile(srcFile)) {
-			final Enumeration<? extends ZipEntry> entries = zip.entries();
-
-			boolean foundStartEntry = false;
-
-			if (entryToStart == null) {
-				foundStartEntry = true;
-			}
-
-			while (entries.hasMoreElements()) {
-				final ZipEntry entry = entries.nextElement();
-
-				String entryName = entry.getName();
-
-				if (!foundStartEntry) {
-					foundStartEntry = entryToStart.equals(entryName);
-
-					continue;
-				}
-
-				if (entry.isDirectory() || ((entryToStart != null) && !entryName.startsWith(entryToStart))) {
-					continue;
-				}
-
-				if (entryToStart != null) {
-					entryName = entryName.replaceFirst(entryToStart, "");
-				}
-
-				final File f = new File(destDir, entryName);
-
-				if (!BladeUtil.isSafelyRelative(f, destDir)) {
-					throw new ZipException(
-						"Entry " + f.getName() + " is outside of the target destination: " + destDir);
-				}
-
-				if (f.exists()) {
-					Files.delete(f.toPath());
-
-					if (f.exists()) {
-						throw new IOException("Could not delete " + f.getAbsolutePath());
-					}
-				}
-
-				final File dir = f.getParentFile();
-
-				if (!dir.exists() && !dir.mkdirs()) {
-					final String msg = "Could not create dir: " + dir.getPath();
-
-					throw new IOException(msg);
-				}
-
-				try (final InputStream in = zip.getInputStream(entry);
-					final FileOutputStream out = new FileOutputStream(f)) {
-
-					final byte[] bytes = new byte[1024];
-
-					int count = in.read(bytes);
-
-					while (count != -1) {
-						out.write(bytes, 0, count);
-						count = in.read(bytes);
-					}
-
-					out.flush();
-				}
-			}
-		}
+		ArchiveExtractor.unzip(srcFile.toPath(), destDir.toPath(), entryToStart);
 	}
 
 	public static void unzip(InputStream inputStream, File destinationDir) throws IOException {
-		try (ZipInputStream zipInputStream = new ZipInputStream(inputStream)) {
-			ZipEntry zipEntry = null;
-
-			while ((zipEntry = zipInputStream.getNextEntry()) != null) {
-				String entryName = zipEntry.getName();
-
-				if (zipEntry.isDirectory()) {
-					continue;
-				}
-
-				final File f = new File(destinationDir, entryName);
-
-				if (!BladeUtil.isSafelyRelative(f, destinationDir)) {
-					throw new ZipException(
-						"Entry " + f.getName() + " is outside of the target destination: " + destinationDir);
-				}
-
-				if (f.exists()) {
-					Files.delete(f.toPath());
-
-					if (f.exists()) {
-						throw new IOException("Could not delete " + f.getAbsolutePath());
-					}
-				}
-
-				final File dir = f.getParentFile();
-
-				if (!dir.exists() && !dir.mkdirs()) {
-					final String msg = "Could not create dir: " + dir.getPath();
-
-					throw new IOException(msg);
-				}
-
-				try (final FileOutputStream out = new FileOutputStream(f)) {
-					final byte[] bytes = new byte[1024];
-
-					int count = zipInputStream.read(bytes);
-
-					while (count != -1) {
-						out.write(bytes, 0, count);
-						count = zipInputStream.read(bytes);
-					}
-
-					out.flush();
-				}
-
-				zipInputStream.closeEntry();
-			}
-		}
+		ArchiveExtractor.unzip(inputStream, destinationDir.toPath());
 	}
 
 	private static String _collect(Path path, Charset encoding) throws IOException {
@@ -339,48 +212,6 @@ public class FileUtil {
 		return new BufferedReader(Channels.newReader(in, encoding.newDecoder(), -1));
 	}
 
-	private static Path _stripComponents(Path path, int stripComponents, boolean directory) {
-		if (stripComponents > 0) {
-			int nameCount = path.getNameCount();
-
-			if (stripComponents < nameCount) {
-				return path.subpath(stripComponents, nameCount);
-			}
-			else if (directory && (stripComponents == nameCount)) {
-				return path.relativize(path);
-			}
-		}
-
-		return path;
-	}
-
-	private static void _untar(Path tarPath, Path destinationDirPath, int stripComponents) throws IOException {
-		try (InputStream inputStream = Files.newInputStream(tarPath);
-			TarArchiveInputStream tarArchiveInputStream = new TarArchiveInputStream(
-				new GzipCompressorInputStream(inputStream))) {
-
-			TarArchiveEntry tarArchiveEntry = null;
-
-			while ((tarArchiveEntry = tarArchiveInputStream.getNextTarEntry()) != null) {
-				Path destinationPath = destinationDirPath.resolve(
-					_stripComponents(
-						Paths.get(tarArchiveEntry.getName()), stripComponents, tarArchiveEntry.isDirectory()));
-
-				if (tarArchiveEntry.isDirectory()) {
-					Files.createDirectories(destinationPath);
-
-					continue;
-				}
-
-				Files.copy(tarArchiveInputStream, destinationPath, StandardCopyOption.REPLACE_EXISTING);
-
-				Date lastModifiedDate = tarArchiveEntry.getLastModifiedDate();
-
-				Files.setLastModifiedTime(destinationPath, FileTime.fromMillis(lastModifiedDate.getTime()));
-			}
-		}
-	}
-
 	private static FileChannel _writeChannel(Path path) throws IOException {
 		return FileChannel.open(path, _writeOptions);
 	}
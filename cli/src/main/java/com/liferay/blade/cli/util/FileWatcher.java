@@ -35,30 +35,64 @@ import java.io.IOException;
 
 import java.lang.reflect.Field;
 
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 /**
- * Example to watch a directory (or tree) for changes to files.
+ * Watches a directory (or tree) for changes to files.
+ *
+ * <p>
+ * Directories matching one of the ignore matchers are never registered, so
+ * ignored trees such as <code>node_modules</code> or <code>build</code> do not
+ * cost any watch keys. Where the platform supports it the whole tree is
+ * watched through a single native recursive registration.
+ * </p>
+ *
+ * <p>
+ * The size and modification time of every watched file is kept in a snapshot.
+ * When the platform drops events (<code>OVERFLOW</code>), or a directory is
+ * created with content already in it, the affected tree is rescanned and
+ * compared to the snapshot instead of losing changes.
+ * </p>
+ *
+ * <p>
+ * Changes are coalesced by a <code>ChangeSetCoalescer</code> and handed over
+ * as change sets to the consumer, which runs on its own thread so that a slow
+ * consumer never stalls the draining of events.
+ * </p>
  *
  * @author n/a
+ * @author Christopher Bryan Boyd
  */
-public class FileWatcher {
+public class FileWatcher implements ChangeWatcher {
 
 	@SuppressWarnings("unchecked")
 	public static <T> WatchEvent<T> cast(WatchEvent<?> event) {
@@ -70,124 +104,170 @@ public class FileWatcher {
 	}
 
 	/**
-	 * Creates a WatchService and registers the given directory
-	 * @param runnable
+	 * Watches the given directory, and its sub-directories that are not
+	 * ignored when <code>recursive</code> is <code>true</code>. The changes
+	 * are only reported once {@link #processChanges(long, Consumer)} is
+	 * called.
 	 */
-	public FileWatcher(Path baseDir, Path fileToWatch, boolean recursive, Consumer<Path> consumer) throws IOException {
+	public FileWatcher(Path baseDir, boolean recursive, List<PathMatcher> ignorePathMatchers) throws IOException {
 		FileSystem fileSystem = FileSystems.getDefault();
 
+		_baseDir = baseDir;
+		_recursive = recursive;
+		_ignorePathMatchers = ignorePathMatchers;
+
 		_watcher = fileSystem.newWatchService();
 
 		_keys = new HashMap<>();
-		_recursive = recursive;
 
-		System.out.format("Scanning %s\n", baseDir);
+		try {
+			if (recursive) {
+				_fileTree = _registerFileTree(baseDir);
+
+				if (_fileTree) {
+					_scan(baseDir, null);
+				}
+				else {
+					_registerAll(baseDir, null);
+				}
+			}
+			else {
+				_register(baseDir);
 
-		if (recursive) {
-			_registerAll(baseDir);
+				_scan(baseDir, null);
+			}
 		}
-		else {
-			_register(baseDir);
+		catch (IOException ioe) {
+			_watcher.close();
+
+			throw ioe;
 		}
 
-		processEvents(fileToWatch, consumer);
+		_executor = Executors.newSingleThreadExecutor(
+			runnable -> {
+				Thread thread = new Thread(runnable, "File Watcher " + baseDir);
+
+				thread.setDaemon(true);
+
+				return thread;
+			});
 	}
 
 	/**
-	 * Process all events for keys queued to the watcher
-	 * @param fileToWatch
-	 * @param runnable
+	 * Creates a WatchService, registers the given directory and reports the
+	 * files created or modified in it until the directory can no longer be
+	 * watched.
 	 */
-	public void processEvents(Path fileToWatch, Consumer<Path> consumer) {
-		while (true) {
-
-			// wait for key to be signalled
-
-			WatchKey key;
+	public FileWatcher(Path baseDir, Path fileToWatch, boolean recursive, Consumer<Path> consumer) throws IOException {
+		this(baseDir, recursive, Collections.emptyList());
 
-			try {
-				key = _watcher.take();
-			}
-			catch (InterruptedException ie) {
-				return;
-			}
+		System.out.format("Scanning %s\n", baseDir);
 
-			Path dir = _keys.get(key);
+		processEvents(fileToWatch, consumer);
+	}
 
-			if (dir == null) {
-				System.err.println("WatchKey not recognized!!");
+	@Override
+	public void close() throws IOException {
+		_closed = true;
 
-				continue;
-			}
+		try {
+			_watcher.close();
+		}
+		finally {
+			_executor.shutdown();
+		}
+	}
 
-			final Set<Path> reportModified = new HashSet<>();
+	/**
+	 * Drains the events of the watched directories and reports them as change
+	 * sets once no further event has arrived for <code>quietPeriod</code>
+	 * milliseconds, or once the oldest pending change has waited ten quiet
+	 * periods. Returns when the watcher is closed or none of the directories
+	 * can be watched anymore.
+	 */
+	@Override
+	public void processChanges(long quietPeriod, Consumer<SortedMap<Path, Change>> consumer) {
+		ChangeSetCoalescer changeSetCoalescer = new ChangeSetCoalescer(quietPeriod, _executor, consumer);
 
-			for (WatchEvent<?> event : key.pollEvents()) {
-				WatchEvent.Kind<?> kind = event.kind();
+		while (!_closed) {
+			WatchKey key;
 
-				// TBD - provide example of how OVERFLOW event is handled
+			try {
+				long delay = changeSetCoalescer.getDelay();
 
-				if (kind == StandardWatchEventKinds.OVERFLOW) {
-					continue;
+				if (delay < 0) {
+					key = _watcher.take();
+				}
+				else {
+					key = _watcher.poll(delay, TimeUnit.NANOSECONDS);
 				}
+			}
+			catch (ClosedWatchServiceException cwse) {
+				return;
+			}
+			catch (InterruptedException ie) {
+				return;
+			}
 
-				// Context for directory entry event is the file name of entry
+			if (key != null) {
+				SortedMap<Path, Change> changes = new TreeMap<>();
 
-				WatchEvent<Path> ev = cast(event);
+				_processEvents(key, changes);
 
-				Path name = ev.context();
+				changeSetCoalescer.addChanges(changes);
 
-				Path child = dir.resolve(name);
+				// reset key and remove from set if directory no longer accessible
 
-				if ((child.equals(fileToWatch) || (fileToWatch == null)) &&
-					((kind == StandardWatchEventKinds.ENTRY_CREATE) ||
-					 (kind == StandardWatchEventKinds.ENTRY_MODIFY))) {
+				boolean valid = key.reset();
 
-					reportModified.add(child);
-				}
+				if (!valid) {
+					_registeredDirs.remove(_keys.remove(key));
 
-				// if directory is created, and watching recursively, then
-				// register it and its sub-directories
+					// all directories are inaccessible
 
-				if (_recursive && (kind == StandardWatchEventKinds.ENTRY_CREATE)) {
-					try {
-						if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
-							_registerAll(child);
-						}
+					if (_keys.isEmpty()) {
+						break;
 					}
-					catch (IOException ioe) {
+				}
+			}
 
-						// ignore to keep sample readbale
+			changeSetCoalescer.dispatchIfDue();
+		}
+	}
 
+	/**
+	 * Process all events for keys queued to the watcher
+	 * @param fileToWatch
+	 * @param consumer
+	 */
+	public void processEvents(Path fileToWatch, Consumer<Path> consumer) {
+		processChanges(
+			0,
+			changes -> {
+				for (Map.Entry<Path, Change> entry : changes.entrySet()) {
+					Path path = entry.getKey();
+
+					if ((entry.getValue() == Change.DELETED) || ((fileToWatch != null) && !path.equals(fileToWatch))) {
+						continue;
 					}
-				}
-			}
 
-			if (!reportModified.isEmpty()) {
-				for (Path modified : reportModified) {
 					try {
-						consumer.consume(modified);
+						consumer.consume(path);
 					}
 					catch (Throwable t) {
 						//ignore
 					}
 				}
-			}
-
-			// reset key and remove from set if directory no longer accessible
-
-			boolean valid = key.reset();
+			});
+	}
 
-			if (!valid) {
-				_keys.remove(key);
+	/**
+	 * The kinds of change reported for a file.
+	 */
+	public enum Change {
 
-				// all directories are inaccessible
+		CREATED, DELETED, MODIFIED
 
-				if (_keys.isEmpty()) {
-					break;
-				}
-			}
-		}
 	}
 
 	public interface Consumer<E> {
@@ -197,21 +277,145 @@ public class FileWatcher {
 	}
 
 	/**
-	 * Register the given directory with the WatchService
+	 * Records a change to the given path, merging it with the change already
+	 * recorded for it. A file that was created and deleted again is dropped.
 	 */
-	private void _register(Path dir) throws IOException {
-		WatchEvent.Modifier modifier = null;
+	static void addChange(Map<Path, Change> changes, Path path, Change change) {
+		changes.compute(path, (key, previousChange) -> _merge(previousChange, change));
+	}
 
+	private static WatchEvent.Modifier _getModifier(String className, String fieldName) {
 		try {
-			Class<?> c = Class.forName("com.sun.nio.file.SensitivityWatchEventModifier");
+			Class<?> c = Class.forName(className);
 
-			Field f = c.getField("HIGH");
+			Field f = c.getField(fieldName);
 
-			modifier = (WatchEvent.Modifier)f.get(c);
+			return (WatchEvent.Modifier)f.get(c);
 		}
 		catch (Exception e) {
 		}
 
+		return null;
+	}
+
+	private static Change _merge(Change previousChange, Change change) {
+		if ((previousChange == null) || (previousChange == change)) {
+			return change;
+		}
+
+		if (previousChange == Change.CREATED) {
+
+			// A file that was created and then deleted again did not change
+
+			if (change == Change.DELETED) {
+				return null;
+			}
+
+			return Change.CREATED;
+		}
+
+		if ((previousChange == Change.DELETED) && (change == Change.CREATED)) {
+			return Change.MODIFIED;
+		}
+
+		return change;
+	}
+
+	private boolean _isIgnored(Path path) {
+		for (PathMatcher pathMatcher : _ignorePathMatchers) {
+			if (pathMatcher.matches(path)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void _processEvents(WatchKey key, Map<Path, Change> changes) {
+		Path dir = _keys.get(key);
+
+		if (dir == null) {
+			System.err.println("WatchKey not recognized!!");
+
+			return;
+		}
+
+		for (WatchEvent<?> event : key.pollEvents()) {
+			WatchEvent.Kind<?> kind = event.kind();
+
+			// Events were lost, find the changes by comparing with the snapshot
+
+			if (kind == StandardWatchEventKinds.OVERFLOW) {
+				_rescan(dir, changes);
+
+				continue;
+			}
+
+			// Context for directory entry event is the file name of entry
+
+			WatchEvent<Path> ev = cast(event);
+
+			Path name = ev.context();
+
+			Path child = dir.resolve(name);
+
+			if (_isIgnored(child)) {
+				continue;
+			}
+
+			if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+				_removeFromSnapshot(child, changes);
+
+				continue;
+			}
+
+			BasicFileAttributes basicFileAttributes = _readAttributes(child);
+
+			if (basicFileAttributes == null) {
+				continue;
+			}
+
+			if (basicFileAttributes.isDirectory()) {
+
+				// if directory is created, and watching recursively, then
+				// register it and its sub-directories and report the files
+				// that were created before the registration
+
+				if (_recursive && (kind == StandardWatchEventKinds.ENTRY_CREATE)) {
+					_rescan(child, changes);
+				}
+
+				continue;
+			}
+
+			FileStamp fileStamp = new FileStamp(basicFileAttributes);
+
+			FileStamp previousFileStamp = _snapshot.put(child, fileStamp);
+
+			if (previousFileStamp == null) {
+				addChange(changes, child, Change.CREATED);
+			}
+			else {
+				addChange(changes, child, Change.MODIFIED);
+			}
+		}
+	}
+
+	private BasicFileAttributes _readAttributes(Path path) {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+		}
+		catch (IOException ioe) {
+			return null;
+		}
+	}
+
+	/**
+	 * Register the given directory with the WatchService
+	 */
+	private void _register(Path dir) throws IOException {
+		WatchEvent.Modifier modifier = _getModifier("com.sun.nio.file.SensitivityWatchEventModifier", "HIGH");
+
 		WatchKey key;
 
 		if (modifier != null) {
@@ -222,15 +426,18 @@ public class FileWatcher {
 		}
 
 		_keys.put(key, dir);
+
+		_registeredDirs.add(dir);
 	}
 
 	/**
-	 * Register the given directory, and all its sub-directories, with the
-	 * WatchService.
+	 * Register the given directory, and all its sub-directories that are not
+	 * ignored, with the WatchService. The files found are added to the
+	 * snapshot and, unless <code>changes</code> is <code>null</code>,
+	 * compared to it.
 	 */
-	private void _registerAll(final Path start) throws IOException {
-
-		// register directory and sub-directories
+	private void _registerAll(final Path start, final Map<Path, Change> changes) throws IOException {
+		Map<Path, FileStamp> fileStamps = new HashMap<>();
 
 		Files.walkFileTree(
 			start,
@@ -238,19 +445,224 @@ public class FileWatcher {
 
 				@Override
 				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-					_register(dir);
+					if (!dir.equals(_baseDir) && _isIgnored(dir)) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+
+					if (!_fileTree && !_registeredDirs.contains(dir)) {
+						_register(dir);
+					}
 
 					return FileVisitResult.CONTINUE;
 				}
 
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					if (attrs.isRegularFile() && !_isIgnored(file)) {
+						fileStamps.put(file, new FileStamp(attrs));
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFileFailed(Path file, IOException ioe) {
+					return FileVisitResult.CONTINUE;
+				}
+
 			});
+
+		_updateSnapshot(start, fileStamps, true, changes);
 	}
 
-	@SuppressWarnings("rawtypes")
-	private static final WatchEvent.Kind[] _WATCH_KINDS = {StandardWatchEventKinds.ENTRY_CREATE};
+	/**
+	 * Registers the whole tree with a single key on the platforms that
+	 * support it. Events of such a key are relative to the base directory.
+	 */
+	private boolean _registerFileTree(Path dir) {
+		WatchEvent.Modifier fileTreeModifier = _getModifier(
+			"com.sun.nio.file.ExtendedWatchEventModifier", "FILE_TREE");
+
+		if (fileTreeModifier == null) {
+			return false;
+		}
+
+		WatchEvent.Modifier modifier = _getModifier("com.sun.nio.file.SensitivityWatchEventModifier", "HIGH");
+
+		try {
+			WatchKey key;
+
+			if (modifier != null) {
+				key = dir.register(_watcher, _WATCH_KINDS, fileTreeModifier, modifier);
+			}
+			else {
+				key = dir.register(_watcher, _WATCH_KINDS, fileTreeModifier);
+			}
+
+			_keys.put(key, dir);
+
+			return true;
+		}
+		catch (IOException | UnsupportedOperationException e) {
+			return false;
+		}
+	}
+
+	private void _removeFromSnapshot(Path path, Map<Path, Change> changes) {
+		Set<Path> snapshotPaths = _snapshot.keySet();
+
+		Iterator<Path> iterator = snapshotPaths.iterator();
+
+		while (iterator.hasNext()) {
+			Path snapshotPath = iterator.next();
+
+			if (snapshotPath.startsWith(path)) {
+				iterator.remove();
+
+				addChange(changes, snapshotPath, Change.DELETED);
+			}
+		}
+	}
+
+	private void _rescan(Path dir, Map<Path, Change> changes) {
+		try {
+			if (_recursive) {
+				_registerAll(dir, changes);
+			}
+			else {
+				_scan(dir, changes);
+			}
+		}
+		catch (IOException ioe) {
+		}
+	}
+
+	/**
+	 * Adds the files of the given directory, or of the whole tree when it is
+	 * watched through a single registration, to the snapshot.
+	 */
+	private void _scan(Path dir, Map<Path, Change> changes) throws IOException {
+		if (_fileTree) {
+			_registerAll(dir, changes);
+
+			return;
+		}
+
+		Map<Path, FileStamp> fileStamps = new HashMap<>();
+
+		try (Stream<Path> files = Files.list(dir)) {
+			files.forEach(
+				file -> {
+					BasicFileAttributes basicFileAttributes = _readAttributes(file);
 
+					if ((basicFileAttributes != null) && basicFileAttributes.isRegularFile() && !_isIgnored(file)) {
+						fileStamps.put(file, new FileStamp(basicFileAttributes));
+					}
+				});
+		}
+
+		_updateSnapshot(dir, fileStamps, false, changes);
+	}
+
+	private void _updateSnapshot(
+		Path dir, Map<Path, FileStamp> fileStamps, boolean recursive, Map<Path, Change> changes) {
+
+		if (changes == null) {
+			_snapshot.putAll(fileStamps);
+
+			return;
+		}
+
+		List<Path> deletedPaths = new ArrayList<>();
+
+		for (Path snapshotPath : _snapshot.keySet()) {
+			boolean contained;
+
+			if (recursive) {
+				contained = snapshotPath.startsWith(dir);
+			}
+			else {
+				contained = dir.equals(snapshotPath.getParent());
+			}
+
+			if (contained && !fileStamps.containsKey(snapshotPath)) {
+				deletedPaths.add(snapshotPath);
+			}
+		}
+
+		for (Path deletedPath : deletedPaths) {
+			_snapshot.remove(deletedPath);
+
+			addChange(changes, deletedPath, Change.DELETED);
+		}
+
+		for (Map.Entry<Path, FileStamp> entry : fileStamps.entrySet()) {
+			Path path = entry.getKey();
+
+			FileStamp previousFileStamp = _snapshot.put(path, entry.getValue());
+
+			if (previousFileStamp == null) {
+				addChange(changes, path, Change.CREATED);
+			}
+			else if (!previousFileStamp.equals(entry.getValue())) {
+				addChange(changes, path, Change.MODIFIED);
+			}
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static final WatchEvent.Kind[] _WATCH_KINDS = {
+		StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY
+	};
+
+	private final Path _baseDir;
+	private volatile boolean _closed;
+	private final ExecutorService _executor;
+	private boolean _fileTree;
+	private final List<PathMatcher> _ignorePathMatchers;
 	private final Map<WatchKey, Path> _keys;
 	private final boolean _recursive;
+	private final Set<Path> _registeredDirs = new HashSet<>();
+	private final Map<Path, FileStamp> _snapshot = new HashMap<>();
 	private final WatchService _watcher;
 
-}
\ No newline at end of file
+	private static class FileStamp {
+
+		public FileStamp(BasicFileAttributes basicFileAttributes) {
+			FileTime lastModifiedTime = basicFileAttributes.lastModifiedTime();
+
+			_lastModified = lastModifiedTime.toMillis();
+
+			_size = basicFileAttributes.size();
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object) {
+				return true;
+			}
+
+			if (!(object instanceof FileStamp)) {
+				return false;
+			}
+
+			FileStamp fileStamp = (FileStamp)object;
+
+			if ((_lastModified == fileStamp._lastModified) && (_size == fileStamp._size)) {
+				return true;
+			}
+
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(_lastModified) * 31 + Long.hashCode(_size);
+		}
+
+		private final long _lastModified;
+		private final long _size;
+
+	}
+
+}
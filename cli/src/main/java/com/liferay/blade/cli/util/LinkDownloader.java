@@ -16,18 +16,67 @@
 
 package com.liferay.blade.cli.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+import java.math.BigInteger;
+
 import java.net.HttpURLConnection;
 import java.net.URL;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * Downloads a link into a <code>.part</code> file next to the target and
+ * renames it onto the target once the download is complete and verified.
+ *
+ * <p>
+ * A <code>.part</code> file left behind by an interrupted download is resumed
+ * with an HTTP range request. The strong <code>ETag</code>, or else the
+ * <code>Last-Modified</code> header, of the response the part file was
+ * started from is kept in a <code>.part.validator</code> file and sent as
+ * <code>If-Range</code>, so the server sends the whole content again if it
+ * changed in the meantime. A part file without a validator is only resumed
+ * when a checksum was set with {@link #setChecksum(String, String)}, and is
+ * discarded otherwise. Large downloads from servers accepting range
+ * requests are split into segments that are fetched over several connections
+ * at the same time. The download is verified against the checksum set with
+ * {@link #setChecksum(String, String)} or, when none is set, against the
+ * <code>X-Checksum-Sha1</code> or <code>X-Checksum-Md5</code> header sent by
+ * repository servers.
+ * </p>
+ *
+ * <p>
+ * Conditional requests can be made by setting the <code>If-None-Match</code>
+ * or <code>If-Modified-Since</code> request property, in which case nothing is
+ * downloaded when the server replies that the content has not been modified.
+ * </p>
+ *
  * @author Christopher Bryan Boyd
  */
 public class LinkDownloader implements Runnable {
@@ -37,94 +86,548 @@ public class LinkDownloader implements Runnable {
 		_target = target;
 	}
 
+	/**
+	 * Downloads the link and returns the path of the downloaded file, which is
+	 * resolved from the name of the link when the target is a directory, or
+	 * <code>null</code> when the server replies that the content has not been
+	 * modified.
+	 */
+	public Path download() throws IOException {
+		URL url = new URL(_link);
+
+		Path targetPath = _target;
+
+		boolean directory = Files.isDirectory(_target);
+
+		long start = 0;
+
+		if (!directory) {
+			start = _getResumeStart(targetPath);
+		}
+
+		HttpURLConnection httpURLConnection = _connect(url, start, -1);
+
+		try {
+			url = httpURLConnection.getURL();
+
+			if (directory) {
+				targetPath = _target.resolve(_getFileName(url));
+
+				start = _getResumeStart(targetPath);
+
+				if (start > 0) {
+					httpURLConnection.disconnect();
+
+					httpURLConnection = _connect(url, start, -1);
+				}
+			}
+
+			Path partPath = _getPartPath(targetPath);
+
+			Path validatorPath = _getValidatorPath(targetPath);
+
+			int responseCode = httpURLConnection.getResponseCode();
+
+			if (responseCode == _HTTP_RANGE_NOT_SATISFIABLE) {
+				httpURLConnection.disconnect();
+
+				Files.delete(partPath);
+				Files.deleteIfExists(validatorPath);
+
+				_ifRange = null;
+
+				start = 0;
+
+				httpURLConnection = _connect(url, start, -1);
+
+				responseCode = httpURLConnection.getResponseCode();
+			}
+
+			if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				return null;
+			}
+
+			_eTag = httpURLConnection.getHeaderField("ETag");
+			_lastModified = httpURLConnection.getHeaderField("Last-Modified");
+
+			String[] checksum = _getChecksum(httpURLConnection);
+
+			long contentLength = httpURLConnection.getContentLengthLong();
+
+			if ((responseCode == HttpURLConnection.HTTP_PARTIAL) && _isContentRangeStart(httpURLConnection, start)) {
+				_write(httpURLConnection, partPath, start);
+			}
+			else if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
+				httpURLConnection.disconnect();
+
+				Files.delete(partPath);
+
+				_ifRange = null;
+
+				httpURLConnection = _connect(url, 0, -1);
+
+				_storeValidator(validatorPath, httpURLConnection);
+
+				_write(httpURLConnection, partPath, 0);
+			}
+			else if (responseCode != HttpURLConnection.HTTP_OK) {
+				throw new IOException("Unable to download " + url + ", server returned HTTP " + responseCode);
+			}
+			else {
+				_storeValidator(validatorPath, httpURLConnection);
+
+				if ((_segments > 1) && (contentLength >= _segmentThreshold) &&
+					"bytes".equals(httpURLConnection.getHeaderField("Accept-Ranges"))) {
+
+					httpURLConnection.disconnect();
+
+					_writeSegments(url, partPath, contentLength);
+				}
+				else {
+					_write(httpURLConnection, partPath, 0);
+				}
+			}
+
+			if (checksum != null) {
+				_verify(partPath, checksum[0], checksum[1]);
+			}
+
+			_moveAtomically(partPath, targetPath);
+
+			Files.deleteIfExists(validatorPath);
+		}
+		finally {
+			httpURLConnection.disconnect();
+		}
+
+		return targetPath;
+	}
+
+	/**
+	 * Returns the <code>ETag</code> header of the last download.
+	 */
+	public String getETag() {
+		return _eTag;
+	}
+
+	/**
+	 * Returns the <code>Last-Modified</code> header of the last download.
+	 */
+	public String getLastModified() {
+		return _lastModified;
+	}
+
 	@Override
 	public void run() {
-		Redirecter redirecter = new Redirecter(_link);
+		try {
+			download();
+		}
+		catch (IOException ioe) {
+			throw new RuntimeException(ioe);
+		}
+	}
 
-		redirecter.run();
+	/**
+	 * Sets the checksum the download must match, as a hexadecimal string
+	 * computed with the given {@link MessageDigest} algorithm.
+	 */
+	public void setChecksum(String algorithm, String checksum) {
+		_checksum = new String[] {algorithm, checksum};
+	}
 
-		_save(redirecter._httpURLConnection);
+	/**
+	 * Sets a request property sent with every request of the download.
+	 */
+	public void setRequestProperty(String key, String value) {
+		_requestProperties.put(key, value);
 	}
 
-	private String _getFileName(URL url) {
-		Path path = Paths.get(url.getFile());
+	/**
+	 * Sets the size from which downloads are split into segments.
+	 */
+	public void setSegmentThreshold(long segmentThreshold) {
+		_segmentThreshold = segmentThreshold;
+	}
 
-		return String.valueOf(path.getFileName());
+	/**
+	 * Sets the number of connections used for segmented downloads, where
+	 * <code>1</code> disables segmented downloads.
+	 */
+	public void setSegments(int segments) {
+		_segments = segments;
 	}
 
-	private void _save(HttpURLConnection httpURLConnection) {
-		Path savePath = _target;
+	/**
+	 * Sets the connect and read timeout in milliseconds.
+	 */
+	public void setTimeout(int timeout) {
+		_timeout = timeout;
+	}
+
+	private static String _digest(Path path, String algorithm) throws IOException {
+		MessageDigest messageDigest;
 
 		try {
-			if (Files.isDirectory(_target)) {
-				savePath = _target.resolve(_getFileName(httpURLConnection.getURL()));
+			messageDigest = MessageDigest.getInstance(algorithm);
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new IOException(nsae);
+		}
+
+		ByteBuffer byteBuffer = ByteBuffer.allocateDirect(_BUFFER_SIZE);
+
+		try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+			while (fileChannel.read(byteBuffer) != -1) {
+				byteBuffer.flip();
+
+				messageDigest.update(byteBuffer);
+
+				byteBuffer.clear();
 			}
+		}
+
+		byte[] digest = messageDigest.digest();
+
+		return String.format("%0" + (digest.length * 2) + "x", new BigInteger(1, digest));
+	}
+
+	private static String _getFileName(URL url) {
+		Path path = Paths.get(url.getPath());
+
+		return String.valueOf(path.getFileName());
+	}
+
+	private static Path _getPartPath(Path targetPath) {
+		return targetPath.resolveSibling(targetPath.getFileName() + ".part");
+	}
 
-			Files.copy(httpURLConnection.getInputStream(), savePath, StandardCopyOption.REPLACE_EXISTING);
+	private static long _getSize(Path path) throws IOException {
+		if (Files.exists(path)) {
+			return Files.size(path);
 		}
-		catch (Exception e) {
-			throw new RuntimeException(e);
+
+		return 0;
+	}
+
+	/**
+	 * Returns the strong <code>ETag</code> of the response or, when there is
+	 * none, its <code>Last-Modified</code> header. Weak entity tags cannot be
+	 * used in an <code>If-Range</code> header.
+	 */
+	private static String _getValidator(HttpURLConnection httpURLConnection) {
+		String eTag = httpURLConnection.getHeaderField("ETag");
+
+		if ((eTag != null) && !eTag.startsWith("W/")) {
+			return eTag;
 		}
+
+		return httpURLConnection.getHeaderField("Last-Modified");
 	}
 
-	private String _link;
-	private Path _target;
+	private static Path _getValidatorPath(Path targetPath) {
+		return targetPath.resolveSibling(targetPath.getFileName() + ".part.validator");
+	}
 
-	private static class Redirecter {
+	private static boolean _isContentRangeStart(HttpURLConnection httpURLConnection, long start) {
+		String contentRange = httpURLConnection.getHeaderField("Content-Range");
 
-		public Redirecter(String link) {
-			try {
-				_link = link;
+		if (contentRange == null) {
+			return false;
+		}
 
-				_url = new URL(link);
+		return contentRange.startsWith("bytes " + start + "-");
+	}
 
-				_httpURLConnection = (HttpURLConnection)_url.openConnection();
+	private static boolean _isRedirect(int responseCode) {
+		if ((responseCode == HttpURLConnection.HTTP_MOVED_PERM) ||
+			(responseCode == HttpURLConnection.HTTP_MOVED_TEMP) || (responseCode == HttpURLConnection.HTTP_SEE_OTHER) ||
+			(responseCode == _HTTP_TEMPORARY_REDIRECT) || (responseCode == _HTTP_PERMANENT_REDIRECT)) {
 
-				_headers = _httpURLConnection.getHeaderFields();
+			return true;
+		}
+
+		return false;
+	}
+
+	private static void _moveAtomically(Path sourcePath, Path targetPath) throws IOException {
+		try {
+			Files.move(sourcePath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (AtomicMoveNotSupportedException amnse) {
+			Files.move(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void _verify(Path path, String algorithm, String checksum) throws IOException {
+		String digest = _digest(path, algorithm);
+
+		if (!digest.equalsIgnoreCase(checksum.trim())) {
+			Files.delete(path);
+
+			throw new IOException(
+				"The " + algorithm + " checksum of the download is " + digest + " instead of " + checksum);
+		}
+	}
+
+	/**
+	 * Opens a connection for the given range, following redirects. A
+	 * <code>last</code> byte of <code>-1</code> requests everything from the
+	 * <code>first</code> byte on, and a <code>first</code> byte of
+	 * <code>0</code> the whole content.
+	 */
+	private HttpURLConnection _connect(URL url, long first, long last) throws IOException {
+		for (int i = 0; i <= _MAX_REDIRECTS; i++) {
+			HttpURLConnection httpURLConnection = (HttpURLConnection)url.openConnection();
+
+			httpURLConnection.setConnectTimeout(_timeout);
+			httpURLConnection.setInstanceFollowRedirects(false);
+			httpURLConnection.setReadTimeout(_timeout);
+
+			for (Map.Entry<String, String> entry : _requestProperties.entrySet()) {
+				httpURLConnection.setRequestProperty(entry.getKey(), entry.getValue());
+			}
+
+			if (last >= 0) {
+				httpURLConnection.setRequestProperty("Range", "bytes=" + first + "-" + last);
+			}
+			else if (first > 0) {
+				httpURLConnection.setRequestProperty("Range", "bytes=" + first + "-");
+			}
+
+			if ((_ifRange != null) && ((last >= 0) || (first > 0))) {
+				httpURLConnection.setRequestProperty("If-Range", _ifRange);
+			}
+
+			int responseCode = httpURLConnection.getResponseCode();
+
+			if (!_isRedirect(responseCode)) {
+				return httpURLConnection;
+			}
+
+			String location = httpURLConnection.getHeaderField("Location");
+
+			httpURLConnection.disconnect();
+
+			if (location == null) {
+				throw new IOException("Redirect from " + url + " has no location");
 			}
-			catch (Exception e) {
-				throw new RuntimeException(e);
+
+			url = new URL(url, location);
+		}
+
+		throw new IOException("Too many redirects downloading " + _link);
+	}
+
+	private String[] _getChecksum(HttpURLConnection httpURLConnection) {
+		if (_checksum != null) {
+			return _checksum;
+		}
+
+		String sha1 = httpURLConnection.getHeaderField("X-Checksum-Sha1");
+
+		if (sha1 != null) {
+			return new String[] {"SHA-1", sha1};
+		}
+
+		String md5 = httpURLConnection.getHeaderField("X-Checksum-Md5");
+
+		if (md5 != null) {
+			return new String[] {"MD5", md5};
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns the size of the part file to resume the download from, and the
+	 * validator to send with the range request. A part file that cannot be
+	 * checked against a validator or a checksum is deleted.
+	 */
+	private long _getResumeStart(Path targetPath) throws IOException {
+		Path partPath = _getPartPath(targetPath);
+		Path validatorPath = _getValidatorPath(targetPath);
+
+		_ifRange = null;
+
+		if (Files.exists(validatorPath)) {
+			_ifRange = new String(Files.readAllBytes(validatorPath), StandardCharsets.UTF_8);
+		}
+
+		if ((_ifRange == null) && (_checksum == null)) {
+			Files.deleteIfExists(partPath);
+
+			return 0;
+		}
+
+		return _getSize(partPath);
+	}
+
+	/**
+	 * Keeps the validator of the response the part file is written from next
+	 * to it, and sends it with the range requests that follow.
+	 */
+	private void _storeValidator(Path validatorPath, HttpURLConnection httpURLConnection) throws IOException {
+		_ifRange = _getValidator(httpURLConnection);
+
+		if (_ifRange == null) {
+			Files.deleteIfExists(validatorPath);
+		}
+		else {
+			Files.write(validatorPath, _ifRange.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * Writes the body of the response to the part file, starting at the given
+	 * position. A download that ends early leaves the part file in place so
+	 * that it can be resumed.
+	 */
+	private void _write(HttpURLConnection httpURLConnection, Path partPath, long position) throws IOException {
+		long contentLength = httpURLConnection.getContentLengthLong();
+
+		try (InputStream inputStream = httpURLConnection.getInputStream();
+			ReadableByteChannel readableByteChannel = Channels.newChannel(inputStream);
+			FileChannel fileChannel = FileChannel.open(
+				partPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+
+			fileChannel.truncate(position);
+
+			long transferred = fileChannel.transferFrom(readableByteChannel, position, Long.MAX_VALUE);
+
+			if ((contentLength >= 0) && (transferred != contentLength)) {
+				throw new IOException(
+					"Download of " + _link + " ended after " + transferred + " of " + contentLength + " bytes");
 			}
 		}
+	}
 
-		public Boolean get() {
-			for (String headerEntry : _headers.get(null)) {
-				if (headerEntry.contains(" " + _HTTP_FOUND + " ") || headerEntry.contains(" " + _HTTP_MOVED + " ")) {
-					return true;
+	private void _writeSegment(URL url, FileChannel fileChannel, long first, long last) throws IOException {
+		HttpURLConnection httpURLConnection = _connect(url, first, last);
+
+		try {
+			if (!_isContentRangeStart(httpURLConnection, first)) {
+				throw new IOException("Server did not return the requested range of " + url);
+			}
+
+			ByteBuffer byteBuffer = ByteBuffer.allocate(_BUFFER_SIZE);
+
+			long position = first;
+
+			try (InputStream inputStream = httpURLConnection.getInputStream();
+				ReadableByteChannel readableByteChannel = Channels.newChannel(inputStream)) {
+
+				while ((position <= last) && (readableByteChannel.read(byteBuffer) != -1)) {
+					byteBuffer.flip();
+
+					while (byteBuffer.hasRemaining()) {
+						position += fileChannel.write(byteBuffer, position);
+					}
+
+					byteBuffer.clear();
 				}
 			}
 
-			return false;
+			if (position != (last + 1)) {
+				throw new IOException("Segment " + first + "-" + last + " of " + url + " is incomplete");
+			}
+		}
+		finally {
+			httpURLConnection.disconnect();
 		}
+	}
 
-		public void run() {
-			try {
-				while (get()) {
-					List<String> headers = _headers.get("Location");
+	/**
+	 * Downloads the content in segments over several connections at the same
+	 * time. Segments are written at their position in the part file, so the
+	 * part file of a failed segmented download cannot be resumed and is
+	 * deleted.
+	 */
+	private void _writeSegments(URL url, Path partPath, long contentLength) throws IOException {
+		long segmentSize = (contentLength + _segments - 1) / _segments;
 
-					_link = headers.get(0);
+		List<Future<Void>> futures = new ArrayList<>();
 
-					_url = new URL(_link);
+		try (FileChannel fileChannel = FileChannel.open(
+				partPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
 
-					_httpURLConnection = (HttpURLConnection)_url.openConnection();
+			for (long first = 0; first < contentLength; first += segmentSize) {
+				long segmentFirst = first;
 
-					_headers = _httpURLConnection.getHeaderFields();
-				}
+				long segmentLast = Math.min(first + segmentSize, contentLength) - 1;
+
+				futures.add(
+					_executorService.submit(
+						() -> {
+							_writeSegment(url, fileChannel, segmentFirst, segmentLast);
+
+							return null;
+						}));
 			}
-			catch (Exception e) {
-				throw new RuntimeException(e);
+
+			for (Future<Void> future : futures) {
+				future.get();
 			}
 		}
+		catch (ExecutionException ee) {
+			Files.deleteIfExists(partPath);
+
+			Throwable cause = ee.getCause();
 
-		private static final String _HTTP_FOUND = "302";
+			if (cause instanceof IOException) {
+				throw (IOException)cause;
+			}
 
-		private static final String _HTTP_MOVED = "301";
+			throw new IOException(cause);
+		}
+		catch (InterruptedException ie) {
+			Files.deleteIfExists(partPath);
 
-		private Map<String, List<String>> _headers;
-		private HttpURLConnection _httpURLConnection;
-		private String _link;
-		private URL _url;
+			Thread.currentThread().interrupt();
 
+			throw new InterruptedIOException("Download of " + _link + " was interrupted");
+		}
+		finally {
+			for (Future<Void> future : futures) {
+				future.cancel(true);
+			}
+		}
 	}
 
-}
\ No newline at end of file
+	private static final int _BUFFER_SIZE = 65536;
+
+	private static final int _HTTP_PERMANENT_REDIRECT = 308;
+
+	private static final int _HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+	private static final int _HTTP_TEMPORARY_REDIRECT = 307;
+
+	private static final int _MAX_REDIRECTS = 10;
+
+	private static final ExecutorService _executorService = Executors.newCachedThreadPool(
+		new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "blade-download-" + _threadCount.incrementAndGet());
+
+				thread.setDaemon(true);
+
+				return thread;
+			}
+
+			private final AtomicInteger _threadCount = new AtomicInteger();
+
+		});
+
+	private String[] _checksum;
+	private String _eTag;
+	private String _ifRange;
+	private String _lastModified;
+	private final String _link;
+	private final Map<String, String> _requestProperties = new LinkedHashMap<>();
+	private long _segmentThreshold = 16 * 1024 * 1024;
+	private int _segments = 4;
+	private final Path _target;
+	private int _timeout = 60000;
+
+}
@@ -0,0 +1,352 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints the lines appended to a log file as they are written, like
+ * <code>tail -f</code>. The tailer wakes up as soon as the directory of the
+ * log reports a change and otherwise checks the log at a short interval, for
+ * file systems that report changes late or not at all.
+ *
+ * <p>
+ * When the log is replaced by a new file (detected by its file key, the inode
+ * on most file systems) the rest of the old file is printed and the new file is
+ * read from its beginning. When the log is truncated it is read again from its
+ * beginning. On file systems without file keys the log counts as replaced
+ * when its creation time changes, or when it becomes shorter than what was
+ * already read. Lines can be filtered by a literal string, which is matched
+ * against the raw bytes of each line so that skipped lines are never decoded.
+ * Lines longer than 1 MB are cut off.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class LogTailer implements Closeable {
+
+	public LogTailer(Path path, PrintStream printStream) {
+		this(path, printStream, null, StandardCharsets.UTF_8);
+	}
+
+	public LogTailer(Path path, PrintStream printStream, String filter, Charset charset) {
+		_path = path.toAbsolutePath();
+		_printStream = printStream;
+		_charset = charset;
+
+		if ((filter == null) || filter.isEmpty()) {
+			_filter = null;
+		}
+		else {
+			_filter = filter.getBytes(charset);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		_closed = true;
+
+		WatchService watchService = _watchService;
+
+		if (watchService != null) {
+			watchService.close();
+		}
+	}
+
+	/**
+	 * Prints the log from its beginning and then every line appended to it,
+	 * until the tailer is closed or the current thread is interrupted.
+	 */
+	public void tail() throws IOException {
+		FileChannel fileChannel = null;
+		Object fileKey = null;
+
+		try (WatchService watchService = _newWatchService()) {
+			_watchService = watchService;
+
+			while (!_closed) {
+				if (fileChannel == null) {
+					fileChannel = _open();
+
+					fileKey = _getFileKey();
+				}
+
+				if (fileChannel != null) {
+					if (fileChannel.size() < fileChannel.position()) {
+						fileChannel.position(0);
+
+						_lineLength = 0;
+					}
+
+					_read(fileChannel);
+
+					if (_isReplaced(fileChannel, fileKey)) {
+						_read(fileChannel);
+
+						if (_lineLength > 0) {
+							_printLine();
+						}
+
+						fileChannel.close();
+
+						fileChannel = null;
+
+						continue;
+					}
+				}
+
+				if (!_await(watchService)) {
+					break;
+				}
+			}
+		}
+		catch (ClosedWatchServiceException cwse) {
+		}
+		finally {
+			_watchService = null;
+
+			if (fileChannel != null) {
+				fileChannel.close();
+			}
+
+			_printStream.flush();
+		}
+	}
+
+	private static int _indexOf(byte[] bytes, int length, byte[] filter) {
+		for (int i = 0; i <= (length - filter.length); i++) {
+			int j = 0;
+
+			while ((j < filter.length) && (bytes[i + j] == filter[j])) {
+				j++;
+			}
+
+			if (j == filter.length) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private void _appendLine(byte[] bytes, int offset, int length) {
+		length = Math.min(length, _MAX_LINE_LENGTH - _lineLength);
+
+		if (length <= 0) {
+			return;
+		}
+
+		if ((_lineLength + length) > _line.length) {
+			_line = Arrays.copyOf(_line, Math.max(_line.length * 2, _lineLength + length));
+		}
+
+		System.arraycopy(bytes, offset, _line, _lineLength, length);
+
+		_lineLength += length;
+	}
+
+	/**
+	 * Waits until the directory of the log reports a change or the polling
+	 * interval has passed. Returns <code>false</code> if the current thread was
+	 * interrupted while waiting.
+	 */
+	private boolean _await(WatchService watchService) {
+		try {
+			if (watchService == null) {
+				Thread.sleep(_POLL_INTERVAL);
+
+				return true;
+			}
+
+			WatchKey watchKey = watchService.poll(_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+
+			while (watchKey != null) {
+				watchKey.pollEvents();
+
+				watchKey.reset();
+
+				watchKey = watchService.poll();
+			}
+
+			return true;
+		}
+		catch (InterruptedException ie) {
+			Thread currentThread = Thread.currentThread();
+
+			currentThread.interrupt();
+
+			return false;
+		}
+	}
+
+	private Object _getFileKey() {
+		try {
+			BasicFileAttributes basicFileAttributes = Files.readAttributes(_path, BasicFileAttributes.class);
+
+			Object fileKey = basicFileAttributes.fileKey();
+
+			if (fileKey == null) {
+				return basicFileAttributes.creationTime();
+			}
+
+			return fileKey;
+		}
+		catch (IOException ioe) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the path of the log no longer leads to the
+	 * file that is being read.
+	 */
+	private boolean _isReplaced(FileChannel fileChannel, Object fileKey) {
+		if (!Objects.equals(fileKey, _getFileKey())) {
+			return true;
+		}
+
+		try {
+			if (Files.size(_path) < fileChannel.position()) {
+				return true;
+			}
+		}
+		catch (IOException ioe) {
+			return true;
+		}
+
+		return false;
+	}
+
+	private WatchService _newWatchService() {
+		Path dirPath = _path.getParent();
+
+		if (dirPath == null) {
+			return null;
+		}
+
+		try {
+			WatchService watchService = dirPath.getFileSystem(
+			).newWatchService();
+
+			dirPath.register(
+				watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+				StandardWatchEventKinds.ENTRY_MODIFY);
+
+			return watchService;
+		}
+		catch (IOException | UnsupportedOperationException e) {
+			return null;
+		}
+	}
+
+	private FileChannel _open() throws IOException {
+		try {
+			return FileChannel.open(_path, StandardOpenOption.READ);
+		}
+		catch (NoSuchFileException nsfe) {
+			return null;
+		}
+	}
+
+	private void _printLine() {
+		int length = _lineLength;
+
+		_lineLength = 0;
+
+		if ((length > 0) && (_line[length - 1] == '\r')) {
+			length--;
+		}
+
+		if ((_filter != null) && (_indexOf(_line, length, _filter) == -1)) {
+			return;
+		}
+
+		_printStream.println(new String(_line, 0, length, _charset));
+	}
+
+	/**
+	 * Prints every complete line that can be read from the channel. The bytes
+	 * after the last line separator are kept until the line is completed.
+	 */
+	private void _read(FileChannel fileChannel) throws IOException {
+		boolean printed = false;
+
+		_byteBuffer.clear();
+
+		while (fileChannel.read(_byteBuffer) > 0) {
+			int length = _byteBuffer.position();
+
+			_byteBuffer.clear();
+
+			int start = 0;
+
+			for (int i = 0; i < length; i++) {
+				if (_bytes[i] == '\n') {
+					_appendLine(_bytes, start, i - start);
+
+					_printLine();
+
+					printed = true;
+
+					start = i + 1;
+				}
+			}
+
+			_appendLine(_bytes, start, length - start);
+		}
+
+		if (printed) {
+			_printStream.flush();
+		}
+	}
+
+	private static final int _BUFFER_SIZE = 65536;
+	private static final int _MAX_LINE_LENGTH = 1024 * 1024;
+	private static final long _POLL_INTERVAL = 250;
+
+	private final byte[] _bytes = new byte[_BUFFER_SIZE];
+	private final ByteBuffer _byteBuffer = ByteBuffer.wrap(_bytes);
+	private final Charset _charset;
+	private volatile boolean _closed;
+	private final byte[] _filter;
+	private byte[] _line = new byte[256];
+	private int _lineLength;
+	private final Path _path;
+	private final PrintStream _printStream;
+	private volatile WatchService _watchService;
+
+}
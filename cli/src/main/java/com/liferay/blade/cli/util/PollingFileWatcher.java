@@ -0,0 +1,408 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.IOException;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the changes made to a directory tree by scanning it at a fixed
+ * interval, for file systems on which a {@link java.nio.file.WatchService}
+ * does not fire, such as NFS or SMB mounts and bind mounted Docker volumes.
+ *
+ * <p>
+ * The snapshot of the tree is kept per directory in sorted, parallel arrays
+ * of file names, sizes and modification times, so it does not hold a
+ * <code>Path</code> per file. Every scan lists the directories in parallel and
+ * diffs each one against its previous arrays with a single merge pass.
+ * Ignored directories are never listed.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class PollingFileWatcher implements ChangeWatcher {
+
+	public PollingFileWatcher(Path baseDir, List<PathMatcher> ignorePathMatchers, long interval, int parallelism)
+		throws IOException {
+
+		if (!Files.isDirectory(baseDir)) {
+			throw new IOException("Unable to watch " + baseDir + ", it is not a directory");
+		}
+
+		_baseDir = baseDir;
+		_ignorePathMatchers = ignorePathMatchers;
+		_interval = interval;
+
+		_forkJoinPool = new ForkJoinPool(Math.max(parallelism, 1));
+
+		_executor = Executors.newSingleThreadExecutor(
+			runnable -> {
+				Thread thread = new Thread(runnable, "Polling File Watcher " + baseDir);
+
+				thread.setDaemon(true);
+
+				return thread;
+			});
+
+		_scan(null);
+	}
+
+	@Override
+	public void close() {
+		_closeLatch.countDown();
+
+		_forkJoinPool.shutdown();
+
+		_executor.shutdown();
+	}
+
+	/**
+	 * Returns the number of files in the snapshot.
+	 */
+	public int getFileCount() {
+		int fileCount = 0;
+
+		for (DirectoryState directoryState : _directoryStates.values()) {
+			fileCount += directoryState.getFileCount();
+		}
+
+		return fileCount;
+	}
+
+	@Override
+	public void processChanges(long quietPeriod, FileWatcher.Consumer<SortedMap<Path, FileWatcher.Change>> consumer) {
+		ChangeSetCoalescer changeSetCoalescer = new ChangeSetCoalescer(quietPeriod, _executor, consumer);
+
+		while (true) {
+			long delayNanos = TimeUnit.MILLISECONDS.toNanos(_interval);
+
+			long delay = changeSetCoalescer.getDelay();
+
+			if (delay >= 0) {
+				delayNanos = Math.min(delayNanos, delay);
+			}
+
+			try {
+				if (_closeLatch.await(delayNanos, TimeUnit.NANOSECONDS)) {
+					return;
+				}
+			}
+			catch (InterruptedException ie) {
+				return;
+			}
+
+			SortedMap<Path, FileWatcher.Change> changes = new TreeMap<>();
+
+			_scan(changes);
+
+			changeSetCoalescer.addChanges(changes);
+
+			changeSetCoalescer.dispatchIfDue();
+		}
+	}
+
+	private boolean _isIgnored(Path path) {
+		for (PathMatcher pathMatcher : _ignorePathMatchers) {
+			if (pathMatcher.matches(path)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Scans the whole tree and records the differences with the previous scan
+	 * in <code>changes</code>, or only takes the snapshot when
+	 * <code>changes</code> is <code>null</code>.
+	 */
+	private void _scan(Map<Path, FileWatcher.Change> changes) {
+		_generation++;
+
+		Map<Path, FileWatcher.Change> scanChanges = null;
+
+		if (changes != null) {
+			scanChanges = new ConcurrentHashMap<>();
+		}
+
+		try {
+			_forkJoinPool.invoke(new ScanDirectoryTask(_baseDir, scanChanges));
+		}
+		catch (Exception e) {
+			return;
+		}
+
+		Set<Map.Entry<String, DirectoryState>> entries = _directoryStates.entrySet();
+
+		Iterator<Map.Entry<String, DirectoryState>> iterator = entries.iterator();
+
+		while (iterator.hasNext()) {
+			Map.Entry<String, DirectoryState> entry = iterator.next();
+
+			DirectoryState directoryState = entry.getValue();
+
+			if (directoryState.getGeneration() == _generation) {
+				continue;
+			}
+
+			iterator.remove();
+
+			if (scanChanges != null) {
+				Path dir = Paths.get(entry.getKey());
+
+				for (String name : directoryState.getNames()) {
+					scanChanges.put(dir.resolve(name), FileWatcher.Change.DELETED);
+				}
+			}
+		}
+
+		if (changes != null) {
+			for (Map.Entry<Path, FileWatcher.Change> entry : scanChanges.entrySet()) {
+				FileWatcher.addChange(changes, entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private final Path _baseDir;
+	private final CountDownLatch _closeLatch = new CountDownLatch(1);
+	private final Map<String, DirectoryState> _directoryStates = new ConcurrentHashMap<>();
+	private final ExecutorService _executor;
+	private final ForkJoinPool _forkJoinPool;
+	private volatile int _generation;
+	private final List<PathMatcher> _ignorePathMatchers;
+	private final long _interval;
+
+	private static class DirectoryState {
+
+		public DirectoryState(int generation, String[] names, long[] sizes, long[] lastModifieds) {
+			_generation = generation;
+			_names = names;
+			_sizes = sizes;
+			_lastModifieds = lastModifieds;
+		}
+
+		/**
+		 * Records the differences between this state and the new state of the
+		 * same directory in <code>changes</code>. Both states are sorted by
+		 * name, so they are compared in a single pass.
+		 */
+		public void diff(DirectoryState directoryState, Path dir, Map<Path, FileWatcher.Change> changes) {
+			String[] names = directoryState.getNames();
+
+			int i = 0;
+			int j = 0;
+
+			while ((i < _names.length) || (j < names.length)) {
+				int compare;
+
+				if (i == _names.length) {
+					compare = 1;
+				}
+				else if (j == names.length) {
+					compare = -1;
+				}
+				else {
+					compare = _names[i].compareTo(names[j]);
+				}
+
+				if (compare < 0) {
+					changes.put(dir.resolve(_names[i]), FileWatcher.Change.DELETED);
+
+					i++;
+				}
+				else if (compare > 0) {
+					changes.put(dir.resolve(names[j]), FileWatcher.Change.CREATED);
+
+					j++;
+				}
+				else {
+					if ((_sizes[i] != directoryState._sizes[j]) ||
+						(_lastModifieds[i] != directoryState._lastModifieds[j])) {
+
+						changes.put(dir.resolve(names[j]), FileWatcher.Change.MODIFIED);
+					}
+
+					i++;
+					j++;
+				}
+			}
+		}
+
+		public int getFileCount() {
+			return _names.length;
+		}
+
+		public int getGeneration() {
+			return _generation;
+		}
+
+		public String[] getNames() {
+			return _names;
+		}
+
+		public void setGeneration(int generation) {
+			_generation = generation;
+		}
+
+		private volatile int _generation;
+		private final long[] _lastModifieds;
+		private final String[] _names;
+		private final long[] _sizes;
+
+	}
+
+	private static class FileEntry implements Comparable<FileEntry> {
+
+		public FileEntry(String name, long size, long lastModified) {
+			_name = name;
+			_size = size;
+			_lastModified = lastModified;
+		}
+
+		@Override
+		public int compareTo(FileEntry fileEntry) {
+			return _name.compareTo(fileEntry._name);
+		}
+
+		private final long _lastModified;
+		private final String _name;
+		private final long _size;
+
+	}
+
+	private class ScanDirectoryTask extends RecursiveAction {
+
+		public ScanDirectoryTask(Path dir, Map<Path, FileWatcher.Change> changes) {
+			_dir = dir;
+			_changes = changes;
+		}
+
+		@Override
+		protected void compute() {
+			String key = _dir.toString();
+
+			DirectoryState previousDirectoryState = _directoryStates.get(key);
+
+			List<ScanDirectoryTask> scanDirectoryTasks = new ArrayList<>();
+
+			List<FileEntry> fileEntries = new ArrayList<>();
+
+			try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(_dir)) {
+				for (Path path : directoryStream) {
+					if (_isIgnored(path)) {
+						continue;
+					}
+
+					BasicFileAttributes basicFileAttributes;
+
+					try {
+						basicFileAttributes = Files.readAttributes(
+							path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+					}
+					catch (IOException ioe) {
+						continue;
+					}
+
+					if (basicFileAttributes.isDirectory()) {
+						scanDirectoryTasks.add(new ScanDirectoryTask(path, _changes));
+					}
+					else if (basicFileAttributes.isRegularFile()) {
+						Path fileName = path.getFileName();
+
+						FileTime lastModifiedTime = basicFileAttributes.lastModifiedTime();
+
+						fileEntries.add(
+							new FileEntry(
+								fileName.toString(), basicFileAttributes.size(), lastModifiedTime.toMillis()));
+					}
+				}
+			}
+			catch (IOException ioe) {
+
+				// Keep the previous state of a directory that could not be
+				// listed, it is reported as deleted once its parent no longer
+				// contains it
+
+				if (previousDirectoryState != null) {
+					previousDirectoryState.setGeneration(_generation);
+				}
+
+				return;
+			}
+
+			FileEntry[] fileEntriesArray = fileEntries.toArray(new FileEntry[0]);
+
+			Arrays.sort(fileEntriesArray);
+
+			String[] names = new String[fileEntriesArray.length];
+			long[] sizes = new long[fileEntriesArray.length];
+			long[] lastModifieds = new long[fileEntriesArray.length];
+
+			for (int i = 0; i < fileEntriesArray.length; i++) {
+				FileEntry fileEntry = fileEntriesArray[i];
+
+				names[i] = fileEntry._name;
+				sizes[i] = fileEntry._size;
+				lastModifieds[i] = fileEntry._lastModified;
+			}
+
+			DirectoryState directoryState = new DirectoryState(_generation, names, sizes, lastModifieds);
+
+			if (_changes != null) {
+				if (previousDirectoryState == null) {
+					previousDirectoryState = new DirectoryState(_generation, new String[0], new long[0], new long[0]);
+				}
+
+				previousDirectoryState.diff(directoryState, _dir, _changes);
+			}
+
+			_directoryStates.put(key, directoryState);
+
+			ForkJoinTask.invokeAll(scanDirectoryTasks);
+		}
+
+		private final Map<Path, FileWatcher.Change> _changes;
+		private final Path _dir;
+
+	}
+
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.OutputStream;
+
+import java.nio.charset.Charset;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Captures the output of a process in a fixed amount of memory. Only the last
+ * bytes written are kept, in a ring buffer, together with the most recent
+ * lines accepted by a predicate (by default lines that look like errors), so
+ * that the cause of a failure is still available after a long and verbose
+ * build. Writes are synchronized, so several threads may write to the same
+ * buffer, although lines written concurrently may be interleaved.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class ProcessOutputBuffer extends OutputStream implements Supplier<String> {
+
+	public ProcessOutputBuffer() {
+		this(_DEFAULT_CAPACITY, ProcessOutputBuffer::_isErrorLine);
+	}
+
+	public ProcessOutputBuffer(Predicate<String> linePredicate) {
+		this(_DEFAULT_CAPACITY, linePredicate);
+	}
+
+	public ProcessOutputBuffer(int capacity, Predicate<String> linePredicate) {
+		_buffer = new byte[capacity];
+		_linePredicate = linePredicate;
+	}
+
+	/**
+	 * Returns the captured output. If some of the output no longer fits in the
+	 * buffer, the matched lines that were dropped come first, followed by a
+	 * note of how many bytes were omitted and the remaining complete lines.
+	 */
+	@Override
+	public synchronized String get() {
+		byte[] bytes = _getBytes();
+
+		int offset = 0;
+
+		if (_size > bytes.length) {
+			while ((offset < bytes.length) && (bytes[offset++] != '\n')) {
+			}
+		}
+
+		long omitted = (_size - bytes.length) + offset;
+
+		StringBuilder sb = new StringBuilder();
+
+		for (MatchedLine matchedLine : _matchedLines) {
+			if (matchedLine.getOffset() < omitted) {
+				sb.append(matchedLine.getLine());
+				sb.append(System.lineSeparator());
+			}
+		}
+
+		if (omitted > 0) {
+			sb.append("[");
+			sb.append(omitted);
+			sb.append(" bytes omitted]");
+			sb.append(System.lineSeparator());
+		}
+
+		sb.append(new String(bytes, offset, bytes.length - offset, _CHARSET));
+
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the most recent lines accepted by the line predicate, including
+	 * the ones that no longer fit in the buffer.
+	 */
+	public synchronized List<String> getMatchedLines() {
+		List<String> matchedLines = new ArrayList<>(_matchedLines.size());
+
+		for (MatchedLine matchedLine : _matchedLines) {
+			matchedLines.add(matchedLine.getLine());
+		}
+
+		return matchedLines;
+	}
+
+	/**
+	 * Returns the number of bytes written, including the ones that no longer
+	 * fit in the buffer.
+	 */
+	public synchronized long getSize() {
+		return _size;
+	}
+
+	@Override
+	public String toString() {
+		return get();
+	}
+
+	@Override
+	public synchronized void write(byte[] bytes, int offset, int length) {
+		for (int i = 0; i < length; i++) {
+			_appendLine(bytes[offset + i], _size + i);
+		}
+
+		long size = _size + length;
+
+		if (length > _buffer.length) {
+			offset += length - _buffer.length;
+			length = _buffer.length;
+		}
+
+		int position = (int)((size - length) % _buffer.length);
+
+		int count = Math.min(length, _buffer.length - position);
+
+		System.arraycopy(bytes, offset, _buffer, position, count);
+		System.arraycopy(bytes, offset + count, _buffer, 0, length - count);
+
+		_size = size;
+	}
+
+	@Override
+	public void write(int b) {
+		write(new byte[] {(byte)b}, 0, 1);
+	}
+
+	private static boolean _isErrorLine(String line) {
+		for (String errorMarker : _ERROR_MARKERS) {
+			if (line.contains(errorMarker)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private void _appendLine(byte b, long position) {
+		if (b != '\n') {
+			if (_lineLength < _line.length) {
+				_line[_lineLength++] = b;
+			}
+
+			return;
+		}
+
+		long lineOffset = _lineOffset;
+		int lineLength = _lineLength;
+
+		_lineLength = 0;
+		_lineOffset = position + 1;
+
+		if ((lineLength > 0) && (_line[lineLength - 1] == '\r')) {
+			lineLength--;
+		}
+
+		String line = new String(_line, 0, lineLength, _CHARSET);
+
+		if (!_linePredicate.test(line)) {
+			return;
+		}
+
+		if (_matchedLines.size() == _MAX_MATCHED_LINES) {
+			_matchedLines.removeFirst();
+		}
+
+		_matchedLines.addLast(new MatchedLine(lineOffset, line));
+	}
+
+	private byte[] _getBytes() {
+		int length = (int)Math.min(_size, _buffer.length);
+
+		byte[] bytes = new byte[length];
+
+		int position = (int)(_size % _buffer.length);
+
+		if (_size <= _buffer.length) {
+			System.arraycopy(_buffer, 0, bytes, 0, length);
+		}
+		else {
+			System.arraycopy(_buffer, position, bytes, 0, _buffer.length - position);
+			System.arraycopy(_buffer, 0, bytes, _buffer.length - position, position);
+		}
+
+		return bytes;
+	}
+
+	private static final Charset _CHARSET = Charset.defaultCharset();
+	private static final int _DEFAULT_CAPACITY = 256 * 1024;
+	private static final String[] _ERROR_MARKERS = {
+		"BUILD FAILED", "ERROR", "Exception", "FAILED", "FAILURE", "What went wrong", "error:"
+	};
+	private static final int _MAX_LINE_LENGTH = 8192;
+	private static final int _MAX_MATCHED_LINES = 100;
+
+	private final byte[] _buffer;
+	private final byte[] _line = new byte[_MAX_LINE_LENGTH];
+	private int _lineLength;
+	private long _lineOffset;
+	private final Predicate<String> _linePredicate;
+	private final Deque<MatchedLine> _matchedLines = new ArrayDeque<>();
+	private long _size;
+
+	private static class MatchedLine {
+
+		public MatchedLine(long offset, String line) {
+			_offset = offset;
+			_line = line;
+		}
+
+		public String getLine() {
+			return _line;
+		}
+
+		public long getOffset() {
+			return _offset;
+		}
+
+		private final String _line;
+		private final long _offset;
+
+	}
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+
+import java.nio.charset.Charset;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copies the output of child processes on a small pool of shared daemon
+ * threads instead of starting a new thread for every stream. Output is copied
+ * as bytes, in chunks, and written to the destinations synchronously, so a
+ * slow destination slows down the reading and, through the pipe, the process
+ * itself rather than letting unprinted output pile up in memory.
+ *
+ * <p>
+ * The pool grows with the number of streams being pumped at the same time,
+ * since every pump blocks while reading, and idle threads are reused by the
+ * next process.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class ProcessPump {
+
+	/**
+	 * Copies the bytes of the stream to the given output streams until the end
+	 * of the stream is reached. The output streams are flushed but not closed.
+	 * The returned future completes exceptionally with an
+	 * {@link UncheckedIOException} if the stream cannot be read or an output
+	 * stream cannot be written.
+	 */
+	public static CompletableFuture<Void> pump(InputStream inputStream, OutputStream... outputStreams) {
+		return CompletableFuture.runAsync(
+			() -> {
+				byte[] bytes = new byte[_BUFFER_SIZE];
+
+				try (InputStream closeableInputStream = inputStream) {
+					int length = inputStream.read(bytes);
+
+					while (length != -1) {
+						for (OutputStream outputStream : outputStreams) {
+							outputStream.write(bytes, 0, length);
+						}
+
+						length = inputStream.read(bytes);
+					}
+
+					for (OutputStream outputStream : outputStreams) {
+						outputStream.flush();
+					}
+				}
+				catch (IOException ioe) {
+					throw new UncheckedIOException(ioe);
+				}
+			},
+			_executorService);
+	}
+
+	/**
+	 * Prints the lines of the stream, colored by {@link AnsiLinePrinter}, until
+	 * the end of the stream is reached. The returned future completes
+	 * exceptionally with an {@link UncheckedIOException}, after the lines read
+	 * so far are printed, if the stream cannot be read.
+	 */
+	public static CompletableFuture<Void> pumpLines(InputStream inputStream, PrintStream printStream) {
+		return CompletableFuture.runAsync(
+			() -> {
+				byte[] bytes = new byte[_BUFFER_SIZE];
+				byte[] line = new byte[256];
+				int lineLength = 0;
+
+				IOException readIOException = null;
+
+				try (InputStream closeableInputStream = inputStream) {
+					int length = inputStream.read(bytes);
+
+					while (length != -1) {
+						for (int i = 0; i < length; i++) {
+							if ((bytes[i] == '\n') || (lineLength == _MAX_LINE_LENGTH)) {
+								_println(printStream, line, lineLength);
+
+								lineLength = 0;
+
+								if (bytes[i] == '\n') {
+									continue;
+								}
+							}
+
+							if (lineLength == line.length) {
+								line = Arrays.copyOf(line, line.length * 2);
+							}
+
+							line[lineLength++] = bytes[i];
+						}
+
+						length = inputStream.read(bytes);
+					}
+				}
+				catch (IOException ioe) {
+					readIOException = ioe;
+				}
+
+				if (lineLength > 0) {
+					_println(printStream, line, lineLength);
+				}
+
+				if (readIOException != null) {
+					throw new UncheckedIOException(readIOException);
+				}
+			},
+			_executorService);
+	}
+
+	private static void _println(PrintStream printStream, byte[] line, int length) {
+		if ((length > 0) && (line[length - 1] == '\r')) {
+			length--;
+		}
+
+		AnsiLinePrinter.println(printStream, new String(line, 0, length, _CHARSET));
+	}
+
+	private static final int _BUFFER_SIZE = 8192;
+	private static final Charset _CHARSET = Charset.defaultCharset();
+	private static final int _MAX_LINE_LENGTH = 65536;
+
+	private static final ExecutorService _executorService = Executors.newCachedThreadPool(
+		new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "blade-process-pump-" + _threadCount.incrementAndGet());
+
+				thread.setDaemon(true);
+
+				return thread;
+			}
+
+			private final AtomicInteger _threadCount = new AtomicInteger();
+
+		});
+
+}
@@ -0,0 +1,688 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.ArrayUtil;
+import com.liferay.blade.cli.util.Pair;
+import com.liferay.blade.cli.util.StringPool;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import java.math.BigInteger;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Walks a Liferay bundle once and reads every Liferay jar, including the ones
+ * nested in lpkg files, on a fork/join pool. Each archive is read a single
+ * time for both the configuration classes and the
+ * <code>portlet.properties</code> keys. The results of the archives are merged
+ * in the order the bundle was walked, so they do not depend on scheduling.
+ *
+ * <p>
+ * When a cache directory is given, the results of every archive are kept in
+ * an index of the bundle together with the size and modification time of the
+ * archive, so later scans of the same bundle only read the archives that have
+ * changed since.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class BundleScanner {
+
+	public BundleScanner(Path bundlePath) {
+		this(bundlePath, null);
+	}
+
+	public BundleScanner(Path bundlePath, Path cachePath) {
+		this(bundlePath, cachePath, System.out);
+	}
+
+	/**
+	 * Creates a scanner that reports archives it cannot read, and failures to
+	 * write the index, to the given stream.
+	 */
+	public BundleScanner(Path bundlePath, Path cachePath, PrintStream diagnosticStream) {
+		bundlePath = bundlePath.toAbsolutePath();
+
+		_bundlePath = bundlePath.normalize();
+
+		_cachePath = cachePath;
+		_diagnosticStream = diagnosticStream;
+
+		_osgiPath = _bundlePath.resolve("osgi");
+	}
+
+	public Map<String, ConfigurationClassData> getConfigurationClasses() {
+		return _configurationClasses;
+	}
+
+	public List<Pair<String, String[]>> getPortletsProperties() {
+		return _portletsProperties;
+	}
+
+	public void scan() throws IOException {
+		List<ScanArchiveTask> scanArchiveTasks;
+
+		try (Stream<Path> paths = Files.walk(_bundlePath)) {
+			scanArchiveTasks = paths.filter(
+				path -> {
+					String absolutePath = String.valueOf(path.toAbsolutePath());
+
+					return (absolutePath.endsWith(".jar") || absolutePath.endsWith(".lpkg")) &&
+						   !absolutePath.contains("/osgi/state/");
+				}
+			).map(
+				ScanArchiveTask::new
+			).collect(
+				Collectors.toList()
+			);
+		}
+
+		Path indexPath = null;
+		Map<String, IndexEntry> index = new HashMap<>();
+
+		if (_cachePath != null) {
+			indexPath = _cachePath.resolve(_hash(String.valueOf(_bundlePath)));
+
+			index = _readIndex(indexPath);
+		}
+
+		Map<String, IndexEntry> newIndex = new TreeMap<>();
+
+		for (ScanArchiveTask scanArchiveTask : scanArchiveTasks) {
+			IndexEntry indexEntry = scanArchiveTask.getIndexEntry();
+
+			if (indexEntry == null) {
+				continue;
+			}
+
+			IndexEntry cachedIndexEntry = index.get(indexEntry.getPath());
+
+			if ((cachedIndexEntry != null) && cachedIndexEntry.isSameArchive(indexEntry)) {
+				scanArchiveTask.complete(cachedIndexEntry.getScanResult());
+			}
+		}
+
+		Stream<ScanArchiveTask> stream = scanArchiveTasks.stream();
+
+		List<ScanArchiveTask> pendingScanArchiveTasks = stream.filter(
+			scanArchiveTask -> !scanArchiveTask.isDone()
+		).collect(
+			Collectors.toList()
+		);
+
+		if (!pendingScanArchiveTasks.isEmpty()) {
+			ForkJoinPool forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+			try {
+				forkJoinPool.invoke(new InvokeAllTask(pendingScanArchiveTasks));
+			}
+			finally {
+				forkJoinPool.shutdown();
+			}
+		}
+
+		Map<String, ConfigurationClassData> configurationClasses = new TreeMap<>();
+		List<Pair<String, String[]>> portletsProperties = new ArrayList<>();
+
+		for (ScanArchiveTask scanArchiveTask : scanArchiveTasks) {
+			ScanResult scanResult = scanArchiveTask.join();
+
+			for (Pair<String, ConfigurationClassData> configurationClass : scanResult.getConfigurationClasses()) {
+				configurationClasses.put(configurationClass.first(), configurationClass.second());
+			}
+
+			portletsProperties.addAll(scanResult.getPortletsProperties());
+
+			IndexEntry indexEntry = scanArchiveTask.getIndexEntry();
+
+			if ((indexEntry != null) && scanResult.isComplete()) {
+				indexEntry.setScanResult(scanResult);
+
+				newIndex.put(indexEntry.getPath(), indexEntry);
+			}
+		}
+
+		_configurationClasses = configurationClasses;
+		_portletsProperties = portletsProperties;
+
+		boolean indexModified = !pendingScanArchiveTasks.isEmpty() || (index.size() != newIndex.size());
+
+		if ((indexPath != null) && indexModified) {
+			try {
+				_writeIndex(indexPath, newIndex);
+			}
+			catch (IOException ioe) {
+				_diagnosticStream.println("Unable to write the scan index " + indexPath + ": " + ioe.getMessage());
+			}
+		}
+	}
+
+	private static String[] _getPropertyKeys(InputStream inputStream) throws IOException {
+		Properties portletProperties = new Properties();
+
+		portletProperties.load(inputStream);
+
+		Enumeration<Object> enuKeys = portletProperties.keys();
+
+		String[] propertyKeys = new String[0];
+
+		while (enuKeys.hasMoreElements()) {
+			propertyKeys = ArrayUtil.append(propertyKeys, (String)enuKeys.nextElement());
+		}
+
+		return propertyKeys;
+	}
+
+	private static String _hash(String value) {
+		MessageDigest messageDigest = _newMessageDigest();
+
+		return String.format(
+			"%040x", new BigInteger(1, messageDigest.digest(value.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	private static boolean _isConfigurationClass(String name) {
+		return name.endsWith("Configuration.class");
+	}
+
+	private static boolean _isLiferayJar(String path) {
+		if (!path.endsWith(".jar") || !path.contains("com.liferay")) {
+			return false;
+		}
+
+		return true;
+	}
+
+	private static MessageDigest _newMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		}
+		catch (NoSuchAlgorithmException nsae) {
+			throw new RuntimeException(nsae);
+		}
+	}
+
+	private static Map<String, IndexEntry> _readIndex(Path indexPath) {
+		Map<String, IndexEntry> index = new HashMap<>();
+
+		if (Files.notExists(indexPath)) {
+			return index;
+		}
+
+		try (InputStream inputStream = Files.newInputStream(indexPath);
+			DataInputStream dataInputStream = new DataInputStream(new BufferedInputStream(inputStream))) {
+
+			if (dataInputStream.readInt() != _INDEX_VERSION) {
+				return index;
+			}
+
+			int indexEntriesCount = dataInputStream.readInt();
+
+			for (int i = 0; i < indexEntriesCount; i++) {
+				IndexEntry indexEntry = new IndexEntry(
+					dataInputStream.readUTF(), dataInputStream.readLong(), dataInputStream.readLong());
+
+				ScanResult scanResult = new ScanResult();
+
+				int configurationClassesCount = dataInputStream.readInt();
+
+				for (int j = 0; j < configurationClassesCount; j++) {
+					String className = dataInputStream.readUTF();
+					String superClass = dataInputStream.readUTF();
+
+					if (superClass.isEmpty()) {
+						superClass = null;
+					}
+
+					scanResult.addConfigurationClass(
+						className, new ConfigurationClassData(superClass, _readStrings(dataInputStream)));
+				}
+
+				int portletsPropertiesCount = dataInputStream.readInt();
+
+				for (int j = 0; j < portletsPropertiesCount; j++) {
+					scanResult.addPortletProperties(dataInputStream.readUTF(), _readStrings(dataInputStream));
+				}
+
+				indexEntry.setScanResult(scanResult);
+
+				index.put(indexEntry.getPath(), indexEntry);
+			}
+		}
+		catch (IOException ioe) {
+			index.clear();
+		}
+
+		return index;
+	}
+
+	private static String[] _readStrings(DataInputStream dataInputStream) throws IOException {
+		String[] strings = new String[dataInputStream.readInt()];
+
+		for (int i = 0; i < strings.length; i++) {
+			strings[i] = dataInputStream.readUTF();
+		}
+
+		return strings;
+	}
+
+	private static String _toClassName(String name) {
+		return name.replace(".class", StringPool.BLANK);
+	}
+
+	private static void _writeIndex(Path indexPath, Map<String, IndexEntry> index) throws IOException {
+		Path cachePath = indexPath.getParent();
+
+		Files.createDirectories(cachePath);
+
+		Path tempPath = Files.createTempFile(cachePath, String.valueOf(indexPath.getFileName()), ".tmp");
+
+		try {
+			try (OutputStream outputStream = Files.newOutputStream(tempPath);
+				DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(outputStream))) {
+
+				dataOutputStream.writeInt(_INDEX_VERSION);
+				dataOutputStream.writeInt(index.size());
+
+				for (IndexEntry indexEntry : index.values()) {
+					dataOutputStream.writeUTF(indexEntry.getPath());
+					dataOutputStream.writeLong(indexEntry.getSize());
+					dataOutputStream.writeLong(indexEntry.getLastModified());
+
+					ScanResult scanResult = indexEntry.getScanResult();
+
+					List<Pair<String, ConfigurationClassData>> configurationClasses =
+						scanResult.getConfigurationClasses();
+
+					dataOutputStream.writeInt(configurationClasses.size());
+
+					for (Pair<String, ConfigurationClassData> configurationClass : configurationClasses) {
+						ConfigurationClassData configurationClassData = configurationClass.second();
+
+						String superClass = configurationClassData.getSuperClass();
+
+						dataOutputStream.writeUTF(configurationClass.first());
+						dataOutputStream.writeUTF((superClass == null) ? StringPool.BLANK : superClass);
+
+						_writeStrings(dataOutputStream, configurationClassData.getConfigFields());
+					}
+
+					List<Pair<String, String[]>> portletsProperties = scanResult.getPortletsProperties();
+
+					dataOutputStream.writeInt(portletsProperties.size());
+
+					for (Pair<String, String[]> portletProperties : portletsProperties) {
+						dataOutputStream.writeUTF(portletProperties.first());
+
+						_writeStrings(dataOutputStream, portletProperties.second());
+					}
+				}
+			}
+
+			try {
+				Files.move(tempPath, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally {
+			Files.deleteIfExists(tempPath);
+		}
+	}
+
+	private static void _writeStrings(DataOutputStream dataOutputStream, String[] strings) throws IOException {
+		dataOutputStream.writeInt(strings.length);
+
+		for (String string : strings) {
+			dataOutputStream.writeUTF(string);
+		}
+	}
+
+	private static final int _INDEX_VERSION = 1;
+
+	private final Path _bundlePath;
+	private final Path _cachePath;
+	private Map<String, ConfigurationClassData> _configurationClasses = new TreeMap<>();
+	private final PrintStream _diagnosticStream;
+	private final Path _osgiPath;
+	private List<Pair<String, String[]>> _portletsProperties = new ArrayList<>();
+
+	private static class IndexEntry {
+
+		public IndexEntry(String path, long size, long lastModified) {
+			_path = path;
+			_size = size;
+			_lastModified = lastModified;
+		}
+
+		public long getLastModified() {
+			return _lastModified;
+		}
+
+		public String getPath() {
+			return _path;
+		}
+
+		public ScanResult getScanResult() {
+			return _scanResult;
+		}
+
+		public long getSize() {
+			return _size;
+		}
+
+		public boolean isSameArchive(IndexEntry indexEntry) {
+			if (_path.equals(indexEntry.getPath()) && (_size == indexEntry.getSize()) &&
+				(_lastModified == indexEntry.getLastModified())) {
+
+				return true;
+			}
+
+			return false;
+		}
+
+		public void setScanResult(ScanResult scanResult) {
+			_scanResult = scanResult;
+		}
+
+		private final long _lastModified;
+		private final String _path;
+		private ScanResult _scanResult;
+		private final long _size;
+
+	}
+
+	private static class InvokeAllTask extends RecursiveTask<Void> {
+
+		public InvokeAllTask(List<? extends ForkJoinTask<?>> tasks) {
+			_tasks = tasks;
+		}
+
+		@Override
+		protected Void compute() {
+			ForkJoinTask.invokeAll(_tasks);
+
+			return null;
+		}
+
+		private final List<? extends ForkJoinTask<?>> _tasks;
+
+	}
+
+	private static class ScanResult {
+
+		public void addAll(ScanResult scanResult) {
+			if (!scanResult.isComplete()) {
+				_complete = false;
+			}
+
+			_configurationClasses.addAll(scanResult.getConfigurationClasses());
+			_portletsProperties.addAll(scanResult.getPortletsProperties());
+		}
+
+		public void addConfigurationClass(String className, ConfigurationClassData configurationClassData) {
+			_configurationClasses.add(new Pair<>(className, configurationClassData));
+		}
+
+		public void addPortletProperties(String path, String[] propertyKeys) {
+			_portletsProperties.add(new Pair<>(path, propertyKeys));
+		}
+
+		public List<Pair<String, ConfigurationClassData>> getConfigurationClasses() {
+			return _configurationClasses;
+		}
+
+		public List<Pair<String, String[]>> getPortletsProperties() {
+			return _portletsProperties;
+		}
+
+		public boolean isComplete() {
+			return _complete;
+		}
+
+		public void setComplete(boolean complete) {
+			_complete = complete;
+		}
+
+		private boolean _complete = true;
+		private final List<Pair<String, ConfigurationClassData>> _configurationClasses = new ArrayList<>();
+		private final List<Pair<String, String[]>> _portletsProperties = new ArrayList<>();
+
+	}
+
+	private class ScanArchiveTask extends RecursiveTask<ScanResult> {
+
+		public ScanArchiveTask(Path path) {
+			_path = path;
+		}
+
+		/**
+		 * Returns the index entry of the archive, or <code>null</code> when
+		 * its attributes cannot be read.
+		 */
+		public IndexEntry getIndexEntry() {
+			if (_indexEntry != null) {
+				return _indexEntry;
+			}
+
+			try {
+				BasicFileAttributes basicFileAttributes = Files.readAttributes(_path, BasicFileAttributes.class);
+
+				Path relativePath = _bundlePath.relativize(_path.toAbsolutePath());
+
+				FileTime lastModifiedTime = basicFileAttributes.lastModifiedTime();
+
+				_indexEntry = new IndexEntry(
+					relativePath.toString(), basicFileAttributes.size(), lastModifiedTime.toMillis());
+			}
+			catch (IOException ioe) {
+			}
+
+			return _indexEntry;
+		}
+
+		@Override
+		protected ScanResult compute() {
+			String absolutePath = String.valueOf(_path.toAbsolutePath());
+
+			// Portlet properties are only looked up in OSGi modules, war files
+			// still keep them in the same place as in previous versions
+
+			boolean portletProperties = _path.startsWith(_osgiPath);
+
+			if (_isLiferayJar(absolutePath)) {
+				return _scanJar(absolutePath, portletProperties);
+			}
+			else if (absolutePath.endsWith(".lpkg")) {
+				return _scanLpkg(absolutePath, portletProperties);
+			}
+
+			return new ScanResult();
+		}
+
+		private ScanResult _scanJar(String absolutePath, boolean portletProperties) {
+			ScanResult scanResult = new ScanResult();
+
+			try (JarFile jarFile = new JarFile(absolutePath)) {
+				Enumeration<JarEntry> jarEntries = jarFile.entries();
+
+				while (jarEntries.hasMoreElements()) {
+					JarEntry jarEntry = jarEntries.nextElement();
+
+					String name = jarEntry.getName();
+
+					if (_isConfigurationClass(name)) {
+						try (InputStream inputStream = jarFile.getInputStream(jarEntry)) {
+							scanResult.addConfigurationClass(
+								_toClassName(name), new ConfigurationClassData(inputStream));
+						}
+					}
+				}
+
+				JarEntry portletPropertiesEntry = jarFile.getJarEntry("portlet.properties");
+
+				if (portletProperties && (portletPropertiesEntry != null)) {
+					try (InputStream inputStream = jarFile.getInputStream(portletPropertiesEntry)) {
+						String[] propertyKeys = _getPropertyKeys(inputStream);
+
+						if (propertyKeys.length != 0) {
+							scanResult.addPortletProperties(absolutePath + "/portlet.properties", propertyKeys);
+						}
+					}
+				}
+			}
+			catch (Exception e) {
+				_diagnosticStream.println("Unable to read the content of " + absolutePath);
+
+				scanResult.setComplete(false);
+			}
+
+			return scanResult;
+		}
+
+		private ScanResult _scanLpkg(String absolutePath, boolean portletProperties) {
+			ScanResult scanResult = new ScanResult();
+
+			try (ZipFile zipFile = new ZipFile(absolutePath)) {
+				List<ScanNestedJarTask> scanNestedJarTasks = new ArrayList<>();
+
+				Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+
+				while (zipEntries.hasMoreElements()) {
+					ZipEntry zipEntry = zipEntries.nextElement();
+
+					if (_isLiferayJar(zipEntry.getName())) {
+						scanNestedJarTasks.add(
+							new ScanNestedJarTask(zipFile, zipEntry, absolutePath, portletProperties));
+					}
+				}
+
+				ForkJoinTask.invokeAll(scanNestedJarTasks);
+
+				for (ScanNestedJarTask scanNestedJarTask : scanNestedJarTasks) {
+					scanResult.addAll(scanNestedJarTask.join());
+				}
+			}
+			catch (IOException ioe) {
+				ioe.printStackTrace(_diagnosticStream);
+
+				scanResult.setComplete(false);
+			}
+
+			return scanResult;
+		}
+
+		private IndexEntry _indexEntry;
+		private final Path _path;
+
+	}
+
+	private class ScanNestedJarTask extends RecursiveTask<ScanResult> {
+
+		public ScanNestedJarTask(ZipFile zipFile, ZipEntry zipEntry, String lpkgPath, boolean portletProperties) {
+			_zipFile = zipFile;
+			_zipEntry = zipEntry;
+			_lpkgPath = lpkgPath;
+			_portletProperties = portletProperties;
+		}
+
+		@Override
+		protected ScanResult compute() {
+			ScanResult scanResult = new ScanResult();
+
+			boolean portletPropertiesFound = !_portletProperties;
+
+			try (InputStream inputStream = _zipFile.getInputStream(_zipEntry);
+				JarInputStream jarInputStream = new JarInputStream(inputStream)) {
+
+				ZipEntry zipEntry = jarInputStream.getNextEntry();
+
+				while (zipEntry != null) {
+					String name = zipEntry.getName();
+
+					if (_isConfigurationClass(name)) {
+						scanResult.addConfigurationClass(
+							_toClassName(name), new ConfigurationClassData(jarInputStream));
+					}
+					else if (!portletPropertiesFound && name.equals("portlet.properties")) {
+						String[] propertyKeys = _getPropertyKeys(jarInputStream);
+
+						if (propertyKeys.length != 0) {
+							String path = _lpkgPath + "/" + _zipEntry.getName() + "/portlet.properties";
+
+							scanResult.addPortletProperties(path, propertyKeys);
+						}
+
+						portletPropertiesFound = true;
+					}
+
+					zipEntry = jarInputStream.getNextEntry();
+				}
+			}
+			catch (Exception e) {
+				_diagnosticStream.println("Unable to read the content of " + _lpkgPath + "/" + _zipEntry.getName());
+
+				scanResult.setComplete(false);
+			}
+
+			return scanResult;
+		}
+
+		private final String _lpkgPath;
+		private final boolean _portletProperties;
+		private final ZipEntry _zipEntry;
+		private final ZipFile _zipFile;
+
+	}
+
+}
@@ -38,6 +38,11 @@ public class ConfigurationClassData {
 		cr.accept(new ConfigClassVisitor(), ClassReader.SKIP_CODE);
 	}
 
+	public ConfigurationClassData(String superClass, String[] configFields) {
+		_superClass = superClass;
+		_configFields = configFields;
+	}
+
 	public String[] getConfigFields() {
 		return _configFields;
 	}
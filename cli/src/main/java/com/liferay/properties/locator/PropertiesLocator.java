@@ -19,9 +19,8 @@ package com.liferay.properties.locator;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
 
+import com.liferay.blade.cli.BladeCLI;
 import com.liferay.blade.cli.util.ArrayUtil;
-import com.liferay.blade.cli.util.CamelCaseUtil;
-import com.liferay.blade.cli.util.ListUtil;
 import com.liferay.blade.cli.util.Pair;
 import com.liferay.blade.cli.util.StringPool;
 import com.liferay.blade.cli.util.StringUtil;
@@ -29,9 +28,9 @@ import com.liferay.blade.cli.util.StringUtil;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 
 import java.net.URL;
@@ -45,7 +44,9 @@ import java.security.CodeSource;
 import java.security.ProtectionDomain;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -54,14 +55,10 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.function.BiPredicate;
+import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.jar.JarInputStream;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 /**
  * @author Alberto Chaparro
@@ -86,6 +83,14 @@ public class PropertiesLocator {
 
 			jCommander.parse(args);
 
+			if (propertiesLocatorArgs.getCacheDir() == null) {
+				BladeCLI bladeCLI = new BladeCLI();
+
+				Path cachePath = bladeCLI.getCachePath();
+
+				propertiesLocatorArgs.setCacheDir(new File(cachePath.toFile(), "properties-locator"));
+			}
+
 			if (propertiesLocatorArgs.isHelp()) {
 				jCommander.usage();
 			}
@@ -101,7 +106,22 @@ public class PropertiesLocator {
 	}
 
 	public PropertiesLocator(PropertiesLocatorArgs propertiesLocatorArgs) throws Exception {
-		_outputFile = _generateOutputFile(propertiesLocatorArgs);
+		PrintWriter printWriter = _generateOutputFile(propertiesLocatorArgs);
+
+		ReportFormat reportFormat = propertiesLocatorArgs.getFormat();
+
+		PrintStream diagnosticStream;
+
+		if ((reportFormat == null) || (reportFormat == ReportFormat.TEXT)) {
+			diagnosticStream = System.out;
+			_outputFile = printWriter;
+			_propertyProblemWriter = null;
+		}
+		else {
+			diagnosticStream = System.err;
+			_outputFile = _newNullPrintWriter();
+			_propertyProblemWriter = new PropertyProblemWriter(printWriter, reportFormat);
+		}
 
 		String title = "Checking the location for old properties in the new version";
 
@@ -117,6 +137,10 @@ public class PropertiesLocator {
 
 			Path bundlePath = bundleDir.toPath();
 
+			bundlePath = bundlePath.toAbsolutePath();
+
+			bundlePath = bundlePath.normalize();
+
 			Properties newProperties = _getCurrentPortalProperties(bundlePath);
 
 			SortedSet<String> stilExistsProperties = new TreeSet<>();
@@ -134,13 +158,20 @@ public class PropertiesLocator {
 
 			problems = _manageExceptions(problems);
 
+			File cacheDir = propertiesLocatorArgs.getCacheDir();
+
+			BundleScanner bundleScanner = new BundleScanner(
+				bundlePath, (cacheDir == null) ? null : cacheDir.toPath(), diagnosticStream);
+
+			bundleScanner.scan();
+
 			_outputFile.println();
 
-			problems = _checkPortletProperties(problems, bundlePath);
+			problems = _checkPortletProperties(problems, bundlePath, bundleScanner.getPortletsProperties());
 
 			_outputFile.println();
 
-			problems = _checkConfigurationProperties(problems, bundlePath);
+			problems = _checkConfigurationProperties(problems, bundleScanner.getConfigurationClasses());
 
 			_outputFile.println();
 			_outputFile.println(
@@ -168,6 +199,10 @@ public class PropertiesLocator {
 		}
 		finally {
 			_outputFile.close();
+
+			if (_propertyProblemWriter != null) {
+				_propertyProblemWriter.close();
+			}
 		}
 	}
 
@@ -194,380 +229,6 @@ public class PropertiesLocator {
 		return configFields;
 	}
 
-	private static SortedSet<PropertyProblem> _checkConfigurationProperties(
-			SortedSet<PropertyProblem> problems, Path searchPathRoot)
-		throws IOException {
-
-		Map<String, ConfigurationClassData> configClassesMap = new TreeMap<>();
-
-		try (Stream<Path> paths = Files.walk(searchPathRoot)) {
-			Stream<File> files = paths.map(path -> path.toFile());
-
-			files.filter(
-				file -> {
-					String absolutePath = file.getAbsolutePath();
-
-					return (absolutePath.endsWith(".jar") || absolutePath.endsWith(".lpkg")) &&
-						   !absolutePath.contains("/osgi/state/");
-				}
-			).forEach(
-				file -> {
-					try {
-						String absolutePath = file.getAbsolutePath();
-
-						if (_isLiferayJar(absolutePath)) {
-							FileInputStream inputStream = new FileInputStream(absolutePath);
-
-							try (JarInputStream jarIs = new JarInputStream(inputStream)) {
-								ZipEntry zipEntryJar = jarIs.getNextEntry();
-
-								while (zipEntryJar != null) {
-									String name = zipEntryJar.getName();
-
-									if (name.endsWith("Configuration.class")) {
-										configClassesMap.put(
-											name.replace(".class", StringPool.BLANK),
-											new ConfigurationClassData(jarIs));
-									}
-
-									zipEntryJar = jarIs.getNextEntry();
-								}
-							}
-							catch (Exception e) {
-								System.out.println("Unable to read the content of " + absolutePath);
-
-								return;
-							}
-						}
-						else if (absolutePath.endsWith(".lpkg")) {
-							try (ZipFile zipFile = new ZipFile(absolutePath)) {
-								Enumeration<?> enu = zipFile.entries();
-
-								while (enu.hasMoreElements()) {
-									ZipEntry zipEntry = (ZipEntry)enu.nextElement();
-
-									if (_isLiferayJar(zipEntry.getName())) {
-										InputStream inputStream = zipFile.getInputStream(zipEntry);
-
-										try (JarInputStream jarIs = new JarInputStream(inputStream)) {
-											ZipEntry zipEntryJar = jarIs.getNextEntry();
-
-											while (zipEntryJar != null) {
-												String name = zipEntryJar.getName();
-
-												if (name.endsWith("Configuration.class")) {
-													configClassesMap.put(
-														name.replace(".class", StringPool.BLANK),
-														new ConfigurationClassData(jarIs));
-												}
-
-												zipEntryJar = jarIs.getNextEntry();
-											}
-										}
-										catch (Exception e) {
-										}
-									}
-								}
-							}
-						}
-					}
-					catch (Exception e) {
-						System.out.println("Unable to get portlet properties");
-
-						e.printStackTrace();
-
-						return;
-					}
-				}
-			);
-		}
-
-		List<Pair<String, String[]>> configurationProperties = _getConfigurationProperties(configClassesMap);
-
-		SortedSet<PropertyProblem> updatedProblems = new TreeSet<>();
-
-		Stream<PropertyProblem> problemsStream = problems.stream();
-
-		problemsStream.filter(
-			problem -> problem.getType() == PropertyProblemType.MISSING
-		).forEach(
-			problem -> {
-				String property = problem.getPropertyName();
-
-				List<Pair<String, String>> mostLikelyMatches = _getMostLikelyMatches(
-					property, configurationProperties, _getPortletNames(property));
-
-				if (!mostLikelyMatches.isEmpty()) {
-					updatedProblems.add(
-						new PropertyProblem(
-							property, PropertyProblemType.OSGI, "This property has been modularized",
-							mostLikelyMatches));
-				}
-				else {
-					updatedProblems.add(problem);
-				}
-			}
-		);
-
-		Stream<PropertyProblem> stream = updatedProblems.stream();
-
-		boolean foundOsgiProblems = stream.filter(
-			problem -> problem.getType() == PropertyProblemType.OSGI
-		).findAny(
-		).isPresent();
-
-		if (foundOsgiProblems) {
-			_outputFile.println("Properties moved to OSGI configuration:");
-
-			stream = updatedProblems.stream();
-
-			stream.filter(
-				problem -> problem.getType() == PropertyProblemType.OSGI
-			).peek(
-				problem -> {
-					String property = problem.getPropertyName();
-
-					_outputFile.print("\t");
-					_outputFile.println(property + " can match with the following OSGI properties:");
-				}
-			).map(
-				problem -> problem.getReplacements()
-			).forEach(
-				replacements -> {
-					Stream<Pair<String, String>> replacementsStream = replacements.stream();
-
-					replacementsStream.sorted(
-						(r1, r2) -> {
-							String r1First = r1.first();
-							String r2First = r2.first();
-
-							return r1First.compareTo(r2First);
-						}
-					).forEach(
-						replacement -> {
-							String path = replacement.first();
-
-							String configFileName = StringUtil.replace(
-								path, StringPool.FORWARD_SLASH.charAt(0), StringPool.PERIOD.charAt(0));
-
-							_outputFile.print("\t\t");
-							_outputFile.println(replacement.second() + " from " + configFileName);
-						}
-					);
-				}
-			);
-		}
-
-		return updatedProblems;
-	}
-
-	private static SortedSet<PropertyProblem> _checkPortletProperties(
-			SortedSet<PropertyProblem> problems, Path bundlePath)
-		throws Exception {
-
-		List<Pair<String, String[]>> portletsProperties = new ArrayList<>();
-
-		// We don't need to analyze war files since, they are still like in previous versions so properties
-		// still remain in the same place
-
-		Predicate<Path> ignoreStateFilter = p -> {
-			String path = p.toString();
-
-			return !path.contains("/osgi/state/");
-		};
-
-		Predicate<Path> lpkgFilter = p -> {
-			String path = p.toString();
-
-			return path.endsWith(".lpkg");
-		};
-
-		Path searchPathRoot = bundlePath.resolve("osgi");
-
-		try (Stream<Path> paths = Files.walk(searchPathRoot)) {
-			Stream<Path> filter = paths.filter(ignoreStateFilter);
-
-			filter.map(
-				jarPath -> jarPath.toAbsolutePath()
-			).map(
-				absolutePath -> absolutePath.toString()
-			).filter(
-				PropertiesLocator::_isLiferayJar
-			).forEach(
-				absolutePath -> {
-					try (JarFile jarFile = new JarFile(absolutePath)) {
-						JarEntry portletPropertiesFile = jarFile.getJarEntry("portlet.properties");
-
-						Properties portletProperties = new Properties();
-
-						if (portletPropertiesFile != null) {
-							_getPropertiesFromJar(
-								"jar:file:" + absolutePath + "!/portlet.properties", portletProperties);
-						}
-
-						Enumeration<Object> enuKeys = portletProperties.keys();
-
-						String[] propertyKeys = new String[0];
-
-						while (enuKeys.hasMoreElements()) {
-							propertyKeys = ArrayUtil.append(propertyKeys, (String)enuKeys.nextElement());
-						}
-
-						if (propertyKeys.length != 0) {
-							portletsProperties.add(
-								new Pair<String, String[]>(absolutePath + "/portlet.properties", propertyKeys));
-						}
-					}
-					catch (Exception e) {
-						e.printStackTrace();
-					}
-				}
-			);
-		}
-
-		try (Stream<Path> paths = Files.walk(searchPathRoot)) {
-			Stream<Path> filter = paths.filter(ignoreStateFilter);
-
-			Stream<Path> filter2 = filter.filter(lpkgFilter);
-
-			filter2.map(
-				lpkgPath -> lpkgPath.toAbsolutePath()
-			).map(
-				absolutePath -> absolutePath.toString()
-			).forEach(
-				lpkgAbsolutePath -> {
-					try (ZipFile zipFile = new ZipFile(lpkgAbsolutePath)) {
-						Enumeration<?> enu = zipFile.entries();
-
-						while (enu.hasMoreElements()) {
-							ZipEntry zipEntry = (ZipEntry)enu.nextElement();
-
-							if (_isLiferayJar(zipEntry.getName())) {
-								InputStream inputStream = zipFile.getInputStream(zipEntry);
-
-								try (JarInputStream jarIs = new JarInputStream(inputStream)) {
-									ZipEntry zipEntryJar = jarIs.getNextEntry();
-
-									while (zipEntryJar != null) {
-										String zipEntryJarName = zipEntryJar.getName();
-
-										if (zipEntryJarName.equals("portlet.properties")) {
-											Properties portletProperties = new Properties();
-
-											portletProperties.load(jarIs);
-
-											Enumeration<Object> enuKeys = portletProperties.keys();
-
-											String[] propertyKeys = new String[0];
-
-											while (enuKeys.hasMoreElements()) {
-												propertyKeys = ArrayUtil.append(
-													propertyKeys, (String)enuKeys.nextElement());
-											}
-
-											if (propertyKeys.length != 0) {
-												String prop =
-													lpkgAbsolutePath + "/" + zipEntry.getName() + "/portlet.properties";
-
-												portletsProperties.add(new Pair<String, String[]>(prop, propertyKeys));
-											}
-
-											break;
-										}
-
-										zipEntryJar = jarIs.getNextEntry();
-									}
-								}
-								catch (Exception e) {
-								}
-							}
-						}
-					}
-					catch (IOException ioe) {
-						ioe.printStackTrace();
-					}
-				}
-			);
-		}
-
-		Stream<PropertyProblem> stream = problems.stream();
-
-		SortedSet<PropertyProblem> updatedProblems = new TreeSet<>();
-
-		stream.forEach(
-			problem -> {
-				String property = problem.getPropertyName();
-
-				List<Pair<String, String>> mostLikelyMatches = _getMostLikelyMatches(
-					property, portletsProperties, _getPortletNames(property));
-
-				if (!mostLikelyMatches.isEmpty()) {
-					PropertyProblem updatedProblem = new PropertyProblem(
-						property, PropertyProblemType.MODULARIZED, null, mostLikelyMatches);
-
-					updatedProblems.add(updatedProblem);
-				}
-				else {
-					updatedProblems.add(problem);
-				}
-			});
-
-		Predicate<? super PropertyProblem> propertyMoved =
-			problem -> problem.getType() == PropertyProblemType.MODULARIZED;
-
-		boolean somePropertiesMoved = false;
-
-		Stream<PropertyProblem> updatedProblemsStream = updatedProblems.stream();
-
-		long count = updatedProblemsStream.filter(
-			propertyMoved
-		).count();
-
-		if (count > 0) {
-			somePropertiesMoved = true;
-		}
-
-		if (somePropertiesMoved) {
-			_outputFile.println("Some properties have been moved to a module portlet.properties:");
-
-			updatedProblemsStream = updatedProblems.stream();
-
-			updatedProblemsStream.filter(
-				propertyMoved
-			).filter(
-				problem -> problem.getReplacements() != null
-			).peek(
-				problem -> {
-					String foundProperty = problem.getPropertyName();
-
-					_outputFile.print("\t");
-					_outputFile.println(foundProperty + " can match with the following portlet properties:");
-				}
-			).flatMap(
-				problem -> {
-					List<Pair<String, String>> replacements = problem.getReplacements();
-
-					return replacements.stream();
-				}
-			).forEach(
-				replacement -> {
-					Path modulePath = Paths.get(replacement.first());
-
-					Path relativePath = bundlePath.relativize(modulePath);
-
-					String path = relativePath.toString();
-
-					path = path.replaceAll("\\\\", "/");
-
-					_outputFile.print("\t\t");
-					_outputFile.println(replacement.second() + " from " + path);
-				}
-			);
-		}
-
-		return updatedProblems;
-	}
-
 	private static List<Pair<String, String>> _filterMostLikelyMatches(
 		String property, String[] portletNames, List<Pair<String, String>> mostLikelyMatches) {
 
@@ -617,20 +278,17 @@ public class PropertiesLocator {
 			return new PrintWriter(outputFile);
 		}
 		else if (propertiesLocatorArgs.isQuiet()) {
-			return new PrintWriter(
-				new OutputStream() {
-
-					@Override
-					public void write(int b) {
-					}
-
-				});
+			return _newNullPrintWriter();
 		}
 		else {
 			return new PrintWriter(System.out);
 		}
 	}
 
+	private static String _getConfigFileName(String path) {
+		return StringUtil.replace(path, StringPool.FORWARD_SLASH.charAt(0), StringPool.PERIOD.charAt(0));
+	}
+
 	private static List<Pair<String, String[]>> _getConfigurationProperties(
 		Map<String, ConfigurationClassData> configClassesMap) {
 
@@ -703,59 +361,44 @@ public class PropertiesLocator {
 	}
 
 	private static List<Pair<String, String>> _getMostLikelyMatches(
-		String property, List<Pair<String, String[]>> matches, String[] portletNames) {
+		String property, PropertyIndex propertyIndex, String[] portletNames) {
 
 		List<Pair<String, String>> mostLikelyMatches = new ArrayList<>();
 
+		String[] propertyWordsArray = StringUtil.split(_removeCommonPrefix(property), StringPool.PERIOD);
+
+		Set<String> propertyWords = new HashSet<>(Arrays.asList(propertyWordsArray));
+
 		//Default min occurrences to match
 		int maxOccurrences = 2;
 
-		for (Pair<String, String[]> match : matches) {
-			for (String matchProperty : match.second()) {
-				if (_match(property, matchProperty, match.first(), maxOccurrences, portletNames)) {
-					int occurrences = _getOccurrences(property, matchProperty);
+		for (int candidate : propertyIndex.getCandidates(propertyWords)) {
+			String path = propertyIndex.getPath(candidate);
 
-					if (occurrences > maxOccurrences) {
-						mostLikelyMatches.clear();
+			if (!_pathContainsPortletName(path, portletNames)) {
+				continue;
+			}
 
-						maxOccurrences = occurrences;
-					}
+			int occurrences = propertyIndex.getOccurrences(candidate, propertyWords);
 
-					mostLikelyMatches.add(new Pair<>(match.first(), matchProperty));
-				}
+			if (occurrences < maxOccurrences) {
+				continue;
 			}
-		}
 
-		if (!mostLikelyMatches.isEmpty()) {
-			mostLikelyMatches = _filterMostLikelyMatches(property, portletNames, mostLikelyMatches);
-		}
+			if (occurrences > maxOccurrences) {
+				mostLikelyMatches.clear();
 
-		return mostLikelyMatches;
-	}
-
-	private static int _getOccurrences(String originalProperty, String property) {
-		String originalPropertyWithoutPrefix = _removeCommonPrefix(originalProperty);
+				maxOccurrences = occurrences;
+			}
 
-		if (!property.contains(StringPool.PERIOD)) {
-			//Camel case property
-			property = CamelCaseUtil.fromCamelCase(property, StringPool.PERIOD.charAt(0));
+			mostLikelyMatches.add(new Pair<>(path, propertyIndex.getProperty(candidate)));
 		}
 
-		String[] propertyWords = StringUtil.split(property, StringPool.PERIOD);
-
-		String[] originalPropertyWords = StringUtil.split(originalPropertyWithoutPrefix, StringPool.PERIOD);
-
-		List<String> originalPropertyWordsList = ListUtil.fromArray(originalPropertyWords);
-
-		int numOccurrences = 0;
-
-		for (String word : propertyWords) {
-			if (originalPropertyWordsList.contains(word)) {
-				numOccurrences++;
-			}
+		if (!mostLikelyMatches.isEmpty()) {
+			mostLikelyMatches = _filterMostLikelyMatches(property, portletNames, mostLikelyMatches);
 		}
 
-		return numOccurrences;
+		return mostLikelyMatches;
 	}
 
 	private static String _getPortletNameAsProperty(String[] portletNames) {
@@ -811,7 +454,7 @@ public class PropertiesLocator {
 			return properties;
 		}
 		catch (Exception e) {
-			System.out.println("Unable to read properties file " + propertiesPath.toString());
+			System.err.println("Unable to read properties file " + propertiesPath.toString());
 
 			throw e;
 		}
@@ -827,12 +470,20 @@ public class PropertiesLocator {
 			is.close();
 		}
 		catch (Exception e) {
-			System.out.println("Unable to read properties file " + propertiesJarURL);
+			System.err.println("Unable to read properties file " + propertiesJarURL);
 
 			throw e;
 		}
 	}
 
+	private static String _getRelativePath(Path bundlePath, String path) {
+		Path relativePath = bundlePath.relativize(Paths.get(path));
+
+		String relativePathString = relativePath.toString();
+
+		return relativePathString.replaceAll("\\\\", "/");
+	}
+
 	private static SortedSet<String> _getRemovedProperties(
 		Properties oldProperties, Properties newProperties, SortedSet<String> remainedProperties) {
 
@@ -856,15 +507,219 @@ public class PropertiesLocator {
 		return removedProperties;
 	}
 
-	private static boolean _isLiferayJar(String path) {
-		if (!path.endsWith(".jar") || !path.contains("com.liferay")) {
-			return false;
+	private static boolean _matchSuffix(String originalProperty, String property) {
+		String[] propertyWords = PropertyIndex.getWords(property);
+
+		String propertySuffix =
+			propertyWords[propertyWords.length - 2] + StringPool.PERIOD + propertyWords[propertyWords.length - 1];
+
+		if (originalProperty.endsWith(propertySuffix)) {
+			return true;
+		}
+
+		return false;
+	}
+
+	private static PrintWriter _newNullPrintWriter() {
+		return new PrintWriter(
+			new OutputStream() {
+
+				@Override
+				public void write(int b) {
+				}
+
+			});
+	}
+
+	private static boolean _pathContainsPortletName(String propertyPath, String[] portletNames) {
+		for (String portletName : portletNames) {
+			portletName = _getEquivalence(portletName);
+
+			if ((portletName != null) && propertyPath.contains(portletName)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static String _removeCommonPrefix(String property) {
+		for (String prefix : _COMMON_PREFIXES) {
+			if (property.startsWith(prefix)) {
+				property = property.replace(prefix, StringPool.BLANK);
+
+				if (property.startsWith(StringPool.PERIOD)) {
+					property = property.substring(1);
+				}
+
+				break;
+			}
 		}
 
-		return true;
+		return property;
 	}
 
-	private static SortedSet<PropertyProblem> _manageExceptions(SortedSet<PropertyProblem> problems) {
+	private SortedSet<PropertyProblem> _checkConfigurationProperties(
+		SortedSet<PropertyProblem> problems, Map<String, ConfigurationClassData> configClassesMap) {
+
+		PropertyIndex configurationPropertyIndex = new PropertyIndex(_getConfigurationProperties(configClassesMap));
+
+		SortedSet<PropertyProblem> updatedProblems = new TreeSet<>();
+
+		Stream<PropertyProblem> problemsStream = problems.stream();
+
+		problemsStream.filter(
+			problem -> problem.getType() == PropertyProblemType.MISSING
+		).forEach(
+			problem -> {
+				String property = problem.getPropertyName();
+
+				List<Pair<String, String>> mostLikelyMatches = _getMostLikelyMatches(
+					property, configurationPropertyIndex, _getPortletNames(property));
+
+				if (!mostLikelyMatches.isEmpty()) {
+					PropertyProblem updatedProblem = new PropertyProblem(
+						property, PropertyProblemType.OSGI, "This property has been modularized", mostLikelyMatches);
+
+					_writeProblem(updatedProblem, PropertiesLocator::_getConfigFileName);
+
+					updatedProblems.add(updatedProblem);
+				}
+				else {
+					_writeProblem(problem, Function.identity());
+
+					updatedProblems.add(problem);
+				}
+			}
+		);
+
+		Stream<PropertyProblem> stream = updatedProblems.stream();
+
+		boolean foundOsgiProblems = stream.filter(
+			problem -> problem.getType() == PropertyProblemType.OSGI
+		).findAny(
+		).isPresent();
+
+		if (foundOsgiProblems) {
+			_outputFile.println("Properties moved to OSGI configuration:");
+
+			stream = updatedProblems.stream();
+
+			stream.filter(
+				problem -> problem.getType() == PropertyProblemType.OSGI
+			).peek(
+				problem -> {
+					String property = problem.getPropertyName();
+
+					_outputFile.print("\t");
+					_outputFile.println(property + " can match with the following OSGI properties:");
+				}
+			).map(
+				problem -> problem.getReplacements()
+			).forEach(
+				replacements -> {
+					Stream<Pair<String, String>> replacementsStream = replacements.stream();
+
+					replacementsStream.sorted(
+						(r1, r2) -> {
+							String r1First = r1.first();
+							String r2First = r2.first();
+
+							return r1First.compareTo(r2First);
+						}
+					).forEach(
+						replacement -> {
+							_outputFile.print("\t\t");
+							_outputFile.println(
+								replacement.second() + " from " + _getConfigFileName(replacement.first()));
+						}
+					);
+				}
+			);
+		}
+
+		return updatedProblems;
+	}
+
+	private SortedSet<PropertyProblem> _checkPortletProperties(
+		SortedSet<PropertyProblem> problems, Path bundlePath, List<Pair<String, String[]>> portletsProperties) {
+
+		PropertyIndex portletPropertyIndex = new PropertyIndex(portletsProperties);
+
+		Stream<PropertyProblem> stream = problems.stream();
+
+		SortedSet<PropertyProblem> updatedProblems = new TreeSet<>();
+
+		stream.forEach(
+			problem -> {
+				String property = problem.getPropertyName();
+
+				List<Pair<String, String>> mostLikelyMatches = _getMostLikelyMatches(
+					property, portletPropertyIndex, _getPortletNames(property));
+
+				if (!mostLikelyMatches.isEmpty()) {
+					PropertyProblem updatedProblem = new PropertyProblem(
+						property, PropertyProblemType.MODULARIZED, null, mostLikelyMatches);
+
+					_writeProblem(updatedProblem, path -> _getRelativePath(bundlePath, path));
+
+					updatedProblems.add(updatedProblem);
+				}
+				else {
+					updatedProblems.add(problem);
+				}
+			});
+
+		Predicate<? super PropertyProblem> propertyMoved =
+			problem -> problem.getType() == PropertyProblemType.MODULARIZED;
+
+		boolean somePropertiesMoved = false;
+
+		Stream<PropertyProblem> updatedProblemsStream = updatedProblems.stream();
+
+		long count = updatedProblemsStream.filter(
+			propertyMoved
+		).count();
+
+		if (count > 0) {
+			somePropertiesMoved = true;
+		}
+
+		if (somePropertiesMoved) {
+			_outputFile.println("Some properties have been moved to a module portlet.properties:");
+
+			updatedProblemsStream = updatedProblems.stream();
+
+			updatedProblemsStream.filter(
+				propertyMoved
+			).filter(
+				problem -> problem.getReplacements() != null
+			).peek(
+				problem -> {
+					String foundProperty = problem.getPropertyName();
+
+					_outputFile.print("\t");
+					_outputFile.println(foundProperty + " can match with the following portlet properties:");
+				}
+			).flatMap(
+				problem -> {
+					List<Pair<String, String>> replacements = problem.getReplacements();
+
+					return replacements.stream();
+				}
+			).forEach(
+				replacement -> {
+					_outputFile.print("\t\t");
+					_outputFile.println(
+						replacement.second() + " from " + _getRelativePath(bundlePath, replacement.first()));
+				}
+			);
+		}
+
+		return updatedProblems;
+	}
+
+	private SortedSet<PropertyProblem> _manageExceptions(SortedSet<PropertyProblem> problems) {
 		SortedSet<PropertyProblem> informationToPrint = new TreeSet<>();
 
 		SortedSet<PropertyProblem> updatedProblems = new TreeSet<>();
@@ -881,6 +736,8 @@ public class PropertiesLocator {
 
 				informationToPrint.add(updatedProblem);
 
+				_writeProblem(updatedProblem, Function.identity());
+
 				updatedProblems.add(updatedProblem);
 			}
 			else if (property.endsWith("breadcrumb.display.style.default")) {
@@ -893,6 +750,8 @@ public class PropertiesLocator {
 
 				informationToPrint.add(updatedProblem);
 
+				_writeProblem(updatedProblem, Function.identity());
+
 				updatedProblems.add(problem);
 			}
 			else if (property.endsWith("breadcrumb.display.style.options")) {
@@ -904,6 +763,8 @@ public class PropertiesLocator {
 
 				informationToPrint.add(updatedProblem);
 
+				_writeProblem(updatedProblem, Function.identity());
+
 				updatedProblems.add(problem);
 			}
 			else {
@@ -923,61 +784,14 @@ public class PropertiesLocator {
 		return updatedProblems;
 	}
 
-	private static boolean _match(
-		String originalProperty, String newProperty, String newPropertyPath, int minOccurrences,
-		String[] portletNames) {
-
-		if (!_pathContainsPortletName(newPropertyPath, portletNames)) {
-			return false;
-		}
-
-		int numOccurrences = _getOccurrences(originalProperty, newProperty);
-
-		if ((numOccurrences == 0) || (numOccurrences < minOccurrences)) {
-			return false;
-		}
-
-		return true;
-	}
-
-	private static boolean _matchSuffix(String originalProperty, String property) {
-		if (!property.contains(StringPool.PERIOD)) {
-			//Camel case property
-			property = CamelCaseUtil.fromCamelCase(property, StringPool.PERIOD.charAt(0));
-		}
-
-		String[] propertyWords = StringUtil.split(property, StringPool.PERIOD);
-
-		String propertySuffix =
-			propertyWords[propertyWords.length - 2] + StringPool.PERIOD + propertyWords[propertyWords.length - 1];
-
-		if (originalProperty.endsWith(propertySuffix)) {
-			return true;
-		}
-
-		return false;
-	}
-
-	private static boolean _pathContainsPortletName(String propertyPath, String[] portletNames) {
-		for (String portletName : portletNames) {
-			portletName = _getEquivalence(portletName);
-
-			if ((portletName != null) && propertyPath.contains(portletName)) {
-				return true;
-			}
-		}
-
-		return false;
-	}
-
-	private static void _printProperties(Set<String> properties) {
+	private void _printProperties(Set<String> properties) {
 		for (String property : properties) {
 			_outputFile.print("\t");
 			_outputFile.println(property);
 		}
 	}
 
-	private static void _printUnderline(String text) {
+	private void _printUnderline(String text) {
 		for (int i = 0; i < text.length(); i++) {
 			_outputFile.print(StringPool.DASH);
 		}
@@ -985,20 +799,32 @@ public class PropertiesLocator {
 		_outputFile.println(StringPool.BLANK);
 	}
 
-	private static String _removeCommonPrefix(String property) {
-		for (String prefix : _COMMON_PREFIXES) {
-			if (property.startsWith(prefix)) {
-				property = property.replace(prefix, StringPool.BLANK);
+	/**
+	 * Writes the final classification of a property to the machine-readable
+	 * report. The exceptions handled by <code>_manageExceptions</code> are
+	 * written first and take precedence, so a property they cover is not
+	 * written again when the later checks of the text report classify it once
+	 * more.
+	 */
+	private void _writeProblem(PropertyProblem problem, Function<String, String> sourceFunction) {
+		if ((_propertyProblemWriter == null) || !_writtenPropertyNames.add(problem.getPropertyName())) {
+			return;
+		}
 
-				if (property.startsWith(StringPool.PERIOD)) {
-					property = property.substring(1);
-				}
+		List<Pair<String, String>> replacements = problem.getReplacements();
 
-				break;
-			}
+		if (replacements != null) {
+			Stream<Pair<String, String>> stream = replacements.stream();
+
+			replacements = stream.map(
+				replacement -> new Pair<>(sourceFunction.apply(replacement.first()), replacement.second())
+			).collect(
+				Collectors.toList()
+			);
 		}
 
-		return property;
+		_propertyProblemWriter.write(
+			new PropertyProblem(problem.getPropertyName(), problem.getType(), problem.getMessage(), replacements));
 	}
 
 	private static final String[] _COMMON_PREFIXES = {
@@ -1009,7 +835,7 @@ public class PropertiesLocator {
 	private static final String _PORTAL_IMPL_RELATIVE_PATH =
 		File.separator + "WEB-INF" + File.separator + "lib" + File.separator + "portal-impl.jar";
 
-	private static PrintWriter _outputFile;
+	private final PrintWriter _outputFile;
 
 	@SuppressWarnings("serial")
 	private static final Map<String, String> _portletNameEquivalences = new TreeMap<String, String>() {
@@ -1019,5 +845,7 @@ public class PropertiesLocator {
 	};
 
 	private SortedSet<PropertyProblem> _problems;
+	private final PropertyProblemWriter _propertyProblemWriter;
+	private final Set<String> _writtenPropertyNames = new HashSet<>();
 
 }
\ No newline at end of file
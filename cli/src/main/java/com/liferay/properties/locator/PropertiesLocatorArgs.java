@@ -32,6 +32,14 @@ public class PropertiesLocatorArgs {
 		return _bundleDir;
 	}
 
+	public File getCacheDir() {
+		return _cacheDir;
+	}
+
+	public ReportFormat getFormat() {
+		return _format;
+	}
+
 	public File getOutputFile() {
 		return _outputFile;
 	}
@@ -52,6 +60,14 @@ public class PropertiesLocatorArgs {
 		_bundleDir = bundleDir;
 	}
 
+	public void setCacheDir(File cacheDir) {
+		_cacheDir = cacheDir;
+	}
+
+	public void setFormat(ReportFormat format) {
+		_format = format;
+	}
+
 	public void setOutputFile(File outputFile) {
 		_outputFile = outputFile;
 	}
@@ -67,6 +83,20 @@ public class PropertiesLocatorArgs {
 	@Parameter(description = "Path to Liferay server bundle directory.", names = {"-d", "--bundleDir"}, required = true)
 	private File _bundleDir;
 
+	@Parameter(
+		description = "Directory in which the index of the scanned bundle is kept between runs. Defaults to the " +
+			"properties-locator directory in the blade cache.",
+		names = "--cacheDir"
+	)
+	private File _cacheDir;
+
+	@Parameter(
+		description = "The format of the report: text, json (a JSON array) or ndjson (one JSON object per line). " +
+			"JSON reports are written while the bundle is being analyzed.",
+		names = "--format"
+	)
+	private ReportFormat _format = ReportFormat.TEXT;
+
 	@Parameter(description = "Print this message.", help = true, names = {"-h", "--help"})
 	private boolean _help;
 
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.CamelCaseUtil;
+import com.liferay.blade.cli.util.Pair;
+import com.liferay.blade.cli.util.StringPool;
+import com.liferay.blade.cli.util.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from the words of a list of candidate properties to the
+ * candidates containing them. The words of every candidate are split once
+ * when the index is built, so looking up the candidates that share a word
+ * with a property only touches those candidates.
+ *
+ * <p>
+ * Candidates are identified by their position in the list the index was built
+ * from, and {@link #getCandidates(Collection)} returns them in that order.
+ * </p>
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class PropertyIndex {
+
+	/**
+	 * Returns the words of the property, converting camel case properties to
+	 * their dotted form first.
+	 */
+	public static String[] getWords(String property) {
+		if (!property.contains(StringPool.PERIOD)) {
+			property = CamelCaseUtil.fromCamelCase(property, StringPool.PERIOD.charAt(0));
+		}
+
+		return StringUtil.split(property, StringPool.PERIOD);
+	}
+
+	public PropertyIndex(List<Pair<String, String[]>> properties) {
+		List<String> paths = new ArrayList<>();
+		List<String> candidateProperties = new ArrayList<>();
+		List<String[]> words = new ArrayList<>();
+		Map<String, List<Integer>> postings = new HashMap<>();
+
+		for (Pair<String, String[]> pair : properties) {
+			for (String property : pair.second()) {
+				int candidate = paths.size();
+
+				String[] propertyWords = getWords(property);
+
+				paths.add(pair.first());
+				candidateProperties.add(property);
+				words.add(propertyWords);
+
+				for (String word : new HashSet<>(Arrays.asList(propertyWords))) {
+					List<Integer> candidates = postings.computeIfAbsent(word, key -> new ArrayList<>());
+
+					candidates.add(candidate);
+				}
+			}
+		}
+
+		_paths = paths.toArray(new String[0]);
+		_properties = candidateProperties.toArray(new String[0]);
+		_words = words.toArray(new String[0][]);
+
+		for (Map.Entry<String, List<Integer>> entry : postings.entrySet()) {
+			List<Integer> candidates = entry.getValue();
+
+			int[] candidatesArray = new int[candidates.size()];
+
+			for (int i = 0; i < candidatesArray.length; i++) {
+				candidatesArray[i] = candidates.get(i);
+			}
+
+			_postings.put(entry.getKey(), candidatesArray);
+		}
+	}
+
+	/**
+	 * Returns the candidates sharing at least one of the given words, in the
+	 * order of the list the index was built from.
+	 */
+	public int[] getCandidates(Collection<String> words) {
+		int[] candidates = new int[0];
+
+		for (String word : words) {
+			int[] wordCandidates = _postings.get(word);
+
+			if (wordCandidates != null) {
+				candidates = _union(candidates, wordCandidates);
+			}
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * Returns how many of the words of the candidate, counting repeated words
+	 * each time, are contained in the given words.
+	 */
+	public int getOccurrences(int candidate, Set<String> words) {
+		int occurrences = 0;
+
+		for (String word : _words[candidate]) {
+			if (words.contains(word)) {
+				occurrences++;
+			}
+		}
+
+		return occurrences;
+	}
+
+	public String getPath(int candidate) {
+		return _paths[candidate];
+	}
+
+	public String getProperty(int candidate) {
+		return _properties[candidate];
+	}
+
+	private static int[] _union(int[] candidates1, int[] candidates2) {
+		int[] union = new int[candidates1.length + candidates2.length];
+
+		int i = 0;
+		int j = 0;
+		int k = 0;
+
+		while ((i < candidates1.length) && (j < candidates2.length)) {
+			if (candidates1[i] < candidates2[j]) {
+				union[k++] = candidates1[i++];
+			}
+			else if (candidates1[i] > candidates2[j]) {
+				union[k++] = candidates2[j++];
+			}
+			else {
+				union[k++] = candidates1[i++];
+
+				j++;
+			}
+		}
+
+		while (i < candidates1.length) {
+			union[k++] = candidates1[i++];
+		}
+
+		while (j < candidates2.length) {
+			union[k++] = candidates2[j++];
+		}
+
+		return Arrays.copyOf(union, k);
+	}
+
+	private final String[] _paths;
+	private final Map<String, int[]> _postings = new HashMap<>();
+	private final String[] _properties;
+	private final String[][] _words;
+
+}
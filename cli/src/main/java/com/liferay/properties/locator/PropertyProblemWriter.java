@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.Closeable;
+import java.io.PrintWriter;
+
+import java.util.List;
+
+/**
+ * Writes property problems as JSON as soon as they are found, either as the
+ * elements of a single JSON array or as one JSON object per line. The output
+ * is flushed after every problem so that it can be consumed while the
+ * analysis is still running.
+ *
+ * @author Christopher Bryan Boyd
+ */
+public class PropertyProblemWriter implements Closeable {
+
+	public PropertyProblemWriter(PrintWriter printWriter, ReportFormat reportFormat) {
+		_printWriter = printWriter;
+
+		_array = reportFormat == ReportFormat.JSON;
+	}
+
+	@Override
+	public synchronized void close() {
+		if (_array) {
+			if (_count == 0) {
+				_printWriter.print("[");
+			}
+			else {
+				_printWriter.println();
+			}
+
+			_printWriter.println("]");
+		}
+
+		_printWriter.close();
+	}
+
+	public synchronized void write(PropertyProblem propertyProblem) {
+		StringBuilder sb = new StringBuilder();
+
+		sb.append("{\"type\":");
+
+		PropertyProblemType type = propertyProblem.getType();
+
+		_appendString(sb, type.name());
+
+		sb.append(",\"property\":");
+
+		_appendString(sb, propertyProblem.getPropertyName());
+
+		String message = propertyProblem.getMessage();
+
+		if (message != null) {
+			sb.append(",\"message\":");
+
+			_appendString(sb, message.trim());
+		}
+
+		sb.append(",\"replacements\":[");
+
+		List<Pair<String, String>> replacements = propertyProblem.getReplacements();
+
+		if (replacements != null) {
+			for (int i = 0; i < replacements.size(); i++) {
+				Pair<String, String> replacement = replacements.get(i);
+
+				if (i > 0) {
+					sb.append(",");
+				}
+
+				sb.append("{\"property\":");
+
+				_appendString(sb, replacement.second());
+
+				sb.append(",\"source\":");
+
+				_appendString(sb, replacement.first());
+
+				sb.append("}");
+			}
+		}
+
+		sb.append("]}");
+
+		if (_array) {
+			_printWriter.print((_count == 0) ? "[" : ",");
+			_printWriter.println();
+			_printWriter.print(sb);
+		}
+		else {
+			_printWriter.println(sb);
+		}
+
+		_printWriter.flush();
+
+		_count++;
+	}
+
+	private static void _appendString(StringBuilder sb, String value) {
+		sb.append('"');
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+
+			if ((c == '"') || (c == '\\')) {
+				sb.append('\\');
+				sb.append(c);
+			}
+			else if (c == '\n') {
+				sb.append("\\n");
+			}
+			else if (c == '\r') {
+				sb.append("\\r");
+			}
+			else if (c == '\t') {
+				sb.append("\\t");
+			}
+			else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int)c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+
+		sb.append('"');
+	}
+
+	private final boolean _array;
+	private int _count;
+	private final PrintWriter _printWriter;
+
+}
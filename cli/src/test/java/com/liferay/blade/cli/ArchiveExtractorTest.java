@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.ArchiveExtractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class ArchiveExtractorTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_archivePath = temporaryFolder.newFolder("archives").toPath();
+		_destinationPath = temporaryFolder.newFolder("destination").toPath();
+	}
+
+	@Test
+	public void testUntarStripComponents() throws Exception {
+		Path tarPath = _archivePath.resolve("node.tar.gz");
+
+		try (OutputStream outputStream = Files.newOutputStream(tarPath);
+			TarArchiveOutputStream tarArchiveOutputStream = new TarArchiveOutputStream(
+				new GZIPOutputStream(outputStream))) {
+
+			_putTarEntry(tarArchiveOutputStream, "node-v10/bin/node", "node");
+			_putTarEntry(tarArchiveOutputStream, "node-v10/README.md", "readme");
+		}
+
+		ArchiveExtractor.untar(tarPath, _destinationPath, 1);
+
+		Assert.assertEquals("node", _read(_destinationPath.resolve("bin/node")));
+		Assert.assertEquals("readme", _read(_destinationPath.resolve("README.md")));
+	}
+
+	@Test(expected = IOException.class)
+	public void testUntarZipSlip() throws Exception {
+		Path tarPath = _archivePath.resolve("slip.tar");
+
+		try (OutputStream outputStream = Files.newOutputStream(tarPath);
+			TarArchiveOutputStream tarArchiveOutputStream = new TarArchiveOutputStream(outputStream)) {
+
+			_putTarEntry(tarArchiveOutputStream, "../evil", "evil");
+		}
+
+		ArchiveExtractor.untar(tarPath, _destinationPath, 0);
+	}
+
+	@Test
+	public void testUnzipEntryToStart() throws Exception {
+		Path zipPath = _archivePath.resolve("repo.zip");
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+			zipOutputStream.putNextEntry(new ZipEntry("repo/"));
+			zipOutputStream.closeEntry();
+
+			_putZipEntry(zipOutputStream, "repo/gradle/build.gradle", "build", ZipEntry.DEFLATED);
+			_putZipEntry(zipOutputStream, "other/file", "other", ZipEntry.DEFLATED);
+		}
+
+		ArchiveExtractor.unzip(zipPath, _destinationPath, "repo/");
+
+		Assert.assertEquals("build", _read(_destinationPath.resolve("gradle/build.gradle")));
+		Assert.assertFalse(Files.exists(_destinationPath.resolve("other")));
+	}
+
+	@Test
+	public void testUnzipInParallel() throws Exception {
+		Path zipPath = _archivePath.resolve("samples.zip");
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+			for (int i = 0; i < 100; i++) {
+				int method = ZipEntry.DEFLATED;
+
+				if ((i % 2) == 0) {
+					method = ZipEntry.STORED;
+				}
+
+				_putZipEntry(zipOutputStream, "dir" + (i % 7) + "/file" + i, _getContent(i), method);
+			}
+		}
+
+		Files.createDirectories(_destinationPath.resolve("dir0"));
+
+		Files.write(_destinationPath.resolve("dir0/file0"), "stale".getBytes(StandardCharsets.UTF_8));
+
+		ArchiveExtractor.unzip(zipPath, _destinationPath, null);
+
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals(_getContent(i), _read(_destinationPath.resolve("dir" + (i % 7) + "/file" + i)));
+		}
+	}
+
+	@Test
+	public void testUnzipStream() throws Exception {
+		Path zipPath = _archivePath.resolve("wrapper.zip");
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+			_putZipEntry(zipOutputStream, "gradle/wrapper/gradle-wrapper.properties", "wrapper", ZipEntry.DEFLATED);
+		}
+
+		try (InputStream inputStream = Files.newInputStream(zipPath)) {
+			ArchiveExtractor.unzip(inputStream, _destinationPath);
+		}
+
+		Assert.assertEquals("wrapper", _read(_destinationPath.resolve("gradle/wrapper/gradle-wrapper.properties")));
+	}
+
+	@Test(expected = ZipException.class)
+	public void testUnzipZipSlipBeforeWriting() throws Exception {
+		Path zipPath = _archivePath.resolve("slip.zip");
+
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+			_putZipEntry(zipOutputStream, "afile", "a", ZipEntry.DEFLATED);
+			_putZipEntry(zipOutputStream, "../evil", "evil", ZipEntry.DEFLATED);
+		}
+
+		try {
+			ArchiveExtractor.unzip(zipPath, _destinationPath, null);
+		}
+		finally {
+			Assert.assertFalse(Files.exists(_destinationPath.resolve("afile")));
+		}
+	}
+
+	private String _getContent(int i) {
+		StringBuilder sb = new StringBuilder();
+
+		for (int j = 0; j <= i; j++) {
+			sb.append("line ");
+			sb.append(j);
+			sb.append('\n');
+		}
+
+		return sb.toString();
+	}
+
+	private void _putTarEntry(TarArchiveOutputStream tarArchiveOutputStream, String name, String content)
+		throws IOException {
+
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+		TarArchiveEntry tarArchiveEntry = new TarArchiveEntry(name);
+
+		tarArchiveEntry.setSize(bytes.length);
+
+		tarArchiveOutputStream.putArchiveEntry(tarArchiveEntry);
+
+		tarArchiveOutputStream.write(bytes);
+
+		tarArchiveOutputStream.closeArchiveEntry();
+	}
+
+	private void _putZipEntry(ZipOutputStream zipOutputStream, String name, String content, int method)
+		throws IOException {
+
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+		ZipEntry zipEntry = new ZipEntry(name);
+
+		zipEntry.setMethod(method);
+
+		if (method == ZipEntry.STORED) {
+			CRC32 crc32 = new CRC32();
+
+			crc32.update(bytes);
+
+			zipEntry.setCompressedSize(bytes.length);
+			zipEntry.setCrc(crc32.getValue());
+			zipEntry.setSize(bytes.length);
+		}
+
+		zipOutputStream.putNextEntry(zipEntry);
+
+		zipOutputStream.write(bytes);
+
+		zipOutputStream.closeEntry();
+	}
+
+	private String _read(Path path) throws IOException {
+		return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _archivePath;
+	private Path _destinationPath;
+
+}
@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class ArtifactCacheTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_cachePath = temporaryFolder.newFolder("artifacts").toPath();
+
+		_httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+
+		_httpServer.createContext("/", this::_handle);
+
+		_httpServer.start();
+	}
+
+	@After
+	public void tearDown() {
+		_httpServer.stop(0);
+	}
+
+	@Test
+	public void testChangedArtifactIsDownloaded() throws Exception {
+		ArtifactCache artifactCache = new ArtifactCache(_cachePath);
+
+		Path path1 = artifactCache.get(_getLink("/archive.zip"));
+
+		_content = "version 2";
+
+		Path path2 = artifactCache.get(_getLink("/archive.zip"));
+
+		Assert.assertNotEquals(path1, path2);
+		Assert.assertNotEquals(artifactCache.getHash(path1), artifactCache.getHash(path2));
+		Assert.assertEquals("version 2", _read(path2));
+		Assert.assertEquals(2, _downloads.get());
+	}
+
+	@Test
+	public void testConcurrentGetsOfSameLink() throws Exception {
+		_requestLatch = new CountDownLatch(1);
+		_responseLatch = new CountDownLatch(1);
+
+		ArtifactCache artifactCache = new ArtifactCache(_cachePath);
+
+		CompletableFuture<Path> future1;
+		CompletableFuture<Path> future2;
+
+		try {
+			future1 = CompletableFuture.supplyAsync(() -> _get(artifactCache, "/slow.zip"));
+
+			Assert.assertTrue(_requestLatch.await(10, TimeUnit.SECONDS));
+
+			future2 = CompletableFuture.supplyAsync(() -> _get(artifactCache, "/slow.zip"));
+		}
+		finally {
+			_responseLatch.countDown();
+		}
+
+		Path path = future1.get(10, TimeUnit.SECONDS);
+
+		Assert.assertEquals(path, future2.get(10, TimeUnit.SECONDS));
+		Assert.assertEquals(1, _downloads.get());
+	}
+
+	@Test
+	public void testCorruptIndexEntryIsMiss() throws Exception {
+		String link = _getLink("/archive.zip");
+
+		Properties index = new Properties();
+
+		index.setProperty(link, "corrupt");
+
+		try (OutputStream outputStream = Files.newOutputStream(_cachePath.resolve("index.properties"))) {
+			index.store(outputStream, null);
+		}
+
+		ArtifactCache artifactCache = new ArtifactCache(_cachePath);
+
+		Assert.assertEquals("version 1", _read(artifactCache.get(link)));
+		Assert.assertEquals(1, _downloads.get());
+	}
+
+	@Test
+	public void testEvictLeastRecentlyUsed() throws Exception {
+		ArtifactCache artifactCache = new ArtifactCache(_cachePath, false, 12);
+
+		Path path1 = artifactCache.get(_getLink("/first.zip"));
+
+		_content = "version 2";
+
+		Path path2 = artifactCache.get(_getLink("/second.zip"));
+
+		Assert.assertFalse(Files.exists(path1));
+		Assert.assertTrue(Files.exists(path2));
+	}
+
+	@Test
+	public void testIndexIsUnlockedWhileDownloading() throws Exception {
+		ArtifactCache artifactCache = new ArtifactCache(_cachePath);
+
+		artifactCache.get(_getLink("/first.zip"));
+
+		_requestLatch = new CountDownLatch(1);
+		_responseLatch = new CountDownLatch(1);
+
+		CompletableFuture<Path> slowFuture = CompletableFuture.supplyAsync(() -> _get(artifactCache, "/slow.zip"));
+
+		try {
+			Assert.assertTrue(_requestLatch.await(10, TimeUnit.SECONDS));
+
+			ArtifactCache offlineArtifactCache = new ArtifactCache(_cachePath, true);
+
+			CompletableFuture<Path> future = CompletableFuture.supplyAsync(
+				() -> _get(offlineArtifactCache, "/first.zip"));
+
+			Assert.assertEquals("version 1", _read(future.get(10, TimeUnit.SECONDS)));
+		}
+		finally {
+			_responseLatch.countDown();
+		}
+
+		Assert.assertEquals("version 1", _read(slowFuture.get(10, TimeUnit.SECONDS)));
+	}
+
+	@Test
+	public void testOffline() throws Exception {
+		ArtifactCache offlineArtifactCache = new ArtifactCache(_cachePath, true);
+
+		try {
+			offlineArtifactCache.get(_getLink("/archive.zip"));
+
+			Assert.fail("Expected an uncached artifact to be unavailable offline");
+		}
+		catch (IOException ioe) {
+		}
+
+		ArtifactCache artifactCache = new ArtifactCache(_cachePath);
+
+		artifactCache.get(_getLink("/archive.zip"));
+
+		Path path = offlineArtifactCache.get(_getLink("/archive.zip"));
+
+		Assert.assertEquals("version 1", _read(path));
+		Assert.assertEquals(1, _requests.get());
+	}
+
+	@Test
+	public void testUnchangedArtifactIsRevalidated() throws Exception {
+		ArtifactCache artifactCache = new ArtifactCache(_cachePath);
+
+		Path path1 = artifactCache.get(_getLink("/archive.zip"));
+
+		Path path2 = artifactCache.get(_getLink("/archive.zip"));
+
+		Assert.assertEquals(path1, path2);
+		Assert.assertEquals("version 1", _read(path2));
+		Assert.assertEquals(1, _downloads.get());
+		Assert.assertEquals(2, _requests.get());
+	}
+
+	private Path _get(ArtifactCache artifactCache, String path) {
+		try {
+			return artifactCache.get(_getLink(path));
+		}
+		catch (IOException ioe) {
+			throw new UncheckedIOException(ioe);
+		}
+	}
+
+	private String _getLink(String path) {
+		InetSocketAddress inetSocketAddress = _httpServer.getAddress();
+
+		return "http://127.0.0.1:" + inetSocketAddress.getPort() + path;
+	}
+
+	private void _handle(HttpExchange httpExchange) throws IOException {
+		_requests.incrementAndGet();
+
+		Headers requestHeaders = httpExchange.getRequestHeaders();
+		Headers responseHeaders = httpExchange.getResponseHeaders();
+
+		String eTag = "\"" + _content.hashCode() + "\"";
+
+		responseHeaders.add("ETag", eTag);
+
+		if (eTag.equals(requestHeaders.getFirst("If-None-Match"))) {
+			httpExchange.sendResponseHeaders(304, -1);
+
+			httpExchange.close();
+
+			return;
+		}
+
+		_downloads.incrementAndGet();
+
+		URI requestURI = httpExchange.getRequestURI();
+
+		if (Objects.equals(requestURI.getPath(), "/slow.zip")) {
+			_requestLatch.countDown();
+
+			try {
+				_responseLatch.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ie) {
+			}
+		}
+
+		byte[] bytes = _content.getBytes(StandardCharsets.UTF_8);
+
+		httpExchange.sendResponseHeaders(200, bytes.length);
+
+		try (OutputStream outputStream = httpExchange.getResponseBody()) {
+			outputStream.write(bytes);
+		}
+	}
+
+	private String _read(Path path) throws IOException {
+		return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _cachePath;
+	private volatile String _content = "version 1";
+	private final AtomicInteger _downloads = new AtomicInteger();
+	private HttpServer _httpServer;
+	private volatile CountDownLatch _requestLatch;
+	private final AtomicInteger _requests = new AtomicInteger();
+	private volatile CountDownLatch _responseLatch;
+
+}
@@ -73,6 +73,14 @@ public class BladeTest extends BladeCLI {
 	public void postRunCommand() {
 	}
 
+	@Override
+	public void preRunCommand() {
+
+		// Do not start the background update check, tests must not reach the
+		// update site
+
+	}
+
 	@Override
 	public void run(String[] args) throws Exception {
 		super.run(args);
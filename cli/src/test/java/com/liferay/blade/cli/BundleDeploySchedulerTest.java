@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.osgi.framework.dto.BundleDTO;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class BundleDeploySchedulerTest {
+
+	@Test
+	public void testDeploy() throws Exception {
+		_installedBundleIds.put("api", 10L);
+
+		BundleArtifact api = _newBundleArtifact("api", null, Arrays.asList("com.example.api"), Collections.emptyList());
+		BundleArtifact fragment = _newBundleArtifact(
+			"fragment", "impl", Collections.emptyList(), Collections.emptyList());
+		BundleArtifact impl = _newBundleArtifact(
+			"impl", null, Collections.emptyList(), Arrays.asList("com.example.api"));
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		BundleDeployScheduler bundleDeployScheduler = new BundleDeployScheduler(
+			TestLiferayBundleDeployer::new, 4, new PrintStream(byteArrayOutputStream));
+
+		Map<String, Long> bundleIds = bundleDeployScheduler.deploy(Arrays.asList(fragment, impl, api));
+
+		Assert.assertEquals(Long.valueOf(10), bundleIds.get("api"));
+		Assert.assertEquals(3, bundleIds.size());
+
+		long implId = bundleIds.get("impl");
+
+		Assert.assertEquals(
+			Arrays.asList(
+				"stop [10]", "update 10", "install impl", "install fragment", "refresh [" + implId + "]",
+				"start [10, " + implId + "]"),
+			_operations);
+
+		String output = byteArrayOutputStream.toString();
+
+		Assert.assertTrue(output, output.contains("Updated bundle 10"));
+		Assert.assertTrue(output, output.contains("Installed bundle " + implId));
+	}
+
+	@Test
+	public void testDeployRestartsBundleWhoseUpdateFailed() throws Exception {
+		_installedBundleIds.put("api", 10L);
+		_installedBundleIds.put("broken", 11L);
+
+		BundleArtifact api = _newBundleArtifact("api", null, Collections.emptyList(), Collections.emptyList());
+		BundleArtifact broken = _newBundleArtifact("broken", null, Collections.emptyList(), Collections.emptyList());
+
+		BundleDeployScheduler bundleDeployScheduler = new BundleDeployScheduler(
+			TestLiferayBundleDeployer::new, 1, new PrintStream(new ByteArrayOutputStream()));
+
+		try {
+			bundleDeployScheduler.deploy(Arrays.asList(api, broken));
+
+			Assert.fail("Expected the deploy to fail");
+		}
+		catch (Exception e) {
+			String message = e.getMessage();
+
+			Assert.assertTrue(message, message.startsWith("Unable to deploy broken: "));
+			Assert.assertFalse(message, message.contains("api"));
+		}
+
+		Assert.assertEquals("stop [10, 11]", _operations.get(0));
+		Assert.assertEquals("start [10, 11]", _operations.get(_operations.size() - 1));
+	}
+
+	@Test
+	public void testGetLevels() throws Exception {
+		BundleArtifact api = _newBundleArtifact("api", null, Arrays.asList("com.example.api"), Collections.emptyList());
+		BundleArtifact fragment = _newBundleArtifact(
+			"fragment", "impl", Collections.emptyList(), Collections.emptyList());
+		BundleArtifact impl = _newBundleArtifact(
+			"impl", null, Collections.emptyList(), Arrays.asList("com.example.api", "org.osgi.framework"));
+		BundleArtifact other = _newBundleArtifact("other", null, Collections.emptyList(), Collections.emptyList());
+
+		List<List<BundleArtifact>> levels = BundleDeployScheduler.getLevels(Arrays.asList(fragment, impl, other, api));
+
+		Assert.assertEquals(
+			Arrays.asList(Arrays.asList(other, api), Arrays.asList(impl), Arrays.asList(fragment)), levels);
+	}
+
+	@Test
+	public void testGetLevelsWithCycle() throws Exception {
+		BundleArtifact a = _newBundleArtifact(
+			"a", null, Arrays.asList("com.example.a"), Arrays.asList("com.example.b"));
+		BundleArtifact b = _newBundleArtifact(
+			"b", null, Arrays.asList("com.example.b"), Arrays.asList("com.example.a"));
+		BundleArtifact c = _newBundleArtifact("c", null, Collections.emptyList(), Collections.emptyList());
+
+		List<List<BundleArtifact>> levels = BundleDeployScheduler.getLevels(Arrays.asList(a, b, c));
+
+		Assert.assertEquals(Arrays.asList(Arrays.asList(c), Arrays.asList(a, b)), levels);
+	}
+
+	private BundleArtifact _newBundleArtifact(
+		String bsn, String fragmentHost, Collection<String> exportPackages, Collection<String> importPackages) {
+
+		return new BundleArtifact(
+			new File(bsn + ".jar"), bsn, "1.0.0", fragmentHost, new HashSet<>(exportPackages),
+			new HashSet<>(importPackages));
+	}
+
+	private final Map<String, Long> _installedBundleIds = new ConcurrentHashMap<>();
+	private final AtomicLong _nextBundleId = new AtomicLong(100);
+	private final List<String> _operations = Collections.synchronizedList(new ArrayList<>());
+
+	private class TestLiferayBundleDeployer implements LiferayBundleDeployer {
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public BundleDTO getBundle(long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public long getBundleId(Collection<BundleDTO> bundles, String name) {
+			return _installedBundleIds.getOrDefault(name, -1L);
+		}
+
+		@Override
+		public Collection<BundleDTO> getBundles() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public long install(URI uri) {
+			String path = uri.getPath();
+
+			String bsn = path.substring(path.lastIndexOf('/') + 1, path.length() - 4);
+
+			long id = _nextBundleId.getAndIncrement();
+
+			_installedBundleIds.put(bsn, id);
+
+			_operations.add("install " + bsn);
+
+			return id;
+		}
+
+		@Override
+		public void refresh(Collection<Long> ids) {
+			if (!ids.isEmpty()) {
+				_operations.add("refresh " + ids);
+			}
+		}
+
+		@Override
+		public void refresh(long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void start(Collection<Long> ids) {
+			if (!ids.isEmpty()) {
+				_operations.add("start " + ids);
+			}
+		}
+
+		@Override
+		public void start(long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void stop(Collection<Long> ids) {
+			if (!ids.isEmpty()) {
+				_operations.add("stop " + ids);
+			}
+		}
+
+		@Override
+		public void stop(long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void uninstall(long id) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void update(long id, URI uri) throws Exception {
+			String path = uri.getPath();
+
+			if (path.endsWith("/broken.jar")) {
+				throw new Exception("Unable to update bundle " + id);
+			}
+
+			_operations.add("update " + id);
+		}
+
+	}
+
+}
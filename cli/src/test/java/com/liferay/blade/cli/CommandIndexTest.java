@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.command.BaseCommand;
+import com.liferay.blade.cli.command.CacheCleanArgs;
+import com.liferay.blade.cli.command.CacheCleanCommand;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class CommandIndexTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_rootPath = temporaryFolder.getRoot().toPath();
+
+		_servicePath = _rootPath.resolve(CommandIndex.SERVICE_RESOURCE_NAME);
+
+		Files.createDirectories(_servicePath.getParent());
+
+		ClassLoader classLoader = CommandIndexTest.class.getClassLoader();
+
+		try (InputStream inputStream = classLoader.getResourceAsStream(CommandIndex.SERVICE_RESOURCE_NAME)) {
+			Files.copy(inputStream, _servicePath);
+		}
+
+		_indexPath = _rootPath.resolve(CommandIndex.INDEX_RESOURCE_NAME);
+
+		CommandIndex.main(new String[] {String.valueOf(_servicePath), String.valueOf(_indexPath)});
+	}
+
+	@Test
+	public void testLoadCommandsFromIndex() throws Exception {
+		Properties properties = _readIndex();
+
+		String className = CacheCleanCommand.class.getName();
+
+		Assert.assertEquals(CacheCleanArgs.class.getName(), properties.getProperty(className + ".args"));
+		Assert.assertEquals("cache clean", properties.getProperty(className + ".commandNames"));
+
+		properties.setProperty(className + ".commandNames", "indexed clean");
+
+		try (OutputStream outputStream = Files.newOutputStream(_indexPath)) {
+			properties.store(outputStream, null);
+		}
+
+		Map<String, CommandDescriptor> commandDescriptors = _loadCommandDescriptors();
+
+		Assert.assertEquals(_readServiceClassNames().size(), commandDescriptors.size());
+
+		CommandDescriptor commandDescriptor = commandDescriptors.get(className);
+
+		Assert.assertEquals("indexed clean", commandDescriptor.getName());
+
+		BaseCommand<?> baseCommand = commandDescriptor.getCommand();
+
+		Assert.assertTrue(baseCommand instanceof CacheCleanCommand);
+		Assert.assertTrue(baseCommand.getArgs() instanceof CacheCleanArgs);
+	}
+
+	@Test
+	public void testLoadCommandsMissingFromIndex() throws Exception {
+		Properties properties = _readIndex();
+
+		String className = CacheCleanCommand.class.getName();
+
+		for (String key : properties.stringPropertyNames()) {
+			if (key.startsWith(className + ".")) {
+				properties.remove(key);
+			}
+		}
+
+		try (OutputStream outputStream = Files.newOutputStream(_indexPath)) {
+			properties.store(outputStream, null);
+		}
+
+		Map<String, CommandDescriptor> commandDescriptors = _loadCommandDescriptors();
+
+		CommandDescriptor commandDescriptor = commandDescriptors.get(className);
+
+		Assert.assertEquals("cache clean", commandDescriptor.getName());
+		Assert.assertTrue(commandDescriptor.getCommand() instanceof CacheCleanCommand);
+	}
+
+	private Map<String, CommandDescriptor> _loadCommandDescriptors() throws Exception {
+		Map<String, CommandDescriptor> commandDescriptors = new HashMap<>();
+
+		URL rootUrl = _rootPath.toUri().toURL();
+
+		try (URLClassLoader urlClassLoader = new URLClassLoader(
+				new URL[] {rootUrl}, CommandIndexTest.class.getClassLoader()) {
+
+				@Override
+				public Enumeration<URL> getResources(String name) throws IOException {
+					return findResources(name);
+				}
+
+			}) {
+
+			for (CommandDescriptor commandDescriptor : CommandIndex.load(urlClassLoader)) {
+				commandDescriptors.put(commandDescriptor.toString(), commandDescriptor);
+			}
+		}
+
+		return commandDescriptors;
+	}
+
+	private Properties _readIndex() throws IOException {
+		Properties properties = new Properties();
+
+		try (InputStream inputStream = Files.newInputStream(_indexPath)) {
+			properties.load(inputStream);
+		}
+
+		return properties;
+	}
+
+	private Collection<String> _readServiceClassNames() throws IOException {
+		List<String> lines = Files.readAllLines(_servicePath);
+
+		lines.removeIf(line -> line.trim().isEmpty() || line.startsWith("#"));
+
+		return lines;
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _indexPath;
+	private Path _rootPath;
+	private Path _servicePath;
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class DeployLedgerTest {
+
+	@Before
+	public void setUp() throws Exception {
+		File ledgersDir = temporaryFolder.newFolder("deploy-ledger");
+
+		_ledgerPath = DeployLedger.getLedgerPath(ledgersDir.toPath(), "localhost", 11311);
+
+		_jarFile = temporaryFolder.newFile("foo.jar");
+
+		Files.write(_jarFile.toPath(), "foo".getBytes());
+	}
+
+	@Test
+	public void testChangedContent() throws Exception {
+		DeployLedger deployLedger = new DeployLedger(_ledgerPath);
+
+		deployLedger.record(_newBundleArtifact("1.0.0"), 42);
+
+		Files.write(_jarFile.toPath(), "bar".getBytes());
+
+		Assert.assertFalse(deployLedger.isUnchanged(_newBundleArtifact("1.0.0"), 42));
+	}
+
+	@Test
+	public void testForce() throws Exception {
+		DeployLedger deployLedger = new DeployLedger(_ledgerPath);
+
+		deployLedger.record(_newBundleArtifact("1.0.0"), 42);
+
+		deployLedger.save();
+
+		deployLedger = new DeployLedger(_ledgerPath, true);
+
+		Assert.assertFalse(deployLedger.isUnchanged(_newBundleArtifact("1.0.0"), 42));
+	}
+
+	@Test
+	public void testUnchangedAcrossInstances() throws Exception {
+		DeployLedger deployLedger = new DeployLedger(_ledgerPath);
+
+		Assert.assertFalse(deployLedger.isUnchanged(_newBundleArtifact("1.0.0"), 42));
+
+		deployLedger.record(_newBundleArtifact("1.0.0"), 42);
+
+		deployLedger.save();
+
+		deployLedger = new DeployLedger(_ledgerPath);
+
+		Assert.assertTrue(deployLedger.isUnchanged(_newBundleArtifact("1.0.0"), 42));
+		Assert.assertFalse(deployLedger.isUnchanged(_newBundleArtifact("1.0.1"), 42));
+		Assert.assertFalse(deployLedger.isUnchanged(_newBundleArtifact("1.0.0"), 43));
+	}
+
+	private BundleArtifact _newBundleArtifact(String version) {
+		return new BundleArtifact(_jarFile, "foo", version, null, Collections.emptySet(), Collections.emptySet());
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File _jarFile;
+	private Path _ledgerPath;
+
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import java.util.Collection;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class ExtensionsCacheTest {
+
+	@Before
+	public void setUp() throws Exception {
+		File extensionsDir = temporaryFolder.newFolder(".blade", "extensions");
+
+		_extensionsPath = extensionsDir.toPath();
+
+		_cachePath = _extensionsPath.resolveSibling("cache/extensions");
+	}
+
+	@Test
+	public void testCacheChangedJar() throws Exception {
+		Path jarPath = _extensionsPath.resolve("sample.jar");
+
+		Files.write(jarPath, "foo".getBytes());
+
+		Path cachedJarPath = null;
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			cachedJarPath = extensionsCache.cache(jarPath);
+		}
+
+		Files.write(jarPath, "foobar".getBytes());
+
+		Files.setLastModifiedTime(jarPath, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			Path changedJarPath = extensionsCache.cache(jarPath);
+
+			Assert.assertNotEquals(cachedJarPath, changedJarPath);
+
+			Assert.assertEquals("foobar", new String(Files.readAllBytes(changedJarPath)));
+		}
+	}
+
+	@Test
+	public void testCacheUnchangedJar() throws Exception {
+		Path jarPath = _extensionsPath.resolve("sample.jar");
+
+		Files.write(jarPath, "foo".getBytes());
+
+		Path cachedJarPath = null;
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			cachedJarPath = extensionsCache.cache(jarPath);
+		}
+
+		Assert.assertTrue(cachedJarPath.startsWith(_cachePath));
+
+		Assert.assertEquals("sample.jar", String.valueOf(cachedJarPath.getFileName()));
+
+		FileTime lastModifiedTime = Files.getLastModifiedTime(cachedJarPath);
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			Assert.assertEquals(cachedJarPath, extensionsCache.cache(jarPath));
+		}
+
+		Assert.assertEquals(lastModifiedTime, Files.getLastModifiedTime(cachedJarPath));
+	}
+
+	@Test
+	public void testCacheWithKey() throws Exception {
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			Path cachedJarPath = extensionsCache.cache(
+				"bundled.jar", "key", new ByteArrayInputStream("foo".getBytes()));
+
+			Path keyedJarPath = extensionsCache.cache(
+				"bundled.jar", "key", new ByteArrayInputStream("bar".getBytes()));
+
+			Assert.assertEquals(cachedJarPath, keyedJarPath);
+
+			Assert.assertEquals("foo", new String(Files.readAllBytes(keyedJarPath)));
+		}
+	}
+
+	@Test
+	public void testClean() throws Exception {
+		Path jarPath = _extensionsPath.resolve("sample.jar");
+
+		Files.write(jarPath, "foo".getBytes());
+
+		Path cachedJarPath = null;
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			cachedJarPath = extensionsCache.cache(jarPath);
+		}
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			Collection<Path> remainingPaths = extensionsCache.clean();
+
+			Assert.assertTrue(remainingPaths.toString(), remainingPaths.isEmpty());
+		}
+
+		Assert.assertFalse(Files.exists(cachedJarPath));
+
+		Assert.assertTrue(Files.exists(jarPath));
+	}
+
+	@Test
+	public void testPruneSupersededJar() throws Exception {
+		Path jarPath = _extensionsPath.resolve("sample.jar");
+
+		Files.write(jarPath, "foo".getBytes());
+
+		Path cachedJarPath = null;
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			cachedJarPath = extensionsCache.cache(jarPath);
+		}
+
+		Path hashPath = cachedJarPath.getParent();
+
+		long monthAgo = System.currentTimeMillis() - (30L * 24 * 60 * 60 * 1000);
+
+		Files.setLastModifiedTime(hashPath, FileTime.fromMillis(monthAgo));
+
+		Files.write(jarPath, "foobar".getBytes());
+
+		Files.setLastModifiedTime(jarPath, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+
+		Path changedJarPath = null;
+
+		try (ExtensionsCache extensionsCache = new ExtensionsCache(_cachePath)) {
+			changedJarPath = extensionsCache.cache(jarPath);
+
+			extensionsCache.prune();
+		}
+
+		Assert.assertFalse(Files.exists(hashPath));
+
+		Assert.assertTrue(Files.exists(changedJarPath));
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _cachePath;
+	private Path _extensionsPath;
+
+}
@@ -22,12 +22,20 @@ import com.liferay.blade.cli.util.FileWatcher;
 import java.io.File;
 import java.io.IOException;
 
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -66,6 +74,113 @@ public class FileWatcherTest {
 		Files.createFile(_testsecondfile);
 	}
 
+	@Test
+	public void testFileWatcherChangeSets() throws Exception {
+		FileSystem fileSystem = FileSystems.getDefault();
+
+		PathMatcher ignorePathMatcher = fileSystem.getPathMatcher("glob:" + _testDir.resolve("ignored"));
+
+		Files.createDirectories(_testDir.resolve("ignored"));
+
+		BlockingQueue<SortedMap<Path, FileWatcher.Change>> changeSets = new LinkedBlockingQueue<>();
+
+		try (FileWatcher fileWatcher = new FileWatcher(
+				_testDir, true, Collections.singletonList(ignorePathMatcher))) {
+
+			Thread thread = new Thread(() -> fileWatcher.processChanges(500, changeSets::add));
+
+			thread.setDaemon(true);
+
+			thread.start();
+
+			Path newDir = _testDir.resolve("new");
+
+			Files.createDirectories(newDir.resolve("sub"));
+
+			Path newFile = newDir.resolve("sub/new.txt");
+
+			Files.write(newFile, "new".getBytes());
+
+			Files.write(_testfile, "modified".getBytes());
+			Files.write(_testDir.resolve("ignored/ignored.txt"), "ignored".getBytes());
+
+			Files.delete(_testsecondfile);
+
+			SortedMap<Path, FileWatcher.Change> changes = changeSets.poll(10, TimeUnit.SECONDS);
+
+			Assert.assertNotNull(changes);
+
+			while (changes.size() < 3) {
+				SortedMap<Path, FileWatcher.Change> moreChanges = changeSets.poll(10, TimeUnit.SECONDS);
+
+				Assert.assertNotNull(String.valueOf(changes), moreChanges);
+
+				changes.putAll(moreChanges);
+			}
+
+			Assert.assertEquals(changes.toString(), 3, changes.size());
+			Assert.assertEquals(FileWatcher.Change.CREATED, changes.get(newFile));
+			Assert.assertEquals(FileWatcher.Change.MODIFIED, changes.get(_testfile));
+			Assert.assertEquals(FileWatcher.Change.DELETED, changes.get(_testsecondfile));
+		}
+	}
+
+	@Test
+	public void testFileWatcherCoalescesWhileConsumerIsBusy() throws Exception {
+		BlockingQueue<SortedMap<Path, FileWatcher.Change>> changeSets = new LinkedBlockingQueue<>();
+
+		CountDownLatch consumingLatch = new CountDownLatch(1);
+		CountDownLatch releaseLatch = new CountDownLatch(1);
+
+		try (FileWatcher fileWatcher = new FileWatcher(_testDir, true, Collections.emptyList())) {
+			Thread thread = new Thread(
+				() -> fileWatcher.processChanges(
+					100,
+					changes -> {
+						consumingLatch.countDown();
+
+						try {
+							releaseLatch.await(30, TimeUnit.SECONDS);
+						}
+						catch (InterruptedException ie) {
+						}
+
+						changeSets.add(changes);
+					}));
+
+			thread.setDaemon(true);
+
+			thread.start();
+
+			Files.write(_testfile, "first".getBytes());
+
+			Assert.assertTrue(consumingLatch.await(10, TimeUnit.SECONDS));
+
+			Path firstFile = _testDir.resolve("first.txt");
+
+			Files.write(firstFile, "first".getBytes());
+
+			Thread.sleep(1000);
+
+			Path secondFile = _testDir.resolve("second-new.txt");
+
+			Files.write(secondFile, "second".getBytes());
+
+			Thread.sleep(1000);
+
+			releaseLatch.countDown();
+
+			Assert.assertNotNull(changeSets.poll(10, TimeUnit.SECONDS));
+
+			SortedMap<Path, FileWatcher.Change> changes = changeSets.poll(10, TimeUnit.SECONDS);
+
+			Assert.assertNotNull(changes);
+			Assert.assertEquals(FileWatcher.Change.CREATED, changes.get(firstFile));
+			Assert.assertEquals(FileWatcher.Change.CREATED, changes.get(secondFile));
+			Assert.assertNull(changeSets.poll(1, TimeUnit.SECONDS));
+		}
+	}
+
 	@Ignore
 	@Test
 	public void testFileWatcherMultipleFiles() throws Exception {
@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.jmx.JMXBundleDeployerSession;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+import javax.management.openmbean.TabularType;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.dto.BundleDTO;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class JMXBundleDeployerSessionTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_mBeanServer = MBeanServerFactory.newMBeanServer();
+
+		_bundleState = new TestBundleState();
+
+		_mBeanServer.registerMBean(new TestFramework(), new ObjectName("osgi.core:type=framework,version=1.7"));
+		_mBeanServer.registerMBean(_bundleState, new ObjectName("osgi.core:type=bundleState,version=1.7"));
+	}
+
+	@Test
+	public void testDeployAll() throws Exception {
+		try (JMXBundleDeployerSession jmxBundleDeployerSession = new JMXBundleDeployerSession(_mBeanServer)) {
+			Map<String, String> bundleUrls = new LinkedHashMap<>();
+
+			bundleUrls.put("com.example.api", "file:/api.jar");
+			bundleUrls.put("com.example.impl", "file:/impl.jar");
+
+			Map<String, Long> bundleIds = jmxBundleDeployerSession.deployAll(bundleUrls);
+
+			Assert.assertEquals(Long.valueOf(10), bundleIds.get("com.example.api"));
+			Assert.assertEquals(Long.valueOf(100), bundleIds.get("com.example.impl"));
+
+			jmxBundleDeployerSession.deploy("com.example.impl", "file:/impl.jar");
+
+			Assert.assertEquals(
+				Arrays.asList(
+					"stop 10", "update 10", "install file:/impl.jar", "refresh [10]", "start 10", "start 100",
+					"stop 100", "update 100", "refresh [100]", "start 100"),
+				_operations);
+
+			Assert.assertEquals(1, _bundleState.getListBundlesCount());
+
+			BundleDTO bundleDTO = jmxBundleDeployerSession.getBundle("com.example.impl");
+
+			Assert.assertEquals(Bundle.ACTIVE, bundleDTO.state);
+			Assert.assertEquals("1.0.0", bundleDTO.version);
+		}
+	}
+
+	@Test
+	public void testDeployAllContinuesAfterFailure() throws Exception {
+		try (JMXBundleDeployerSession jmxBundleDeployerSession = new JMXBundleDeployerSession(_mBeanServer)) {
+			Map<String, String> bundleUrls = new LinkedHashMap<>();
+
+			bundleUrls.put("com.example.broken", "file:/broken.jar");
+			bundleUrls.put("com.example.impl", "file:/impl.jar");
+
+			try {
+				jmxBundleDeployerSession.deployAll(bundleUrls);
+
+				Assert.fail();
+			}
+			catch (Exception e) {
+				Assert.assertEquals("Unable to deploy com.example.broken", e.getMessage());
+				Assert.assertEquals(1, e.getSuppressed().length);
+			}
+
+			Assert.assertEquals(
+				Arrays.asList("install file:/broken.jar", "install file:/impl.jar", "start 100", "start 101"),
+				_operations);
+
+			BundleDTO bundleDTO = jmxBundleDeployerSession.getBundle("com.example.impl");
+
+			Assert.assertEquals(Bundle.ACTIVE, bundleDTO.state);
+		}
+	}
+
+	@Test
+	public void testDeployAllContinuesAfterRefreshFailure() throws Exception {
+		try (JMXBundleDeployerSession jmxBundleDeployerSession = new JMXBundleDeployerSession(_mBeanServer)) {
+			Map<String, String> bundleUrls = new LinkedHashMap<>();
+
+			bundleUrls.put("com.example.api", "file:/unrefreshable.jar");
+			bundleUrls.put("com.example.impl", "file:/impl.jar");
+
+			try {
+				jmxBundleDeployerSession.deployAll(bundleUrls);
+
+				Assert.fail();
+			}
+			catch (Exception e) {
+				Assert.assertEquals("Unable to deploy com.example.api", e.getMessage());
+				Assert.assertEquals(1, e.getSuppressed().length);
+			}
+
+			Assert.assertEquals(
+				Arrays.asList(
+					"stop 10", "update 10", "install file:/impl.jar", "refresh [10]", "start 10", "start 100"),
+				_operations);
+		}
+	}
+
+	@Test
+	public void testNotifications() throws Exception {
+		try (JMXBundleDeployerSession jmxBundleDeployerSession = new JMXBundleDeployerSession(_mBeanServer)) {
+			Assert.assertTrue(jmxBundleDeployerSession.isListening());
+
+			_bundleState.sendBundleEvent(20, "com.example.other", BundleEvent.INSTALLED);
+
+			BundleDTO bundleDTO = jmxBundleDeployerSession.getBundle("com.example.other");
+
+			Assert.assertEquals(20, bundleDTO.id);
+			Assert.assertEquals(Bundle.INSTALLED, bundleDTO.state);
+
+			_bundleState.sendBundleEvent(10, "com.example.api", BundleEvent.STOPPED);
+
+			bundleDTO = jmxBundleDeployerSession.getBundle("com.example.api");
+
+			Assert.assertEquals(Bundle.RESOLVED, bundleDTO.state);
+
+			_bundleState.sendBundleEvent(20, "com.example.other", BundleEvent.UNINSTALLED);
+
+			Assert.assertNull(jmxBundleDeployerSession.getBundle("com.example.other"));
+			Assert.assertEquals(1, jmxBundleDeployerSession.getBundles().size());
+		}
+	}
+
+	public interface TestBundleStateMBean {
+
+		public String getVersion(long id);
+
+		public TabularData listBundles(String[] items) throws Exception;
+
+	}
+
+	public interface TestFrameworkMBean {
+
+		public long installBundleFromURL(String location, String url);
+
+		public void refreshBundles(long[] ids);
+
+		public void startBundle(long id);
+
+		public void stopBundle(long id);
+
+		public void updateBundleFromURL(long id, String url);
+
+	}
+
+	private static final String[] _ITEM_NAMES = {"Identifier", "SymbolicName", "State", "Version"};
+
+	private TestBundleState _bundleState;
+	private MBeanServer _mBeanServer;
+	private final List<String> _operations = new ArrayList<>();
+
+	private class TestBundleState extends NotificationBroadcasterSupport implements TestBundleStateMBean {
+
+		public int getListBundlesCount() {
+			return _listBundlesCount;
+		}
+
+		@Override
+		public String getVersion(long id) {
+			return "1.0.0";
+		}
+
+		@Override
+		public TabularData listBundles(String[] items) throws Exception {
+			_listBundlesCount++;
+
+			CompositeType compositeType = new CompositeType(
+				"Bundle", "Bundle", _ITEM_NAMES, _ITEM_NAMES,
+				new OpenType<?>[] {SimpleType.LONG, SimpleType.STRING, SimpleType.STRING, SimpleType.STRING});
+
+			TabularData tabularData = new TabularDataSupport(
+				new TabularType("Bundles", "Bundles", compositeType, new String[] {"Identifier"}));
+
+			tabularData.put(
+				new CompositeDataSupport(
+					compositeType, _ITEM_NAMES, new Object[] {10L, "com.example.api", "ACTIVE", "1.0.0"}));
+
+			return tabularData;
+		}
+
+		public void sendBundleEvent(long id, String bsn, int eventType) throws Exception {
+			String[] itemNames = {"Identifier", "SymbolicName", "EventType"};
+
+			CompositeType compositeType = new CompositeType(
+				"BundleEvent", "BundleEvent", itemNames, itemNames,
+				new OpenType<?>[] {SimpleType.LONG, SimpleType.STRING, SimpleType.INTEGER});
+
+			Notification notification = new Notification("org.osgi.bundle.event", this, _sequenceNumber++);
+
+			notification.setUserData(
+				new CompositeDataSupport(compositeType, itemNames, new Object[] {id, bsn, eventType}));
+
+			sendNotification(notification);
+		}
+
+		private int _listBundlesCount;
+		private long _sequenceNumber;
+
+	}
+
+	private class TestFramework implements TestFrameworkMBean {
+
+		@Override
+		public long installBundleFromURL(String location, String url) {
+			_operations.add("install " + url);
+
+			if (url.contains("broken")) {
+				_brokenId = _nextId;
+			}
+
+			return _nextId++;
+		}
+
+		@Override
+		public void refreshBundles(long[] ids) {
+			_operations.add("refresh " + Arrays.toString(ids));
+
+			for (long id : ids) {
+				if (id == _unrefreshableId) {
+					throw new IllegalStateException("Unable to refresh bundle " + id);
+				}
+			}
+		}
+
+		@Override
+		public void startBundle(long id) {
+			_operations.add("start " + id);
+
+			if (id == _brokenId) {
+				throw new IllegalStateException("Unable to resolve bundle " + id);
+			}
+		}
+
+		@Override
+		public void stopBundle(long id) {
+			_operations.add("stop " + id);
+		}
+
+		@Override
+		public void updateBundleFromURL(long id, String url) {
+			_operations.add("update " + id);
+
+			if (url.contains("unrefreshable")) {
+				_unrefreshableId = id;
+			}
+		}
+
+		private long _brokenId = -1;
+		private long _nextId = 100;
+		private long _unrefreshableId = -1;
+
+	}
+
+}
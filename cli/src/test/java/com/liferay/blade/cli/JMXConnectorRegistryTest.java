@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.jmx.JMXConnectorRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class JMXConnectorRegistryTest {
+
+	@Before
+	public void setUp() throws Exception {
+		RuntimeMXBean runtimeMXBean = ManagementFactory.getRuntimeMXBean();
+
+		String runtimeName = runtimeMXBean.getName();
+
+		_pid = runtimeName.substring(0, runtimeName.indexOf('@'));
+
+		_registryPath = temporaryFolder.getRoot(
+		).toPath(
+		).resolve(
+			"jmx-connectors.properties"
+		);
+	}
+
+	@Test
+	public void testGetRegisteredAddress() throws Exception {
+		JMXConnectorRegistry jmxConnectorRegistry = new JMXConnectorRegistry(_registryPath);
+
+		jmxConnectorRegistry.put(_OBJECT_NAME, _pid, _ADDRESS);
+
+		Assert.assertEquals(_ADDRESS, new JMXConnectorRegistry(_registryPath).get(_OBJECT_NAME));
+
+		jmxConnectorRegistry.remove(_OBJECT_NAME);
+
+		Assert.assertNull(jmxConnectorRegistry.get(_OBJECT_NAME));
+	}
+
+	@Test
+	public void testMalformedEntryIsDropped() throws Exception {
+		String key = _OBJECT_NAME.replace(":", "\\:").replace("=", "\\=");
+
+		Files.write(_registryPath, Arrays.asList(key + "=" + _pid + ",abc," + _ADDRESS), StandardCharsets.ISO_8859_1);
+
+		JMXConnectorRegistry jmxConnectorRegistry = new JMXConnectorRegistry(_registryPath);
+
+		Assert.assertNull(jmxConnectorRegistry.get(_OBJECT_NAME));
+
+		String content = new String(Files.readAllBytes(_registryPath), StandardCharsets.ISO_8859_1);
+
+		Assert.assertFalse(content, content.contains(_ADDRESS));
+	}
+
+	@Test
+	public void testRestartedProcessIsIgnored() throws Exception {
+		long startTime = JMXConnectorRegistry.getStartTime(_pid);
+
+		Assert.assertNotEquals(-1, startTime);
+
+		String key = _OBJECT_NAME.replace(":", "\\:").replace("=", "\\=");
+
+		Files.write(
+			_registryPath, Arrays.asList(key + "=" + _pid + "," + (startTime + 1) + "," + _ADDRESS),
+			StandardCharsets.ISO_8859_1);
+
+		JMXConnectorRegistry jmxConnectorRegistry = new JMXConnectorRegistry(_registryPath);
+
+		Assert.assertNull(jmxConnectorRegistry.get(_OBJECT_NAME));
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private static final String _ADDRESS = "service:jmx:rmi://127.0.0.1/stub/rO0ABX";
+
+	private static final String _OBJECT_NAME = "osgi.core:type=framework,*";
+
+	private String _pid;
+	private Path _registryPath;
+
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.LinkDownloader;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class LinkDownloaderTest {
+
+	@Before
+	public void setUp() throws Exception {
+		new Random(
+			42
+		).nextBytes(
+			_content
+		);
+
+		_httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+
+		_httpServer.createContext("/files/archive.zip", this::_handleFile);
+		_httpServer.createContext(
+			"/latest.zip",
+			httpExchange -> {
+				Headers headers = httpExchange.getResponseHeaders();
+
+				headers.add("Location", "/files/archive.zip");
+
+				httpExchange.sendResponseHeaders(302, -1);
+
+				httpExchange.close();
+			});
+
+		_httpServer.start();
+	}
+
+	@After
+	public void tearDown() {
+		_httpServer.stop(0);
+	}
+
+	@Test
+	public void testChecksumMismatch() throws Exception {
+		Path targetPath = temporaryFolder.getRoot().toPath().resolve("archive.zip");
+
+		LinkDownloader linkDownloader = new LinkDownloader(_getLink("/files/archive.zip"), targetPath);
+
+		linkDownloader.setChecksum("SHA-1", "0000000000000000000000000000000000000000");
+
+		try {
+			linkDownloader.download();
+
+			Assert.fail("Expected a checksum mismatch");
+		}
+		catch (IOException ioe) {
+			Assert.assertTrue(ioe.getMessage(), ioe.getMessage().contains("checksum"));
+		}
+
+		Assert.assertFalse(Files.exists(targetPath));
+		Assert.assertFalse(Files.exists(targetPath.resolveSibling("archive.zip.part")));
+	}
+
+	@Test
+	public void testRedirectIntoDirectory() throws Exception {
+		Path targetPath = new LinkDownloader(
+			_getLink("/latest.zip"), temporaryFolder.getRoot().toPath()
+		).download();
+
+		Assert.assertEquals("archive.zip", String.valueOf(targetPath.getFileName()));
+		Assert.assertArrayEquals(_content, Files.readAllBytes(targetPath));
+	}
+
+	@Test
+	public void testResumePartFile() throws Exception {
+		Path targetPath = temporaryFolder.getRoot().toPath().resolve("archive.zip");
+
+		Files.write(targetPath.resolveSibling("archive.zip.part"), Arrays.copyOf(_content, 1000));
+
+		LinkDownloader linkDownloader = new LinkDownloader(_getLink("/files/archive.zip"), targetPath);
+
+		linkDownloader.setChecksum("SHA-1", _CONTENT_SHA1);
+
+		linkDownloader.download();
+
+		Assert.assertArrayEquals(_content, Files.readAllBytes(targetPath));
+		Assert.assertEquals(Arrays.asList("bytes=1000-"), _ranges);
+		Assert.assertFalse(Files.exists(targetPath.resolveSibling("archive.zip.part")));
+	}
+
+	@Test
+	public void testResumePartFileWithValidator() throws Exception {
+		Path targetPath = temporaryFolder.getRoot().toPath().resolve("archive.zip");
+
+		Files.write(targetPath.resolveSibling("archive.zip.part"), Arrays.copyOf(_content, 1000));
+		Files.write(targetPath.resolveSibling("archive.zip.part.validator"), _E_TAG.getBytes(StandardCharsets.UTF_8));
+
+		new LinkDownloader(
+			_getLink("/files/archive.zip"), targetPath
+		).download();
+
+		Assert.assertArrayEquals(_content, Files.readAllBytes(targetPath));
+		Assert.assertEquals(Arrays.asList("bytes=1000-"), _ranges);
+		Assert.assertEquals(Arrays.asList(_E_TAG), _ifRanges);
+		Assert.assertFalse(Files.exists(targetPath.resolveSibling("archive.zip.part.validator")));
+	}
+
+	@Test
+	public void testResumePartFileWithoutValidator() throws Exception {
+		Path targetPath = temporaryFolder.getRoot().toPath().resolve("archive.zip");
+
+		Files.write(targetPath.resolveSibling("archive.zip.part"), Arrays.copyOf(_content, 1000));
+
+		new LinkDownloader(
+			_getLink("/files/archive.zip"), targetPath
+		).download();
+
+		Assert.assertArrayEquals(_content, Files.readAllBytes(targetPath));
+		Assert.assertTrue(_ranges.toString(), _ranges.isEmpty());
+	}
+
+	@Test
+	public void testResumeStalePartFile() throws Exception {
+		Path targetPath = temporaryFolder.getRoot().toPath().resolve("archive.zip");
+
+		Files.write(targetPath.resolveSibling("archive.zip.part"), new byte[1000]);
+		Files.write(targetPath.resolveSibling("archive.zip.part.validator"), "\"v0\"".getBytes(StandardCharsets.UTF_8));
+
+		new LinkDownloader(
+			_getLink("/files/archive.zip"), targetPath
+		).download();
+
+		Assert.assertArrayEquals(_content, Files.readAllBytes(targetPath));
+		Assert.assertEquals(Arrays.asList("\"v0\""), _ifRanges);
+	}
+
+	@Test
+	public void testSegmentedDownload() throws Exception {
+		Path targetPath = temporaryFolder.getRoot().toPath().resolve("archive.zip");
+
+		LinkDownloader linkDownloader = new LinkDownloader(_getLink("/files/archive.zip"), targetPath);
+
+		linkDownloader.setSegments(4);
+		linkDownloader.setSegmentThreshold(1024);
+
+		linkDownloader.download();
+
+		Assert.assertArrayEquals(_content, Files.readAllBytes(targetPath));
+		Assert.assertEquals(_ranges.toString(), 4, _ranges.size());
+	}
+
+	private String _getLink(String path) {
+		InetSocketAddress inetSocketAddress = _httpServer.getAddress();
+
+		return "http://127.0.0.1:" + inetSocketAddress.getPort() + path;
+	}
+
+	private void _handleFile(HttpExchange httpExchange) throws IOException {
+		Headers requestHeaders = httpExchange.getRequestHeaders();
+		Headers responseHeaders = httpExchange.getResponseHeaders();
+
+		responseHeaders.add("Accept-Ranges", "bytes");
+		responseHeaders.add("ETag", _E_TAG);
+
+		String range = requestHeaders.getFirst("Range");
+
+		String ifRange = requestHeaders.getFirst("If-Range");
+
+		if (ifRange != null) {
+			_ifRanges.add(ifRange);
+
+			if (!ifRange.equals(_E_TAG)) {
+				range = null;
+			}
+		}
+
+		int first = 0;
+		int last = _content.length - 1;
+
+		if (range == null) {
+			httpExchange.sendResponseHeaders(200, _content.length);
+		}
+		else {
+			_ranges.add(range);
+
+			String[] bounds = range.substring(
+				"bytes=".length()
+			).split(
+				"-", -1
+			);
+
+			first = Integer.parseInt(bounds[0]);
+
+			if (!bounds[1].isEmpty()) {
+				last = Integer.parseInt(bounds[1]);
+			}
+
+			responseHeaders.add("Content-Range", "bytes " + first + "-" + last + "/" + _content.length);
+
+			httpExchange.sendResponseHeaders(206, last - first + 1);
+		}
+
+		try (OutputStream outputStream = httpExchange.getResponseBody()) {
+			outputStream.write(_content, first, last - first + 1);
+		}
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private static final String _CONTENT_SHA1 = "79216ceb63c53a5b9e89e57717a6412dfd8a34ee";
+
+	private static final String _E_TAG = "\"v1\"";
+
+	private final byte[] _content = new byte[100000];
+	private HttpServer _httpServer;
+	private final List<String> _ifRanges = new CopyOnWriteArrayList<>();
+	private final List<String> _ranges = new CopyOnWriteArrayList<>();
+
+}
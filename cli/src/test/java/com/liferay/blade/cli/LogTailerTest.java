@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.LogTailer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class LogTailerTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_logPath = temporaryFolder.newFile("catalina.out").toPath();
+	}
+
+	@Test
+	public void testTailFilter() throws Exception {
+		_append(_logPath, "INFO started\nERROR failed\nINFO stopped\n");
+
+		Assert.assertEquals("ERROR failed\n", _tail("ERROR", "ERROR failed\n"));
+	}
+
+	@Test
+	public void testTailLongLine() throws Exception {
+		char[] chars = new char[3 * 1024 * 1024];
+
+		Arrays.fill(chars, 'x');
+
+		_append(_logPath, new String(chars) + "\nshort\n");
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (LogTailer logTailer = _startTailer(byteArrayOutputStream, null)) {
+			_waitFor(byteArrayOutputStream, new String(chars, 0, 1024 * 1024) + "\nshort\n");
+		}
+	}
+
+	@Test
+	public void testTailPartialLine() throws Exception {
+		_append(_logPath, "first\nsec");
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (LogTailer logTailer = _startTailer(byteArrayOutputStream, null)) {
+			_waitFor(byteArrayOutputStream, "first\n");
+
+			_append(_logPath, "ond\n");
+
+			_waitFor(byteArrayOutputStream, "first\nsecond\n");
+		}
+	}
+
+	@Test
+	public void testTailRotatedLog() throws Exception {
+		_append(_logPath, "old\n");
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (LogTailer logTailer = _startTailer(byteArrayOutputStream, null)) {
+			_waitFor(byteArrayOutputStream, "old\n");
+
+			Files.move(_logPath, _logPath.resolveSibling("catalina.out.1"));
+
+			_append(_logPath, "new\n");
+
+			_waitFor(byteArrayOutputStream, "old\nnew\n");
+		}
+	}
+
+	@Test
+	public void testTailTruncatedLog() throws Exception {
+		_append(_logPath, "a long first line\n");
+
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (LogTailer logTailer = _startTailer(byteArrayOutputStream, null)) {
+			_waitFor(byteArrayOutputStream, "a long first line\n");
+
+			Files.write(_logPath, "short\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+
+			_waitFor(byteArrayOutputStream, "a long first line\nshort\n");
+		}
+	}
+
+	private static void _append(Path path, String content) throws Exception {
+		Files.write(
+			path, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND, StandardOpenOption.CREATE);
+	}
+
+	private static String _toString(ByteArrayOutputStream byteArrayOutputStream) {
+		synchronized (byteArrayOutputStream) {
+			String output = new String(byteArrayOutputStream.toByteArray(), StandardCharsets.UTF_8);
+
+			return output.replace(System.lineSeparator(), "\n");
+		}
+	}
+
+	private static void _waitFor(ByteArrayOutputStream byteArrayOutputStream, String expected) throws Exception {
+		long timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+		String output = _toString(byteArrayOutputStream);
+
+		while (!expected.equals(output) && (System.nanoTime() < timeout)) {
+			Thread.sleep(50);
+
+			output = _toString(byteArrayOutputStream);
+		}
+
+		Assert.assertEquals(expected, output);
+	}
+
+	private LogTailer _startTailer(ByteArrayOutputStream byteArrayOutputStream, String filter) {
+		PrintStream printStream = new PrintStream(byteArrayOutputStream, true);
+
+		LogTailer logTailer = new LogTailer(_logPath, printStream, filter, StandardCharsets.UTF_8);
+
+		Thread thread = new Thread(
+			() -> {
+				try {
+					logTailer.tail();
+				}
+				catch (Exception e) {
+					e.printStackTrace();
+				}
+			});
+
+		thread.setDaemon(true);
+
+		thread.start();
+
+		return logTailer;
+	}
+
+	private String _tail(String filter, String expected) throws Exception {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+		try (LogTailer logTailer = _startTailer(byteArrayOutputStream, filter)) {
+			_waitFor(byteArrayOutputStream, expected);
+		}
+
+		return _toString(byteArrayOutputStream);
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _logPath;
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.FileWatcher;
+import com.liferay.blade.cli.util.PollingFileWatcher;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.FileTime;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class PollingFileWatcherTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_testDir = temporaryFolder.newFolder("watch").toPath();
+
+		_modifiedFile = _testDir.resolve("a/modified.txt");
+
+		Files.createDirectories(_modifiedFile.getParent());
+
+		Files.write(_modifiedFile, "foo".getBytes());
+
+		_deletedFile = _testDir.resolve("a/b/deleted.txt");
+
+		Files.createDirectories(_deletedFile.getParent());
+
+		Files.write(_deletedFile, "foo".getBytes());
+
+		Files.createDirectories(_testDir.resolve("node_modules"));
+	}
+
+	@Test
+	public void testChanges() throws Exception {
+		FileSystem fileSystem = FileSystems.getDefault();
+
+		PathMatcher ignorePathMatcher = fileSystem.getPathMatcher("glob:" + _testDir.resolve("node_modules"));
+
+		BlockingQueue<SortedMap<Path, FileWatcher.Change>> changeSets = new LinkedBlockingQueue<>();
+
+		try (PollingFileWatcher pollingFileWatcher = new PollingFileWatcher(
+				_testDir, Collections.singletonList(ignorePathMatcher), 50, 2)) {
+
+			Assert.assertEquals(2, pollingFileWatcher.getFileCount());
+
+			Thread thread = new Thread(() -> pollingFileWatcher.processChanges(100, changeSets::add));
+
+			thread.setDaemon(true);
+
+			thread.start();
+
+			Path createdFile = _testDir.resolve("c/d/created.txt");
+
+			Files.createDirectories(createdFile.getParent());
+
+			Files.write(createdFile, "foo".getBytes());
+
+			Files.write(_modifiedFile, "foobar".getBytes());
+
+			Files.setLastModifiedTime(_modifiedFile, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+
+			Files.delete(_deletedFile);
+			Files.delete(_deletedFile.getParent());
+
+			Files.write(_testDir.resolve("node_modules/ignored.txt"), "foo".getBytes());
+
+			SortedMap<Path, FileWatcher.Change> changes = changeSets.poll(10, TimeUnit.SECONDS);
+
+			Assert.assertNotNull(changes);
+
+			while (changes.size() < 3) {
+				SortedMap<Path, FileWatcher.Change> moreChanges = changeSets.poll(10, TimeUnit.SECONDS);
+
+				Assert.assertNotNull(String.valueOf(changes), moreChanges);
+
+				changes.putAll(moreChanges);
+			}
+
+			Assert.assertEquals(changes.toString(), 3, changes.size());
+			Assert.assertEquals(FileWatcher.Change.CREATED, changes.get(createdFile));
+			Assert.assertEquals(FileWatcher.Change.MODIFIED, changes.get(_modifiedFile));
+			Assert.assertEquals(FileWatcher.Change.DELETED, changes.get(_deletedFile));
+
+			Assert.assertEquals(2, pollingFileWatcher.getFileCount());
+		}
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _deletedFile;
+	private Path _modifiedFile;
+	private Path _testDir;
+
+}
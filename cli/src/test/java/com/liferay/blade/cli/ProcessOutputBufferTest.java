@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import com.liferay.blade.cli.util.ProcessOutputBuffer;
+import com.liferay.blade.cli.util.ProcessPump;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class ProcessOutputBufferTest {
+
+	@Test
+	public void testKeepsMatchedLinesBeyondCapacity() throws Exception {
+		ProcessOutputBuffer processOutputBuffer = new ProcessOutputBuffer(16, line -> line.startsWith("ERROR"));
+
+		_write(processOutputBuffer, "ERROR first\n");
+		_write(processOutputBuffer, "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaa\n");
+		_write(processOutputBuffer, "bbbb\ncccc\n");
+
+		Assert.assertEquals(53, processOutputBuffer.getSize());
+		Assert.assertEquals(Arrays.asList("ERROR first"), processOutputBuffer.getMatchedLines());
+
+		String expected = String.join(System.lineSeparator(), "ERROR first", "[43 bytes omitted]", "bbbb\ncccc\n");
+
+		Assert.assertEquals(expected, processOutputBuffer.get());
+	}
+
+	@Test
+	public void testPump() throws Exception {
+		StringBuilder sb = new StringBuilder();
+
+		for (int i = 0; i < 10000; i++) {
+			sb.append("line ");
+			sb.append(i);
+			sb.append('\n');
+		}
+
+		String content = sb.toString();
+
+		ProcessOutputBuffer processOutputBuffer = new ProcessOutputBuffer(1024, line -> line.equals("line 42"));
+
+		ProcessPump.pump(
+			new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), processOutputBuffer
+		).join();
+
+		Assert.assertEquals(content.length(), processOutputBuffer.getSize());
+		Assert.assertEquals(Arrays.asList("line 42"), processOutputBuffer.getMatchedLines());
+
+		String output = processOutputBuffer.get();
+
+		Assert.assertTrue(output, output.startsWith("line 42" + System.lineSeparator()));
+		Assert.assertTrue(output, output.endsWith("line 9999\n"));
+	}
+
+	@Test
+	public void testPumpReadFailure() throws Exception {
+		ProcessOutputBuffer processOutputBuffer = new ProcessOutputBuffer();
+
+		InputStream inputStream = new InputStream() {
+
+			@Override
+			public int read() throws IOException {
+				throw new IOException("Stream closed");
+			}
+
+		};
+
+		CompletableFuture<Void> pump = ProcessPump.pump(inputStream, processOutputBuffer);
+
+		try {
+			pump.join();
+
+			Assert.fail();
+		}
+		catch (CompletionException ce) {
+			Assert.assertTrue(ce.getCause() instanceof UncheckedIOException);
+		}
+	}
+
+	@Test
+	public void testWithinCapacity() throws Exception {
+		ProcessOutputBuffer processOutputBuffer = new ProcessOutputBuffer();
+
+		_write(processOutputBuffer, "BUILD SUCCESSFUL\n");
+
+		Assert.assertEquals("BUILD SUCCESSFUL\n", processOutputBuffer.get());
+		Assert.assertTrue(processOutputBuffer.getMatchedLines().isEmpty());
+	}
+
+	private static void _write(ProcessOutputBuffer processOutputBuffer, String content) throws Exception {
+		processOutputBuffer.write(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli;
+
+import java.io.File;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class StartupProfilerTest {
+
+	@Test
+	public void testDisabledProfilerPrintsNothing() throws Exception {
+		StartupProfiler startupProfiler = new StartupProfiler(false);
+
+		try (StartupProfiler.Phase phase = startupProfiler.start("commands")) {
+		}
+
+		StringPrintStream stringPrintStream = StringPrintStream.newInstance();
+
+		startupProfiler.print(stringPrintStream);
+
+		Assert.assertEquals("", stringPrintStream.get());
+	}
+
+	@Test
+	public void testNestedPhases() throws Exception {
+		StartupProfiler startupProfiler = new StartupProfiler(true);
+
+		try (StartupProfiler.Phase settingsPhase = startupProfiler.start("settings")) {
+			try (StartupProfiler.Phase workspacePhase = startupProfiler.start("workspace detection")) {
+			}
+		}
+
+		try (StartupProfiler.Phase commandsPhase = startupProfiler.start("commands")) {
+		}
+
+		StringPrintStream stringPrintStream = StringPrintStream.newInstance();
+
+		startupProfiler.print(stringPrintStream);
+
+		String output = stringPrintStream.get();
+
+		List<String> lines = Arrays.asList(output.split(System.lineSeparator()));
+
+		Assert.assertEquals(lines.toString(), 5, lines.size());
+
+		Assert.assertTrue(lines.get(1), lines.get(1).endsWith("  total"));
+		Assert.assertTrue(lines.get(2), lines.get(2).endsWith("    settings"));
+		Assert.assertTrue(lines.get(3), lines.get(3).endsWith("      workspace detection"));
+		Assert.assertTrue(lines.get(4), lines.get(4).endsWith("    commands"));
+	}
+
+	@Test
+	public void testPhasesOnOtherThreads() throws Exception {
+		StartupProfiler startupProfiler = new StartupProfiler(true);
+
+		try (StartupProfiler.Phase settingsPhase = startupProfiler.start("settings")) {
+			Thread thread = new Thread(
+				() -> {
+					try (StartupProfiler.Phase extensionsPhase = startupProfiler.start("extensions")) {
+					}
+				});
+
+			thread.start();
+
+			thread.join();
+
+			try (StartupProfiler.Phase workspacePhase = startupProfiler.start("workspace detection")) {
+			}
+		}
+
+		StringPrintStream stringPrintStream = StringPrintStream.newInstance();
+
+		startupProfiler.print(stringPrintStream);
+
+		String output = stringPrintStream.get();
+
+		List<String> lines = Arrays.asList(output.split(System.lineSeparator()));
+
+		Assert.assertEquals(lines.toString(), 5, lines.size());
+
+		Assert.assertTrue(lines.get(2), lines.get(2).endsWith("    settings"));
+		Assert.assertTrue(lines.get(3), lines.get(3).endsWith("      workspace detection"));
+		Assert.assertTrue(lines.get(4), lines.get(4).endsWith("    extensions"));
+	}
+
+	@Test
+	public void testProfileStartupFlag() throws Exception {
+		File rootDir = temporaryFolder.getRoot();
+
+		File extensionsDir = temporaryFolder.newFolder(".blade", "extensions");
+
+		BladeTestResults bladeTestResults = TestUtil.runBlade(
+			rootDir, extensionsDir, System.in, false, "help", "--profile-startup");
+
+		String errors = bladeTestResults.getErrors();
+
+		Assert.assertTrue(errors, errors.contains("Startup profile"));
+		Assert.assertTrue(errors, errors.contains("extensions class loader"));
+		Assert.assertTrue(errors, errors.contains("jcommander"));
+
+		String output = bladeTestResults.getOutput();
+
+		Assert.assertFalse(output, output.contains("--profile-startup"));
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+}
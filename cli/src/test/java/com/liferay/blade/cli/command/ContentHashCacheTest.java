@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.io.File;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class ContentHashCacheTest {
+
+	@Test
+	public void testChangedContent() throws Exception {
+		Path path = _writeFile("Foo.java", "class Foo {}", 1000);
+
+		ContentHashCache contentHashCache = new ContentHashCache();
+
+		contentHashCache.prime(path);
+
+		_writeFile("Foo.java", "class Foo { }", 2000);
+
+		Assert.assertTrue(contentHashCache.isChanged(path));
+		Assert.assertFalse(contentHashCache.isChanged(path));
+	}
+
+	@Test
+	public void testRemovedFileIsChanged() throws Exception {
+		Path path = _writeFile("Foo.java", "class Foo {}", 1000);
+
+		ContentHashCache contentHashCache = new ContentHashCache();
+
+		contentHashCache.prime(path);
+
+		contentHashCache.remove(path);
+
+		Assert.assertEquals(0, contentHashCache.size());
+		Assert.assertTrue(contentHashCache.isChanged(path));
+	}
+
+	@Test
+	public void testTouchedFileIsUnchanged() throws Exception {
+		Path path = _writeFile("Foo.java", "class Foo {}", 1000);
+
+		ContentHashCache contentHashCache = new ContentHashCache();
+
+		contentHashCache.prime(path);
+
+		_writeFile("Foo.java", "class Foo {}", 2000);
+
+		Assert.assertFalse(contentHashCache.isChanged(path));
+	}
+
+	private Path _writeFile(String fileName, String content, long lastModified) throws Exception {
+		File file = new File(temporaryFolder.getRoot(), fileName);
+
+		Path path = file.toPath();
+
+		Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+
+		Files.setLastModifiedTime(path, FileTime.fromMillis(lastModified));
+
+		return path;
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+}
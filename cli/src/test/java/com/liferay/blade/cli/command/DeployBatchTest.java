@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class DeployBatchTest {
+
+	@Test
+	public void testChangesAreCollapsedPerProject() throws Exception {
+		DeployBatch deployBatch = new DeployBatch(500, _nanoTime::get);
+
+		for (int i = 0; i < 200; i++) {
+			deployBatch.add(":modules:a", DeployBatch.Change.MODIFIED);
+		}
+
+		deployBatch.add(":modules:b", DeployBatch.Change.MODIFIED_FAST);
+		deployBatch.add(":modules:b", DeployBatch.Change.MODIFIED_FAST);
+
+		Assert.assertEquals(202, deployBatch.getChangeCount());
+		Assert.assertEquals(":modules:a:deploy :modules:b:deployFast -a", deployBatch.getTasks());
+
+		deployBatch.add(":modules:b", DeployBatch.Change.DELETED);
+		deployBatch.add(":modules:b", DeployBatch.Change.MODIFIED);
+
+		Assert.assertEquals(":modules:a:deploy :modules:b:clean :modules:b:deploy", deployBatch.getTasks());
+	}
+
+	@Test
+	public void testDelay() throws Exception {
+		DeployBatch deployBatch = new DeployBatch(500, _nanoTime::get);
+
+		Assert.assertEquals(-1, deployBatch.getDelay());
+
+		deployBatch.add(":modules:a", DeployBatch.Change.MODIFIED);
+
+		Assert.assertEquals(500, deployBatch.getDelay());
+
+		_advance(400);
+
+		deployBatch.add(":modules:a", DeployBatch.Change.MODIFIED);
+
+		Assert.assertEquals(500, deployBatch.getDelay());
+
+		for (int i = 0; i < 20; i++) {
+			_advance(400);
+
+			deployBatch.add(":modules:a", DeployBatch.Change.MODIFIED);
+		}
+
+		Assert.assertEquals(0, deployBatch.getDelay());
+
+		deployBatch.reset();
+
+		Assert.assertTrue(deployBatch.isEmpty());
+		Assert.assertEquals(-1, deployBatch.getDelay());
+	}
+
+	@Test
+	public void testUnqualifiedTasks() throws Exception {
+		DeployBatch deployBatch = new DeployBatch(500, _nanoTime::get);
+
+		deployBatch.add("", DeployBatch.Change.CREATED);
+		deployBatch.add(":modules:a", DeployBatch.Change.MODIFIED_FAST);
+
+		Assert.assertEquals("deploy :modules:a:deployFast", deployBatch.getTasks());
+	}
+
+	private void _advance(long millis) {
+		_nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+	}
+
+	private final AtomicLong _nanoTime = new AtomicLong();
+
+}
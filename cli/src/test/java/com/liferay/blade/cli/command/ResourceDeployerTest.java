@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class ResourceDeployerTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_liferayHomePath = temporaryFolder.newFolder("bundles").toPath();
+		_projectPath = temporaryFolder.newFolder("foo-web").toPath();
+
+		Files.write(
+			_projectPath.resolve("bnd.bnd"),
+			Arrays.asList("Bundle-Name: Foo Web", "Bundle-SymbolicName: com.foo.web", "Bundle-Version: 1.0.0"),
+			StandardCharsets.UTF_8);
+
+		_workPath = _liferayHomePath.resolve("work/com.foo.web-1.0.0");
+
+		Files.createDirectories(_workPath);
+	}
+
+	@Test
+	public void testDeployCompiledResource() throws Exception {
+		Path scssPath = _writeResource("META-INF/resources/css/main.scss", "a { color: red; }");
+
+		ResourceDeployer resourceDeployer = new ResourceDeployer(_liferayHomePath);
+
+		Assert.assertFalse(resourceDeployer.deploy(_projectPath, scssPath));
+	}
+
+	@Test
+	public void testDeployResource() throws Exception {
+		Path jspPath = _writeResource("META-INF/resources/view.jsp", "<p>Hello</p>");
+
+		ResourceDeployer resourceDeployer = new ResourceDeployer(_liferayHomePath);
+
+		Assert.assertTrue(resourceDeployer.deploy(_projectPath, jspPath));
+
+		Path deployedPath = _workPath.resolve("META-INF/resources/view.jsp");
+
+		Assert.assertEquals(
+			"<p>Hello</p>", new String(Files.readAllBytes(deployedPath), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testDeployResourceAfterVersionChange() throws Exception {
+		Path jspPath = _writeResource("META-INF/resources/view.jsp", "<p>Hello</p>");
+
+		ResourceDeployer resourceDeployer = new ResourceDeployer(_liferayHomePath);
+
+		Assert.assertTrue(resourceDeployer.deploy(_projectPath, jspPath));
+
+		Files.write(
+			_projectPath.resolve("bnd.bnd"),
+			Arrays.asList("Bundle-Name: Foo Web", "Bundle-SymbolicName: com.foo.web", "Bundle-Version: 1.0.1"),
+			StandardCharsets.UTF_8);
+
+		Path workPath = _liferayHomePath.resolve("work/com.foo.web-1.0.1");
+
+		Files.createDirectories(workPath);
+
+		_writeResource("META-INF/resources/view.jsp", "<p>Hello again</p>");
+
+		Assert.assertTrue(resourceDeployer.deploy(_projectPath, jspPath));
+
+		Path deployedPath = workPath.resolve("META-INF/resources/view.jsp");
+
+		Assert.assertEquals(
+			"<p>Hello again</p>", new String(Files.readAllBytes(deployedPath), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testDeployUnextractedBundle() throws Exception {
+		Files.delete(_workPath);
+
+		Path jspPath = _writeResource("META-INF/resources/view.jsp", "<p>Hello</p>");
+
+		ResourceDeployer resourceDeployer = new ResourceDeployer(_liferayHomePath);
+
+		Assert.assertFalse(resourceDeployer.deploy(_projectPath, jspPath));
+	}
+
+	private Path _writeResource(String relativePath, String content) throws Exception {
+		Path resourcesPath = _projectPath.resolve("src/main/resources");
+
+		Path resourcePath = resourcesPath.resolve(relativePath);
+
+		Files.createDirectories(resourcePath.getParent());
+
+		Files.write(resourcePath, content.getBytes(StandardCharsets.UTF_8));
+
+		return resourcePath;
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _liferayHomePath;
+	private Path _projectPath;
+	private Path _workPath;
+
+}
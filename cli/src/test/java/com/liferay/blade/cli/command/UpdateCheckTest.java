@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.command;
+
+import com.liferay.blade.cli.BladeTest;
+import com.liferay.blade.cli.StringPrintStream;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.net.InetSocketAddress;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class UpdateCheckTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+
+		_httpServer.createContext("/releases/maven-metadata.xml", this::_handle);
+
+		_httpServer.start();
+
+		InetSocketAddress inetSocketAddress = _httpServer.getAddress();
+
+		_releaseUrl = "http://localhost:" + inetSocketAddress.getPort() + "/releases/";
+
+		Path rootPath = temporaryFolder.getRoot().toPath();
+
+		_updateCheckPath = rootPath.resolve(".blade/update-check");
+	}
+
+	@After
+	public void tearDown() {
+		_httpServer.stop(0);
+	}
+
+	@Test
+	public void testCachedResultIsRevalidated() throws Exception {
+		_runUpdateCheck();
+
+		Properties properties = _loadProperties();
+
+		properties.setProperty("lastUpdateCheck", "0");
+		properties.setProperty("lastUpdateNotice", "0");
+
+		_storeProperties(properties);
+
+		String output = _runUpdateCheck();
+
+		Assert.assertTrue(output, output.contains("Update available 3.9.0 -> 3.10.0"));
+
+		Assert.assertEquals(2, _requests.get());
+		Assert.assertEquals(1, _notModifiedResponses.get());
+	}
+
+	@Test
+	public void testNoticeIsPrintedOncePerDay() throws Exception {
+		String output = _runUpdateCheck();
+
+		Assert.assertTrue(output, output.contains("Update available 3.9.0 -> 3.10.0"));
+
+		output = _runUpdateCheck();
+
+		Assert.assertEquals("", output);
+
+		Assert.assertEquals(1, _requests.get());
+	}
+
+	@Test
+	public void testUnreachableServerDoesNotFail() throws Exception {
+		_httpServer.stop(0);
+
+		String output = _runUpdateCheck();
+
+		Assert.assertEquals("", output);
+
+		Assert.assertTrue(Files.notExists(_updateCheckPath));
+	}
+
+	@Test
+	public void testUnreachableServerIsRetried() throws Exception {
+		_runUpdateCheck();
+
+		Properties properties = _loadProperties();
+
+		properties.setProperty("lastUpdateCheck", "0");
+
+		_storeProperties(properties);
+
+		_httpServer.stop(0);
+
+		_runUpdateCheck();
+
+		properties = _loadProperties();
+
+		Assert.assertEquals("0", properties.getProperty("lastUpdateCheck"));
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private void _handle(HttpExchange httpExchange) {
+		try {
+			_requests.incrementAndGet();
+
+			Headers requestHeaders = httpExchange.getRequestHeaders();
+
+			Headers responseHeaders = httpExchange.getResponseHeaders();
+
+			responseHeaders.add("ETag", _ETAG);
+
+			if (Objects.equals(_ETAG, requestHeaders.getFirst("If-None-Match"))) {
+				_notModifiedResponses.incrementAndGet();
+
+				httpExchange.sendResponseHeaders(304, -1);
+
+				return;
+			}
+
+			byte[] bytes = _METADATA.getBytes();
+
+			httpExchange.sendResponseHeaders(200, bytes.length);
+
+			try (OutputStream outputStream = httpExchange.getResponseBody()) {
+				outputStream.write(bytes);
+			}
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		finally {
+			httpExchange.close();
+		}
+	}
+
+	private Properties _loadProperties() throws Exception {
+		Properties properties = new Properties();
+
+		try (InputStream inputStream = Files.newInputStream(_updateCheckPath)) {
+			properties.load(inputStream);
+		}
+
+		return properties;
+	}
+
+	private String _runUpdateCheck() throws Exception {
+		StringPrintStream stringPrintStream = StringPrintStream.newInstance();
+
+		BladeTest.BladeTestBuilder bladeTestBuilder = BladeTest.builder();
+
+		bladeTestBuilder.setStdOut(stringPrintStream);
+
+		UpdateCheck updateCheck = new UpdateCheck(_updateCheckPath, "3.9.0", _releaseUrl, _releaseUrl);
+
+		updateCheck.start();
+
+		updateCheck.printUpdateIfAvailable(bladeTestBuilder.build());
+
+		String output = stringPrintStream.get();
+
+		return output.trim();
+	}
+
+	private void _storeProperties(Properties properties) throws Exception {
+		try (OutputStream outputStream = Files.newOutputStream(_updateCheckPath)) {
+			properties.store(outputStream, null);
+		}
+	}
+
+	private static final String _ETAG = "\"1234\"";
+
+	private static final String _METADATA =
+		"<metadata><versioning><versions><version>3.8.0</version><version>3.10.0</version></versions>" +
+			"</versioning></metadata>";
+
+	private HttpServer _httpServer;
+	private final AtomicInteger _notModifiedResponses = new AtomicInteger();
+	private String _releaseUrl;
+	private final AtomicInteger _requests = new AtomicInteger();
+	private Path _updateCheckPath;
+
+}
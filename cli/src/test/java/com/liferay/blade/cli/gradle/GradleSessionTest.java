@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import com.liferay.blade.cli.BladeCLI;
+import com.liferay.blade.cli.BladeTest;
+import com.liferay.blade.cli.StringPrintStream;
+
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class GradleSessionTest {
+
+	@Before
+	public void setUp() throws Exception {
+		File rootDir = temporaryFolder.getRoot();
+
+		_rootPath = rootDir.toPath();
+
+		File extensionsDir = temporaryFolder.newFolder(".blade", "extensions");
+
+		_extensionsPath = extensionsDir.toPath();
+
+		String[] args = {"--base", _rootPath.toString(), "create", "-t", "api", "foo"};
+
+		_getBladeTest().run(args);
+
+		_projectPath = _rootPath.resolve("foo");
+
+		Files.write(
+			_projectPath.resolve("build.gradle"), _PRINT_DAEMON_TASK.getBytes(), StandardOpenOption.APPEND);
+	}
+
+	@Test
+	public void testBuildsReuseSession() throws Exception {
+		try (GradleSession gradleSession = new GradleSession(_getBladeTest(), _projectPath.toFile())) {
+			ProcessResult processResult = gradleSession.executeTask("printDaemon");
+
+			String daemon = _getDaemon(processResult);
+
+			processResult = gradleSession.executeTask("printDaemon");
+
+			Assert.assertEquals(daemon, _getDaemon(processResult));
+
+			gradleSession.getProjectInfo();
+
+			processResult = gradleSession.executeTask("printDaemon");
+
+			Assert.assertEquals(daemon, _getDaemon(processResult));
+		}
+	}
+
+	@Test
+	public void testCancelContinuousBuild() throws Exception {
+		try (GradleSession gradleSession = new GradleSession(_getBladeTest(), _projectPath.toFile())) {
+			CompletableFuture<ProcessResult> continuousBuild = gradleSession.submitTask("printDaemon -t", false);
+
+			gradleSession.cancel();
+
+			try {
+				continuousBuild.get(2, TimeUnit.MINUTES);
+
+				Assert.fail("Expected the continuous build to be cancelled");
+			}
+			catch (CancellationException ce) {
+			}
+
+			ProcessResult processResult = gradleSession.executeTask("printDaemon");
+
+			Assert.assertNotNull(_getDaemon(processResult));
+		}
+	}
+
+	@Test
+	public void testFailedBuildKeepsSession() throws Exception {
+		try (GradleSession gradleSession = new GradleSession(_getBladeTest(), _projectPath.toFile())) {
+			ProcessResult processResult = gradleSession.executeTask("printDaemon");
+
+			String daemon = _getDaemon(processResult);
+
+			try {
+				gradleSession.executeTask("missingTask");
+
+				Assert.fail("Expected the build to fail");
+			}
+			catch (GradleExecutionException gee) {
+			}
+
+			processResult = gradleSession.executeTask("printDaemon");
+
+			Assert.assertEquals(daemon, _getDaemon(processResult));
+		}
+	}
+
+	@Test
+	public void testSessionReopensAfterClose() throws Exception {
+		GradleSession gradleSession = new GradleSession(_getBladeTest(), _projectPath.toFile());
+
+		gradleSession.executeTask("printDaemon");
+
+		gradleSession.close();
+
+		try {
+			ProcessResult processResult = gradleSession.executeTask("printDaemon");
+
+			Assert.assertNotNull(_getDaemon(processResult));
+		}
+		finally {
+			gradleSession.close();
+		}
+	}
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private BladeCLI _getBladeTest() {
+		BladeTest.BladeTestBuilder bladeTestBuilder = BladeTest.builder();
+
+		bladeTestBuilder.setExtensionsDir(_extensionsPath);
+		bladeTestBuilder.setSettingsDir(_rootPath);
+		bladeTestBuilder.setStdOut(StringPrintStream.newInstance());
+
+		return bladeTestBuilder.build();
+	}
+
+	private String _getDaemon(ProcessResult processResult) {
+		String output = processResult.getOutput();
+
+		Matcher matcher = _daemonPattern.matcher(output);
+
+		Assert.assertTrue(output, matcher.find());
+
+		return matcher.group(1);
+	}
+
+	private static final String _PRINT_DAEMON_TASK =
+		"\ntask printDaemon {\n\tdoLast {\n\t\tprintln \"daemon=\" + " +
+			"java.lang.management.ManagementFactory.runtimeMXBean.name\n\t}\n}\n";
+
+	private static final Pattern _daemonPattern = Pattern.compile("daemon=(\\S+)");
+
+	private Path _extensionsPath;
+	private Path _projectPath;
+	private Path _rootPath;
+
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.blade.cli.gradle;
+
+import com.liferay.blade.gradle.tooling.DefaultModel;
+import com.liferay.blade.gradle.tooling.ProjectInfo;
+
+import java.io.File;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class ProjectInfoCacheTest {
+
+	@Before
+	public void setUp() throws Exception {
+		File workspaceDir = temporaryFolder.newFolder("workspace");
+
+		Path workspacePath = workspaceDir.toPath();
+
+		Files.write(workspacePath.resolve("settings.gradle"), "apply plugin: \"foo\"".getBytes());
+
+		_workspacePath = workspacePath;
+
+		_projectPath = workspacePath.resolve("modules/foo");
+
+		Files.createDirectories(_projectPath);
+
+		Files.write(_projectPath.resolve("build.gradle"), "dependencies {}".getBytes());
+
+		File cacheDir = temporaryFolder.newFolder("cache");
+
+		_projectInfoCache = new ProjectInfoCache(cacheDir.toPath(), "tooling");
+	}
+
+	@Test
+	public void testBuildFileChangeInvalidatesCache() throws Exception {
+		_projectInfoCache.load(_projectPath, _loader);
+
+		Files.write(_projectPath.resolve("build.gradle"), "dependencies { compile \"foo\" }".getBytes());
+
+		_projectInfoCache.load(_projectPath, _loader);
+
+		Assert.assertEquals(2, _loadCount.get());
+	}
+
+	@Test
+	public void testBuildOutputChangeKeepsCache() throws Exception {
+		_projectInfoCache.load(_projectPath, _loader);
+
+		Path buildPath = _projectPath.resolve("build");
+
+		Files.createDirectories(buildPath);
+
+		Files.write(buildPath.resolve("build.gradle"), "generated".getBytes());
+
+		_projectInfoCache.load(_projectPath, _loader);
+
+		Assert.assertEquals(1, _loadCount.get());
+	}
+
+	@Test
+	public void testKotlinBuildFileChangeInvalidatesCache() throws Exception {
+		Files.write(_projectPath.resolve("build.gradle.kts"), "dependencies {}".getBytes());
+
+		_projectInfoCache.load(_projectPath, _loader);
+
+		Files.write(_projectPath.resolve("build.gradle.kts"), "dependencies { compile(\"foo\") }".getBytes());
+
+		_projectInfoCache.load(_projectPath, _loader);
+
+		Assert.assertEquals(2, _loadCount.get());
+	}
+
+	@Test
+	public void testLoadFromCache() throws Exception {
+		ProjectInfo projectInfo = _projectInfoCache.load(_projectPath, _loader);
+
+		Assert.assertEquals("deploy", projectInfo.getDeployDir());
+
+		projectInfo = _projectInfoCache.load(_projectPath, _loader);
+
+		Assert.assertEquals("deploy", projectInfo.getDeployDir());
+		Assert.assertTrue(projectInfo.isLiferayProject());
+		Assert.assertEquals(1, _loadCount.get());
+	}
+
+	@Test
+	public void testWrapperChangeInvalidatesCache() throws Exception {
+		Path wrapperPath = _workspacePath.resolve("gradle/wrapper");
+
+		Files.createDirectories(wrapperPath);
+
+		Path propertiesPath = wrapperPath.resolve("gradle-wrapper.properties");
+
+		Files.write(propertiesPath, "distributionUrl=gradle-5.6.4-bin.zip".getBytes());
+
+		_projectInfoCache.load(_projectPath, _loader);
+
+		Files.write(propertiesPath, "distributionUrl=gradle-6.0-bin.zip".getBytes());
+
+		_projectInfoCache.load(_projectPath, _loader);
+
+		Assert.assertEquals(2, _loadCount.get());
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final AtomicInteger _loadCount = new AtomicInteger();
+	private final Callable<ProjectInfo> _loader = () -> {
+		_loadCount.incrementAndGet();
+
+		return new DefaultModel(
+			Collections.singleton("com.liferay.gradle.plugins.LiferayOSGiPlugin"), Collections.emptyMap(), "deploy",
+			"bundles", null, null, null);
+	};
+	private ProjectInfoCache _projectInfoCache;
+	private Path _projectPath;
+	private Path _workspacePath;
+
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class BundleScannerTest {
+
+	@Before
+	public void setUp() throws Exception {
+		_bundlePath = temporaryFolder.newFolder("bundle").toPath();
+		_cachePath = temporaryFolder.newFolder("cache").toPath();
+
+		_jarPath = _bundlePath.resolve("osgi/modules/com.liferay.foo.web.jar");
+
+		Files.createDirectories(_jarPath.getParent());
+
+		_writeJar(_jarPath, "foo.enabled=true");
+	}
+
+	@Test
+	public void testChangedArchiveIsRescanned() throws Exception {
+		new BundleScanner(
+			_bundlePath, _cachePath
+		).scan();
+
+		_writeJar(_jarPath, "bar.enabled=true");
+
+		Files.setLastModifiedTime(_jarPath, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+
+		BundleScanner bundleScanner = new BundleScanner(_bundlePath, _cachePath);
+
+		bundleScanner.scan();
+
+		Assert.assertArrayEquals(new String[] {"bar.enabled"}, _getPropertyKeys(bundleScanner));
+	}
+
+	@Test
+	public void testUnchangedArchiveIsReadFromIndex() throws Exception {
+		new BundleScanner(
+			_bundlePath, _cachePath
+		).scan();
+
+		FileTime lastModifiedTime = Files.getLastModifiedTime(_jarPath);
+
+		_writeJar(_jarPath, "bar.enabled=true");
+
+		Files.setLastModifiedTime(_jarPath, lastModifiedTime);
+
+		BundleScanner bundleScanner = new BundleScanner(_bundlePath, _cachePath);
+
+		bundleScanner.scan();
+
+		Assert.assertArrayEquals(new String[] {"foo.enabled"}, _getPropertyKeys(bundleScanner));
+	}
+
+	@Test
+	public void testWithoutCache() throws Exception {
+		BundleScanner bundleScanner = new BundleScanner(_bundlePath);
+
+		bundleScanner.scan();
+
+		Assert.assertArrayEquals(new String[] {"foo.enabled"}, _getPropertyKeys(bundleScanner));
+
+		String[] cacheFileNames = _cachePath.toFile().list();
+
+		Assert.assertEquals(0, cacheFileNames.length);
+	}
+
+	private String[] _getPropertyKeys(BundleScanner bundleScanner) {
+		List<Pair<String, String[]>> portletsProperties = bundleScanner.getPortletsProperties();
+
+		Assert.assertEquals(portletsProperties.toString(), 1, portletsProperties.size());
+
+		Pair<String, String[]> portletProperties = portletsProperties.get(0);
+
+		Assert.assertTrue(portletProperties.first(), portletProperties.first().endsWith("portlet.properties"));
+
+		String[] propertyKeys = portletProperties.second();
+
+		Arrays.sort(propertyKeys);
+
+		return propertyKeys;
+	}
+
+	private void _writeJar(Path jarPath, String content) throws Exception {
+		try (OutputStream outputStream = Files.newOutputStream(jarPath);
+			JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+
+			jarOutputStream.putNextEntry(new ZipEntry("portlet.properties"));
+
+			jarOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+
+			jarOutputStream.closeEntry();
+		}
+	}
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private Path _bundlePath;
+	private Path _cachePath;
+	private Path _jarPath;
+
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class PropertyIndexTest {
+
+	@Test
+	public void testGetCandidates() throws Exception {
+		PropertyIndex propertyIndex = new PropertyIndex(_properties);
+
+		int[] candidates = propertyIndex.getCandidates(_getWords("entry", "file"));
+
+		Assert.assertArrayEquals(new int[] {0, 1, 2}, candidates);
+
+		Assert.assertEquals("com.liferay.foo.Configuration", propertyIndex.getPath(2));
+		Assert.assertEquals("fileEntryTypes", propertyIndex.getProperty(2));
+
+		candidates = propertyIndex.getCandidates(_getWords("unknown"));
+
+		Assert.assertEquals(0, candidates.length);
+	}
+
+	@Test
+	public void testGetOccurrences() throws Exception {
+		PropertyIndex propertyIndex = new PropertyIndex(_properties);
+
+		Set<String> words = _getWords("file", "entry", "types");
+
+		Assert.assertEquals(2, propertyIndex.getOccurrences(0, words));
+		Assert.assertEquals(2, propertyIndex.getOccurrences(1, words));
+		Assert.assertEquals(3, propertyIndex.getOccurrences(2, words));
+	}
+
+	private Set<String> _getWords(String... words) {
+		return new HashSet<>(Arrays.asList(words));
+	}
+
+	private final List<Pair<String, String[]>> _properties = Arrays.asList(
+		new Pair<>("/osgi/modules/foo.jar/portlet.properties", new String[] {"file.entry", "entry.entry.size"}),
+		new Pair<>("com.liferay.foo.Configuration", new String[] {"fileEntryTypes", "enabled"}));
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2000-present Liferay, Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.liferay.properties.locator;
+
+import com.liferay.blade.cli.util.Pair;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Christopher Bryan Boyd
+ */
+public class PropertyProblemWriterTest {
+
+	@Test
+	public void testEmptyJsonArray() throws Exception {
+		StringWriter stringWriter = new StringWriter();
+
+		PropertyProblemWriter propertyProblemWriter = new PropertyProblemWriter(
+			new PrintWriter(stringWriter), ReportFormat.JSON);
+
+		propertyProblemWriter.close();
+
+		Assert.assertEquals("[]", _normalize(stringWriter));
+	}
+
+	@Test
+	public void testJsonArray() throws Exception {
+		StringWriter stringWriter = new StringWriter();
+
+		PropertyProblemWriter propertyProblemWriter = new PropertyProblemWriter(
+			new PrintWriter(stringWriter), ReportFormat.JSON);
+
+		propertyProblemWriter.write(new PropertyProblem("foo"));
+		propertyProblemWriter.write(
+			new PropertyProblem(
+				"bar", PropertyProblemType.OSGI, "Moved \"bar\"",
+				Collections.singletonList(new Pair<>("com.liferay.Bar", "barEnabled"))));
+
+		propertyProblemWriter.close();
+
+		Assert.assertEquals(
+			"[\n{\"type\":\"MISSING\",\"property\":\"foo\",\"replacements\":[]},\n{\"type\":\"OSGI\",\"property\":" +
+				"\"bar\",\"message\":\"Moved \\\"bar\\\"\",\"replacements\":[{\"property\":\"barEnabled\"," +
+					"\"source\":\"com.liferay.Bar\"}]}\n]",
+			_normalize(stringWriter));
+	}
+
+	@Test
+	public void testNdjson() throws Exception {
+		StringWriter stringWriter = new StringWriter();
+
+		PropertyProblemWriter propertyProblemWriter = new PropertyProblemWriter(
+			new PrintWriter(stringWriter), ReportFormat.NDJSON);
+
+		propertyProblemWriter.write(new PropertyProblem("foo"));
+
+		Assert.assertEquals(
+			"{\"type\":\"MISSING\",\"property\":\"foo\",\"replacements\":[]}", _normalize(stringWriter));
+
+		propertyProblemWriter.write(new PropertyProblem("bar"));
+
+		propertyProblemWriter.close();
+
+		String[] lines = _normalize(
+			stringWriter
+		).split(
+			"\n"
+		);
+
+		Assert.assertEquals(2, lines.length);
+	}
+
+	private String _normalize(StringWriter stringWriter) {
+		String output = stringWriter.toString();
+
+		output = output.replace(System.lineSeparator(), "\n");
+
+		return output.trim();
+	}
+
+}
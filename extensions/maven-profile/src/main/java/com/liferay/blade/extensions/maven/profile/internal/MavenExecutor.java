@@ -16,14 +16,16 @@
 
 package com.liferay.blade.extensions.maven.profile.internal;
 
-import java.io.BufferedReader;
+import com.liferay.blade.cli.util.ProcessOutputBuffer;
+import com.liferay.blade.cli.util.ProcessPump;
+
 import java.io.File;
-import java.io.InputStreamReader;
+import java.io.OutputStream;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 /**
  * @author Gregory Amerson
@@ -60,8 +62,6 @@ public interface MavenExecutor {
 			windows = true;
 		}
 
-		AtomicBoolean buildSuccess = new AtomicBoolean(false);
-
 		int exitValue = 1;
 
 		StringBuilder stringBuilder = new StringBuilder();
@@ -70,7 +70,9 @@ public interface MavenExecutor {
 			stringBuilder.append(arg + " ");
 		}
 
-		StringBuilder output = new StringBuilder();
+		ProcessOutputBuffer outputBuffer = new ProcessOutputBuffer(
+			line -> line.contains("BUILD SUCCESS") || line.contains("ERROR"));
+		ProcessOutputBuffer errorBuffer = new ProcessOutputBuffer();
 
 		String command = null;
 
@@ -81,63 +83,27 @@ public interface MavenExecutor {
 
 			Process process = runtime.exec(command, null, new File(projectPath));
 
-			try (BufferedReader processOutput = new BufferedReader(new InputStreamReader(process.getInputStream()));
-				BufferedReader processError = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-
-				CountDownLatch latch = new CountDownLatch(2);
-
-				CompletableFuture.runAsync(
-					() -> {
-						String line = null;
-
-						try {
-							while ((line = processOutput.readLine()) != null) {
-								output.append(line);
-								output.append(System.lineSeparator());
-
-								if (line.contains("BUILD SUCCESS")) {
-									buildSuccess.set(true);
-								}
-
-								if (printOutput) {
-									System.out.println(line);
-								}
-							}
-						}
-						catch (Exception e) {
-							e.printStackTrace(System.err);
-						}
-						finally {
-							latch.countDown();
-						}
-					});
-
-				CompletableFuture.runAsync(
-					() -> {
-						String line = null;
-
-						try {
-							while ((line = processError.readLine()) != null) {
-								output.append(line);
-								output.append(System.lineSeparator());
-
-								if (printOutput) {
-									System.err.println(line);
-								}
-							}
-						}
-						catch (Exception e) {
-							e.printStackTrace(System.err);
-						}
-						finally {
-							latch.countDown();
-						}
-					});
-
-				latch.await();
-
-				exitValue = process.waitFor();
+			OutputStream outputStream = process.getOutputStream();
+
+			outputStream.close();
+
+			CompletableFuture<Void> outputPump;
+			CompletableFuture<Void> errorPump;
+
+			if (printOutput) {
+				outputPump = ProcessPump.pump(process.getInputStream(), outputBuffer, System.out);
+				errorPump = ProcessPump.pump(process.getErrorStream(), errorBuffer, System.err);
+			}
+			else {
+				outputPump = ProcessPump.pump(process.getInputStream(), outputBuffer);
+				errorPump = ProcessPump.pump(process.getErrorStream(), errorBuffer);
 			}
+
+			exitValue = process.waitFor();
+
+			CompletableFuture.allOf(
+				outputPump, errorPump
+			).join();
 		}
 		catch (Exception e) {
 			StringBuilder sb = new StringBuilder();
@@ -149,6 +115,8 @@ public interface MavenExecutor {
 			throw new RuntimeException(sb.toString(), e);
 		}
 
+		String output = outputBuffer.get() + errorBuffer.get();
+
 		boolean exitValueCorrect = false;
 
 		if (exitValue == 0) {
@@ -156,11 +124,15 @@ public interface MavenExecutor {
 		}
 
 		if (!exitValueCorrect) {
-			throw new RuntimeException("Maven exec failed.\n " + output.toString());
+			throw new RuntimeException("Maven exec failed.\n " + output);
 		}
 
-		if (!buildSuccess.get()) {
-			throw new RuntimeException("Maven exec failed.\n " + output.toString());
+		List<String> matchedLines = outputBuffer.getMatchedLines();
+
+		Stream<String> stream = matchedLines.stream();
+
+		if (stream.noneMatch(line -> line.contains("BUILD SUCCESS"))) {
+			throw new RuntimeException("Maven exec failed.\n " + output);
 		}
 	}
 
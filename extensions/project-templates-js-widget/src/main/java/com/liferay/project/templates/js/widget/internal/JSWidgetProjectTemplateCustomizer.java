@@ -51,7 +51,10 @@ public class JSWidgetProjectTemplateCustomizer implements ProjectTemplateCustomi
 			ArchetypeGenerationResult archetypeGenerationResult)
 		throws Exception {
 
-		NodeUtil.downloadNode();
+		JSWidgetProjectTemplatesArgsExt ext =
+			(JSWidgetProjectTemplatesArgsExt)projectTemplatesArgs.getProjectTemplatesArgsExt();
+
+		NodeUtil.downloadNode(ext.getArtifactCache());
 
 		NodeUtil.downloadYo();
 
@@ -70,9 +73,6 @@ public class JSWidgetProjectTemplateCustomizer implements ProjectTemplateCustomi
 		config = _replace(config, "[$OUTPUT_PATH$]", projectTemplatesArgs.getName());
 		config = _replace(config, "[$DESCRIPTION$]", projectTemplatesArgs.getName());
 
-		JSWidgetProjectTemplatesArgsExt ext =
-			(JSWidgetProjectTemplatesArgsExt)projectTemplatesArgs.getProjectTemplatesArgsExt();
-
 		String workspaceLocation = ext.getWorkspaceLocation();
 
 		if (workspaceLocation != null) {
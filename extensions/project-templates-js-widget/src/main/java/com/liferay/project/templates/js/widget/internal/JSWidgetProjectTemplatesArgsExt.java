@@ -16,13 +16,31 @@
 
 package com.liferay.project.templates.js.widget.internal;
 
+import com.liferay.blade.cli.ArtifactCache;
 import com.liferay.project.templates.extensions.ProjectTemplatesArgsExt;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /**
  * @author Christopher Bryan Boyd
  */
 public class JSWidgetProjectTemplatesArgsExt implements ProjectTemplatesArgsExt {
 
+	/**
+	 * Returns the artifact cache of the blade command creating the project,
+	 * or the default one when it was not given.
+	 */
+	public ArtifactCache getArtifactCache() {
+		if (_artifactCachePath == null) {
+			Path cachePath = Paths.get(System.getProperty("user.home"), ".blade", "cache");
+
+			return new ArtifactCache(cachePath.resolve("artifacts"));
+		}
+
+		return new ArtifactCache(Paths.get(_artifactCachePath), Boolean.parseBoolean(_offline));
+	}
+
 	public String getModulesLocation() {
 		return _modulesLocation;
 	}
@@ -36,15 +54,25 @@ public class JSWidgetProjectTemplatesArgsExt implements ProjectTemplatesArgsExt
 		return _workspaceLocation;
 	}
 
+	public void setArtifactCachePath(String artifactCachePath) {
+		_artifactCachePath = artifactCachePath;
+	}
+
 	public void setModulesLocation(String modulesLocation) {
 		_modulesLocation = modulesLocation;
 	}
 
+	public void setOffline(String offline) {
+		_offline = offline;
+	}
+
 	public void setWorkspaceLocation(String workspaceLocation) {
 		_workspaceLocation = workspaceLocation;
 	}
 
+	private String _artifactCachePath = null;
 	private String _modulesLocation = null;
+	private String _offline = null;
 	private String _workspaceLocation = null;
 
 }
\ No newline at end of file
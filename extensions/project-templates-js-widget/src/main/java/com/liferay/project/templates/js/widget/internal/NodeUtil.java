@@ -16,6 +16,7 @@
 
 package com.liferay.project.templates.js.widget.internal;
 
+import com.liferay.blade.cli.ArtifactCache;
 import com.liferay.blade.cli.util.BladeUtil;
 import com.liferay.blade.cli.util.FileUtil;
 
@@ -35,7 +36,7 @@ import java.util.stream.Stream;
  */
 public class NodeUtil {
 
-	public static Path downloadNode() throws IOException {
+	public static Path downloadNode(ArtifactCache artifactCache) throws IOException {
 		File userHome = new File(System.getProperty("user.home"));
 
 		Path userHomePath = userHome.toPath();
@@ -49,11 +50,7 @@ public class NodeUtil {
 
 			String nodeURL = getNodeURL();
 
-			Path downloadPath = bladeCachePath.resolve(nodeURL.substring(nodeURL.lastIndexOf("/") + 1));
-
-			if (!Files.exists(downloadPath)) {
-				BladeUtil.downloadLink(nodeURL, downloadPath);
-			}
+			Path downloadPath = artifactCache.get(nodeURL);
 
 			FileUtil.unpack(downloadPath, nodeCachePath, 1);
 
@@ -30,10 +30,40 @@ import com.liferay.blade.cli.command.BaseArgs;
 )
 public class RemoteDeployArgs extends BaseArgs {
 
+	public int getParallel() {
+		return _parallel;
+	}
+
+	public boolean isForce() {
+		return _force;
+	}
+
+	public boolean isForkGradle() {
+		return _forkGradle;
+	}
+
 	public boolean isWatch() {
 		return _watch;
 	}
 
+	@Parameter(
+		description = "Deploy every bundle, even if it is identical to the one that was last deployed.",
+		names = "--force"
+	)
+	private boolean _force;
+
+	@Parameter(
+		description = "Run each Gradle build in a new gradlew process instead of a Tooling API connection.",
+		names = "--fork-gradle"
+	)
+	private boolean _forkGradle;
+
+	@Parameter(
+		description = "The number of Gogo shell sessions used to deploy bundles that do not depend on each other.",
+		names = "--parallel"
+	)
+	private int _parallel = 1;
+
 	@Parameter(
 		description = "Watches the deployed file for changes and will automatically redeploy", names = {"-w", "--watch"}
 	)
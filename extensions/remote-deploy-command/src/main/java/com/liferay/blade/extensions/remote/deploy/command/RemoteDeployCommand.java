@@ -16,15 +16,14 @@
 
 package com.liferay.blade.extensions.remote.deploy.command;
 
-import aQute.bnd.header.Attrs;
-import aQute.bnd.osgi.Domain;
-
 import com.liferay.blade.cli.BladeCLI;
+import com.liferay.blade.cli.BundleArtifact;
+import com.liferay.blade.cli.BundleDeployScheduler;
+import com.liferay.blade.cli.DeployLedger;
 import com.liferay.blade.cli.LiferayBundleDeployer;
 import com.liferay.blade.cli.command.BaseArgs;
 import com.liferay.blade.cli.command.BaseCommand;
-import com.liferay.blade.cli.gradle.GradleExec;
-import com.liferay.blade.cli.gradle.GradleTooling;
+import com.liferay.blade.cli.gradle.GradleSession;
 import com.liferay.blade.cli.gradle.ProcessResult;
 import com.liferay.blade.cli.util.BladeUtil;
 import com.liferay.blade.cli.util.FileWatcher;
@@ -38,11 +37,14 @@ import java.net.URI;
 
 import java.nio.file.Path;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -61,8 +63,6 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 	public void execute() throws Exception {
 		BladeCLI bladeCLI = getBladeCLI();
 
-		GradleExec gradleExec = new GradleExec(bladeCLI);
-
 		RemoteDeployArgs deployArgs = getArgs();
 
 		File baseDir = new File(deployArgs.getBase());
@@ -94,15 +94,25 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 			return;
 		}
 
-		ProjectInfo projectInfo = GradleTooling.loadProjectInfo(baseDir.toPath());
+		Path ledgerPath = bladeCLI.getDeployLedgerPath(host, port);
 
-		Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
+		DeployLedger deployLedger = new DeployLedger(ledgerPath, deployArgs.isForce());
 
-		if (deployArgs.isWatch()) {
-			_deployWatch(gradleExec, projectOutputFiles, host, port);
-		}
-		else {
-			_deploy(gradleExec, projectOutputFiles, host, port);
+		BundleDeployScheduler bundleDeployScheduler = new BundleDeployScheduler(
+			() -> LiferayBundleDeployer.newInstance(host, port), deployArgs.getParallel(), bladeCLI.out(),
+			deployLedger);
+
+		try (GradleSession gradleSession = new GradleSession(bladeCLI, baseDir, deployArgs.isForkGradle())) {
+			ProjectInfo projectInfo = gradleSession.getProjectInfo();
+
+			Map<String, Set<File>> projectOutputFiles = projectInfo.getProjectOutputFiles();
+
+			if (deployArgs.isWatch()) {
+				_deployWatch(gradleSession, bundleDeployScheduler, projectOutputFiles, host, port);
+			}
+			else {
+				_deploy(gradleSession, bundleDeployScheduler, projectOutputFiles, host, port);
+			}
 		}
 	}
 
@@ -111,6 +121,24 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 		return RemoteDeployArgs.class;
 	}
 
+	private void _addDeployError(Exception e) {
+		String message = e.getMessage();
+
+		Class<?> exceptionClass = e.getClass();
+
+		if (message == null) {
+			message = "DeployCommand._deploy threw " + exceptionClass.getSimpleName();
+		}
+
+		_addError(message);
+
+		BladeCLI bladeCLI = getBladeCLI();
+
+		PrintStream error = bladeCLI.error();
+
+		e.printStackTrace(error);
+	}
+
 	private void _addError(String msg) {
 		getBladeCLI().addErrors("deploy", Collections.singleton(msg));
 	}
@@ -119,10 +147,12 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 		getBladeCLI().addErrors(prefix, Collections.singleton(msg));
 	}
 
-	private void _deploy(GradleExec gradle, Map<String, Set<File>> projectOutputFiles, String host, int port)
+	private void _deploy(
+			GradleSession gradleSession, BundleDeployScheduler bundleDeployScheduler,
+			Map<String, Set<File>> projectOutputFiles, String host, int port)
 		throws Exception {
 
-		ProcessResult processResult = gradle.executeTask("assemble -x check");
+		ProcessResult processResult = gradleSession.executeTask("assemble -x check");
 
 		int resultCode = processResult.getResultCode();
 
@@ -150,58 +180,69 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 
 		Stream<Set<File>> stream = values.stream();
 
-		stream.flatMap(
+		Collection<File> outputFiles = stream.flatMap(
 			files -> files.stream()
 		).filter(
 			File::exists
-		).forEach(
-			outputFile -> {
-				try {
-					_installOrUpdate(outputFile, host, port);
-				}
-				catch (Exception e) {
-					String message = e.getMessage();
+		).map(
+			File::getAbsoluteFile
+		).collect(
+			Collectors.toList()
+		);
 
-					Class<?> exceptionClass = e.getClass();
+		_deployOutputFiles(bundleDeployScheduler, outputFiles, host, port);
+	}
 
-					if (message == null) {
-						message = "DeployCommand._deploy threw " + exceptionClass.getSimpleName();
-					}
+	/**
+	 * Deploys the given output files. WARs are installed one at a time, while
+	 * bundles are handed to the scheduler together so that they are deployed
+	 * in dependency order and skipped when the ledger shows them unchanged.
+	 */
+	private void _deployOutputFiles(
+		BundleDeployScheduler bundleDeployScheduler, Collection<File> outputFiles, String host, int port) {
 
-					_addError(message);
+		BladeCLI bladeCLI = getBladeCLI();
 
-					PrintStream error = bladeCLI.error();
+		Collection<BundleArtifact> bundleArtifacts = new ArrayList<>();
 
-					e.printStackTrace(error);
-				}
-			}
-		);
-	}
+		for (File outputFile : outputFiles) {
+			try {
+				String name = outputFile.getName();
 
-	private void _deployBundle(File file, LiferayBundleDeployer client, Domain bundle, Map.Entry<String, Attrs> bsn)
-		throws Exception {
+				name = name.toLowerCase();
 
-		Map.Entry<String, Attrs> fragmentHost = bundle.getFragmentHost();
+				if (name.endsWith(".war")) {
+					try (LiferayBundleDeployer client = LiferayBundleDeployer.newInstance(host, port)) {
+						_deployWar(outputFile, client);
+					}
 
-		String hostBsn = null;
+					continue;
+				}
 
-		if (fragmentHost != null) {
-			hostBsn = fragmentHost.getKey();
-		}
+				BundleArtifact bundleArtifact = BundleArtifact.read(outputFile);
 
-		Collection<BundleDTO> bundles = client.getBundles();
+				if (bundleArtifact == null) {
+					bladeCLI.error("Unable to install or update " + outputFile.getName() + "as it is not a bundle.");
 
-		long existingId = client.getBundleId(bundles, bsn.getKey());
+					continue;
+				}
 
-		long hostId = client.getBundleId(bundles, hostBsn);
+				bundleArtifacts.add(bundleArtifact);
+			}
+			catch (Exception e) {
+				_addDeployError(e);
+			}
+		}
 
-		URI uri = file.toURI();
+		if (bundleArtifacts.isEmpty()) {
+			return;
+		}
 
-		if (existingId > 0) {
-			_reloadExistingBundle(client, fragmentHost, existingId, hostId, uri);
+		try {
+			bundleDeployScheduler.deploy(bundleArtifacts);
 		}
-		else {
-			_installNewBundle(client, bsn, fragmentHost, hostId, uri);
+		catch (Exception e) {
+			_addDeployError(e);
 		}
 	}
 
@@ -236,10 +277,11 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 	}
 
 	private void _deployWatch(
-			final GradleExec gradleExec, final Map<String, Set<File>> projectOutputFiles, String host, int port)
+			final GradleSession gradleSession, final BundleDeployScheduler bundleDeployScheduler,
+			final Map<String, Set<File>> projectOutputFiles, String host, int port)
 		throws Exception {
 
-		_deploy(gradleExec, projectOutputFiles, host, port);
+		_deploy(gradleSession, bundleDeployScheduler, projectOutputFiles, host, port);
 
 		Collection<Set<File>> values = projectOutputFiles.values();
 
@@ -255,55 +297,45 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 
 		BladeCLI bladeCLI = getBladeCLI();
 
-		new Thread() {
+		CompletableFuture<ProcessResult> continuousBuild = gradleSession.submitTask("assemble -x check -t", false);
 
-			@Override
-			public void run() {
-				try {
-					gradleExec.executeTask("assemble -x check -t");
+		continuousBuild.exceptionally(
+			throwable -> {
+				if (throwable instanceof CompletionException) {
+					throwable = throwable.getCause();
 				}
-				catch (Exception e) {
-					String message = e.getMessage();
 
-					if (message == null) {
-						message = "Gradle build task failed.";
-					}
-
-					_addError("deploy watch", message);
+				if (throwable instanceof CancellationException) {
+					return null;
+				}
 
-					PrintStream error = bladeCLI.error();
+				String message = throwable.getMessage();
 
-					e.printStackTrace(error);
+				if (message == null) {
+					message = "Gradle build task failed.";
 				}
-			}
-
-		}.start();
 
-		FileWatcher.Consumer<Path> consumer = new FileWatcher.Consumer<Path>() {
+				_addError("deploy watch", message);
 
-			@Override
-			public void consume(Path modified) {
-				try {
-					File file = modified.toFile();
+				PrintStream error = bladeCLI.error();
 
-					File modifiedFile = file.getAbsoluteFile();
+				throwable.printStackTrace(error);
 
-					if (outputPaths.contains(modifiedFile.toPath())) {
-						bladeCLI.out("installOrUpdate " + modifiedFile);
+				return null;
+			});
 
-						_installOrUpdate(modifiedFile, host, port);
-					}
-				}
-				catch (Exception e) {
-					String exceptionMessage = (e.getMessage() == null) ? "" : (System.lineSeparator() + e.getMessage());
+		FileWatcher.Consumer<Path> consumer = new FileWatcher.Consumer<Path>() {
 
-					String message = "Error: Bundle Insatllation failed: " + modified + exceptionMessage;
+			@Override
+			public void consume(Path modified) {
+				File file = modified.toFile();
 
-					_addError(message);
+				File modifiedFile = file.getAbsoluteFile();
 
-					PrintStream error = bladeCLI.error();
+				if (outputPaths.contains(modifiedFile.toPath())) {
+					bladeCLI.out("installOrUpdate " + modifiedFile);
 
-					e.printStackTrace(error);
+					_deployOutputFiles(bundleDeployScheduler, Collections.singleton(modifiedFile), host, port);
 				}
 			}
 
@@ -316,96 +348,4 @@ public class RemoteDeployCommand extends BaseCommand<RemoteDeployArgs> {
 		new FileWatcher(baseDir.toPath(), true, consumer);
 	}
 
-	private void _installNewBundle(
-			LiferayBundleDeployer client, Map.Entry<String, Attrs> bsn, Map.Entry<String, Attrs> fragmentHost,
-			long hostId, URI uri)
-		throws Exception {
-
-		BladeCLI bladeCLI = getBladeCLI();
-
-		PrintStream out = bladeCLI.out();
-
-		long installedId = client.install(uri);
-
-		out.println("Installed bundle " + installedId);
-
-		if ((fragmentHost != null) && (hostId > 0)) {
-			client.refresh(hostId);
-
-			out.println("Deployed fragment bundle " + installedId);
-		}
-		else {
-			long existingId = client.getBundleId(bsn.getKey());
-
-			try {
-				if (!Objects.equals(installedId, existingId)) {
-					out.println("Error: Bundle IDs do not match.");
-				}
-				else {
-					if (existingId > 1) {
-						client.start(existingId);
-
-						out.println("Started bundle " + installedId);
-					}
-					else {
-						out.println("Error: bundle failed to start: " + bsn);
-					}
-				}
-			}
-			catch (Exception e) {
-				String exceptionMessage = (e.getMessage() == null) ? "" : (System.lineSeparator() + e.getMessage());
-
-				String message = "Error: Bundle Deployment failed: " + bsn + exceptionMessage;
-
-				_addError("deploy watch", message);
-
-				PrintStream error = bladeCLI.error();
-
-				e.printStackTrace(error);
-			}
-		}
-	}
-
-	private void _installOrUpdate(File file, String host, int port) throws Exception {
-		file = file.getAbsoluteFile();
-
-		try (LiferayBundleDeployer client = LiferayBundleDeployer.newInstance(host, port)) {
-			String name = file.getName();
-
-			name = name.toLowerCase();
-
-			if (name.endsWith(".war")) {
-				_deployWar(file, client);
-			}
-			else {
-				Domain bundle = Domain.domain(file);
-
-				Map.Entry<String, Attrs> bsn = bundle.getBundleSymbolicName();
-
-				if (bsn != null) {
-					_deployBundle(file, client, bundle, bsn);
-				}
-				else {
-					getBladeCLI().error("Unable to install or update " + file.getName() + "as it is not a bundle.");
-				}
-			}
-		}
-	}
-
-	private final void _reloadExistingBundle(
-			LiferayBundleDeployer client, Map.Entry<String, Attrs> fragmentHost, long existingId, long hostId, URI uri)
-		throws Exception {
-
-		if ((fragmentHost != null) && (hostId > 0)) {
-			client.reloadFragment(existingId, hostId, uri);
-		}
-		else {
-			client.reloadBundle(existingId, uri);
-		}
-
-		PrintStream out = getBladeCLI().out();
-
-		out.println("Updated bundle " + existingId);
-	}
-
-}
\ No newline at end of file
+}